@@ -0,0 +1,44 @@
+package org.ton.ton4j.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ton.ton4j.address.Address;
+
+/** Parsing and formatting of raw and user-friendly addresses. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddressBenchmark {
+
+  private static final String RAW =
+      "0:83dfd552e63729b472fcbcc8c45ebcc6691702558b68ec7527e1ba403a0f31a8";
+  private static final String FRIENDLY = "EQCD39VS5jcptHL8vMjEXrzGaRcCVYto7HUn4bpAOg8xqB2N";
+
+  private final Address address = Address.of(RAW);
+
+  @Benchmark
+  public Address parseRaw() {
+    return Address.of(RAW);
+  }
+
+  @Benchmark
+  public Address parseUserFriendly() {
+    return Address.of(FRIENDLY);
+  }
+
+  @Benchmark
+  public String toBounceable() {
+    return address.toBounceable();
+  }
+}
@@ -0,0 +1,49 @@
+package org.ton.ton4j.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellSlice;
+import org.ton.ton4j.tlb.Block;
+
+/** TL-B deserialization and serialization of blocks. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockBenchmark {
+
+  @Param({Fixtures.BLOCK_SMALL, Fixtures.BLOCK_LARGE})
+  public String fixture;
+
+  private Cell cell;
+  private Block block;
+
+  @Setup
+  public void setUp() {
+    cell = Cell.fromBoc(Fixtures.load(fixture));
+    block = Block.deserialize(CellSlice.beginParse(cell));
+  }
+
+  @Benchmark
+  public Block deserialize() {
+    return Block.deserialize(CellSlice.beginParse(cell));
+  }
+
+  @Benchmark
+  public Cell serialize() {
+    return block.toCell();
+  }
+}
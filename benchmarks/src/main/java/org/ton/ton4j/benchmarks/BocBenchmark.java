@@ -0,0 +1,71 @@
+package org.ton.ton4j.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ton.ton4j.cell.Cell;
+
+/** Parsing, hashing and serialization of whole blocks. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BocBenchmark {
+
+  @Param({Fixtures.BLOCK_SMALL, Fixtures.BLOCK_LARGE})
+  public String fixture;
+
+  private byte[] boc;
+  private Cell cell;
+
+  @Setup
+  public void setUp() {
+    boc = Fixtures.load(fixture);
+    cell = Cell.fromBoc(boc);
+  }
+
+  @Benchmark
+  public Cell parse() {
+    return Cell.fromBoc(boc);
+  }
+
+  @Benchmark
+  public Cell parseByteBuffer() {
+    return Cell.fromBoc(ByteBuffer.wrap(boc));
+  }
+
+  /** Parsing with deferred hashes followed by hashing the whole tree. */
+  @Benchmark
+  public byte[] parseAndHash() {
+    return Cell.fromBoc(ByteBuffer.wrap(boc), true).getHash();
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return cell.toBoc(true);
+  }
+
+  @Benchmark
+  public byte[] serializeWithIndex() {
+    return cell.toBoc(true, true, true);
+  }
+
+  @Benchmark
+  public void serializeToStream() throws IOException {
+    cell.writeBoc(OutputStream.nullOutputStream());
+  }
+}
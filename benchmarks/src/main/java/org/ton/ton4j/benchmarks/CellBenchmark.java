@@ -0,0 +1,74 @@
+package org.ton.ton4j.benchmarks;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellBuilder;
+import org.ton.ton4j.cell.CellSlice;
+
+/** Building, hashing and reading of a single cell with typical message header fields. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellBenchmark {
+
+  private Cell cell;
+
+  @Setup
+  public void setUp() {
+    cell = build();
+  }
+
+  @Benchmark
+  public Cell build() {
+    return CellBuilder.beginCell()
+        .storeUint(0x0f8a7ea5, 32)
+        .storeUint(1234567890123L, 64)
+        .storeCoins(BigInteger.valueOf(1_000_000_000L))
+        .storeUint(7, 3)
+        .storeInt(-1, 8)
+        .storeBytes(new byte[32])
+        .endCell();
+  }
+
+  @Benchmark
+  public void loadPrimitives(Blackhole bh) {
+    CellSlice cs = CellSlice.beginParse(cell);
+    bh.consume(cs.loadUintAsLong(32));
+    bh.consume(cs.loadUintAsLong(64));
+    bh.consume(cs.loadCoinsAsLong());
+    bh.consume(cs.loadUintAsInt(3));
+    bh.consume(cs.loadIntAsInt(8));
+    bh.consume(cs.loadBytes(256));
+  }
+
+  @Benchmark
+  public void loadBigIntegers(Blackhole bh) {
+    CellSlice cs = CellSlice.beginParse(cell);
+    bh.consume(cs.loadUint(32));
+    bh.consume(cs.loadUint(64));
+    bh.consume(cs.loadCoins());
+    bh.consume(cs.loadUint(3));
+    bh.consume(cs.loadInt(8));
+    bh.consume(cs.loadBytes(256));
+  }
+
+  @Benchmark
+  public void hash() {
+    cell.calculateHashes();
+  }
+}
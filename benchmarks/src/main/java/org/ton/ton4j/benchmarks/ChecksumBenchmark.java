@@ -0,0 +1,63 @@
+package org.ton.ton4j.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Checksum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ton.ton4j.utils.Utils;
+
+/**
+ * CRC32C of BoCs and CRC16 used by addresses and ADNL, over sizes from 1 KB to 100 MB, roughly a
+ * message, a block and a shard state. Random bytes are used, checksums do not depend on content.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChecksumBenchmark {
+
+  @Param({"1024", "65536", "1048576", "16777216", "104857600"})
+  public int size;
+
+  private byte[] data;
+  private ByteBuffer direct;
+
+  @Setup
+  public void setUp() {
+    data = new byte[size];
+    new Random(size).nextBytes(data);
+    direct = ByteBuffer.allocateDirect(size);
+    direct.put(data).flip();
+  }
+
+  @Benchmark
+  public long crc32c() {
+    return Utils.getCRC32ChecksumAsLong(data, 0, data.length);
+  }
+
+  /** BoC parsed from a memory-mapped file or a direct buffer. */
+  @Benchmark
+  public long crc32cDirectBuffer() {
+    return Utils.getCRC32ChecksumAsLong(direct);
+  }
+
+  @Benchmark
+  public long crc16() {
+    Checksum checksum = Utils.newCRC16Checksum();
+    checksum.update(data, 0, data.length);
+    return checksum.getValue();
+  }
+}
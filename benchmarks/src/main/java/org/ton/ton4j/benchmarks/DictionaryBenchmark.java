@@ -0,0 +1,64 @@
+package org.ton.ton4j.benchmarks;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellBuilder;
+import org.ton.ton4j.cell.CellSlice;
+import org.ton.ton4j.cell.TonHashMapE;
+
+/** Store and load of a dictionary with 256-bit keys, like account dictionaries of a shard. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DictionaryBenchmark {
+
+  private static final int KEY_SIZE = 256;
+
+  @Param({"100", "10000"})
+  public int size;
+
+  private TonHashMapE dict;
+  private Cell dictCell;
+
+  @Setup
+  public void setUp() {
+    dict = new TonHashMapE(KEY_SIZE);
+    for (int i = 0; i < size; i++) {
+      // spread keys like account addresses
+      BigInteger key = BigInteger.valueOf(i).multiply(BigInteger.valueOf(0x9E3779B97F4A7C15L).abs());
+      dict.elements.put(key.shiftLeft(128), BigInteger.valueOf(i));
+    }
+    dictCell = store();
+  }
+
+  @Benchmark
+  public Cell store() {
+    Cell root =
+        dict.serialize(
+            k -> CellBuilder.beginCell().storeUint((BigInteger) k, KEY_SIZE).endCell().getBits(),
+            v -> CellBuilder.beginCell().storeUint((BigInteger) v, 64).endCell());
+    return CellBuilder.beginCell().storeDict(root).endCell();
+  }
+
+  @Benchmark
+  public TonHashMapE load() {
+    return CellSlice.beginParse(dictCell)
+        .loadDictE(
+            KEY_SIZE, k -> k.readUint(KEY_SIZE), v -> CellSlice.beginParse(v).loadUint(64));
+  }
+}
@@ -0,0 +1,32 @@
+package org.ton.ton4j.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/**
+ * BoC fixtures shipped with the benchmarks. Blocks are taken from mainnet and are the same as used
+ * by tlb tests.
+ */
+final class Fixtures {
+
+  /** Masterchain block, 11 KB. */
+  static final String BLOCK_SMALL = "block-small";
+
+  /** Basechain block with many transactions, 420 KB. */
+  static final String BLOCK_LARGE = "block-large";
+
+  private Fixtures() {}
+
+  static byte[] load(String name) {
+    String path = "fixtures/" + name + ".boc";
+    try (InputStream in =
+        Objects.requireNonNull(
+            Fixtures.class.getClassLoader().getResourceAsStream(path), "no fixture " + path)) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package org.ton.ton4j.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellBuilder;
+
+/**
+ * Serialization of a state of about 100k cells: 3-ary tree of depth 10 where every node also
+ * refers to one of 16384 shared cells, and the first 1000 leaves refer to the cells of a chain in
+ * reverse order. Shared cells are reached first from upper levels and referenced from deeper ones
+ * as well, chain cells are reached before the cells referring to them, so breadth-first order has
+ * to be fixed up, for the chain one link at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateBocBenchmark {
+
+  private static final int DEPTH = 10;
+  private static final int SHARED_CELLS = 16384;
+  private static final int CHAIN_CELLS = 1000;
+
+  private Cell state;
+  private byte[] boc;
+
+  @Setup
+  public void setUp() {
+    List<Cell> shared = new ArrayList<>(SHARED_CELLS);
+    for (int i = 0; i < SHARED_CELLS; i++) {
+      shared.add(CellBuilder.beginCell().storeUint(i, 64).storeUint(i % 100, 7).endCell());
+    }
+    List<Cell> chain = new ArrayList<>(CHAIN_CELLS);
+    Cell link = CellBuilder.beginCell().storeUint(CHAIN_CELLS, 32).endCell();
+    for (int i = CHAIN_CELLS - 1; i >= 0; i--) {
+      link = CellBuilder.beginCell().storeUint(i, 32).storeRef(link).endCell();
+      chain.add(link);
+    }
+    state = buildState(DEPTH, shared, chain, new int[2]);
+    boc = state.toBoc(true, true, true);
+  }
+
+  /** counter[0] numbers all nodes, counter[1] leaves */
+  private static Cell buildState(int depth, List<Cell> shared, List<Cell> chain, int[] counter) {
+    int n = counter[0]++;
+    CellBuilder cb = CellBuilder.beginCell().storeUint(n, 256).storeUint(depth, 8);
+    if (depth > 0) {
+      for (int i = 0; i < 3; i++) {
+        cb.storeRef(buildState(depth - 1, shared, chain, counter));
+      }
+    } else if (counter[1] < chain.size()) {
+      // chain was collected from its end, so the first leaf refers to the last link
+      cb.storeRef(chain.get(counter[1]++));
+    }
+    cb.storeRef(shared.get(n % SHARED_CELLS));
+    return cb.endCell();
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return state.toBoc(true, true, true);
+  }
+
+  @Benchmark
+  public Cell parse() {
+    return Cell.fromBoc(boc);
+  }
+}
@@ -0,0 +1,60 @@
+package org.ton.ton4j.benchmarks;
+
+import com.iwebpp.crypto.TweetNaclFast;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ton.ton4j.address.Address;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.smartcontract.types.WalletV4R2Config;
+import org.ton.ton4j.smartcontract.wallet.v4.WalletV4R2;
+import org.ton.ton4j.utils.Utils;
+
+/** Building of a signed external transfer message of wallet v4r2, without sending it. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalletBenchmark {
+
+  private WalletV4R2 wallet;
+  private WalletV4R2Config config;
+
+  @Setup
+  public void setUp() {
+    TweetNaclFast.Signature.KeyPair keyPair =
+        Utils.generateSignatureKeyPairFromSeed(new byte[32]);
+    wallet = WalletV4R2.builder().keyPair(keyPair).walletId(42).build();
+    config =
+        WalletV4R2Config.builder()
+            .walletId(42)
+            .seqno(1)
+            .validUntil(1_900_000_000L)
+            .destination(
+                Address.of("0:83dfd552e63729b472fcbcc8c45ebcc6691702558b68ec7527e1ba403a0f31a8"))
+            .amount(BigInteger.valueOf(1_000_000_000L))
+            .comment("benchmark")
+            .build();
+  }
+
+  @Benchmark
+  public Cell transferBody() {
+    return wallet.createTransferBody(config);
+  }
+
+  @Benchmark
+  public byte[] signedExternalMessage() {
+    return wallet.prepareExternalMsg(config).toCell().toBoc();
+  }
+}
@@ -4,40 +4,46 @@ import static java.util.Objects.isNull;
 
 import java.io.Serializable;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.BitSet;
 import java.util.List;
 import java.util.logging.Logger;
 import org.ton.ton4j.address.Address;
 import org.ton.ton4j.utils.Utils;
 
 /**
- * Each element is one bit in memory. Implementation uses Java's BitSet for efficient bit
- * manipulation.
+ * Each element is one bit in memory. Bits are packed MSB-first into a long[], so bit 0 is the
+ * highest bit of the first word. Multi-bit reads and writes of up to 64 bits touch at most two
+ * words and do not allocate; the BigInteger based API is a thin layer on top of them.
  */
 public class BitString implements Serializable {
   private static final Logger log = Logger.getLogger(BitString.class.getName());
-  private BitSet bitSet;
+  private static final long[] EMPTY_WORDS = new long[0];
+
+  private long[] words;
   public int writeCursor;
   public int readCursor;
   public int length;
 
   public BitString() {
-    bitSet = new BitSet(1023);
+    words = new long[wordsFor(1023)];
     writeCursor = 0;
     readCursor = 0;
     length = 1023;
   }
 
   public BitString(BitString bs) {
-    bitSet = new BitSet();
+    int n = bs.writeCursor - bs.readCursor;
+    words = new long[wordsFor(Math.max(n, 0))];
     writeCursor = 0;
     readCursor = 0;
     length = bs.length;
-    for (int i = bs.readCursor; i < bs.writeCursor; i++) {
-      writeBit(bs.get(i));
+    if (n > 0) {
+      bs.checkRange(bs.readCursor, n);
+      copyFrom(bs, bs.readCursor, n);
     }
   }
 
@@ -47,7 +53,7 @@ public class BitString implements Serializable {
    * @param length int length of BitString in bits
    */
   public BitString(int length) {
-    bitSet = new BitSet(length);
+    words = new long[wordsFor(length)];
     writeCursor = 0;
     readCursor = 0;
     this.length = length;
@@ -59,80 +65,163 @@ public class BitString implements Serializable {
    * @param bytes byte[] array of bytes
    */
   public BitString(byte[] bytes) {
-    this(Utils.signedBytesToUnsigned(bytes));
+    length = bytes.length * 8;
+    words = new long[wordsFor(length)];
+    writeCursor = 0;
+    readCursor = 0;
+    writeBytes(bytes, 0, length);
   }
 
   /**
-   * Create BitString from byte array with specified size using BitSet methods
+   * Create BitString from byte array with specified size
    *
    * @param bytes byte[] array of bytes
    * @param size int number of bits to read
    */
   public BitString(byte[] bytes, int size) {
     if (bytes.length == 0) {
-      bitSet = new BitSet(0);
+      words = EMPTY_WORDS;
       writeCursor = 0;
       readCursor = 0;
       length = 0;
     } else {
       length = size;
-      bitSet = new BitSet(length);
+      words = new long[wordsFor(length)];
       writeCursor = 0;
       readCursor = 0;
+      writeBytes(bytes, 0, Math.min(bytes.length * 8, size));
+    }
+  }
 
-      // Calculate how many complete bytes we can process
-      int bytesToProcess = Math.min(bytes.length, (size + 7) / 8);
-
-      for (int i = 0; i < bytesToProcess; i++) {
-        int value = bytes[i] & 0xFF; // Ensure we treat the value as unsigned byte
-        for (int j = 0; j < 8; j++) {
-          // Check if we've reached the size limit
-          if (writeCursor >= size) {
-            break;
-          }
-
-          // Check if the bit at position j (from MSB) is set
-          boolean bitValue = ((value >> (7 - j)) & 1) == 1;
-          if (bitValue) {
-            bitSet.set(writeCursor);
-          } else {
-            bitSet.clear(writeCursor);
-          }
-          writeCursor++;
-        }
-      }
+  /**
+   * Create BitString from size bits stored in the buffer starting at absolute byte offset. The
+   * buffer's position and limit are not changed.
+   *
+   * @param buffer ByteBuffer heap, direct or mapped buffer
+   * @param offset int absolute offset of the first byte
+   * @param size int number of bits to read
+   */
+  public BitString(ByteBuffer buffer, int offset, int size) {
+    length = size;
+    words = new long[wordsFor(size)];
+    writeCursor = 0;
+    readCursor = 0;
+    boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+    int i = offset;
+    int n = size;
+    while (n >= 64) {
+      long v = buffer.getLong(i);
+      writeBitsLong(bigEndian ? v : Long.reverseBytes(v), 64);
+      i += 8;
+      n -= 64;
+    }
+    while (n >= 8) {
+      writeBitsLong(buffer.get(i++) & 0xFFL, 8);
+      n -= 8;
+    }
+    if (n > 0) {
+      writeBitsLong((buffer.get(i) & 0xFFL) >>> (8 - n), n);
     }
   }
 
   /**
-   * Create BitString from int array using BitSet methods
+   * Create BitString from int array
    *
    * @param bytes int[] array of bytes
    */
   public BitString(int[] bytes) {
     if (bytes.length == 0) {
-      bitSet = new BitSet();
+      words = EMPTY_WORDS;
       writeCursor = 0;
       readCursor = 0;
       length = 0;
     } else {
       length = bytes.length * 8;
-      bitSet = new BitSet(length);
+      words = new long[wordsFor(length)];
       writeCursor = 0;
       readCursor = 0;
+      writeBytes(bytes);
+    }
+  }
+
+  private static int wordsFor(int bits) {
+    return (bits + 63) >>> 6;
+  }
+
+  /** Grows the backing array so that bits [0, bits) are addressable. */
+  private void ensureCapacity(int bits) {
+    int required = wordsFor(bits);
+    if (required > words.length) {
+      words = Arrays.copyOf(words, Math.max(required, words.length * 2));
+    }
+  }
+
+  /**
+   * Returns n (1..64) bits starting at position pos, right-aligned. Bits outside the backing array
+   * are read as zeros, no range checks are performed.
+   */
+  private long peekBits(int pos, int n) {
+    int wi = pos >>> 6;
+    int off = pos & 63;
+    long hi = wi < words.length ? words[wi] << off : 0;
+    if (off + n > 64 && wi + 1 < words.length) {
+      hi |= words[wi + 1] >>> (64 - off);
+    }
+    return hi >>> (64 - n);
+  }
+
+  /** Stores the lowest n (1..64) bits of value at position pos, growing storage if needed. */
+  private void pokeBits(int pos, long value, int n) {
+    ensureCapacity(pos + n);
+    int wi = pos >>> 6;
+    int off = pos & 63;
+    long mask = -1L << (64 - n);
+    long v = (value << (64 - n)) & mask;
+    words[wi] = (words[wi] & ~(mask >>> off)) | (v >>> off);
+    if (off + n > 64) {
+      int shift = 64 - off;
+      words[wi + 1] = (words[wi + 1] & ~(mask << shift)) | (v << shift);
+    }
+  }
+
+  private boolean bitAt(int n) {
+    int wi = n >>> 6;
+    return wi < words.length && (words[wi] & (1L << (63 - (n & 63)))) != 0;
+  }
 
-      for (int aByte : bytes) {
-        int value = aByte & 0xFF; // Ensure we treat the value as unsigned byte
+  /** Appends n bits of another BitString starting at srcPos, 64 bits at a time. */
+  private void copyFrom(BitString src, int srcPos, int n) {
+    while (n > 0) {
+      int chunk = Math.min(64, n);
+      writeBitsLong(src.peekBits(srcPos, chunk), chunk);
+      srcPos += chunk;
+      n -= chunk;
+    }
+  }
+
+  /** Appends n bits of a big-endian byte array starting at bit offset srcBitPos. */
+  private void writeBytes(byte[] src, int srcBitPos, int n) {
+    if ((srcBitPos & 7) == 0) {
+      int i = srcBitPos >>> 3;
+      while (n >= 64) {
+        long v = 0;
         for (int j = 0; j < 8; j++) {
-          // Check if the bit at position j (from MSB) is set
-          boolean bitValue = ((value >> (7 - j)) & 1) == 1;
-          if (bitValue) {
-            bitSet.set(writeCursor);
-          } else {
-            bitSet.clear(writeCursor);
-          }
-          writeCursor++;
+          v = (v << 8) | (src[i++] & 0xFFL);
         }
+        writeBitsLong(v, 64);
+        n -= 64;
+      }
+      while (n >= 8) {
+        writeBitsLong(src[i++] & 0xFFL, 8);
+        n -= 8;
+      }
+      if (n > 0) {
+        writeBitsLong((src[i] & 0xFFL) >>> (8 - n), n);
+      }
+    } else {
+      for (int i = 0; i < n; i++) {
+        int p = srcBitPos + i;
+        writeBit(((src[p >>> 3] >>> (7 - (p & 7))) & 1) == 1);
       }
     }
   }
@@ -159,7 +248,7 @@ public class BitString implements Serializable {
    * @return int
    */
   public int getUsedBytes() {
-    return (int) Math.ceil(writeCursor / (double) 8);
+    return (writeCursor + 7) / 8;
   }
 
   /**
@@ -170,7 +259,10 @@ public class BitString implements Serializable {
    */
   public Boolean get(int n) {
     checkRange(n);
-    return bitSet.get(n);
+    if (n < 0) {
+      throw new IndexOutOfBoundsException("bitIndex < 0: " + n);
+    }
+    return bitAt(n);
   }
 
   /**
@@ -184,16 +276,27 @@ public class BitString implements Serializable {
     }
   }
 
+  /**
+   * Check if bits at positions [from, from + count) are reachable
+   *
+   * @param from int first bit position
+   * @param count int number of bits
+   */
+  private void checkRange(int from, int count) {
+    if (from + count > length) {
+      checkRange(Math.max(from, length));
+    }
+  }
+
   /**
    * Set bit value to 1 at position n
    *
    * @param n int
    */
   void on(int n) {
-    try {
-      bitSet.set(n);
-    } catch (Exception e) {
-      // ignore
+    if (n >= 0) {
+      ensureCapacity(n + 1);
+      words[n >>> 6] |= 1L << (63 - (n & 63));
     }
   }
 
@@ -203,10 +306,8 @@ public class BitString implements Serializable {
    * @param n int
    */
   void off(int n) {
-    try {
-      bitSet.clear(n);
-    } catch (Exception e) {
-      // ignore
+    if (n >= 0 && (n >>> 6) < words.length) {
+      words[n >>> 6] &= ~(1L << (63 - (n & 63)));
     }
   }
 
@@ -216,10 +317,9 @@ public class BitString implements Serializable {
    * @param n int
    */
   void toggle(int n) {
-    try {
-      bitSet.flip(n);
-    } catch (Exception e) {
-      // ignore
+    if (n >= 0) {
+      ensureCapacity(n + 1);
+      words[n >>> 6] ^= 1L << (63 - (n & 63));
     }
   }
 
@@ -279,8 +379,37 @@ public class BitString implements Serializable {
    * @param b String containing '0' and '1' characters
    */
   public void writeBits(String b) {
-    for (Character c : b.toCharArray()) {
-      writeBit(c == '1');
+    for (int i = 0; i < b.length(); i++) {
+      writeBit(b.charAt(i) == '1');
+    }
+  }
+
+  /**
+   * Write lowest bitLength bits of the value as is, without any range checks. Used by the
+   * primitive write methods.
+   *
+   * @param value long
+   * @param bitLength int number of bits, 0..64
+   */
+  private void writeBitsLong(long value, int bitLength) {
+    if (bitLength == 0) {
+      return;
+    }
+    pokeBits(writeCursor, value, bitLength);
+    writeCursor += bitLength;
+  }
+
+  /** Write count zero bits */
+  private void writeZeros(int count) {
+    writeFill(0L, count);
+  }
+
+  /** Write count bits taken from fill, which is 0 or -1, 64 bits at a time */
+  private void writeFill(long fill, int count) {
+    while (count > 0) {
+      int chunk = Math.min(64, count);
+      writeBitsLong(fill, chunk);
+      count -= chunk;
     }
   }
 
@@ -291,25 +420,30 @@ public class BitString implements Serializable {
    * @param bitLength int size of uint in bits
    */
   public void writeUint(BigInteger number, int bitLength) {
-    if (number.compareTo(BigInteger.ZERO) < 0) {
+    if (number.signum() < 0) {
       throw new Error("Unsigned number cannot be less than 0");
     }
     if (bitLength == 0 || (number.bitLength() > bitLength)) {
-      if (number.compareTo(BigInteger.ZERO) == 0) {
+      if (number.signum() == 0) {
         return;
       }
       throw new Error(
           "bitLength is too small for number, got number=" + number + ", bitLength=" + bitLength);
     }
 
-    String s = number.toString(2);
-
-    if (s.length() != bitLength) {
-      s = repeatZeros(bitLength - s.length()) + s;
+    if (bitLength <= 64) {
+      writeBitsLong(number.longValue(), bitLength);
+      return;
     }
 
-    for (int i = 0; i < bitLength; i++) {
-      writeBit(s.charAt(i) == '1');
+    // toByteArray() is big-endian with an optional leading sign byte, which is zero here
+    byte[] magnitude = number.toByteArray();
+    int magnitudeBits = magnitude.length * 8;
+    if (magnitudeBits >= bitLength) {
+      writeBytes(magnitude, magnitudeBits - bitLength, bitLength);
+    } else {
+      writeZeros(bitLength - magnitudeBits);
+      writeBytes(magnitude, 0, magnitudeBits);
     }
   }
 
@@ -326,7 +460,52 @@ public class BitString implements Serializable {
    * @param bitLength size of uint in bits
    */
   public void writeUint(long number, int bitLength) {
-    writeUint(BigInteger.valueOf(number), bitLength);
+    writeUintLong(number, bitLength);
+  }
+
+  /**
+   * Write unsigned int without BigInteger allocation
+   *
+   * @param number non-negative value
+   * @param bitLength size of uint in bits, up to 64
+   */
+  public void writeUintLong(long number, int bitLength) {
+    if (number < 0) {
+      throw new Error("Unsigned number cannot be less than 0");
+    }
+    if (bitLength == 0 || (64 - Long.numberOfLeadingZeros(number)) > bitLength) {
+      if (number == 0) {
+        return;
+      }
+      throw new Error(
+          "bitLength is too small for number, got number=" + number + ", bitLength=" + bitLength);
+    }
+    if (bitLength > 64) {
+      writeZeros(bitLength - 64);
+      bitLength = 64;
+    }
+    writeBitsLong(number, bitLength);
+  }
+
+  /**
+   * Write signed int without BigInteger allocation
+   *
+   * @param number value
+   * @param bitLength size of int in bits, up to 64
+   */
+  public void writeIntLong(long number, int bitLength) {
+    if (bitLength < 1
+        || (bitLength < 64
+            && (number < -(1L << (bitLength - 1)) || number >= (1L << (bitLength - 1))))) {
+      writeInt(BigInteger.valueOf(number), bitLength);
+      return;
+    }
+    if (bitLength > 64) {
+      // sign extension may be longer than 64 bits, e.g. int257
+      writeFill(number < 0 ? -1L : 0L, bitLength - 64);
+      bitLength = 64;
+    }
+    writeBitsLong(number, bitLength);
   }
 
   /**
@@ -347,6 +526,11 @@ public class BitString implements Serializable {
       }
       throw new Error("bitLength is too small for number");
     } else {
+      if (bitLength > 1 && bitLength <= 64 && number.bitLength() < bitLength) {
+        // fits into two's complement representation of bitLength bits
+        writeBitsLong(number.longValue(), bitLength);
+        return;
+      }
       if (number.signum() == -1) {
         writeBit(true);
         BigInteger b = BigInteger.valueOf(2);
@@ -365,7 +549,7 @@ public class BitString implements Serializable {
    * @param ui8 int
    */
   public void writeUint8(int ui8) {
-    writeUint(BigInteger.valueOf(ui8), 8);
+    writeUintLong(ui8, 8);
   }
 
   /**
@@ -374,9 +558,7 @@ public class BitString implements Serializable {
    * @param ui8 byte[]
    */
   public void writeBytes(byte[] ui8) {
-    for (byte b : ui8) {
-      writeUint8(b & 0xff);
-    }
+    writeBytes(ui8, 0, ui8.length * 8);
   }
 
   /**
@@ -407,14 +589,14 @@ public class BitString implements Serializable {
       throw new Error("Coins value must be positive.");
     }
 
-    if (amount.compareTo(BigInteger.ZERO) == 0) {
-      writeUint(BigInteger.ZERO, 4);
+    if (amount.signum() == 0) {
+      writeBitsLong(0, 4);
     } else {
-      int bytesSize = (int) Math.ceil((amount.bitLength() / (double) 8));
+      int bytesSize = (amount.bitLength() + 7) / 8;
       if (bytesSize >= 16) {
         throw new Error("Amount is too big. Maximum amount 2^120-1");
       }
-      writeUint(BigInteger.valueOf(bytesSize), 4);
+      writeBitsLong(bytesSize, 4);
       writeUint(amount, bytesSize * 8);
     }
   }
@@ -427,7 +609,7 @@ public class BitString implements Serializable {
    */
   public void writeVarUint(BigInteger value, int valueBits) {
     int bytesSize = (value.bitLength() + 7) / 8;
-    writeUint(BigInteger.valueOf(bytesSize), BigInteger.valueOf(valueBits - 1).bitLength());
+    writeUintLong(bytesSize, 32 - Integer.numberOfLeadingZeros(valueBits - 1));
     writeUint(value, bytesSize * 8);
   }
 
@@ -443,7 +625,7 @@ public class BitString implements Serializable {
     } else {
       writeUint(2, 2);
       writeUint(0, 1);
-      writeInt(BigInteger.valueOf(address.wc), 8);
+      writeIntLong(address.wc, 8);
       writeBytes(address.hashPart);
     }
   }
@@ -454,8 +636,10 @@ public class BitString implements Serializable {
    * @param anotherBitString BitString
    */
   public void writeBitString(BitString anotherBitString) {
-    for (int i = anotherBitString.readCursor; i < anotherBitString.writeCursor; i++) {
-      writeBit(anotherBitString.get(i));
+    int n = anotherBitString.writeCursor - anotherBitString.readCursor;
+    if (n > 0) {
+      anotherBitString.checkRange(anotherBitString.readCursor, n);
+      copyFrom(anotherBitString, anotherBitString.readCursor, n);
     }
   }
 
@@ -486,12 +670,9 @@ public class BitString implements Serializable {
    * @return BitString with length n read from original BitString
    */
   public BitString preReadBits(int n) {
-    int oldReadCursor = readCursor;
+    checkRange(readCursor, n);
     BitString result = new BitString(n);
-    for (int i = 0; i < n; i++) {
-      result.writeBit(readBit());
-    }
-    readCursor = oldReadCursor;
+    result.copyFrom(this, readCursor, n);
     return result;
   }
 
@@ -502,10 +683,8 @@ public class BitString implements Serializable {
    * @return BitString with length n read from original BitString
    */
   public BitString readBits(int n) {
-    BitString result = new BitString(n);
-    for (int i = 0; i < n; i++) {
-      result.writeBit(readBit());
-    }
+    BitString result = preReadBits(n);
+    readCursor += Math.max(n, 0);
     return result;
   }
 
@@ -516,8 +695,11 @@ public class BitString implements Serializable {
    */
   public BitString readBits() {
     BitString result = new BitString();
-    for (int i = readCursor; i < writeCursor; i++) {
-      result.writeBit(readBit());
+    int n = writeCursor - readCursor;
+    if (n > 0) {
+      checkRange(readCursor, n);
+      result.copyFrom(this, readCursor, n);
+      readCursor += n;
     }
     return result;
   }
@@ -530,21 +712,47 @@ public class BitString implements Serializable {
    */
   public BigInteger preReadUint(int bitLength) {
     int oldReadCursor = readCursor;
+    BigInteger result = readUint(bitLength);
+    readCursor = oldReadCursor;
+    return result;
+  }
 
-    if (bitLength < 1) {
+  /**
+   * Read unsigned int of up to 64 bits without moving readCursor
+   *
+   * @param bitLength int size of uint in bits, 1..64
+   * @return long, for 64 bits the result should be treated as unsigned
+   */
+  public long preReadUintLong(int bitLength) {
+    if (bitLength < 1 || bitLength > 64) {
       throw new Error("Incorrect bitLength");
     }
-    StringBuilder s = new StringBuilder();
-    for (int i = 0; i < bitLength; i++) {
-      boolean b = readBit();
-      if (b) {
-        s.append("1");
-      } else {
-        s.append("0");
-      }
-    }
-    readCursor = oldReadCursor;
-    return new BigInteger(s.toString(), 2);
+    checkRange(readCursor, bitLength);
+    return peekBits(readCursor, bitLength);
+  }
+
+  /**
+   * Read unsigned int of up to 64 bits without BigInteger allocation
+   *
+   * @param bitLength int size of uint in bits, 1..64
+   * @return long, for 64 bits the result should be treated as unsigned
+   */
+  public long readUintLong(int bitLength) {
+    long result = preReadUintLong(bitLength);
+    readCursor += bitLength;
+    return result;
+  }
+
+  /**
+   * Read signed int of up to 64 bits without BigInteger allocation
+   *
+   * @param bitLength int size of signed int in bits, 1..64
+   * @return long
+   */
+  public long readIntLong(int bitLength) {
+    long result = readUintLong(bitLength);
+    int shift = 64 - bitLength;
+    return (result << shift) >> shift;
   }
 
   /**
@@ -557,16 +765,21 @@ public class BitString implements Serializable {
     if (bitLength < 1) {
       throw new Error("Incorrect bitLength");
     }
-    StringBuilder s = new StringBuilder();
-    for (int i = 0; i < bitLength; i++) {
-      boolean b = readBit();
-      if (b) {
-        s.append("1");
-      } else {
-        s.append("0");
-      }
+    if (bitLength < 64) {
+      return BigInteger.valueOf(readUintLong(bitLength));
+    }
+    checkRange(readCursor, bitLength);
+    // right-aligned big-endian magnitude, the first byte holds the remainder bits
+    byte[] magnitude = new byte[(bitLength + 7) / 8];
+    int head = bitLength - (magnitude.length - 1) * 8;
+    magnitude[0] = (byte) peekBits(readCursor, head);
+    int pos = readCursor + head;
+    for (int i = 1; i < magnitude.length; i++) {
+      magnitude[i] = (byte) peekBits(pos, 8);
+      pos += 8;
     }
-    return new BigInteger(s.toString(), 2);
+    readCursor += bitLength;
+    return new BigInteger(1, magnitude);
   }
 
   /**
@@ -579,17 +792,13 @@ public class BitString implements Serializable {
     if (bitLength < 1) {
       throw new Error("Incorrect bitLength");
     }
-
-    boolean sign = readBit();
-    if (bitLength == 1) {
-      return sign ? new BigInteger("-1") : BigInteger.ZERO;
+    if (bitLength <= 64) {
+      return BigInteger.valueOf(readIntLong(bitLength));
     }
 
-    BigInteger number = readUint(bitLength - 1);
-    if (sign) {
-      BigInteger b = BigInteger.valueOf(2);
-      BigInteger nb = b.pow(bitLength - 1);
-      number = number.subtract(nb);
+    BigInteger number = readUint(bitLength);
+    if (number.testBit(bitLength - 1)) {
+      number = number.subtract(BigInteger.ONE.shiftLeft(bitLength));
     }
     return number;
   }
@@ -627,18 +836,17 @@ public class BitString implements Serializable {
   }
 
   public Address readAddress() {
-    BigInteger i = preReadUint(2);
-    if (i.intValue() == 0) {
+    long i = preReadUintLong(2);
+    if (i == 0) {
       readBits(2);
       return null;
     }
     readBits(2);
     readBits(1);
-    int workchain = readInt(8).intValue();
-    BigInteger hashPart = readUint(256);
+    int workchain = (int) readIntLong(8);
+    byte[] hashPart = readBytes(256);
 
-    String address =
-        workchain + ":" + String.format("%64s", hashPart.toString(16)).replace(' ', '0');
+    String address = workchain + ":" + Utils.bytesToHex(hashPart);
     return Address.of(address);
   }
 
@@ -667,12 +875,19 @@ public class BitString implements Serializable {
    * @return BitString from 0 to writeCursor
    */
   public String toBitString() {
-    StringBuilder s = new StringBuilder();
-    for (int i = 0; i < writeCursor; i++) {
-      char bit = get(i) ? '1' : '0';
-      s.append(bit);
+    return bitsToString(0, writeCursor);
+  }
+
+  private String bitsToString(int from, int to) {
+    if (to <= from) {
+      return "";
+    }
+    checkRange(from, to - from);
+    char[] s = new char[to - from];
+    for (int i = from; i < to; i++) {
+      s[i - from] = bitAt(i) ? '1' : '0';
     }
-    return s.toString();
+    return new String(s);
   }
 
   public Boolean[] toBooleanArray() {
@@ -685,20 +900,24 @@ public class BitString implements Serializable {
   }
 
   public int getLength() {
-    // Calculate length based on BitSet capacity
-    return Math.max(length, bitSet.length());
+    // Take into account bits written beyond the declared length
+    return Math.max(length, highestSetBit() + 1);
+  }
+
+  private int highestSetBit() {
+    for (int i = words.length - 1; i >= 0; i--) {
+      if (words[i] != 0) {
+        return i * 64 + 63 - Long.numberOfTrailingZeros(words[i]);
+      }
+    }
+    return -1;
   }
 
   /**
    * @return BitString from current position to writeCursor
    */
   public String getBitString() {
-    StringBuilder s = new StringBuilder();
-    for (int i = readCursor; i < writeCursor; i++) {
-      char bit = get(i) ? '1' : '0';
-      s.append(bit);
-    }
-    return s.toString();
+    return bitsToString(readCursor, writeCursor);
   }
 
   public byte[] toByteArray() {
@@ -706,29 +925,25 @@ public class BitString implements Serializable {
       return new byte[0];
     }
 
-    // Create a temporary BitSet with the same bits but in reverse order (MSB to LSB)
-    BitSet reversedBitSet = new BitSet(writeCursor);
-    for (int i = 0; i < writeCursor; i++) {
-      if (bitSet.get(i)) {
-        // For each byte, reverse the bit order
-        int byteIndex = i / 8;
-        int bitPosition = i % 8;
-        // Convert from MSB-first to LSB-first within each byte
-        int reversedBitPosition = 7 - bitPosition;
-        reversedBitSet.set(byteIndex * 8 + reversedBitPosition);
-      }
-    }
-
-    // Calculate the number of bytes needed
     int numBytes = (writeCursor + 7) / 8;
     byte[] result = new byte[numBytes];
+    int fullWords = Math.min(writeCursor >>> 6, words.length);
+    int k = 0;
+    for (int w = 0; w < fullWords; w++) {
+      long v = words[w];
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        result[k++] = (byte) (v >>> shift);
+      }
+    }
+    for (; k < numBytes; k++) {
+      result[k] = (byte) peekBits(k * 8, 8);
+    }
 
-    // Convert the reversed BitSet to a byte array
-    byte[] tempBytes = reversedBitSet.toByteArray();
-
-    // Copy bytes, ensuring we have the right number of bytes
-    System.arraycopy(tempBytes, 0, result, 0, Math.min(tempBytes.length, numBytes));
-
+    // only bits before writeCursor are taken
+    int tail = writeCursor & 7;
+    if (tail != 0) {
+      result[numBytes - 1] &= (byte) (0xFF << (8 - tail));
+    }
     return result;
   }
 
@@ -773,14 +988,12 @@ public class BitString implements Serializable {
     }
 
     int sz = writeCursor;
+    checkRange(0, sz);
     List<BigInteger> result = new ArrayList<>((sz + 7) / 8);
 
     for (int i = 0; i < sz; i += 8) {
-      StringBuilder binStr = new StringBuilder();
-      for (int j = 0; j < 8 && i + j < sz; j++) {
-        binStr.append(get(i + j) ? '1' : '0');
-      }
-      result.add(new BigInteger(binStr.toString(), 2));
+      int n = Math.min(8, sz - i);
+      result.add(BigInteger.valueOf(peekBits(i, n)));
     }
 
     return result;
@@ -803,8 +1016,8 @@ public class BitString implements Serializable {
   }
 
   public BitString clone() {
-    BitString result = new BitString(bitSet.size());
-    result.bitSet = (BitSet) bitSet.clone();
+    BitString result = new BitString(0);
+    result.words = words.clone();
     result.length = length;
     result.writeCursor = writeCursor;
     result.readCursor = readCursor;
@@ -812,18 +1025,13 @@ public class BitString implements Serializable {
   }
 
   public BitString cloneFrom(int from) {
-    BitString result = new BitString(bitSet.size());
-    result.bitSet = (BitSet) bitSet.clone();
-    result.length = length;
+    BitString result = clone();
     result.writeCursor = writeCursor - (from * 8);
-    result.readCursor = readCursor;
     return result;
   }
 
   public BitString cloneClear() {
-    BitString result = new BitString(bitSet.size());
-    result.bitSet = (BitSet) bitSet.clone();
-    result.length = length;
+    BitString result = clone();
     result.writeCursor = 0;
     result.readCursor = 0;
     return result;
@@ -851,9 +1059,8 @@ public class BitString implements Serializable {
       // Create a temporary BitString with increased length to accommodate padding
       BitString temp = new BitString(writeCursor + 4);
       // Copy all bits from the original BitString
-      for (int i = 0; i < writeCursor; i++) {
-        temp.writeBit(get(i));
-      }
+      checkRange(0, writeCursor);
+      temp.copyFrom(this, 0, writeCursor);
       temp.writeBit(true);
       while (temp.writeCursor % 4 != 0) {
         temp.writeBit(false);
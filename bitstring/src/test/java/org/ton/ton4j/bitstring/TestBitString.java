@@ -274,4 +274,84 @@ public class TestBitString {
     Address address = Address.of("0QAs9VlT6S776tq3unJcP5Ogsj-ELLunLXuOb1EKcOQi4-QO");
     bitString.writeAddress(address);
   }
+
+  @Test
+  public void testBitStringPrimitiveReadWrite() {
+    BitString bitString = new BitString(1023);
+    bitString.writeBit(true); // unaligned start, fields cross word boundaries
+    bitString.writeUintLong(200, 8);
+    bitString.writeUintLong(600000, 32);
+    bitString.writeUintLong(Long.MAX_VALUE, 63);
+    bitString.writeUint(new BigInteger("FFFFFFFFFFFFFFFF", 16), 64);
+    bitString.writeIntLong(-20, 8);
+    bitString.writeIntLong(Long.MIN_VALUE, 64);
+    bitString.writeIntLong(-1, 1);
+
+    assertThat(bitString.readBit()).isTrue();
+    assertThat(bitString.preReadUintLong(8)).isEqualTo(200);
+    assertThat(bitString.readUintLong(8)).isEqualTo(200);
+    assertThat(bitString.readUintLong(32)).isEqualTo(600000);
+    assertThat(bitString.readUintLong(63)).isEqualTo(Long.MAX_VALUE);
+    assertThat(bitString.readUintLong(64)).isEqualTo(-1L);
+    assertThat(bitString.readIntLong(8)).isEqualTo(-20);
+    assertThat(bitString.readIntLong(64)).isEqualTo(Long.MIN_VALUE);
+    assertThat(bitString.readIntLong(1)).isEqualTo(-1);
+    assertThat(bitString.getUsedBits()).isEqualTo(0);
+  }
+
+  @Test
+  public void testBitStringPrimitiveMatchesBigInteger() {
+    BitString bitString = new BitString(1023);
+    bitString.writeBits("101");
+    BigInteger big = new BigInteger("9999999999999999999999999999999999999999999999999999999999");
+    bitString.writeUint(big, 256);
+    bitString.writeInt(big.negate(), 256);
+    bitString.writeUint(new BigInteger("18446744073709551615"), 64);
+
+    BitString copy = bitString.clone();
+    assertThat(copy.readUint(3)).isEqualTo(BigInteger.valueOf(5));
+    assertThat(copy.readUint(256)).isEqualTo(big);
+    assertThat(copy.readInt(256)).isEqualTo(big.negate());
+    assertThat(copy.readUint64()).isEqualTo(new BigInteger("18446744073709551615"));
+
+    assertThat(new BitString(bitString).toBitString()).isEqualTo(bitString.toBitString());
+    assertThat(Utils.bytesToHex(new BitString(bitString.toByteArray()).readBits(10).toByteArray()))
+        .isEqualTo("a000"); // 101 + leading zeros of the 256-bit value
+  }
+
+  @Test
+  public void testBitStringWideIntLongRoundTrip() {
+    int[] widths = {65, 128, 129, 257};
+    long[] values = {-1, -20, Long.MIN_VALUE, 12345};
+    for (int width : widths) {
+      for (long value : values) {
+        BitString bitString = new BitString(1023);
+        bitString.writeBit(true); // unaligned, sign fill crosses word boundaries
+        bitString.writeIntLong(value, width);
+        bitString.writeUintLong(0xA5, 8);
+        assertThat(bitString.getUsedBits()).isEqualTo(1 + width + 8);
+
+        BitString expected = new BitString(1023);
+        expected.writeBit(true);
+        expected.writeInt(BigInteger.valueOf(value), width);
+        expected.writeUintLong(0xA5, 8);
+        assertThat(bitString.toBitString()).isEqualTo(expected.toBitString());
+
+        assertThat(bitString.readBit()).isTrue();
+        assertThat(bitString.readInt(width)).isEqualTo(BigInteger.valueOf(value));
+        assertThat(bitString.readUintLong(8)).isEqualTo(0xA5);
+      }
+    }
+  }
+
+  @Test
+  public void testBitStringPrimitiveOverflow() {
+    BitString bitString = new BitString(16);
+    bitString.writeUintLong(1, 16);
+    assertThrows(Error.class, () -> bitString.readUintLong(17));
+    assertThrows(Error.class, () -> bitString.readUintLong(65));
+    assertThrows(Error.class, () -> bitString.writeUintLong(-1, 8));
+    assertThrows(Error.class, () -> bitString.writeUintLong(256, 8));
+    assertThrows(Error.class, () -> bitString.writeIntLong(128, 8));
+  }
 }
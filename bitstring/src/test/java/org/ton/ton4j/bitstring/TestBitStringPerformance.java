@@ -142,4 +142,74 @@ public class TestBitStringPerformance {
 
     assertEquals(number, result);
   }
+
+  @Test
+  public void testPrimitiveVsBigIntegerReadPerformance() {
+    for (int bits : new int[] {8, 32, 64, 256}) {
+      int fields = 1023 / bits;
+      BitString bitString = new BitString(1023);
+      for (int i = 0; i < fields; i++) {
+        bitString.writeUint(BigInteger.valueOf(i), bits);
+      }
+
+      long startTime = System.nanoTime();
+      for (int i = 0; i < SIZE / fields; i++) {
+        bitString.readCursor = 0;
+        for (int j = 0; j < fields; j++) {
+          bitString.readUint(bits);
+        }
+      }
+      long bigIntegerDuration = System.nanoTime() - startTime;
+
+      long primitiveDuration = 0;
+      if (bits <= 64) {
+        startTime = System.nanoTime();
+        for (int i = 0; i < SIZE / fields; i++) {
+          bitString.readCursor = 0;
+          for (int j = 0; j < fields; j++) {
+            bitString.readUintLong(bits);
+          }
+        }
+        primitiveDuration = System.nanoTime() - startTime;
+      }
+
+      System.out.printf(
+          "Read uint%d x %d: readUint %d ms, readUintLong %d ms%n",
+          bits, SIZE, bigIntegerDuration / 1_000_000, primitiveDuration / 1_000_000);
+    }
+  }
+
+  @Test
+  public void testPrimitiveVsBigIntegerWritePerformance() {
+    for (int bits : new int[] {8, 32, 64, 256}) {
+      int fields = 1023 / bits;
+      BigInteger value = BigInteger.ONE.shiftLeft(bits - 1);
+
+      long startTime = System.nanoTime();
+      for (int i = 0; i < SIZE / fields; i++) {
+        BitString bitString = new BitString(1023);
+        for (int j = 0; j < fields; j++) {
+          bitString.writeUint(value, bits);
+        }
+      }
+      long bigIntegerDuration = System.nanoTime() - startTime;
+
+      long primitiveDuration = 0;
+      if (bits < 64) {
+        long longValue = value.longValue();
+        startTime = System.nanoTime();
+        for (int i = 0; i < SIZE / fields; i++) {
+          BitString bitString = new BitString(1023);
+          for (int j = 0; j < fields; j++) {
+            bitString.writeUintLong(longValue, bits);
+          }
+        }
+        primitiveDuration = System.nanoTime() - startTime;
+      }
+
+      System.out.printf(
+          "Write uint%d x %d: writeUint %d ms, writeUintLong %d ms%n",
+          bits, SIZE, bigIntegerDuration / 1_000_000, primitiveDuration / 1_000_000);
+    }
+  }
 }
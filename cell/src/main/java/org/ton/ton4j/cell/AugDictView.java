@@ -0,0 +1,409 @@
+package org.ton.ton4j.cell;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.ton.ton4j.bitstring.BitString;
+
+/**
+ * Persistent augmented dictionary (HashmapAug) over its serialized cells, e.g. ShardAccounts with
+ * DepthBalanceInfo or ShardAccountBlocks with CurrencyCollection extras.
+ *
+ * <p>Every fork cell keeps the extra of its subtree, so the cells serve as the cache of folded
+ * extras. {@link #set} and {@link #delete} rebuild only the forks on the path to the changed leaf
+ * and fold their extras with forkExtra, reading the extra of the untouched sibling from its cell.
+ * {@link #setAll} merges a batch of entries in one pass: each affected fork is folded once, and
+ * subtrees that consist of new entries only are built bottom-up. {@link TonHashMapAug#serialize}
+ * in contrast recalculates all forks.
+ *
+ * <p>Cells follow the TL-B layout: ahmn_leaf stores extra and then value, ahmn_fork stores refs to
+ * the left and right edges followed by extra. Labels are encoded like in {@link DictView}. For
+ * HashmapAugE the root extra is stored after the root ref, see {@link #getRootExtra}.
+ *
+ * <pre>
+ * AugDictView accounts = AugDictView.of(root, 256, parseDepthBalance, storeDepthBalance, sum);
+ * accounts = accounts.set(address, depthBalance, shardAccount);
+ * Object total = accounts.getRootExtra();
+ * </pre>
+ */
+public class AugDictView {
+
+  private final Cell root;
+  private final int keySize;
+  private final Function<CellSlice, Object> extraParser;
+  private final Function<Object, Cell> extraSerializer;
+  private final BiFunction<Object, Object, Object> forkExtra;
+
+  private AugDictView(
+      Cell root,
+      int keySize,
+      Function<CellSlice, Object> extraParser,
+      Function<Object, Cell> extraSerializer,
+      BiFunction<Object, Object, Object> forkExtra) {
+    this.root = root;
+    this.keySize = keySize;
+    this.extraParser = extraParser;
+    this.extraSerializer = extraSerializer;
+    this.forkExtra = forkExtra;
+  }
+
+  /**
+   * @param root root edge, null for an empty dictionary
+   * @param keySize key size in bits
+   * @param extraParser loads extra from the slice
+   * @param extraSerializer converts extra to cell
+   * @param forkExtra combines extras of the left and right edges into the extra of their fork
+   */
+  public static AugDictView of(
+      Cell root,
+      int keySize,
+      Function<CellSlice, Object> extraParser,
+      Function<Object, Cell> extraSerializer,
+      BiFunction<Object, Object, Object> forkExtra) {
+    return new AugDictView(root, keySize, extraParser, extraSerializer, forkExtra);
+  }
+
+  public boolean isEmpty() {
+    return isNull(root);
+  }
+
+  /** Root edge of the dictionary, null if it is empty. */
+  public Cell getRoot() {
+    return root;
+  }
+
+  public int getKeySize() {
+    return keySize;
+  }
+
+  /** Extra of the whole dictionary, i.e. of the root edge, null if it is empty. */
+  public Object getRootExtra() {
+    return isNull(root) ? null : extraOf(root, keySize);
+  }
+
+  /** Read-only view for lookups, iteration and proofs. */
+  public DictView view() {
+    return DictView.ofAug(root, keySize);
+  }
+
+  /** Returns slice positioned at extra followed by value, or null if there is no such key. */
+  public CellSlice get(BitString key) {
+    return view().get(key);
+  }
+
+  public CellSlice get(BigInteger key) {
+    return get(toKey(key));
+  }
+
+  /**
+   * Returns a view with the entry set, inserting it if it does not exist. Extras of all forks on
+   * the path are recalculated.
+   *
+   * @param key unread bits of the key, exactly keySize bits
+   * @param extra extra of the leaf
+   * @param value cell whose bits and refs are stored in the leaf after the extra
+   */
+  public AugDictView set(BitString key, Object extra, Cell value) {
+    checkKey(key);
+    return setAll(new BitString[] {key}, new Object[] {extra}, new Cell[] {value});
+  }
+
+  public AugDictView set(BigInteger key, Object extra, Cell value) {
+    return set(toKey(key), extra, value);
+  }
+
+  /**
+   * Returns a view with all entries set. Forks shared by several keys are folded once.
+   *
+   * @param entries values are ValueExtra, value of which is the value cell
+   * @param keyParser converts key to BitString of keySize bits
+   */
+  public AugDictView setAll(Map<?, ValueExtra> entries, Function<Object, BitString> keyParser) {
+    BitString[] keys = new BitString[entries.size()];
+    Object[] extras = new Object[keys.length];
+    Cell[] values = new Cell[keys.length];
+    Integer[] order = new Integer[keys.length];
+    int n = 0;
+    for (Map.Entry<?, ValueExtra> entry : entries.entrySet()) {
+      keys[n] = keyParser.apply(entry.getKey());
+      checkKey(keys[n]);
+      extras[n] = entry.getValue().getExtra();
+      values[n] = (Cell) entry.getValue().getValue();
+      order[n] = n++;
+    }
+    Arrays.sort(order, (a, b) -> compareKeys(keys[a], keys[b]));
+    BitString[] sortedKeys = new BitString[n];
+    Object[] sortedExtras = new Object[n];
+    Cell[] sortedValues = new Cell[n];
+    for (int i = 0; i < n; i++) {
+      sortedKeys[i] = keys[order[i]];
+      sortedExtras[i] = extras[order[i]];
+      sortedValues[i] = values[order[i]];
+      if (i > 0 && compareKeys(sortedKeys[i - 1], sortedKeys[i]) == 0) {
+        throw new Error("duplicate key " + sortedKeys[i].toBitString());
+      }
+    }
+    return setAll(sortedKeys, sortedExtras, sortedValues);
+  }
+
+  /** Returns a view without the entry, or this view if there is no such key. */
+  public AugDictView delete(BitString key) {
+    checkKey(key);
+    if (isNull(root)) {
+      return this;
+    }
+    Edge edge = delete(root, keySize, key, key.readCursor);
+    if (nonNull(edge) && edge.cell == root) {
+      return this;
+    }
+    return withRoot(isNull(edge) ? null : edge.cell);
+  }
+
+  public AugDictView delete(BigInteger key) {
+    return delete(toKey(key));
+  }
+
+  private AugDictView setAll(BitString[] keys, Object[] extras, Cell[] values) {
+    if (keys.length == 0) {
+      return this;
+    }
+    Batch batch = new Batch(keys, extras, values);
+    Edge edge =
+        isNull(root) ? build(batch, 0, keys.length, 0) : merge(root, batch, 0, keys.length, 0);
+    return withRoot(edge.cell);
+  }
+
+  /**
+   * Merges batch[from..to) into the edge at cell, which has consumed key bits before it. The range
+   * is not empty and all its keys share the first consumed bits.
+   */
+  private Edge merge(Cell cell, Batch batch, int from, int to, int consumed) {
+    checkNotPruned(cell);
+    int m = keySize - consumed;
+    DictView.Label label = new DictView.Label(cell.getBits(), m);
+    // keys are sorted, so all of them share the bits that the first and the last key share
+    int common =
+        Math.min(
+            label.mismatch(batch.keys[from], batch.offset(from) + consumed),
+            label.mismatch(batch.keys[to - 1], batch.offset(to - 1) + consumed));
+    if (common < label.length) {
+      // split the edge, keys on the other side of the label form a new subtree
+      int position = consumed + common;
+      boolean oldRight = label.bit(common);
+      int split = batch.split(from, to, position);
+      int childM = m - common - 1;
+      Cell relabeled = DictView.relabel(cell, label, label.toBits(common + 1, keySize), childM);
+      Edge old =
+          (oldRight ? split == to : split == from)
+              ? new Edge(relabeled, extraOf(relabeled, childM))
+              : merge(
+                  relabeled,
+                  batch,
+                  oldRight ? split : from,
+                  oldRight ? to : split,
+                  position + 1);
+      Edge added =
+          oldRight
+              ? build(batch, from, split, position + 1)
+              : build(batch, split, to, position + 1);
+      return fork(
+          batch.bits(from, consumed, position), m, oldRight ? added : old, oldRight ? old : added);
+    }
+    if (label.length == m) {
+      // all keys equal the key of this leaf
+      return leaf(label.toBits(0, keySize), m, batch.extras[from], batch.values[from]);
+    }
+    int position = consumed + label.length;
+    int split = batch.split(from, to, position);
+    int childM = m - label.length - 1;
+    Cell left = cell.refs.get(0);
+    Cell right = cell.refs.get(1);
+    Edge newLeft =
+        split == from
+            ? new Edge(left, extraOf(left, childM))
+            : merge(left, batch, from, split, position + 1);
+    Edge newRight =
+        split == to
+            ? new Edge(right, extraOf(right, childM))
+            : merge(right, batch, split, to, position + 1);
+    return fork(label.toBits(0, keySize), m, newLeft, newRight);
+  }
+
+  /** Builds the edge of the new entries batch[from..to) bottom-up. */
+  private Edge build(Batch batch, int from, int to, int consumed) {
+    int m = keySize - consumed;
+    int position = consumed;
+    while (position < keySize && batch.bit(from, position) == batch.bit(to - 1, position)) {
+      position++;
+    }
+    BitString label = batch.bits(from, consumed, position);
+    if (position == keySize) {
+      return leaf(label, m, batch.extras[from], batch.values[from]);
+    }
+    int split = batch.split(from, to, position);
+    return fork(
+        label, m, build(batch, from, split, position + 1), build(batch, split, to, position + 1));
+  }
+
+  /**
+   * Deletes key from the subtree of the edge at cell, returns the new edge, null if the subtree
+   * became empty, or the edge of the same cell if the key is absent.
+   */
+  private Edge delete(Cell cell, int m, BitString key, int offset) {
+    checkNotPruned(cell);
+    DictView.Label label = new DictView.Label(cell.getBits(), m);
+    if (label.mismatch(key, offset) != label.length) {
+      return new Edge(cell, null);
+    }
+    if (label.length == m) {
+      return null;
+    }
+    boolean bit = key.get(offset + label.length);
+    int childM = m - label.length - 1;
+    Cell child = cell.refs.get(bit ? 1 : 0);
+    Edge updated = delete(child, childM, key, offset + label.length + 1);
+    if (nonNull(updated) && updated.cell == child) {
+      return new Edge(cell, null);
+    }
+    Cell sibling = cell.refs.get(bit ? 0 : 1);
+    checkNotPruned(sibling);
+    Edge siblingEdge = new Edge(sibling, extraOf(sibling, childM));
+    if (nonNull(updated)) {
+      return fork(
+          label.toBits(0, keySize), m, bit ? siblingEdge : updated, bit ? updated : siblingEdge);
+    }
+    // fork with a single child left, merge it into this edge, its extra stays the same
+    DictView.Label siblingLabel = new DictView.Label(sibling.getBits(), childM);
+    BitString merged = label.toBits(0, keySize);
+    merged.writeBit(!bit);
+    siblingLabel.appendTo(merged);
+    return new Edge(DictView.relabel(sibling, siblingLabel, merged, m), siblingEdge.extra);
+  }
+
+  private Edge leaf(BitString label, int m, Object extra, Cell value) {
+    CellBuilder b = CellBuilder.beginCell();
+    DictView.storeLabel(b, label, m);
+    b.storeCell(extraSerializer.apply(extra));
+    b.storeCell(value);
+    return new Edge(b.endCell(), extra);
+  }
+
+  private Edge fork(BitString label, int m, Edge left, Edge right) {
+    Object extra = forkExtra.apply(left.extra, right.extra);
+    Cell extraCell = extraSerializer.apply(extra);
+    CellBuilder b = CellBuilder.beginCell();
+    DictView.storeLabel(b, label, m);
+    b.storeBitString(extraCell.getBits());
+    b.storeSharedRef(left.cell).storeSharedRef(right.cell);
+    for (Cell ref : extraCell.refs) {
+      b.storeSharedRef(ref);
+    }
+    return new Edge(b.endCell(), extra);
+  }
+
+  /** Parses extra stored in the edge at cell with m key bits left. */
+  private Object extraOf(Cell cell, int m) {
+    DictView.Label label = new DictView.Label(cell.getBits(), m);
+    CellSlice cs = CellSlice.beginParse(cell);
+    cs.skipBits(label.end);
+    if (label.length != m) {
+      // refs of fork extra follow the refs of both edges
+      cs.loadRef();
+      cs.loadRef();
+    }
+    return extraParser.apply(cs);
+  }
+
+  private AugDictView withRoot(Cell newRoot) {
+    return new AugDictView(newRoot, keySize, extraParser, extraSerializer, forkExtra);
+  }
+
+  private int compareKeys(BitString a, BitString b) {
+    for (int i = 0; i < keySize; i++) {
+      boolean x = a.get(a.readCursor + i);
+      if (x != b.get(b.readCursor + i)) {
+        return x ? 1 : -1;
+      }
+    }
+    return 0;
+  }
+
+  private void checkKey(BitString key) {
+    if (key.getUsedBits() != keySize) {
+      throw new Error("key must have " + keySize + " bits, got " + key.getUsedBits());
+    }
+  }
+
+  private static void checkNotPruned(Cell cell) {
+    if (cell.getCellType() == CellType.PRUNED_BRANCH) {
+      throw new Error("cannot modify pruned branch of dictionary");
+    }
+  }
+
+  private BitString toKey(BigInteger key) {
+    BitString bs = new BitString(keySize);
+    bs.writeUint(key, keySize);
+    return bs;
+  }
+
+  /** Edge cell with its extra. */
+  private static final class Edge {
+    final Cell cell;
+    final Object extra;
+
+    Edge(Cell cell, Object extra) {
+      this.cell = cell;
+      this.extra = extra;
+    }
+  }
+
+  /** Entries sorted by key. */
+  private final class Batch {
+    final BitString[] keys;
+    final Object[] extras;
+    final Cell[] values;
+
+    Batch(BitString[] keys, Object[] extras, Cell[] values) {
+      this.keys = keys;
+      this.extras = extras;
+      this.values = values;
+    }
+
+    int offset(int index) {
+      return keys[index].readCursor;
+    }
+
+    boolean bit(int index, int position) {
+      return keys[index].get(keys[index].readCursor + position);
+    }
+
+    /** Bits [from..to) of the key at index. */
+    BitString bits(int index, int from, int to) {
+      BitString bs = new BitString(keySize);
+      for (int i = from; i < to; i++) {
+        bs.writeBit(bit(index, i));
+      }
+      return bs;
+    }
+
+    /** First index in [from..to) whose key has bit 1 at position. */
+    int split(int from, int to, int position) {
+      int lo = from;
+      int hi = to;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (bit(mid, position)) {
+          hi = mid;
+        } else {
+          lo = mid + 1;
+        }
+      }
+      return lo;
+    }
+  }
+}
@@ -0,0 +1,324 @@
+package org.ton.ton4j.cell;
+
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Checksum;
+import org.ton.ton4j.utils.Utils;
+
+/**
+ * Serializes cell trees to BoC. Cells are numbered once with int indexes, deduplicated by
+ * identity and then by hash, and the whole BoC is written in one pass, either into a buffer of
+ * exact size or through a fixed-size buffer into a stream.
+ *
+ * <p>Order of cells is the same as tonutils-go produces: breadth-first from roots, then every
+ * cell referenced from a cell with bigger index is moved to the end, until no such references
+ * left. For trees and most DAGs breadth-first order is already topological and no moves happen,
+ * otherwise only moved cells are checked again.
+ */
+final class BocSerializer {
+
+  private static final int REACH_BOC_MAGIC_PREFIX = 0xB5EE9C72;
+  private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+  // cells in final order and indexes of their refs
+  private final Cell[] cells;
+  private final int[] refStart;
+  private final int[] refIndexes;
+  private final boolean[] repeated;
+  private final int[] rootIndexes;
+
+  private final int cellSizeBytes;
+  private final long payloadSize;
+  private final int offsetSizeBytes;
+
+  BocSerializer(List<Cell> roots) {
+    Map<Cell, Integer> byIdentity = new IdentityHashMap<>();
+    Map<ByteBuffer, Integer> byHash = new HashMap<>();
+    List<Cell> bfsOrder = new ArrayList<>();
+    BitSet bfsRepeated = new BitSet();
+
+    ArrayDeque<Cell> queue = new ArrayDeque<>(roots);
+    while (!queue.isEmpty()) {
+      Cell c = queue.poll();
+      Integer id = byIdentity.get(c);
+      if (id == null) {
+        ByteBuffer hash = ByteBuffer.wrap(c.getHash());
+        id = byHash.get(hash);
+        if (id == null) {
+          id = bfsOrder.size();
+          byHash.put(hash, id);
+          byIdentity.put(c, id);
+          bfsOrder.add(c);
+          queue.addAll(c.refs);
+          continue;
+        }
+        byIdentity.put(c, id);
+      }
+      bfsRepeated.set(id);
+    }
+
+    int n = bfsOrder.size();
+    int[] bfsRefStart = new int[n + 1];
+    for (int i = 0; i < n; i++) {
+      bfsRefStart[i + 1] = bfsRefStart[i] + bfsOrder.get(i).refs.size();
+    }
+    int[] bfsRefs = new int[bfsRefStart[n]];
+    for (int i = 0; i < n; i++) {
+      int k = bfsRefStart[i];
+      for (Cell ref : bfsOrder.get(i).refs) {
+        bfsRefs[k++] = byIdentity.get(ref);
+      }
+    }
+
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++) {
+      order[i] = i;
+    }
+    int next = moveReferencedFromBelow(n, bfsRefStart, bfsRefs, order);
+
+    int[] finalIndex = order;
+    if (next != n) {
+      int[] byOrder = new int[next];
+      Arrays.fill(byOrder, -1);
+      for (int i = 0; i < n; i++) {
+        byOrder[order[i]] = i;
+      }
+      finalIndex = new int[n];
+      int idx = 0;
+      for (int id : byOrder) {
+        if (id >= 0) {
+          finalIndex[id] = idx++;
+        }
+      }
+    }
+
+    cellSizeBytes = (int) Math.ceil((double) Utils.log2(n + 1) / 8);
+
+    cells = new Cell[n];
+    repeated = new boolean[n];
+    refStart = new int[n + 1];
+    for (int i = 0; i < n; i++) {
+      cells[finalIndex[i]] = bfsOrder.get(i);
+      repeated[finalIndex[i]] = bfsRepeated.get(i);
+    }
+    refIndexes = new int[bfsRefs.length];
+    long payload = 0;
+    for (int i = 0; i < n; i++) {
+      Cell c = cells[i];
+      refStart[i + 1] = refStart[i] + c.refs.size();
+      int k = refStart[i];
+      for (Cell ref : c.refs) {
+        refIndexes[k++] = finalIndex[byIdentity.get(ref)];
+      }
+      payload += cellSize(c);
+    }
+    payloadSize = payload;
+    // bytes needed to store len of payload
+    offsetSizeBytes = (Long.SIZE - Long.numberOfLeadingZeros(payloadSize) + 7) / 8;
+
+    rootIndexes = new int[roots.size()];
+    for (int i = 0; i < rootIndexes.length; i++) {
+      rootIndexes[i] = finalIndex[byIdentity.get(roots.get(i))];
+    }
+  }
+
+  /**
+   * Moves cells referenced from a cell with bigger order to the end, until refs point forward
+   * only. Makes the same moves as rescanning all cells in breadth-first order until nothing moves:
+   * once a cell is checked all its refs are above it and stay there, so only a moved cell has to
+   * be checked again, still in this pass if the scan has not reached it yet. Each pass visits
+   * moved cells only, a tree or a DAG in topological order is done in one scan.
+   *
+   * @return order after the last moved cell
+   */
+  private static int moveReferencedFromBelow(int n, int[] refStart, int[] refs, int[] order) {
+    int next = n;
+    BitSet pass = new BitSet(n);
+    pass.set(0, n);
+    BitSet nextPass = new BitSet(n);
+    while (!pass.isEmpty()) {
+      for (int i = pass.nextSetBit(0); i >= 0; i = pass.nextSetBit(i + 1)) {
+        for (int k = refStart[i]; k < refStart[i + 1]; k++) {
+          int ref = refs[k];
+          if (order[ref] < order[i]) {
+            order[ref] = next++;
+            (ref > i ? pass : nextPass).set(ref);
+          }
+        }
+      }
+      BitSet done = pass;
+      done.clear();
+      pass = nextPass;
+      nextPass = done;
+    }
+    return next;
+  }
+
+  /** Cells in BoC order. */
+  Cell[] getCells() {
+    return cells;
+  }
+
+  private int cellSize(Cell c) {
+    return 2 + c.getDataByteSize() + c.refs.size() * cellSizeBytes;
+  }
+
+  long getBocSize(boolean hasIdx, boolean hasCrc32c) {
+    long size =
+        4 + 1 + 1 + 3 * cellSizeBytes + offsetSizeBytes + rootIndexes.length * cellSizeBytes;
+    if (hasIdx) {
+      size += (long) cells.length * offsetSizeBytes;
+    }
+    size += payloadSize;
+    if (hasCrc32c) {
+      size += 4;
+    }
+    return size;
+  }
+
+  byte[] toBoc(boolean hasCrc32c, boolean hasIdx, boolean hasCacheBits) {
+    byte[] data = new byte[Math.toIntExact(getBocSize(hasIdx, hasCrc32c))];
+    try {
+      write(new Output(ByteBuffer.wrap(data), null), hasCrc32c, hasIdx, hasCacheBits);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e); // not thrown, buffer has exact size
+    }
+    return data;
+  }
+
+  /**
+   * Writes BoC to the stream through a fixed-size buffer, so memory used does not depend on the
+   * size of BoC. The stream is neither flushed nor closed.
+   */
+  void writeBoc(OutputStream out, boolean hasCrc32c, boolean hasIdx, boolean hasCacheBits)
+      throws IOException {
+    Output output = new Output(ByteBuffer.allocate(STREAM_BUFFER_SIZE), out);
+    write(output, hasCrc32c, hasIdx, hasCacheBits);
+  }
+
+  private void write(Output out, boolean hasCrc32c, boolean hasIdx, boolean hasCacheBits)
+      throws IOException {
+    writeHeader(out, hasCrc32c, hasIdx, hasCacheBits);
+    for (int i = 0; i < cells.length; i++) {
+      writeCell(out, i);
+    }
+    out.finish(hasCrc32c);
+  }
+
+  private void writeHeader(Output out, boolean hasCrc32c, boolean hasIdx, boolean hasCacheBits)
+      throws IOException {
+    // has_idx 1bit, hash_crc32 1bit,  has_cache_bits 1bit, flags 2bit, size_bytes 3 bit
+    byte flagsByte = 0;
+    if (hasIdx) {
+      flagsByte |= (byte) 0b1_0_0_00_000;
+    }
+    if (hasCrc32c) {
+      flagsByte |= 0b0_1_0_00_000;
+    }
+    if (hasCacheBits) {
+      flagsByte |= 0b0_0_1_00_000;
+    }
+    flagsByte |= (byte) cellSizeBytes;
+
+    out.reserve(6 + 3 * cellSizeBytes + offsetSizeBytes);
+    ByteBuffer buf = out.buf;
+    buf.putInt(REACH_BOC_MAGIC_PREFIX);
+    buf.put(flagsByte);
+    buf.put((byte) offsetSizeBytes);
+    putDynInt(buf, cells.length, cellSizeBytes); // cells num
+    putDynInt(buf, rootIndexes.length, cellSizeBytes); // roots num
+    putDynInt(buf, 0, cellSizeBytes); // complete BOCs = 0
+    putDynInt(buf, payloadSize, offsetSizeBytes);
+    for (int rootIndex : rootIndexes) {
+      out.reserve(cellSizeBytes);
+      putDynInt(buf, rootIndex, cellSizeBytes);
+    }
+
+    if (hasIdx) {
+      long dataIndex = 0;
+      for (int i = 0; i < cells.length; i++) {
+        dataIndex += cellSize(cells[i]);
+        long idx = dataIndex;
+        if (hasCacheBits) {
+          idx *= 2;
+          if (repeated[i]) {
+            // cache cells which has refs
+            idx++;
+          }
+        }
+        out.reserve(offsetSizeBytes);
+        putDynInt(buf, idx, offsetSizeBytes);
+      }
+    }
+  }
+
+  private void writeCell(Output out, int i) throws IOException {
+    Cell c = cells[i];
+    out.reserve(cellSize(c));
+    ByteBuffer buf = out.buf;
+    buf.put(c.refsDescriptor(c.levelMask.getMask()));
+    buf.put(c.bitsDescriptor());
+    c.writeDataBytes(buf);
+    for (int k = refStart[i]; k < refStart[i + 1]; k++) {
+      putDynInt(buf, refIndexes[k], cellSizeBytes);
+    }
+  }
+
+  private static void putDynInt(ByteBuffer out, long val, int size) {
+    for (int i = size - 1; i >= 0; i--) {
+      out.put((byte) (val >>> (i * 8)));
+    }
+  }
+
+  /**
+   * Heap buffer BoC is written to. Without a stream the buffer must fit the whole BoC, otherwise
+   * it is drained into the stream whenever the next item does not fit, updating CRC32C on the way.
+   */
+  private static final class Output {
+    private final ByteBuffer buf;
+    private final OutputStream stream;
+    private final Checksum crc32c = Utils.newCRC32Checksum();
+
+    Output(ByteBuffer buf, OutputStream stream) {
+      this.buf = buf;
+      this.stream = stream;
+    }
+
+    void reserve(int size) throws IOException {
+      if (nonNull(stream) && buf.remaining() < size) {
+        drain();
+      }
+    }
+
+    private void drain() throws IOException {
+      crc32c.update(buf.array(), 0, buf.position());
+      stream.write(buf.array(), 0, buf.position());
+      buf.clear();
+    }
+
+    void finish(boolean hasCrc32c) throws IOException {
+      if (hasCrc32c) {
+        reserve(4);
+        crc32c.update(buf.array(), 0, buf.position());
+        // crc is stored in little-endian order
+        buf.putInt(Integer.reverseBytes((int) crc32c.getValue()));
+      }
+      if (nonNull(stream)) {
+        stream.write(buf.array(), 0, buf.position());
+        buf.clear();
+      }
+    }
+  }
+}
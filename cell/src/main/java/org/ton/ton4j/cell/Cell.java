@@ -5,23 +5,41 @@ import static java.util.Objects.nonNull;
 import static org.ton.ton4j.cell.CellType.ORDINARY;
 import static org.ton.ton4j.cell.CellType.UNKNOWN;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.security.DigestException;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Checksum;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.tuple.Pair;
 import org.ton.ton4j.bitstring.BitString;
 import org.ton.ton4j.utils.Utils;
 
 @Slf4j
 public class Cell implements Serializable {
 
-  @Getter BitString bits;
+  private static final int REACH_BOC_MAGIC_PREFIX = 0xB5EE9C72;
+
+  BitString bits;
+  // Cells parsed from a ByteBuffer keep a view of their data instead of a BitString copy,
+  // bits are materialized from it on first access
+  private transient ByteBuffer source;
+  private transient int dataOffset;
+  private transient int dataBitSize;
   // Use more efficient list implementation for refs (most cells have 0-4 refs)
   List<Cell> refs;
   private CellType type;
@@ -29,12 +47,84 @@ public class Cell implements Serializable {
   @Getter public boolean exotic;
   public LevelMask levelMask;
   // Use lazy initialization for hashes and depthLevels
-  @Getter private byte[] hashes;
-  @Getter private int[] depthLevels;
+  private byte[] hashes;
+  private int[] depthLevels;
+  // Set for cells created in lazy-hash mode until their hashes are first requested. Cleared only
+  // after hashes and depthLevels are assigned, so a reader that sees false sees complete arrays
+  private volatile boolean hashesPending;
   // Store the original refs count from cell descriptor for lazy loading
   // This is needed because lazy-loaded cells have no actual refs, only hashes
   @Getter private int refsCount = -1;
 
+  public BitString getBits() {
+    ByteBuffer src = source;
+    if (isNull(bits) && nonNull(src)) {
+      bits = new BitString(src, dataOffset, dataBitSize);
+    }
+    return bits;
+  }
+
+  /** Returns the number of data bits without materializing bits of a lazily parsed cell. */
+  int getUsedBits() {
+    if (isNull(bits) && nonNull(source)) {
+      return dataBitSize;
+    }
+    return bits.getUsedBits();
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    getBits();
+    out.defaultWriteObject();
+  }
+
+  public byte[] getHashes() {
+    ensureHashes();
+    return hashes;
+  }
+
+  public int[] getDepthLevels() {
+    ensureHashes();
+    return depthLevels;
+  }
+
+  /**
+   * Defers hash calculation of this cell until its hash, depth or BoC is requested. Hashes of the
+   * whole pending subtree are then calculated at once, children first.
+   */
+  void deferHashes() {
+    hashesPending = true;
+  }
+
+  /**
+   * Calculates hashes of this cell and of all pending cells below it. Uses explicit stack instead
+   * of recursion, so trees of max depth (1023) are fine.
+   */
+  private void ensureHashes() {
+    if (!hashesPending) {
+      return;
+    }
+    Deque<Cell> stack = new ArrayDeque<>();
+    stack.push(this);
+    while (!stack.isEmpty()) {
+      Cell c = stack.peek();
+      if (!c.hashesPending) {
+        stack.pop();
+        continue;
+      }
+      boolean childrenReady = true;
+      for (Cell r : c.refs) {
+        if (r.hashesPending) {
+          stack.push(r);
+          childrenReady = false;
+        }
+      }
+      if (childrenReady) {
+        stack.pop();
+        c.calculateHashes();
+      }
+    }
+  }
+
   public List<Cell> getRefs() {
     return new ArrayList<>(refs);
   }
@@ -65,6 +155,14 @@ public class Cell implements Serializable {
     this.depthLevels = new int[0];
   }
 
+  private Cell(List<Cell> refs, boolean exotic, LevelMask levelMask) {
+    this.refs = refs;
+    this.exotic = exotic;
+    this.levelMask = levelMask;
+    this.hashes = new byte[0];
+    this.depthLevels = new int[0];
+  }
+
   public Cell(int bitSize) {
     this.bits = new BitString(bitSize);
     // Initialize with a modifiable list to allow adding refs
@@ -191,7 +289,7 @@ public class Cell implements Serializable {
       if (!refs.isEmpty()) {
         throw new Error("Pruned branch must not have refs");
       }
-      BitString bs = bits.clone();
+      BitString bs = getBits().clone();
       bs.readUint8();
 
       return new LevelMask(bs.readUint8().intValue());
@@ -200,7 +298,8 @@ public class Cell implements Serializable {
       return new LevelMask(refs.get(0).levelMask.getMask() >> 1);
     } else if (this.type == CellType.MERKLE_UPDATE) {
       // merkle update cell has exactly 2 refs
-      return new LevelMask(refs.get(0).levelMask.getMask() | refs.get(1).levelMask.getMask() >> 1);
+      return new LevelMask(
+          (refs.get(0).levelMask.getMask() | refs.get(1).levelMask.getMask()) >> 1);
     } else if (this.type == CellType.LIBRARY) {
       return new LevelMask(0);
     } else {
@@ -213,10 +312,15 @@ public class Cell implements Serializable {
    * many operations
    */
   public void calculateHashes() {
+    // shared digest below must not be interrupted by hashing of pending children
+    for (Cell r : refs) {
+      r.ensureHashes();
+    }
 
+    // filled locally and published at the end, other threads may request hashes concurrently
     int totalHashCount = levelMask.getHashIndex() + 1;
-    hashes = new byte[32 * totalHashCount];
-    depthLevels = new int[totalHashCount];
+    byte[] hashes = new byte[32 * totalHashCount];
+    int[] depthLevels = new int[totalHashCount];
 
     int hashCount = totalHashCount;
     if (type == CellType.PRUNED_BRANCH) {
@@ -226,9 +330,12 @@ public class Cell implements Serializable {
     int hashIndexOffset = totalHashCount - hashCount;
     int hashIndex = 0;
     int level = levelMask.getLevel();
+    boolean merkle = (type == CellType.MERKLE_PROOF) || (type == CellType.MERKLE_UPDATE);
 
     int off;
 
+    // representation is streamed into the digest, no intermediate arrays are built
+    MessageDigest digest = Utils.getSha256Digest();
     for (int li = 0; li <= level; li++) {
       if (!levelMask.isSignificant(li)) {
         continue;
@@ -238,39 +345,29 @@ public class Cell implements Serializable {
         continue;
       }
 
-      byte[] dsc = getDescriptors(levelMask.apply(li).getLevel());
-
-      byte[] hash = new byte[0];
-      hash = Utils.concatBytes(hash, dsc);
+      digest.update(refsDescriptor(levelMask.getLevel(li)));
+      digest.update(bitsDescriptor());
 
       if (hashIndex == hashIndexOffset) {
         if ((li != 0) && (type != CellType.PRUNED_BRANCH)) {
           throw new Error("invalid cell");
         }
-
-        byte[] data = getDataBytes();
-        hash = Utils.concatBytes(hash, data);
+        updateDigestWithData(digest);
       } else {
         if ((li == 0) && (type == CellType.PRUNED_BRANCH)) {
           throw new Error("neither pruned nor 0");
         }
         off = hashIndex - hashIndexOffset - 1;
-        byte[] partHash = new byte[32];
-        System.arraycopy(hashes, off * 32, partHash, 0, (off + 1) * 32);
-        hash = Utils.concatBytes(hash, partHash);
+        digest.update(hashes, off * 32, 32);
       }
 
+      int childLevel = merkle ? li + 1 : li;
       int depth = 0;
 
       for (Cell r : refs) {
-        int childDepth;
-        if ((type == CellType.MERKLE_PROOF) || (type == CellType.MERKLE_UPDATE)) {
-          childDepth = r.getDepth(li + 1);
-        } else {
-          childDepth = r.getDepth(li);
-        }
-
-        hash = Utils.concatBytes(hash, Utils.intToByteArray(childDepth));
+        int childDepth = r.getDepth(childLevel);
+        digest.update((byte) (childDepth >>> 8));
+        digest.update((byte) childDepth);
         if (childDepth > depth) {
           depth = childDepth;
         }
@@ -283,18 +380,68 @@ public class Cell implements Serializable {
       }
 
       for (Cell r : refs) {
-        if ((type == CellType.MERKLE_PROOF) || (type == CellType.MERKLE_UPDATE)) {
-          hash = Utils.concatBytes(hash, r.getHash(li + 1));
-        } else {
-          hash = Utils.concatBytes(hash, r.getHash(li));
-        }
+        r.updateDigestWithHash(digest, childLevel);
       }
 
       off = hashIndex - hashIndexOffset;
       depthLevels[off] = depth;
-      System.arraycopy(Utils.sha256AsArray(hash), 0, hashes, off * 32, 32);
+      try {
+        digest.digest(hashes, off * 32, 32);
+      } catch (DigestException e) {
+        throw new Error("cannot calculate cell hash", e);
+      }
       hashIndex++;
     }
+    this.hashes = hashes;
+    this.depthLevels = depthLevels;
+    hashesPending = false;
+  }
+
+  /** Returns the number of data bytes with completion tag, as they are stored in BoC. */
+  int getDataByteSize() {
+    if (isNull(bits) && nonNull(source)) {
+      return (dataBitSize + 7) / 8;
+    }
+    return (bits.writeCursor + 7) / 8;
+  }
+
+  /** Writes data bytes with completion tag, as they are stored in BoC. */
+  void writeDataBytes(ByteBuffer out) {
+    if (isNull(bits) && nonNull(source)) {
+      ByteBuffer src = source.duplicate();
+      src.limit(dataOffset + (dataBitSize + 7) / 8);
+      src.position(dataOffset);
+      out.put(src);
+    } else {
+      out.put(getDataBytes());
+    }
+  }
+
+  private void updateDigestWithData(MessageDigest digest) {
+    if (isNull(bits) && nonNull(source)) {
+      ByteBuffer src = source.duplicate();
+      src.limit(dataOffset + (dataBitSize + 7) / 8);
+      src.position(dataOffset);
+      digest.update(src);
+    } else {
+      digest.update(getDataBytes());
+    }
+  }
+
+  private void updateDigestWithHash(MessageDigest digest, int lvl) {
+    int hashIndex = levelMask.getHashIndex(lvl);
+    if ((type == CellType.PRUNED_BRANCH) && (hashIndex != levelMask.getHashIndex())) {
+      digest.update(getHash(lvl));
+      return;
+    }
+    if (type == CellType.PRUNED_BRANCH) {
+      hashIndex = 0;
+    }
+    if (hashes.length != 0) {
+      digest.update(hashes, hashIndex * 32, 32);
+    } else {
+      digest.update(new byte[32]);
+    }
   }
 
   void setCellType(CellType pCellType) {
@@ -349,18 +496,99 @@ public class Cell implements Serializable {
     return fromBocMultiRoot(data);
   }
 
+  /**
+   * Parses BoC and replaces every cell with its canonical instance from the interner, so subtrees
+   * already seen by the interner are shared instead of being kept in memory again.
+   */
+  public static Cell fromBoc(byte[] data, CellInterner interner) {
+    return fromBocMultiRoot(ByteBuffer.wrap(data), false, false, interner).get(0);
+  }
+
+  public static List<Cell> fromBocMultiRoots(byte[] data, CellInterner interner) {
+    return fromBocMultiRoot(ByteBuffer.wrap(data), false, false, interner);
+  }
+
+  /**
+   * Parses BoC from the remaining bytes of the buffer without copying them, the buffer position is
+   * not changed. Cell data stays in the buffer until bits of a cell are requested, so the buffer
+   * must not be modified while returned cells are in use.
+   *
+   * @param data heap, direct or memory-mapped buffer with serialized BoC
+   * @return root cell
+   */
+  public static Cell fromBoc(ByteBuffer data) {
+    return fromBocMultiRoot(data, true, false).get(0);
+  }
+
+  /**
+   * Same as {@link #fromBoc(ByteBuffer)}, but with lazyHashes set cell hashes are not calculated
+   * while parsing, only on first call of getHash(), getDepthLevels() or toBoc().
+   */
+  public static Cell fromBoc(ByteBuffer data, boolean lazyHashes) {
+    return fromBocMultiRoot(data, true, lazyHashes).get(0);
+  }
+
+  public static List<Cell> fromBocMultiRoots(ByteBuffer data) {
+    return fromBocMultiRoot(data, true, false);
+  }
+
+  public static List<Cell> fromBocMultiRoots(ByteBuffer data, boolean lazyHashes) {
+    return fromBocMultiRoot(data, true, lazyHashes);
+  }
+
+  /**
+   * Reads BoC from the stream cell by cell, without loading the whole BoC into memory first.
+   * CRC32C is checked on the fly. Exactly the bytes of BoC are consumed, so the stream can carry
+   * other data after it. The stream is not closed.
+   *
+   * @param in stream positioned at the start of BoC
+   * @return root cell
+   */
+  public static Cell readBoc(InputStream in) throws IOException {
+    return readBocMultiRoot(in, false).get(0);
+  }
+
+  /** Same as {@link #readBoc(InputStream)}, but reads from the channel. */
+  public static Cell readBoc(ReadableByteChannel in) throws IOException {
+    return readBocMultiRoot(Channels.newInputStream(in), false).get(0);
+  }
+
+  public static List<Cell> readBocMultiRoots(InputStream in) throws IOException {
+    return readBocMultiRoot(in, false);
+  }
+
+  public static List<Cell> readBocMultiRoots(InputStream in, boolean lazyHashes)
+      throws IOException {
+    return readBocMultiRoot(in, lazyHashes);
+  }
+
+  /** Same as {@link #readBoc(InputStream)}, but cells are interned, see {@link CellInterner}. */
+  public static Cell readBoc(InputStream in, CellInterner interner) throws IOException {
+    return readBocMultiRoot(in, false, interner).get(0);
+  }
+
   public String toString() {
     //    return bits.toHex();
     return toHex(false);
   }
 
   public int getBitLength() {
-    return bits.toBitString().length();
+    if (isNull(bits) && nonNull(source)) {
+      return dataBitSize;
+    }
+    return bits.writeCursor;
   }
 
   public Cell clone() {
     Cell c = new Cell();
-    c.bits = this.bits.clone();
+    if (isNull(this.bits) && nonNull(this.source)) {
+      c.bits = null;
+      c.source = this.source;
+      c.dataOffset = this.dataOffset;
+      c.dataBitSize = this.dataBitSize;
+    } else {
+      c.bits = this.bits.clone();
+    }
 
     // Always use a modifiable list
     if (this.refs.isEmpty()) {
@@ -372,6 +600,7 @@ public class Cell implements Serializable {
     }
 
     c.exotic = this.exotic;
+    c.hashesPending = this.hashesPending;
     c.type = this.type;
     c.levelMask = this.levelMask.clone();
 
@@ -389,7 +618,7 @@ public class Cell implements Serializable {
 
   public void writeCell(Cell anotherCell) {
     // Avoid unnecessary cloning and optimize for common cases
-    bits.writeBitString(anotherCell.bits);
+    bits.writeBitString(anotherCell.getBits());
 
     // Optimize for the common case of few refs
     int refsSize = anotherCell.refs.size();
@@ -477,46 +706,54 @@ public class Cell implements Serializable {
   }
 
   static List<Cell> fromBocMultiRoot(byte[] data) {
-    if (data.length < 10) {
+    return fromBocMultiRoot(ByteBuffer.wrap(data), false, false);
+  }
+
+  /**
+   * Parses BoC directly from the buffer, starting at its current position and up to its limit.
+   * Buffer position is left untouched. When lazy is set, cells keep a reference to the buffer and
+   * copy their data bits out of it only on first access. When lazyHashes is set, hashes are
+   * calculated on first access as well.
+   */
+  static List<Cell> fromBocMultiRoot(ByteBuffer data, boolean lazy, boolean lazyHashes) {
+    return fromBocMultiRoot(data, lazy, lazyHashes, null);
+  }
+
+  /** Same as {@link #fromBocMultiRoot(ByteBuffer, boolean, boolean)}, interner can be null. */
+  static List<Cell> fromBocMultiRoot(
+      ByteBuffer data, boolean lazy, boolean lazyHashes, CellInterner interner) {
+    int start = data.position();
+    int end = data.limit();
+    if ((end - start) < 10) {
       throw new Error("Invalid boc");
     }
-    byte[] reachBocMagicPrefix = Utils.hexToSignedBytes("B5EE9C72");
 
-    ByteBuffer r = ByteBuffer.wrap(data);
-    byte[] t = new byte[4];
-    r.get(t);
-    if (!Utils.compareBytes(reachBocMagicPrefix, t)) {
+    ByteBuffer r = data.duplicate().order(ByteOrder.BIG_ENDIAN);
+    if (r.getInt() != REACH_BOC_MAGIC_PREFIX) {
       throw new Error("Invalid boc magic header");
     }
 
     BocFlags bocFlags = parseBocFlags(r.get());
     int dataSizeBytes = r.get(); // off_bytes:(## 8) { off_bytes <= 8 }
 
-    t = new byte[bocFlags.cellNumSizeBytes];
-    r.get(t);
-    long cellsNum = Utils.dynInt(t); // cells:(##(size * 8))
-    r.get(t);
-    long rootsNum = Utils.dynInt(t); // roots:(##(size * 8)) { roots >= 1 }
-
-    r.get(t);
-    t = new byte[dataSizeBytes];
-    r.get(t);
-    long dataLen = Utils.dynInt(t);
+    long cellsNum = readDynInt(r, bocFlags.cellNumSizeBytes); // cells:(##(size * 8))
+    long rootsNum = readDynInt(r, bocFlags.cellNumSizeBytes); // roots:(##(size * 8)) { roots >= 1 }
+    readDynInt(r, bocFlags.cellNumSizeBytes); // absent:(##(size * 8))
+    long dataLen = readDynInt(r, dataSizeBytes);
 
     if (bocFlags.hasCrc32c) {
-      byte[] bocWithoutCrc = Arrays.copyOfRange(data, 0, data.length - 4);
-      byte[] crcInBoc = Arrays.copyOfRange(data, data.length - 4, data.length);
-      byte[] crc32 = Utils.getCRC32ChecksumAsBytesReversed(bocWithoutCrc);
-      if (!Utils.compareBytes(crc32, crcInBoc)) {
+      ByteBuffer bocWithoutCrc = data.duplicate();
+      bocWithoutCrc.position(start).limit(end - 4);
+      // crc is stored in little-endian order
+      if ((int) Utils.getCRC32ChecksumAsLong(bocWithoutCrc)
+          != Integer.reverseBytes(r.getInt(end - 4))) {
         throw new Error("Crc32c hash mismatch");
       }
     }
 
     int[] rootsIndex = new int[(int) rootsNum];
     for (int i = 0; i < rootsNum; i++) {
-      t = new byte[bocFlags.cellNumSizeBytes];
-      r.get(t);
-      rootsIndex[i] = Utils.dynInt(t);
+      rootsIndex[i] = (int) readDynInt(r, bocFlags.cellNumSizeBytes);
     }
 
     if (bocFlags.hasCacheBits && !bocFlags.hasIndex) {
@@ -524,48 +761,263 @@ public class Cell implements Serializable {
     }
 
     int[] index = new int[0];
-    int j = 0;
     if (bocFlags.hasIndex) {
       index = new int[(int) cellsNum];
-      t = new byte[Math.toIntExact(cellsNum * dataSizeBytes)];
-      r.get(t);
-      byte[] idxData = t;
-
       for (int i = 0; i < cellsNum; i++) {
-        int off = i * dataSizeBytes;
-        int val = Utils.dynInt(Arrays.copyOfRange(idxData, off, off + dataSizeBytes));
+        int val = (int) readDynInt(r, dataSizeBytes);
         if (bocFlags.hasCacheBits) {
           val = val / 2;
         }
-        index[j++] = val;
+        index[i] = val;
       }
     }
 
     if (cellsNum > dataLen / 2) {
       throw new Error(
-          "cells num looks malicious: data len " + Arrays.toString(data) + ", cells " + cellsNum);
+          "cells num looks malicious: data len " + (end - start) + ", cells " + cellsNum);
     }
 
-    byte[] payload = new byte[Math.toIntExact(dataLen)];
-    r.get(payload);
+    if (r.remaining() < dataLen) {
+      throw new BufferUnderflowException();
+    }
 
-    return parseCells(rootsIndex, rootsNum, cellsNum, bocFlags.cellNumSizeBytes, payload, index);
+    return parseCells(
+        rootsIndex,
+        cellsNum,
+        bocFlags.cellNumSizeBytes,
+        r,
+        r.position(),
+        Math.toIntExact(dataLen),
+        index,
+        lazy,
+        lazyHashes,
+        interner);
   }
 
-  private static List<Cell> parseCells(
-      int[] rootsIndex, long rootsNum, long cellsNum, int refSzBytes, byte[] data, int[] index) {
-    Cell[] cells = new Cell[(int) cellsNum];
-    for (int i = 0; i < cellsNum; i++) {
-      cells[i] = new Cell();
+  static List<Cell> readBocMultiRoot(InputStream in, boolean lazyHashes) throws IOException {
+    return readBocMultiRoot(in, lazyHashes, null);
+  }
+
+  static List<Cell> readBocMultiRoot(InputStream in, boolean lazyHashes, CellInterner interner)
+      throws IOException {
+    Checksum crc32c = Utils.newCRC32Checksum();
+    DataInputStream r = new DataInputStream(new CheckedInputStream(in, crc32c));
+    if (r.readInt() != REACH_BOC_MAGIC_PREFIX) {
+      throw new Error("Invalid boc magic header");
+    }
+
+    BocFlags bocFlags = parseBocFlags(r.readByte());
+    int dataSizeBytes = r.readUnsignedByte(); // off_bytes:(## 8) { off_bytes <= 8 }
+
+    long cellsNum = readDynInt(r, bocFlags.cellNumSizeBytes); // cells:(##(size * 8))
+    long rootsNum = readDynInt(r, bocFlags.cellNumSizeBytes); // roots:(##(size * 8)) { roots >= 1 }
+    readDynInt(r, bocFlags.cellNumSizeBytes); // absent:(##(size * 8))
+    long dataLen = readDynInt(r, dataSizeBytes);
+
+    int[] rootsIndex = new int[(int) rootsNum];
+    for (int i = 0; i < rootsNum; i++) {
+      rootsIndex[i] = (int) readDynInt(r, bocFlags.cellNumSizeBytes);
+    }
+
+    if (bocFlags.hasCacheBits && !bocFlags.hasIndex) {
+      throw new Error("cache flag cant be set without index flag");
+    }
+
+    if (cellsNum > dataLen / 2) {
+      throw new Error("cells num looks malicious: data len " + dataLen + ", cells " + cellsNum);
+    }
+
+    if (bocFlags.hasIndex) {
+      // cells are stored one after another anyway, offsets are not needed to read them in order
+      skipFully(r, cellsNum * dataSizeBytes);
     }
 
+    List<Cell> roots =
+        readCells(
+            new BocInput(r, dataLen),
+            rootsIndex,
+            (int) cellsNum,
+            bocFlags.cellNumSizeBytes,
+            lazyHashes,
+            interner);
+
+    if (bocFlags.hasCrc32c) {
+      int crc = (int) crc32c.getValue();
+      // crc is stored in little-endian order, read it past the checksum
+      if (crc != Integer.reverseBytes(new DataInputStream(in).readInt())) {
+        throw new Error("Crc32c hash mismatch");
+      }
+    }
+    return roots;
+  }
+
+  /**
+   * Reads cells of the payload one by one, keeping only their data bits and ref indexes. Cells are
+   * built back to front afterwards, as in {@link #parseCells}.
+   */
+  private static List<Cell> readCells(
+      BocInput in,
+      int[] rootsIndex,
+      int cellsCount,
+      int refSzBytes,
+      boolean lazyHashes,
+      CellInterner interner)
+      throws IOException {
+    int[] cellFlags = new int[cellsCount];
+    BitString[] cellBits = new BitString[cellsCount];
+    int[] cellRefs = new int[cellsCount * 4];
+
+    ByteBuffer buf = in.buf;
+    for (int i = 0; i < cellsCount; i++) {
+      in.require(2, "failed to parse cell header, corrupted data");
+      int flags = buf.get();
+      int refsNum = flags & 0b111;
+      boolean withHashes = (flags & 0b10000) != 0;
+
+      if (refsNum > 4) {
+        throw new Error("too many refs in cell");
+      }
+
+      int ln = buf.get() & 0xFF;
+      int sz = (ln / 2 + ln % 2);
+
+      if (withHashes) {
+        int mask = flags >> 5;
+        int maskBits = (int) Math.ceil(Math.log(mask + 1) / Math.log(2));
+        int hashesNum = maskBits + 1;
+        in.require(hashesNum * 32 + hashesNum * 2, "failed to parse cell hashes, corrupted data");
+        buf.position(buf.position() + hashesNum * 32 + hashesNum * 2);
+      }
+
+      in.require(sz, "failed to parse cell payload, corrupted data");
+      cellBits[i] = new BitString(buf, buf.position(), dataBitSize(buf, buf.position(), ln));
+      buf.position(buf.position() + sz);
+
+      in.require(refsNum * refSzBytes, "failed to parse cell refs, corrupted data");
+      for (int j = 0; j < refsNum; j++) {
+        int refIndex = (int) readDynInt(buf, refSzBytes);
+        if (refIndex <= i) {
+          throw new Error("reference to index which is behind parent cell");
+        }
+        if (refIndex >= cellsCount) {
+          throw new Error("invalid index, out of scope");
+        }
+        cellRefs[i * 4 + j] = refIndex;
+      }
+      cellFlags[i] = flags;
+    }
+    in.skipRest();
+
+    Cell[] cells = new Cell[cellsCount];
+    for (int i = cellsCount - 1; i >= 0; i--) {
+      Cell cell = newParsedCell(cellFlags[i], cells, cellRefs, i);
+      cell.bits = cellBits[i];
+      cellBits[i] = null;
+      cells[i] = initParsedCell(cell, lazyHashes, interner);
+    }
+
+    return pickRoots(cells, rootsIndex);
+  }
+
+  /** BoC payload of known length, read from the stream in chunks that never go past its end. */
+  private static final class BocInput {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final DataInputStream in;
+    private final ByteBuffer buf = ByteBuffer.allocate(CHUNK_SIZE).flip();
+    private long left;
+
+    BocInput(DataInputStream in, long dataLen) {
+      this.in = in;
+      this.left = dataLen;
+    }
+
+    /** Makes sure the next size bytes of payload are in the buffer. */
+    void require(int size, String error) throws IOException {
+      if (buf.remaining() >= size) {
+        return;
+      }
+      if (buf.remaining() + left < size) {
+        throw new Error(error);
+      }
+      buf.compact();
+      int n = (int) Math.min(buf.remaining(), left);
+      in.readFully(buf.array(), buf.position(), n);
+      buf.position(buf.position() + n);
+      buf.flip();
+      left -= n;
+    }
+
+    void skipRest() throws IOException {
+      skipFully(in, left);
+      left = 0;
+    }
+  }
+
+  private static void skipFully(DataInputStream in, long n) throws IOException {
+    while (n > 0) {
+      int skipped = in.skipBytes((int) Math.min(n, Integer.MAX_VALUE));
+      if (skipped <= 0) {
+        in.readByte(); // throws EOFException at the end of stream
+        skipped = 1;
+      }
+      n -= skipped;
+    }
+  }
+
+  private static long readDynInt(DataInputStream r, int size) throws IOException {
+    long val = 0;
+    for (int i = 0; i < size; i++) {
+      val = (val << 8) | r.readUnsignedByte();
+    }
+    return val;
+  }
+
+  private static long readDynInt(ByteBuffer r, int size) {
+    long val = 0;
+    for (int i = 0; i < size; i++) {
+      val = (val << 8) | (r.get() & 0xFF);
+    }
+    return val;
+  }
+
+  private static int readDynInt(ByteBuffer r, int pos, int size) {
+    int val = 0;
+    for (int i = 0; i < size; i++) {
+      val = (val << 8) | (r.get(pos + i) & 0xFF);
+    }
+    return val;
+  }
+
+  /**
+   * Parses cells of the payload [base, base + dataLen) without copying it. Cell descriptors are
+   * decoded front to back first, then cells are built back to front, so every cell gets its
+   * children before its own hashes are calculated.
+   */
+  private static List<Cell> parseCells(
+      int[] rootsIndex,
+      long cellsNum,
+      int refSzBytes,
+      ByteBuffer data,
+      int base,
+      int dataLen,
+      int[] index,
+      boolean lazy,
+      boolean lazyHashes,
+      CellInterner interner) {
+    int cellsCount = (int) cellsNum;
+    int[] cellFlags = new int[cellsCount];
+    int[] cellDataOffset = new int[cellsCount];
+    int[] cellBitSize = new int[cellsCount];
+    int[] cellRefs = new int[cellsCount * 4];
+
     int offset = 0;
-    for (int i = 0; i < cellsNum; i++) {
-      if ((data.length - offset) < 2) {
+    for (int i = 0; i < cellsCount; i++) {
+      if ((dataLen - offset) < 2) {
         throw new Error("failed to parse cell header, corrupted data");
       }
 
-      if (nonNull(index) && (index.length != 0)) {
+      if (index.length != 0) {
         // if we have index, then set offset from it, it stores end of each cell
         offset = 0;
         if (i > 0) {
@@ -573,91 +1025,115 @@ public class Cell implements Serializable {
         }
       }
 
-      int flags = data[offset];
+      int flags = data.get(base + offset);
       int refsNum = flags & 0b111;
-      boolean special = (flags & 0b1000) != 0;
       boolean withHashes = (flags & 0b10000) != 0;
-      LevelMask levelMask = new LevelMask(flags >> 5);
 
       if (refsNum > 4) {
         throw new Error("too many refs in cell");
       }
 
-      int ln = data[offset + 1] & 0xFF;
+      int ln = data.get(base + offset + 1) & 0xFF;
       int oneMore = ln % 2;
       int sz = (ln / 2 + oneMore);
 
       offset += 2;
-      if ((data.length - offset) < sz) {
+      if ((dataLen - offset) < sz) {
         throw new Error("failed to parse cell payload, corrupted data");
       }
 
       if (withHashes) {
-        int maskBits = (int) Math.ceil(Math.log(levelMask.mask + 1) / Math.log(2));
+        int mask = flags >> 5;
+        int maskBits = (int) Math.ceil(Math.log(mask + 1) / Math.log(2));
         int hashesNum = maskBits + 1;
         offset += hashesNum * 32 + hashesNum * 2;
       }
-      byte[] payload = Arrays.copyOfRange(data, offset, offset + sz);
+      int payloadOffset = offset;
 
       offset += sz;
-      if ((data.length - offset) < (refsNum * refSzBytes)) {
+      if ((dataLen - offset) < (refsNum * refSzBytes)) {
         throw new Error("failed to parse cell refs, corrupted data");
       }
 
-      int[] refsIndex = new int[refsNum];
-      int x = 0;
       for (int j = 0; j < refsNum; j++) {
-        byte[] t = Arrays.copyOfRange(data, offset, offset + refSzBytes);
-        refsIndex[x++] = Utils.dynInt(t);
-
-        offset += refSzBytes;
-      }
-
-      Cell[] refs = new Cell[refsIndex.length];
-
-      for (int y = 0; y < refsIndex.length; y++) {
-        if ((refsIndex[y] < i) && (isNull(index))) {
+        int refIndex = readDynInt(data, base + offset, refSzBytes);
+        if (refIndex <= i) {
           throw new Error("reference to index which is behind parent cell");
         }
-
-        if (refsIndex[y] >= cells.length) {
+        if (refIndex >= cellsCount) {
           throw new Error("invalid index, out of scope");
         }
-
-        refs[y] = cells[refsIndex[y]];
+        cellRefs[i * 4 + j] = refIndex;
+        offset += refSzBytes;
       }
 
-      int bitSz = ln * 4;
+      cellFlags[i] = flags;
+      cellDataOffset[i] = base + payloadOffset;
+      cellBitSize[i] = dataBitSize(data, base + payloadOffset, ln);
+    }
 
-      // if not full byte
-      if ((ln % 2) != 0) {
-        // find last bit of byte which indicates the end and cut it and next
-        for (int y = 0; y < 8; y++) {
-          if (((payload[payload.length - 1] >> y) & 1) == 1) {
-            bitSz += 3 - y;
-            break;
-          }
-        }
+    Cell[] cells = new Cell[cellsCount];
+    for (int i = cellsCount - 1; i >= 0; i--) {
+      Cell cell = newParsedCell(cellFlags[i], cells, cellRefs, i);
+      if (lazy) {
+        cell.source = data;
+        cell.dataOffset = cellDataOffset[i];
+        cell.dataBitSize = cellBitSize[i];
+      } else {
+        cell.bits = new BitString(data, cellDataOffset[i], cellBitSize[i]);
       }
+      cells[i] = initParsedCell(cell, lazyHashes, interner);
+    }
 
-      cells[i].bits = new BitString(payload, bitSz);
-      cells[i].refs = Arrays.asList(refs);
-      cells[i].exotic = special; // i = 264 / ddnew 0101
-      cells[i].levelMask = levelMask;
+    return pickRoots(cells, rootsIndex);
+  }
 
-      cells[i].type = cells[i].getCellType();
+  /**
+   * Returns size in bits of cell data starting at offset, for the given bits descriptor d2. When
+   * data does not end on a byte boundary, the completion tag is cut off.
+   */
+  private static int dataBitSize(ByteBuffer data, int offset, int ln) {
+    int bitSz = ln * 4;
+
+    // if not full byte
+    if ((ln % 2) != 0) {
+      // find last bit of byte which indicates the end and cut it and next
+      int lastByte = data.get(offset + ln / 2);
+      for (int y = 0; y < 8; y++) {
+        if (((lastByte >> y) & 1) == 1) {
+          bitSz += 3 - y;
+          break;
+        }
+      }
     }
+    return bitSz;
+  }
 
-    Cell[] roots = new Cell[rootsIndex.length];
+  /** Creates i-th cell of BoC with refs taken from already built cells, without data. */
+  private static Cell newParsedCell(int flags, Cell[] cells, int[] cellRefs, int i) {
+    Cell[] refs = new Cell[flags & 0b111];
+    for (int y = 0; y < refs.length; y++) {
+      refs[y] = cells[cellRefs[i * 4 + y]];
+    }
+    return new Cell(Arrays.asList(refs), (flags & 0b1000) != 0, new LevelMask(flags >> 5));
+  }
 
-    for (int i = cells.length - 1; i >= 0; i--) {
-      cells[i].calculateHashes();
+  /** Finishes a parsed cell and returns it or its canonical copy, if interner is given. */
+  private static Cell initParsedCell(Cell cell, boolean lazyHashes, CellInterner interner) {
+    cell.type = cell.getCellType();
+    if (lazyHashes) {
+      cell.deferHashes();
+    } else {
+      cell.calculateHashes();
     }
+    return isNull(interner) ? cell : interner.intern(cell);
+  }
 
+  private static List<Cell> pickRoots(Cell[] cells, int[] rootsIndex) {
+    Cell[] roots = new Cell[rootsIndex.length];
     for (int i = 0; i < rootsIndex.length; i++) {
       roots[i] = cells[rootsIndex[i]];
     }
-
     return Arrays.asList(roots);
   }
 
@@ -691,7 +1167,7 @@ public class Cell implements Serializable {
     } else if (this.type == CellType.PRUNED_BRANCH) {
       t = "P";
     }
-    StringBuilder s = new StringBuilder(indent + t + "{" + bits.toHex() + "}\n");
+    StringBuilder s = new StringBuilder(indent + t + "{" + getBits().toHex() + "}\n");
     if (nonNull(refs) && !refs.isEmpty()) {
       for (Cell i : refs) {
         if (nonNull(i)) {
@@ -756,11 +1232,11 @@ public class Cell implements Serializable {
   }
 
   public String bitStringToHex() {
-    return bits.toHex();
+    return getBits().toHex();
   }
 
   public String toBitString() {
-    return bits.toBitString();
+    return getBits().toBitString();
   }
 
   public String toBase64() {
@@ -791,7 +1267,8 @@ public class Cell implements Serializable {
   }
 
   public byte[] getHash(int lvl) {
-    int hashIndex = levelMask.apply(lvl).getHashIndex();
+    ensureHashes();
+    int hashIndex = levelMask.getHashIndex(lvl);
     if (type == CellType.PRUNED_BRANCH) {
       int prunedHashIndex = levelMask.getHashIndex();
       if (hashIndex != prunedHashIndex) {
@@ -809,18 +1286,24 @@ public class Cell implements Serializable {
   }
 
   public byte[] getRefsDescriptor(int lvl) {
-    byte[] d1 = new byte[1];
-    d1[0] = (byte) (isNull(refs) ? 0 : refs.size() + ((exotic ? 1 : 0) * 8) + lvl * 32);
-    return d1;
+    return new byte[] {refsDescriptor(lvl)};
   }
 
   public byte[] getBitsDescriptor() {
-    int bitsLength = bits.getUsedBits();
+    return new byte[] {bitsDescriptor()};
+  }
+
+  byte refsDescriptor(int lvl) {
+    return (byte) (isNull(refs) ? 0 : refs.size() + ((exotic ? 1 : 0) * 8) + lvl * 32);
+  }
+
+  byte bitsDescriptor() {
+    int bitsLength = getUsedBits();
     byte d3 = (byte) ((bitsLength / 8) * 2);
     if ((bitsLength % 8) != 0) {
       d3++;
     }
-    return new byte[] {d3};
+    return d3;
   }
 
   public int getMaxLevel() {
@@ -862,96 +1345,7 @@ public class Cell implements Serializable {
       boolean hasCacheBits,
       boolean hasTopHash,
       boolean hasIntHashes) {
-    Pair<List<IdxItem>, Map<String, IdxItem>> sortedCellsAndIndex = flattenIndex(roots, hasTopHash);
-
-    List<IdxItem> sortedCells = sortedCellsAndIndex.getLeft();
-    Map<String, IdxItem> index = sortedCellsAndIndex.getRight();
-
-    int cellSizeBits = Utils.log2(sortedCells.size() + 1);
-    int cellSizeBytes = (int) Math.ceil((double) cellSizeBits / 8);
-
-    byte[] payload = new byte[0];
-    for (IdxItem sortedCell : sortedCells) {
-      payload =
-          Utils.concatBytes(
-              payload,
-              sortedCell.getCell().serialize(cellSizeBytes, index, sortedCell.isWithHash()));
-      sortedCell.dataIndex = payload.length;
-    }
-
-    // bytes needed to store len of payload
-    int sizeBits = Utils.log2Ceil(payload.length + 1);
-    byte sizeBytes = (byte) ((sizeBits + 7) / 8);
-
-    // has_idx 1bit, hash_crc32 1bit,  has_cache_bits 1bit, flags 2bit, size_bytes 3 bit
-    byte flagsByte = 0;
-    if (hasIdx) {
-      flagsByte |= (byte) 0b1_0_0_00_000;
-    }
-    if (hasCrc32c) {
-      flagsByte |= 0b0_1_0_00_000;
-    }
-    if (hasCacheBits) {
-      flagsByte |= 0b0_0_1_00_000;
-    }
-
-    flagsByte |= (byte) cellSizeBytes;
-
-    byte[] data = new byte[0];
-
-    byte[] bocMagic = new byte[] {(byte) 0xB5, (byte) 0xEE, (byte) 0x9C, 0x72};
-
-    data = Utils.concatBytes(data, bocMagic);
-
-    data = Utils.concatBytes(data, Utils.byteToBytes(flagsByte));
-
-    // bytes needed to store size
-    data = Utils.concatBytes(data, Utils.byteToBytes(sizeBytes));
-
-    // cells num
-    data =
-        Utils.concatBytes(
-            data, Utils.dynamicIntBytes(BigInteger.valueOf(sortedCells.size()), cellSizeBytes));
-
-    // roots num
-    data = Utils.concatBytes(data, Utils.dynamicIntBytes(BigInteger.ONE, cellSizeBytes));
-
-    // complete BOCs = 0
-    data = Utils.concatBytes(data, Utils.dynamicIntBytes(BigInteger.ZERO, cellSizeBytes));
-
-    // len of data
-    data =
-        Utils.concatBytes(
-            data, Utils.dynamicIntBytes(BigInteger.valueOf(payload.length), sizeBytes));
-
-    for (Cell c : roots) {
-      data =
-          Utils.concatBytes(
-              data,
-              Utils.dynamicIntBytes(index.get(Utils.bytesToHex(c.getHash())).index, cellSizeBytes));
-    }
-
-    if (hasIdx) {
-      for (IdxItem sc : sortedCells) {
-        long idx = sc.dataIndex;
-        if (hasCacheBits) {
-          idx *= 2;
-          if (sc.repeats > 0) {
-            // cache cells which has refs
-            idx++;
-          }
-        }
-        data = Utils.concatBytes(data, Utils.dynamicIntBytes(BigInteger.valueOf(idx), sizeBytes));
-      }
-    }
-
-    data = Utils.appendByteArray(data, payload);
-
-    if (hasCrc32c) {
-      data = Utils.appendByteArray(data, Utils.getCRC32ChecksumAsBytesReversed(data));
-    }
-
-    return data;
+    return new BocSerializer(roots).toBoc(hasCrc32c, hasIdx, hasCacheBits);
   }
 
   public byte[] toBoc(
@@ -975,97 +1369,33 @@ public class Cell implements Serializable {
     return internalToBoc(roots, hasCrc32c, hasIdx, hasCacheBits, hasTopHash, hasIntHashes);
   }
 
-  /** reworked in order to coincide with tonutils-go */
-  private Pair<List<IdxItem>, Map<String, IdxItem>> flattenIndex(
-      List<Cell> roots, boolean hasTopHash) {
-    Map<String, IdxItem> index = new HashMap<>();
-
-    BigInteger idx = BigInteger.ZERO;
-
-    while (!roots.isEmpty()) {
-      List<Cell> next = new ArrayList<>(roots.size() * 4);
-      for (Cell p : roots) {
-        String hash = Utils.bytesToHex(p.getHash());
-
-        IdxItem v = index.get(hash);
-        if (nonNull(v)) {
-          v.repeats++;
-          continue;
-        }
-
-        index.put(hash, IdxItem.builder().cell(p).index(idx).withHash(hasTopHash).build());
-        idx = idx.add(BigInteger.ONE);
-
-        next.addAll(p.getRefs());
-      }
-      roots = next;
-    }
-
-    List<IdxItem> idxSlice = new ArrayList<>(index.size());
-    for (Map.Entry<String, IdxItem> entry : index.entrySet()) {
-      String key = entry.getKey();
-      IdxItem value = entry.getValue();
-      idxSlice.add(value);
-    }
-
-    idxSlice.sort(Comparator.comparing(lhs -> lhs.index));
-
-    boolean verifyOrder = true;
-    while (verifyOrder) {
-      verifyOrder = false;
-      for (IdxItem id : idxSlice) {
-        for (Cell ref : id.getCell().getRefs()) {
-          IdxItem idRef = index.get(Utils.bytesToHex(ref.getHash()));
-          if (idRef.index.compareTo(id.index) < 0) {
-            idRef.index = idx;
-            idx = idx.add(BigInteger.ONE); // idx++
-            verifyOrder = true;
-          }
-        }
-      }
-    }
-    idxSlice.sort(Comparator.comparing(lhs -> lhs.index));
-
-    for (int i = 0; i < idxSlice.size(); i++) {
-      idxSlice.get(i).index = BigInteger.valueOf(i);
-    }
-
-    return Pair.of(idxSlice, index);
+  /**
+   * Writes BoC with CRC32C to the stream, see {@link #writeBoc(OutputStream, boolean, boolean,
+   * boolean)}.
+   */
+  public void writeBoc(OutputStream out) throws IOException {
+    writeBoc(out, true, false, false);
   }
 
-  private byte[] serialize(int refIndexSzBytes, Map<String, IdxItem> index, boolean hasHash) {
-    byte[] body = this.getBits().toByteArray();
-    int unusedBits = 8 - (bits.getUsedBits() % 8);
-
-    if (unusedBits != 8) {
-      body[body.length - 1] += (byte) (1 << (unusedBits - 1));
-    }
-
-    int refsLn = this.getRefs().size() * refIndexSzBytes;
-    int bufLn = 2 + body.length + refsLn;
-
-    byte[] data;
-
-    byte[] descriptors = getDescriptors(levelMask.getMask());
-
-    data = Utils.concatBytes(descriptors, body);
-
-    long refsOffset = bufLn - refsLn;
-    for (Cell ref : refs) {
-      String refIndex = Utils.bytesToHex(ref.getHash());
-      byte[] src = Utils.dynamicIntBytes(index.get(refIndex).index, refIndexSzBytes);
-      data = Utils.concatBytes(data, src);
-    }
-
-    return data;
+  /**
+   * Writes BoC to the stream cell by cell through a small buffer, CRC32C is calculated on the fly.
+   * Produces the same bytes as {@link #toBoc(boolean, boolean, boolean)}, but without holding the
+   * whole BoC in memory. The stream is neither flushed nor closed.
+   */
+  public void writeBoc(OutputStream out, boolean withCRC, boolean withIdx, boolean withCacheBits)
+      throws IOException {
+    writeBocMultiRoot(Collections.singletonList(this), out, withCRC, withIdx, withCacheBits);
   }
 
-  private byte[] getDescriptors(int lvl) {
-    return Utils.concatBytes(getRefsDescriptor(lvl), getBitsDescriptor());
+  public static void writeBocMultiRoot(
+      List<Cell> roots, OutputStream out, boolean withCRC, boolean withIdx, boolean withCacheBits)
+      throws IOException {
+    new BocSerializer(roots).writeBoc(out, withCRC, withIdx, withCacheBits);
   }
 
   private int getDepth(int lvlMask) {
-    int hashIndex = levelMask.apply(lvlMask).getHashIndex();
+    ensureHashes();
+    int hashIndex = levelMask.getHashIndex(lvlMask);
     if (type == CellType.PRUNED_BRANCH) {
       int prunedHashIndex = levelMask.getHashIndex();
       if (hashIndex != prunedHashIndex) {
@@ -1077,23 +1407,21 @@ public class Cell implements Serializable {
   }
 
   private byte[] getDataBytes() {
-    if ((bits.getUsedBits() % 8) > 0) {
-      byte[] a = bits.toBitString().getBytes(StandardCharsets.UTF_8);
-      int sz = a.length;
-      byte[] b = new byte[sz + 1];
-
-      System.arraycopy(a, 0, b, 0, sz);
-      b[sz] = (byte) '1';
-
-      int mod = b.length % 8;
-      if (mod > 0) {
-        b = Utils.rightPadBytes(b, b.length + (8 - mod), '0');
-      }
+    if (isNull(bits) && nonNull(source)) {
+      // payload in BoC already ends with the completion tag
+      byte[] data = new byte[(dataBitSize + 7) / 8];
+      ByteBuffer src = source.duplicate();
+      src.position(dataOffset);
+      src.get(data);
+      return data;
+    }
 
-      return Utils.bitStringToByteArray(new String(b));
-    } else {
-      return bits.toByteArray();
+    byte[] data = bits.toByteArray();
+    int rest = bits.writeCursor % 8;
+    if (rest > 0) {
+      data[data.length - 1] |= (byte) (1 << (7 - rest));
     }
+    return data;
   }
 
   public static CellType getCellType(Cell c) {
@@ -1105,21 +1433,21 @@ public class Cell implements Serializable {
       return ORDINARY;
     }
 
-    if (bits.getUsedBits() < 8) {
+    if (getUsedBits() < 8) {
       return UNKNOWN;
     }
 
-    BitString clonedBits = bits.clone();
+    BitString clonedBits = getBits().clone();
     CellType cellType = toCellType(clonedBits.readUint(8).intValue());
     switch (cellType) {
       case PRUNED_BRANCH:
         {
-          if (bits.getUsedBits() >= 288) {
+          if (getUsedBits() >= 288) {
             LevelMask msk = new LevelMask(clonedBits.readUint(8).intValue());
             int lvl = msk.getLevel();
             if ((lvl > 0)
                 && (lvl <= 3)
-                && (bits.getUsedBits()
+                && (getUsedBits()
                     >= 16 + (256 + 16) * msk.apply(lvl - 1).getHashIndex() + 1)) {
               return CellType.PRUNED_BRANCH;
             }
@@ -1127,19 +1455,19 @@ public class Cell implements Serializable {
         }
       case MERKLE_PROOF:
         {
-          if ((refs.size() == 1) && (bits.getUsedBits() == 280)) {
+          if ((refs.size() == 1) && (getUsedBits() == 280)) {
             return CellType.MERKLE_PROOF;
           }
         }
       case MERKLE_UPDATE:
         {
-          if ((refs.size() == 2) && (bits.getUsedBits() == 552)) {
+          if ((refs.size() == 2) && (getUsedBits() == 552)) {
             return CellType.MERKLE_UPDATE;
           }
         }
       case LIBRARY:
         {
-          if (bits.getUsedBits() == (8 + 256)) {
+          if (getUsedBits() == (8 + 256)) {
             return CellType.LIBRARY;
           }
         }
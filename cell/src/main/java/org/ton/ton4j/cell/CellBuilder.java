@@ -6,6 +6,7 @@ import static java.util.Objects.nonNull;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Function;
 import org.ton.ton4j.address.Address;
 import org.ton.ton4j.bitstring.BitString;
 import org.ton.ton4j.utils.Utils;
@@ -46,6 +47,29 @@ public class CellBuilder {
     return cell;
   }
 
+  /**
+   * With lazyHashes set, cell hashes are not calculated here, but on first call of getHash(),
+   * getDepthLevels() or toBoc().
+   */
+  public Cell endCell(boolean lazyHashes) {
+    if (!lazyHashes) {
+      return endCell();
+    }
+    cell.levelMask = cell.resolveMask();
+    if (cell.getHashes().length == 0) {
+      cell.deferHashes();
+    }
+    return cell;
+  }
+
+  /**
+   * Converts a builder into an ordinary cell and returns its canonical instance from the interner,
+   * see {@link CellInterner}.
+   */
+  public Cell endCell(CellInterner interner) {
+    return interner.intern(endCell());
+  }
+
   public List<Cell> endCells() {
     for (Cell c : cells) {
       c.levelMask = c.resolveMask();
@@ -97,36 +121,41 @@ public class CellBuilder {
     return this;
   }
 
+  /** Stores unsigned integer without BigInteger allocation. */
   public CellBuilder storeUint(long number, int bitLength) {
-    return storeUint(BigInteger.valueOf(number), bitLength);
+    checkBitsOverflow(bitLength);
+    checkSign(number);
+    cell.bits.writeUintLong(number, bitLength);
+    return this;
   }
 
   public CellBuilder storeUintMaybe(long number, int bitLength) {
-    return storeUintMaybe(BigInteger.valueOf(number), bitLength);
+    cell.bits.writeBit(true);
+    return storeUint(number, bitLength);
   }
 
   public CellBuilder storeUint(int number, int bitLength) {
-    return storeUint(BigInteger.valueOf(number), bitLength);
+    return storeUint((long) number, bitLength);
   }
 
   public CellBuilder storeUintMaybe(int number, int bitLength) {
-    return storeUintMaybe(BigInteger.valueOf(number), bitLength);
+    return storeUintMaybe((long) number, bitLength);
   }
 
   public CellBuilder storeUint(short number, int bitLength) {
-    return storeUint(BigInteger.valueOf(number), bitLength);
+    return storeUint((long) number, bitLength);
   }
 
   public CellBuilder storeUintMaybe(short number, int bitLength) {
-    return storeUintMaybe(BigInteger.valueOf(number), bitLength);
+    return storeUintMaybe((long) number, bitLength);
   }
 
   public CellBuilder storeUint(Byte number, int bitLength) {
-    return storeUint(BigInteger.valueOf(number), bitLength);
+    return storeUint((long) number, bitLength);
   }
 
   public CellBuilder storeUintMaybe(Byte number, int bitLength) {
-    return storeUintMaybe(BigInteger.valueOf(number), bitLength);
+    return storeUintMaybe((long) number, bitLength);
   }
 
   public CellBuilder storeUint(String number, int bitLength) {
@@ -185,41 +214,62 @@ public class CellBuilder {
     return this;
   }
 
+  /** Stores signed integer without BigInteger allocation. */
   public CellBuilder storeInt(long number, int bitLength) {
-    return storeInt(BigInteger.valueOf(number), bitLength);
+    if (bitLength < 1) {
+      return storeInt(BigInteger.valueOf(number), bitLength);
+    }
+    if (fitsInt(number, bitLength)) {
+      cell.bits.writeIntLong(number, bitLength);
+      return this;
+    } else {
+      throw new Error("Can't store an Int, because its value allocates more space than provided.");
+    }
   }
 
   public CellBuilder storeIntMaybe(long number, int bitLength) {
-    return storeIntMaybe(BigInteger.valueOf(number), bitLength);
+    if (bitLength < 1) {
+      return storeIntMaybe(BigInteger.valueOf(number), bitLength);
+    }
+    if (!fitsInt(number, bitLength)) {
+      throw new Error("Can't store an Int, because its value allocates more space than provided.");
+    }
+    cell.bits.writeBit(true);
+    cell.bits.writeIntLong(number, bitLength);
+    return this;
+  }
+
+  private static boolean fitsInt(long number, int bitLength) {
+    return (bitLength >= 64)
+        || ((number >= -(1L << (bitLength - 1))) && (number < (1L << (bitLength - 1))));
   }
 
   public CellBuilder storeInt(int number, int bitLength) {
-    return storeInt(BigInteger.valueOf(number), bitLength);
+    return storeInt((long) number, bitLength);
   }
 
   public CellBuilder storeIntMaybe(int number, int bitLength) {
-    return storeIntMaybe(BigInteger.valueOf(number), bitLength);
+    return storeIntMaybe((long) number, bitLength);
   }
 
   public CellBuilder storeInt(short number, int bitLength) {
-    return storeInt(BigInteger.valueOf(number), bitLength);
+    return storeInt((long) number, bitLength);
   }
 
   public CellBuilder storeIntMaybe(short number, int bitLength) {
-    return storeIntMaybe(BigInteger.valueOf(number), bitLength);
+    return storeIntMaybe((long) number, bitLength);
   }
 
   public CellBuilder storeInt(byte number, int bitLength) {
-    return storeInt(BigInteger.valueOf(number), bitLength);
+    return storeInt((long) number, bitLength);
   }
 
   public CellBuilder storeIntMaybe(byte number, int bitLength) {
-    return storeIntMaybe(BigInteger.valueOf(number), bitLength);
+    return storeIntMaybe((long) number, bitLength);
   }
 
   public CellBuilder storeInt(BigInteger number, int bitLength) {
-    BigInteger sint = BigInteger.ONE.shiftLeft(bitLength - 1);
-    if ((number.compareTo(sint.negate()) >= 0) && (number.compareTo(sint) < 0)) {
+    if (fitsInt(number, bitLength)) {
       cell.bits.writeInt(number, bitLength);
       return this;
     } else {
@@ -230,13 +280,20 @@ public class CellBuilder {
   public CellBuilder storeIntMaybe(BigInteger number, int bitLength) {
     if (isNull(number)) {
       cell.bits.writeBit(false);
-    } else {
+    } else if (fitsInt(number, bitLength)) {
       cell.bits.writeBit(true);
       cell.bits.writeInt(number, bitLength);
+    } else {
+      throw new Error("Can't store an Int, because its value allocates more space than provided.");
     }
     return this;
   }
 
+  private static boolean fitsInt(BigInteger number, int bitLength) {
+    BigInteger sint = BigInteger.ONE.shiftLeft(bitLength - 1);
+    return (number.compareTo(sint.negate()) >= 0) && (number.compareTo(sint) < 0);
+  }
+
   public CellBuilder storeBitString(BitString bitString) {
     checkBitsOverflow(bitString.getUsedBits());
     cell.bits.writeBitString(bitString.clone());
@@ -342,6 +399,16 @@ public class CellBuilder {
     return this;
   }
 
+  /**
+   * Stores the reference without cloning it, so the subtree and its cached hashes are shared with
+   * other parents. The cell must not be modified afterwards.
+   */
+  CellBuilder storeSharedRef(Cell c) {
+    checkRefsOverflow(1);
+    cell.refs.add(c);
+    return this;
+  }
+
   public CellBuilder storeRefMaybe(Cell c) {
     if (isNull(c)) {
       cell.bits.writeBit(false);
@@ -416,10 +483,10 @@ public class CellBuilder {
     if (isNull(c)) {
       return this;
     }
-    checkBitsOverflow(c.bits.getUsedBits());
+    checkBitsOverflow(c.getBits().getUsedBits());
     checkRefsOverflow(c.refs.size());
 
-    storeBitString(c.bits);
+    storeBitString(c.getBits());
     for (Cell cc : c.refs) {
       cell.refs.add(cc.clone());
     }
@@ -448,6 +515,28 @@ public class CellBuilder {
     return this;
   }
 
+  /**
+   * Stores TonLongHashMap as HashmapE, i.e. as a maybe reference to its root.
+   *
+   * @param dict TonLongHashMap
+   * @param valueSerializer converts value to cell
+   * @return CellBuilder
+   */
+  public CellBuilder storeDict(TonLongHashMap dict, Function<Object, Cell> valueSerializer) {
+    return storeDict(dict.serialize(valueSerializer));
+  }
+
+  /**
+   * Stores TonBytes32HashMap as HashmapE, i.e. as a maybe reference to its root.
+   *
+   * @param dict TonBytes32HashMap
+   * @param valueSerializer converts value to cell
+   * @return CellBuilder
+   */
+  public CellBuilder storeDict(TonBytes32HashMap dict, Function<Object, Cell> valueSerializer) {
+    return storeDict(dict.serialize(valueSerializer));
+  }
+
   /**
    * Used to store TonHashmap that can't be empty and is stored directly in cell, not in ref
    * (storeCell(dict));
@@ -471,6 +560,22 @@ public class CellBuilder {
     return this;
   }
 
+  /**
+   * Stores nano-coins in Cell without BigInteger allocation
+   *
+   * @param coins non-negative amount in nano-coins
+   * @return CellBuilder
+   */
+  public CellBuilder storeCoins(long coins) {
+    if (coins < 0) {
+      throw new Error("Coins value must be positive.");
+    }
+    int bytesSize = (64 - Long.numberOfLeadingZeros(coins) + 7) / 8;
+    cell.bits.writeUintLong(bytesSize, 4);
+    cell.bits.writeUintLong(coins, bytesSize * 8);
+    return this;
+  }
+
   /**
    * Stores up to 2^120-1 nano-coins in Cell
    *
@@ -514,6 +619,12 @@ public class CellBuilder {
     }
   }
 
+  void checkSign(long i) {
+    if (i < 0) {
+      throw new Error("Integer " + i + " must be unsigned");
+    }
+  }
+
   void checkSign(BigInteger i) {
     if (nonNull(i) && (i.signum() < 0)) {
       throw new Error("Integer " + i + " must be unsigned");
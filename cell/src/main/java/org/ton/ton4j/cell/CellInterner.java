@@ -0,0 +1,138 @@
+package org.ton.ton4j.cell;
+
+import static java.util.Objects.nonNull;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hash-consing cache of cells. Returns one canonical instance for all cells with the same
+ * representation hash, so identical subtrees met in many BoCs, like wallet code or library cells,
+ * are kept in memory once.
+ *
+ * <p>Pass it to {@link Cell#fromBoc(byte[], CellInterner)},
+ * {@link Cell#readBoc(java.io.InputStream, CellInterner)} or
+ * {@link CellBuilder#endCell(CellInterner)}. Cells are interned bottom-up while parsing, so
+ * parents of canonical cells refer to canonical children. Interned cells are shared and must not
+ * be modified.
+ *
+ * <p>Either holds up to maxSize cells, evicting least recently used ones, or holds cells weakly,
+ * until they are no longer referenced elsewhere. Safe for use from several threads.
+ */
+public class CellInterner {
+
+  private final int maxSize;
+  private final boolean weak;
+  private final Map<ByteBuffer, Object> cells;
+  private final ReferenceQueue<Cell> collected = new ReferenceQueue<>();
+
+  private long hits;
+  private long misses;
+
+  private CellInterner(int maxSize, boolean weak) {
+    this.maxSize = maxSize;
+    this.weak = weak;
+    this.cells =
+        new LinkedHashMap<ByteBuffer, Object>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Object> eldest) {
+            return size() > CellInterner.this.maxSize;
+          }
+        };
+  }
+
+  /** Creates interner that keeps up to maxSize most recently used cells. */
+  public static CellInterner bounded(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive, got " + maxSize);
+    }
+    return new CellInterner(maxSize, false);
+  }
+
+  /** Creates interner that keeps cells only while they are strongly referenced elsewhere. */
+  public static CellInterner weak() {
+    return new CellInterner(Integer.MAX_VALUE, true);
+  }
+
+  /**
+   * Returns the canonical cell with the same hash as the given one, or registers the given cell as
+   * canonical if there is none yet.
+   */
+  public synchronized Cell intern(Cell cell) {
+    if (weak) {
+      expungeCollected();
+    }
+    ByteBuffer key = ByteBuffer.wrap(cell.getHash());
+    Cell canonical = unwrap(cells.get(key));
+    if (nonNull(canonical)) {
+      hits++;
+      return canonical;
+    }
+    misses++;
+    cells.put(key, weak ? new WeakEntry(key, cell, collected) : cell);
+    return cell;
+  }
+
+  /** Number of cells replaced by an already known canonical instance. */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /** Number of cells that became canonical. */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized double getHitRate() {
+    long total = hits + misses;
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  /** Number of canonical cells currently held. */
+  public synchronized int size() {
+    if (weak) {
+      expungeCollected();
+    }
+    return cells.size();
+  }
+
+  public synchronized void clear() {
+    cells.clear();
+    hits = 0;
+    misses = 0;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(
+        "CellInterner{size=%d, hits=%d, misses=%d, hitRate=%.2f%%}",
+        cells.size(), hits, misses, getHitRate() * 100);
+  }
+
+  private static Cell unwrap(Object value) {
+    if (value instanceof WeakEntry) {
+      return ((WeakEntry) value).get();
+    }
+    return (Cell) value;
+  }
+
+  private void expungeCollected() {
+    WeakEntry entry;
+    while (nonNull(entry = (WeakEntry) collected.poll())) {
+      // entry could have been replaced by a live cell with the same hash
+      cells.remove(entry.key, entry);
+    }
+  }
+
+  private static final class WeakEntry extends WeakReference<Cell> {
+    private final ByteBuffer key;
+
+    WeakEntry(ByteBuffer key, Cell cell, ReferenceQueue<Cell> queue) {
+      super(cell, queue);
+      this.key = key;
+    }
+  }
+}
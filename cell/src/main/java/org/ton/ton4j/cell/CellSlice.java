@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.function.Function;
 import org.ton.ton4j.address.Address;
 import org.ton.ton4j.bitstring.BitString;
+import org.ton.ton4j.utils.Utils;
 
 public class CellSlice implements Serializable {
 
@@ -305,6 +306,127 @@ public class CellSlice implements Serializable {
     }
   }
 
+  /**
+   * Loads Hashmap, that takes the rest of the slice, as a view for single-key lookups. Nothing is
+   * deserialized until the view is queried.
+   *
+   * @param n - dict key size
+   * @return DictView - dict view
+   */
+  public DictView loadDictView(int n) {
+    Cell root = CellBuilder.beginCell().storeSlice(this).endCell();
+    bits.readCursor = bits.writeCursor;
+    refs.clear();
+    return DictView.of(root, n);
+  }
+
+  /**
+   * Loads HashmapE as a view for single-key lookups.
+   *
+   * @param n - dict key size
+   * @return DictView - dict view, empty if dict is empty or pruned
+   */
+  public DictView loadDictEView(int n) {
+    boolean isEmpty = !this.loadBit();
+    if (isEmpty || this.isExotic()) {
+      return DictView.of(null, n);
+    }
+    return DictView.of(this.loadRef(), n);
+  }
+
+  /** Loads HashmapAug, that takes the rest of the slice, as a read-only view. */
+  public DictView loadDictAugView(int n) {
+    Cell root = CellBuilder.beginCell().storeSlice(this).endCell();
+    bits.readCursor = bits.writeCursor;
+    refs.clear();
+    return DictView.ofAug(root, n);
+  }
+
+  /**
+   * Loads HashmapAugE as a read-only view, root extra stays in the slice.
+   *
+   * @param n - dict key size
+   * @return DictView - dict view, empty if dict is empty or pruned
+   */
+  public DictView loadDictAugEView(int n) {
+    boolean isEmpty = !this.loadBit();
+    if (isEmpty || this.isExotic()) {
+      return DictView.ofAug(null, n);
+    }
+    return DictView.ofAug(this.loadRef(), n);
+  }
+
+  /** Loads PfxHashmap, that takes the rest of the slice, as a view for single-key lookups. */
+  public DictView loadDictPfxView(int n) {
+    Cell root = CellBuilder.beginCell().storeSlice(this).endCell();
+    bits.readCursor = bits.writeCursor;
+    refs.clear();
+    return DictView.ofPfx(root, n);
+  }
+
+  /** Loads PfxHashmapE as a view for single-key lookups. */
+  public DictView loadDictPfxEView(int n) {
+    boolean isEmpty = !this.loadBit();
+    if (isEmpty || this.isExotic()) {
+      return DictView.ofPfx(null, n);
+    }
+    return DictView.ofPfx(this.loadRef(), n);
+  }
+
+  /**
+   * Loads Hashmap with keys of up to 64 bits, that takes the rest of the slice, without boxing of
+   * keys.
+   *
+   * @param n - dict key size, 1..64
+   * @param signedKeys - whether keys are intN
+   * @param valueParser - value deserializor
+   * @return TonLongHashMap - dict
+   */
+  public TonLongHashMap loadDictLong(
+      int n, boolean signedKeys, Function<CellSlice, Object> valueParser) {
+    TonLongHashMap x = new TonLongHashMap(n, signedKeys);
+    if (this.type == CellType.PRUNED_BRANCH) {
+      return x;
+    }
+    x.deserialize(loadDictView(n).getRoot(), valueParser);
+    return x;
+  }
+
+  /** Loads HashmapE with unsigned keys of up to 64 bits, see {@link #loadDictLong}. */
+  public TonLongHashMap loadDictELong(int n, Function<CellSlice, Object> valueParser) {
+    return loadDictELong(n, false, valueParser);
+  }
+
+  /** Loads HashmapE with keys of up to 64 bits, see {@link #loadDictLong}. */
+  public TonLongHashMap loadDictELong(
+      int n, boolean signedKeys, Function<CellSlice, Object> valueParser) {
+    TonLongHashMap x = new TonLongHashMap(n, signedKeys);
+    x.deserialize(loadDictEView(n).getRoot(), valueParser);
+    return x;
+  }
+
+  /**
+   * Loads Hashmap 256, that takes the rest of the slice, keeping keys as byte arrays.
+   *
+   * @param valueParser - value deserializor
+   * @return TonBytes32HashMap - dict
+   */
+  public TonBytes32HashMap loadDict256(Function<CellSlice, Object> valueParser) {
+    TonBytes32HashMap x = new TonBytes32HashMap();
+    if (this.type == CellType.PRUNED_BRANCH) {
+      return x;
+    }
+    x.deserialize(loadDictView(TonBytes32HashMap.KEY_SIZE).getRoot(), valueParser);
+    return x;
+  }
+
+  /** Loads HashmapE 256, see {@link #loadDict256}. */
+  public TonBytes32HashMap loadDictE256(Function<CellSlice, Object> valueParser) {
+    TonBytes32HashMap x = new TonBytes32HashMap();
+    x.deserialize(loadDictEView(TonBytes32HashMap.KEY_SIZE).getRoot(), valueParser);
+    return x;
+  }
+
   /**
    * Preloads dict (HashMap) without modifying the actual cell slice.
    *
@@ -530,6 +652,30 @@ public class CellSlice implements Serializable {
     return bits.readInt(length);
   }
 
+  /**
+   * Loads signed integer of up to 64 bits without BigInteger allocation
+   *
+   * @param length in bits, 0..64
+   * @return long
+   */
+  public long loadIntAsLong(int length) {
+    checkPrimitiveLength(length, 64);
+    checkBitsOverflow(length);
+    if (length == 0) return 0;
+    return bits.readIntLong(length);
+  }
+
+  /**
+   * Loads signed integer of up to 32 bits without BigInteger allocation
+   *
+   * @param length in bits, 0..32
+   * @return int
+   */
+  public int loadIntAsInt(int length) {
+    checkPrimitiveLength(length, 32);
+    return (int) loadIntAsLong(length);
+  }
+
   public BigInteger loadIntMaybe(int length) {
     if (bits.readBit()) {
       return bits.readInt(length);
@@ -549,7 +695,58 @@ public class CellSlice implements Serializable {
   public BigInteger loadUint(int length) {
     checkBitsOverflow(length);
     if (length == 0) return BigInteger.ZERO;
-    return new BigInteger(loadBits(length).toBitString(), 2);
+    return bits.readUint(length);
+  }
+
+  /**
+   * Loads unsigned integer of up to 64 bits without BigInteger allocation. A 64-bit value is
+   * returned as is, i.e. values above Long.MAX_VALUE come back negative, same as
+   * loadUint(64).longValue().
+   *
+   * @param length in bits, 0..64
+   * @return long
+   */
+  public long loadUintAsLong(int length) {
+    checkPrimitiveLength(length, 64);
+    checkBitsOverflow(length);
+    if (length == 0) return 0;
+    return bits.readUintLong(length);
+  }
+
+  /**
+   * Loads unsigned integer of up to 32 bits without BigInteger allocation. A 32-bit value is
+   * returned as is, same as loadUint(32).intValue().
+   *
+   * @param length in bits, 0..32
+   * @return int
+   */
+  public int loadUintAsInt(int length) {
+    checkPrimitiveLength(length, 32);
+    return (int) loadUintAsLong(length);
+  }
+
+  /**
+   * Preloads unsigned integer of up to 64 bits without moving the read cursor. Same as
+   * preloadUint, returns 0 if there are not enough bits left.
+   *
+   * @param length in bits, 0..64
+   * @return long
+   */
+  public long preloadUintAsLong(int length) {
+    checkPrimitiveLength(length, 64);
+    if (length == 0 || length > bits.getUsedBits()) return 0;
+    return bits.preReadUintLong(length);
+  }
+
+  /**
+   * Preloads unsigned integer of up to 32 bits without moving the read cursor
+   *
+   * @param length in bits, 0..32
+   * @return int
+   */
+  public int preloadUintAsInt(int length) {
+    checkPrimitiveLength(length, 32);
+    return (int) preloadUintAsLong(length);
   }
 
   public BigInteger preloadInt(int bitLength) {
@@ -576,27 +773,8 @@ public class CellSlice implements Serializable {
    */
   public BigInteger preloadUint(int bitLength) {
     // Fast path for common small bit lengths
-    if (bitLength <= 64 && bits.readCursor + bitLength <= bits.writeCursor) {
-      // Save current position
-      int savedPosition = bits.readCursor;
-      try {
-        // For small integers, use a more efficient approach
-        long result = 0;
-        for (int i = 0; i < bitLength; i++) {
-          if (bits.readBit()) {
-            result = (result << 1) | 1;
-          } else {
-            result = result << 1;
-          }
-        }
-        // Restore position
-        bits.readCursor = savedPosition;
-        return BigInteger.valueOf(result);
-      } catch (Throwable e) {
-        // Restore position on error
-        bits.readCursor = savedPosition;
-        return BigInteger.ZERO;
-      }
+    if (bitLength > 0 && bitLength < 64 && bits.readCursor + bitLength <= bits.writeCursor) {
+      return BigInteger.valueOf(bits.preReadUintLong(bitLength));
     } else {
       // For larger integers, use the standard approach
       int savedPosition = bits.readCursor;
@@ -651,6 +829,39 @@ public class CellSlice implements Serializable {
     return loadVarUInteger(16);
   }
 
+  /**
+   * Loads VarUInteger without BigInteger allocation
+   *
+   * @param value VarUInteger n
+   * @return long
+   * @throws Error if the encoded number does not fit into long
+   */
+  public long loadVarUIntegerAsLong(int value) {
+    int lenBits = 32 - Integer.numberOfLeadingZeros(value - 1);
+    // check before consuming anything, so the slice stays intact on error
+    int len = preloadUintAsInt(lenBits);
+    if (len > 8 || (len == 8 && preloadBitAt(lenBits + 1))) {
+      throw new Error("VarUInteger " + value + " of " + len + " bytes does not fit into long");
+    }
+    skipBits(lenBits);
+    if (len == 0) {
+      return 0;
+    }
+    return loadUintAsLong(len * 8);
+  }
+
+  /**
+   * Loads coins amount without BigInteger allocation
+   *
+   * <p>nanograms$_ amount:(VarUInteger 16) = Grams;
+   *
+   * @return long
+   * @throws Error if the amount is bigger than Long.MAX_VALUE
+   */
+  public long loadCoinsAsLong() {
+    return loadVarUIntegerAsLong(16);
+  }
+
   public BigInteger preloadCoins() {
     // Save current position instead of cloning the entire BitString
     int savedPosition = bits.readCursor;
@@ -677,6 +888,12 @@ public class CellSlice implements Serializable {
     }
   }
 
+  void checkPrimitiveLength(int length, int max) {
+    if (length < 0 || length > max) {
+      throw new Error("Incorrect bitLength " + length + ", expected 0.." + max);
+    }
+  }
+
   void checkRefsOverflow() {
     if (refs.isEmpty()) {
       throw new Error("Refs overflow. No more refs.");
@@ -688,19 +905,16 @@ public class CellSlice implements Serializable {
   }
 
   public Address loadAddress() {
-    BigInteger i = preloadUint(2);
-    if (i.intValue() == 0) {
+    int i = preloadUintAsInt(2);
+    if (i == 0) {
       skipBits(2);
       return null;
     }
-    loadBits(2);
-    loadBits(1);
-    int workchain = loadInt(8).intValue();
-    BigInteger hashPart = loadUint(256);
+    skipBits(3);
+    int workchain = loadIntAsInt(8);
+    byte[] hashPart = loadBytes(256);
 
-    String address =
-        workchain + ":" + String.format("%64s", hashPart.toString(16)).replace(' ', '0');
-    return Address.of(address);
+    return Address.of(workchain + ":" + Utils.bytesToHex(hashPart));
   }
 
   public byte[] getHashes() {
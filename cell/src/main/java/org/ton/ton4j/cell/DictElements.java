@@ -0,0 +1,166 @@
+package org.ton.ton4j.cell;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Elements of a dictionary that remember the cells they were deserialized from until the first
+ * change, so lookups and proofs can use these cells while they still match. Any change through the
+ * map methods drops the cells. Key, value and entry sets are read-only.
+ */
+class DictElements<V> extends LinkedHashMap<Object, V> {
+
+  private transient DictView source;
+  private transient Map<Object, V> readOnly;
+
+  DictElements() {
+    super(16, 0.75f);
+  }
+
+  /** View of the cells the elements were deserialized from, null if there are none or changed. */
+  DictView getSource() {
+    return source;
+  }
+
+  void setSource(DictView source) {
+    this.source = source;
+  }
+
+  /** View of the cells of elements if it still matches them. */
+  static DictView sourceOf(Map<?, ?> elements) {
+    return elements instanceof DictElements ? ((DictElements<?>) elements).source : null;
+  }
+
+  @Override
+  public V put(Object key, V value) {
+    source = null;
+    return super.put(key, value);
+  }
+
+  @Override
+  public void putAll(Map<?, ? extends V> m) {
+    source = null;
+    super.putAll(m);
+  }
+
+  @Override
+  public V remove(Object key) {
+    source = null;
+    return super.remove(key);
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    source = null;
+    return super.remove(key, value);
+  }
+
+  @Override
+  public void clear() {
+    source = null;
+    super.clear();
+  }
+
+  @Override
+  public V putIfAbsent(Object key, V value) {
+    source = null;
+    return super.putIfAbsent(key, value);
+  }
+
+  @Override
+  public boolean replace(Object key, V oldValue, V newValue) {
+    source = null;
+    return super.replace(key, oldValue, newValue);
+  }
+
+  @Override
+  public V replace(Object key, V value) {
+    source = null;
+    return super.replace(key, value);
+  }
+
+  @Override
+  public void replaceAll(BiFunction<? super Object, ? super V, ? extends V> function) {
+    source = null;
+    super.replaceAll(function);
+  }
+
+  @Override
+  public V computeIfAbsent(Object key, Function<? super Object, ? extends V> mappingFunction) {
+    source = null;
+    return super.computeIfAbsent(key, mappingFunction);
+  }
+
+  @Override
+  public V computeIfPresent(
+      Object key, BiFunction<? super Object, ? super V, ? extends V> remappingFunction) {
+    source = null;
+    return super.computeIfPresent(key, remappingFunction);
+  }
+
+  @Override
+  public V compute(
+      Object key, BiFunction<? super Object, ? super V, ? extends V> remappingFunction) {
+    source = null;
+    return super.compute(key, remappingFunction);
+  }
+
+  @Override
+  public V merge(
+      Object key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+    source = null;
+    return super.merge(key, value, remappingFunction);
+  }
+
+  @Override
+  public Object clone() {
+    DictElements<?> copy = (DictElements<?>) super.clone();
+    copy.readOnly = null;
+    return copy;
+  }
+
+  @Override
+  public Set<Object> keySet() {
+    return readOnly().keySet();
+  }
+
+  @Override
+  public Collection<V> values() {
+    return readOnly().values();
+  }
+
+  @Override
+  public Set<Map.Entry<Object, V>> entrySet() {
+    return readOnly().entrySet();
+  }
+
+  private Map<Object, V> readOnly() {
+    if (readOnly == null) {
+      readOnly =
+          Collections.unmodifiableMap(
+              new AbstractMap<Object, V>() {
+                @Override
+                public Set<Map.Entry<Object, V>> entrySet() {
+                  return DictElements.super.entrySet();
+                }
+
+                @Override
+                public int size() {
+                  return DictElements.this.size();
+                }
+
+                @Override
+                public boolean containsKey(Object key) {
+                  return DictElements.this.containsKey(key);
+                }
+
+                @Override
+                public V get(Object key) {
+                  return DictElements.this.get(key);
+                }
+              });
+    }
+    return readOnly;
+  }
+}
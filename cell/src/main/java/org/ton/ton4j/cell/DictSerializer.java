@@ -0,0 +1,76 @@
+package org.ton.ton4j.cell;
+
+import java.util.function.IntFunction;
+import org.ton.ton4j.bitstring.BitString;
+
+/**
+ * Builds Hashmap n X from keys sorted as unsigned big-endian bit strings. Since keys of a subtree
+ * are a contiguous range, the label of an edge is the common prefix of the first and the last key
+ * and the fork is found by binary search, no intermediate trees or key copies are created. Labels
+ * are encoded like in {@link TonHashMap#serialize}, so the result is the same.
+ */
+final class DictSerializer {
+
+  /** Bit of the key at the given index in sorted order. */
+  interface SortedKeys {
+    boolean bit(int index, int position);
+  }
+
+  private final int keySize;
+  private final SortedKeys keys;
+  private final IntFunction<Cell> values;
+
+  private DictSerializer(int keySize, SortedKeys keys, IntFunction<Cell> values) {
+    this.keySize = keySize;
+    this.keys = keys;
+    this.values = values;
+  }
+
+  /**
+   * @param count number of distinct keys
+   * @param values value cell of the key at the given index in sorted order
+   * @return root edge, or null if there are no keys
+   */
+  static Cell serialize(int keySize, int count, SortedKeys keys, IntFunction<Cell> values) {
+    if (count == 0) {
+      return null;
+    }
+    return new DictSerializer(keySize, keys, values).edge(0, count, 0);
+  }
+
+  private Cell edge(int from, int to, int position) {
+    int m = keySize - position;
+    if (to - from == 1) {
+      return DictView.leaf(label(from, position, m), m, values.apply(from));
+    }
+    int length = 0;
+    while (keys.bit(from, position + length) == keys.bit(to - 1, position + length)) {
+      length++;
+    }
+    int forkBit = position + length;
+    int lo = from + 1;
+    int hi = to - 1;
+    // first key with forkBit set, there is at least one key on each side
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (keys.bit(mid, forkBit)) {
+        hi = mid;
+      } else {
+        lo = mid + 1;
+      }
+    }
+    return DictView.fork(
+        label(from, position, length),
+        m,
+        edge(from, lo, forkBit + 1),
+        edge(lo, to, forkBit + 1));
+  }
+
+  private BitString label(int index, int position, int length) {
+    BitString label = new BitString(keySize);
+    for (int i = 0; i < length; i++) {
+      label.writeBit(keys.bit(index, position + i));
+    }
+    return label;
+  }
+}
@@ -0,0 +1,826 @@
+package org.ton.ton4j.cell;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.Getter;
+import org.ton.ton4j.bitstring.BitString;
+
+/**
+ * Read-only view of a serialized dictionary (Patricia tree) that looks up entries without
+ * deserializing the whole tree. Each operation descends a single branch, so it costs O(key bits)
+ * cells instead of O(entries), e.g. to fetch one config param, one account of ShardAccounts or one
+ * library.
+ *
+ * <p>Works for Hashmap, HashmapE, HashmapAug(E) and PfxHashmap(E). For augmented dictionaries the
+ * returned value slice starts with the extra, followed by the value, same as in {@link
+ * CellSlice#loadDictAugE}. Keys are compared as unsigned big-endian bit strings. Pruned branches
+ * are treated as absent, like in {@link TonHashMap#deserializeEdge}.
+ *
+ * <p>Views are persistent: {@link #set}, {@link #replace} and {@link #delete} return a new view
+ * and rebuild only the cells on the path from the root to the changed leaf, all other cells and
+ * their hashes are shared with the previous version. Labels are encoded the same way as in {@link
+ * TonHashMap#serialize}, so the result equals the dictionary serialized from scratch.
+ * Modifications are supported for Hashmap(E) only, views of augmented dictionaries created with
+ * {@link #ofAug} reject them, such dictionaries are modified with {@link AugDictView}, which
+ * recalculates fork extras.
+ *
+ * <p>Entries can be iterated in key order or streamed, the traversal keeps only the pending
+ * forks and one key buffer, and its spliterator splits at forks, so large dictionaries like
+ * ShardAccounts can be processed with {@link #parallelStream()}.
+ *
+ * <p>{@link #buildMerkleProof} proves any number of keys with one proof, e.g. all accounts of a
+ * block, walking the existing cells once and pruning every branch no key leads to.
+ *
+ * <pre>
+ * DictView config = CellSlice.beginParse(configCell).loadDictView(32);
+ * CellSlice param34 = config.get(34);
+ *
+ * DictView orders = CellSlice.beginParse(data).loadDictEView(64);
+ * Cell updated = CellBuilder.beginCell().storeDict(orders.delete(queryId).getRoot()).endCell();
+ * </pre>
+ */
+public class DictView implements Iterable<DictView.Entry> {
+
+  private final Cell root;
+  private final int keySize;
+  private final boolean pfx;
+  private final boolean aug;
+
+  private DictView(Cell root, int keySize, boolean pfx, boolean aug) {
+    this.root = root;
+    this.keySize = keySize;
+    this.pfx = pfx;
+    this.aug = aug;
+  }
+
+  /** View of Hashmap with the given root edge, or of an empty dictionary if root is null. */
+  public static DictView of(Cell root, int keySize) {
+    return new DictView(root, keySize, false, false);
+  }
+
+  /**
+   * View of HashmapAug with the given root edge, or of an empty dictionary if root is null. The
+   * view cannot be modified, use {@link AugDictView} for that.
+   */
+  public static DictView ofAug(Cell root, int keySize) {
+    return new DictView(root, keySize, false, true);
+  }
+
+  /** View of PfxHashmap with keys of up to keySize bits. */
+  public static DictView ofPfx(Cell root, int keySize) {
+    return new DictView(root, keySize, true, false);
+  }
+
+  public boolean isEmpty() {
+    return isNull(root);
+  }
+
+  /** Root edge of the dictionary, null if it is empty. */
+  public Cell getRoot() {
+    return root;
+  }
+
+  public int getKeySize() {
+    return keySize;
+  }
+
+  /**
+   * Returns value of the entry with the given key, or null if there is none.
+   *
+   * @param key unread bits of the key, for fixed-size dictionaries exactly keySize bits
+   * @return CellSlice positioned at the value
+   */
+  public CellSlice get(BitString key) {
+    int keyLength = key.getUsedBits();
+    if (isNull(root) || (pfx ? keyLength > keySize : keyLength != keySize)) {
+      return null;
+    }
+    int keyOffset = key.readCursor;
+    Cell cell = root;
+    int consumed = 0;
+    while (true) {
+      if (cell.getCellType() == CellType.PRUNED_BRANCH) {
+        return null;
+      }
+      Label label = new Label(cell.getBits(), keySize - consumed);
+      if (consumed + label.length > keyLength
+          || label.mismatch(key, keyOffset + consumed) != label.length) {
+        return null;
+      }
+      consumed += label.length;
+      if (isLeaf(label, consumed)) {
+        return consumed == keyLength ? valueSlice(cell, label) : null;
+      }
+      if (consumed == keyLength) {
+        return null;
+      }
+      cell = cell.refs.get(key.get(keyOffset + consumed) ? 1 : 0);
+      consumed++;
+    }
+  }
+
+  /** Looks up unsigned integer key of keySize bits. */
+  public CellSlice get(BigInteger key) {
+    return get(toKey(key));
+  }
+
+  /** Looks up unsigned integer key of keySize bits. */
+  public CellSlice get(long key) {
+    return get(BigInteger.valueOf(key));
+  }
+
+  public boolean containsKey(BitString key) {
+    return get(key) != null;
+  }
+
+  public boolean containsKey(BigInteger key) {
+    return get(key) != null;
+  }
+
+  public boolean containsKey(long key) {
+    return get(key) != null;
+  }
+
+  /** Returns the entry with the smallest key, or null if dictionary is empty. */
+  public Entry getMin() {
+    return extreme(root, new BitString(keySize), false);
+  }
+
+  /** Returns the entry with the largest key, or null if dictionary is empty. */
+  public Entry getMax() {
+    return extreme(root, new BitString(keySize), true);
+  }
+
+  /**
+   * Returns the entry with the smallest key greater than the given one (or equal to it if
+   * allowEqual), or null if there is none. Not supported for prefix dictionaries.
+   */
+  public Entry getNext(BitString key, boolean allowEqual) {
+    return nearest(key, false, allowEqual);
+  }
+
+  public Entry getNext(BigInteger key) {
+    return getNext(toKey(key), false);
+  }
+
+  /**
+   * Returns the entry with the largest key less than the given one (or equal to it if allowEqual),
+   * or null if there is none. Not supported for prefix dictionaries.
+   */
+  public Entry getPrev(BitString key, boolean allowEqual) {
+    return nearest(key, true, allowEqual);
+  }
+
+  public Entry getPrev(BigInteger key) {
+    return getPrev(toKey(key), false);
+  }
+
+  /**
+   * Returns a view with the value set for the key, inserting the entry if it does not exist.
+   *
+   * @param key unread bits of the key, exactly keySize bits
+   * @param value cell whose bits and refs are stored in the leaf
+   */
+  public DictView set(BitString key, Cell value) {
+    checkModifiable(key);
+    if (isNull(root)) {
+      return of(leaf(keyBits(key, key.readCursor, keySize), keySize, value), keySize);
+    }
+    return of(set(root, keySize, key, key.readCursor, value, false), keySize);
+  }
+
+  public DictView set(BigInteger key, Cell value) {
+    return set(toKey(key), value);
+  }
+
+  public DictView set(long key, Cell value) {
+    return set(BigInteger.valueOf(key), value);
+  }
+
+  /** Returns a view with the value replaced if the key exists, otherwise this view. */
+  public DictView replace(BitString key, Cell value) {
+    checkModifiable(key);
+    if (isNull(root)) {
+      return this;
+    }
+    Cell newRoot = set(root, keySize, key, key.readCursor, value, true);
+    return isNull(newRoot) ? this : of(newRoot, keySize);
+  }
+
+  public DictView replace(BigInteger key, Cell value) {
+    return replace(toKey(key), value);
+  }
+
+  public DictView replace(long key, Cell value) {
+    return replace(BigInteger.valueOf(key), value);
+  }
+
+  /** Returns a view without the entry, or this view if there is no such key. */
+  public DictView delete(BitString key) {
+    checkModifiable(key);
+    if (isNull(root)) {
+      return this;
+    }
+    Cell newRoot = delete(root, keySize, key, key.readCursor);
+    return newRoot == root ? this : of(newRoot, keySize);
+  }
+
+  public DictView delete(BigInteger key) {
+    return delete(toKey(key));
+  }
+
+  public DictView delete(long key) {
+    return delete(BigInteger.valueOf(key));
+  }
+
+  /**
+   * Sets value in the subtree of the edge at cell with m key bits left, returns the new edge, or
+   * null if replaceOnly and the key is absent.
+   */
+  private Cell set(Cell cell, int m, BitString key, int offset, Cell value, boolean replaceOnly) {
+    checkNotPruned(cell);
+    Label label = new Label(cell.getBits(), m);
+    int mismatch = label.mismatch(key, offset);
+    if (mismatch != label.length) {
+      if (replaceOnly) {
+        return null;
+      }
+      // split the edge, old subtree and the new leaf become children of a new fork
+      int childM = m - mismatch - 1;
+      Cell old = relabel(cell, label, label.toBits(mismatch + 1, keySize), childM);
+      Cell added = leaf(keyBits(key, offset + mismatch + 1, childM), childM, value);
+      boolean oldRight = label.bit(mismatch);
+      return fork(
+          keyBits(key, offset, mismatch), m, oldRight ? added : old, oldRight ? old : added);
+    }
+    if (label.length == m) {
+      CellSlice cs = CellSlice.beginParse(cell);
+      // keep the label as is, only the value changes
+      return CellBuilder.beginCell()
+          .storeBitString(cs.loadBits(label.end))
+          .storeCell(value)
+          .endCell();
+    }
+    boolean bit = key.get(offset + label.length);
+    Cell child =
+        set(
+            cell.refs.get(bit ? 1 : 0),
+            m - label.length - 1,
+            key,
+            offset + label.length + 1,
+            value,
+            replaceOnly);
+    if (isNull(child)) {
+      return null;
+    }
+    return withChild(cell, label, bit, child);
+  }
+
+  /**
+   * Deletes key from the subtree of the edge at cell, returns the new edge, null if the subtree
+   * became empty, or the same cell if the key is absent.
+   */
+  private Cell delete(Cell cell, int m, BitString key, int offset) {
+    checkNotPruned(cell);
+    Label label = new Label(cell.getBits(), m);
+    if (label.mismatch(key, offset) != label.length) {
+      return cell;
+    }
+    if (label.length == m) {
+      return null;
+    }
+    boolean bit = key.get(offset + label.length);
+    int childM = m - label.length - 1;
+    Cell child = cell.refs.get(bit ? 1 : 0);
+    Cell updated = delete(child, childM, key, offset + label.length + 1);
+    if (updated == child) {
+      return cell;
+    }
+    if (nonNull(updated)) {
+      return withChild(cell, label, bit, updated);
+    }
+    // fork with a single child left, merge it into this edge
+    Cell sibling = cell.refs.get(bit ? 0 : 1);
+    checkNotPruned(sibling);
+    Label siblingLabel = new Label(sibling.getBits(), childM);
+    BitString merged = label.toBits(0, keySize);
+    merged.writeBit(!bit);
+    siblingLabel.appendTo(merged);
+    return relabel(sibling, siblingLabel, merged, m);
+  }
+
+  /** Copy of the fork at cell, keeping its label as is, with one child replaced. */
+  private static Cell withChild(Cell cell, Label label, boolean right, Cell child) {
+    CellSlice cs = CellSlice.beginParse(cell);
+    CellBuilder b = CellBuilder.beginCell().storeBitString(cs.loadBits(label.end));
+    b.storeSharedRef(right ? cell.refs.get(0) : child);
+    b.storeSharedRef(right ? child : cell.refs.get(1));
+    return b.endCell();
+  }
+
+  static Cell leaf(BitString label, int m, Cell value) {
+    CellBuilder b = CellBuilder.beginCell();
+    storeLabel(b, label, m);
+    return b.storeCell(value).endCell();
+  }
+
+  static Cell fork(BitString label, int m, Cell left, Cell right) {
+    CellBuilder b = CellBuilder.beginCell();
+    storeLabel(b, label, m);
+    return b.storeSharedRef(left).storeSharedRef(right).endCell();
+  }
+
+  /** Copy of the edge at cell with another label and the same value or children. */
+  static Cell relabel(Cell cell, Label old, BitString label, int m) {
+    CellBuilder b = CellBuilder.beginCell();
+    storeLabel(b, label, m);
+    CellSlice cs = CellSlice.beginParse(cell);
+    cs.skipBits(old.end);
+    b.storeBitString(cs.loadBits(cs.getRestBits()));
+    for (Cell ref : cell.refs) {
+      b.storeSharedRef(ref);
+    }
+    return b.endCell();
+  }
+
+  /** Stores the shortest HmLabel, choosing between encodings like TonHashMap.serialize_label. */
+  static void storeLabel(CellBuilder b, BitString label, int m) {
+    int n = label.getUsedBits();
+    int lenBits = 32 - Integer.numberOfLeadingZeros(m);
+    boolean same = true;
+    for (int i = 1; i < n && same; i++) {
+      same = label.get(i).equals(label.get(0));
+    }
+    int best = 2 * n + 2;
+    int type = 0;
+    if (2 + lenBits + n < best) {
+      best = 2 + lenBits + n;
+      type = 1;
+    }
+    if (same && 3 + lenBits < best) {
+      type = 2;
+    }
+
+    if (type == 0) {
+      b.storeBit(false); // hml_short
+      for (int i = 0; i < n; i++) {
+        b.storeBit(true); // Unary n
+      }
+      b.storeBit(false); // Unary 0
+      b.storeBitString(label);
+    } else if (type == 1) {
+      b.storeBit(true);
+      b.storeBit(false); // hml_long
+      b.storeUint(n, lenBits);
+      b.storeBitString(label);
+    } else {
+      b.storeBit(true);
+      b.storeBit(true); // hml_same
+      b.storeBit(label.get(0));
+      b.storeUint(n, lenBits);
+    }
+  }
+
+  private BitString keyBits(BitString key, int offset, int length) {
+    BitString bs = new BitString(keySize);
+    for (int i = 0; i < length; i++) {
+      bs.writeBit(key.get(offset + i));
+    }
+    return bs;
+  }
+
+  private void checkModifiable(BitString key) {
+    if (pfx) {
+      throw new Error("modification of prefix dictionaries is not supported");
+    }
+    if (aug) {
+      throw new Error("augmented dictionaries are modified with AugDictView");
+    }
+    if (key.getUsedBits() != keySize) {
+      throw new Error("key must have " + keySize + " bits, got " + key.getUsedBits());
+    }
+  }
+
+  private static void checkNotPruned(Cell cell) {
+    if (cell.getCellType() == CellType.PRUNED_BRANCH) {
+      throw new Error("cannot modify pruned branch of dictionary");
+    }
+  }
+
+  /**
+   * Returns copy of the root edge where all branches not on the path to any of the given keys are
+   * replaced by pruned branches. Paths shared by several keys are included once. Leaves of found
+   * keys are kept with their values, for absent keys the edge where the key diverges proves its
+   * absence. Fork extras of augmented dictionaries are kept.
+   *
+   * @param keys keys to keep, of keySize bits, for prefix dictionaries of up to keySize bits
+   * @return pruned root edge, null if the dictionary is empty
+   */
+  public Cell prune(Collection<BitString> keys) {
+    if (isNull(root)) {
+      return null;
+    }
+    BitString[] selected =
+        keys.stream()
+            .filter(k -> pfx ? k.getUsedBits() <= keySize : k.getUsedBits() == keySize)
+            .toArray(BitString[]::new);
+    return prune(root, selected, 0, selected.length, 0);
+  }
+
+  /**
+   * Builds one Merkle proof for all given keys, MERKLE_PROOF cell over the {@link #prune pruned}
+   * root edge. The proof has the same hash as the full dictionary at level 0.
+   */
+  public Cell buildMerkleProof(Collection<BitString> keys) {
+    if (isNull(root)) {
+      throw new Error("cannot build Merkle proof of empty dictionary");
+    }
+    return merkleProof(prune(keys));
+  }
+
+  /**
+   * Prunes the subtree of the edge at cell with consumed key bits before it, keeping paths to
+   * keys[from..to).
+   */
+  private Cell prune(Cell cell, BitString[] keys, int from, int to, int consumed) {
+    if (cell.getCellType() != CellType.ORDINARY) {
+      return cell;
+    }
+    if (from == to) {
+      return prunedBranch(cell);
+    }
+    Label label = new Label(cell.getBits(), keySize - consumed);
+    int position = consumed + label.length;
+    if (isLeaf(label, position)) {
+      return cell;
+    }
+    // keys that diverge from the label or end at this fork are absent, the edge proves it
+    int matching =
+        partition(
+            keys,
+            from,
+            to,
+            k ->
+                k.getUsedBits() > position
+                    && label.mismatch(k, k.readCursor + consumed) == label.length);
+    int right = partition(keys, from, matching, k -> !k.get(k.readCursor + position));
+
+    CellSlice cs = CellSlice.beginParse(cell);
+    CellBuilder b = CellBuilder.beginCell().storeBitString(cs.loadBits(cs.getRestBits()));
+    b.storeSharedRef(prune(cell.refs.get(0), keys, from, right, position + 1));
+    b.storeSharedRef(prune(cell.refs.get(1), keys, right, matching, position + 1));
+    // refs of fork extra
+    for (int i = 2; i < cell.refs.size(); i++) {
+      b.storeSharedRef(cell.refs.get(i));
+    }
+    return b.endCell();
+  }
+
+  /** Moves keys matching the predicate to the front of keys[from..to), returns their end. */
+  private static int partition(BitString[] keys, int from, int to, Predicate<BitString> first) {
+    int end = from;
+    for (int i = from; i < to; i++) {
+      if (first.test(keys[i])) {
+        BitString k = keys[i];
+        keys[i] = keys[end];
+        keys[end++] = k;
+      }
+    }
+    return end;
+  }
+
+  static Cell prunedBranch(Cell c) {
+    return endExoticCell(
+        CellBuilder.beginCell()
+            .storeUint(1, 8)
+            .storeUint(1, 8)
+            .storeBytes(c.getHash(0))
+            .storeUint(c.getDepthLevels()[0], 16),
+        CellType.PRUNED_BRANCH);
+  }
+
+  static Cell merkleProof(Cell c) {
+    return endExoticCell(
+        CellBuilder.beginCell()
+            .storeUint(3, 8)
+            .storeBytes(c.getHash(0))
+            .storeUint(c.getDepthLevels()[0], 16)
+            .storeRef(c),
+        CellType.MERKLE_PROOF);
+  }
+
+  private static Cell endExoticCell(CellBuilder builder, CellType type) {
+    Cell c = builder.endCell();
+    Cell exotic = new Cell(c.getBits(), c.getBitLength(), c.getRefs(), true, type);
+    exotic.calculateHashes();
+    return exotic;
+  }
+
+  /** Iterates entries in key order without materializing the dictionary. */
+  @Override
+  public Iterator<Entry> iterator() {
+    return Spliterators.iterator(spliterator());
+  }
+
+  @Override
+  public Spliterator<Entry> spliterator() {
+    ArrayDeque<Pending> stack = new ArrayDeque<>();
+    if (nonNull(root)) {
+      stack.push(new Pending(root, 0, -1));
+    }
+    return new EntrySpliterator(stack, new BitString(keySize));
+  }
+
+  public Stream<Entry> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  public Stream<Entry> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
+  private Entry nearest(BitString key, boolean prev, boolean allowEqual) {
+    if (pfx) {
+      throw new Error("getNext and getPrev are not supported for prefix dictionaries");
+    }
+    if (key.getUsedBits() != keySize) {
+      throw new Error("key must have " + keySize + " bits, got " + key.getUsedBits());
+    }
+    if (isNull(root)) {
+      return null;
+    }
+    return nearest(root, key, key.readCursor, new BitString(keySize), prev, allowEqual);
+  }
+
+  /**
+   * Descends along the key, falling back to the closest neighbouring subtree when the key is not
+   * present. Depth is bounded by the number of forks, i.e. by keySize.
+   */
+  private Entry nearest(
+      Cell cell, BitString key, int keyOffset, BitString prefix, boolean prev, boolean allowEqual) {
+    if (cell.getCellType() == CellType.PRUNED_BRANCH) {
+      return null;
+    }
+    int consumed = prefix.getUsedBits();
+    Label label = new Label(cell.getBits(), keySize - consumed);
+    int mismatch = label.mismatch(key, keyOffset + consumed);
+    if (mismatch != label.length) {
+      // whole subtree is either below or above the key
+      boolean subtreeGreater = label.bit(mismatch);
+      return subtreeGreater != prev ? extreme(cell, prefix, prev) : null;
+    }
+    label.appendTo(prefix);
+    if (isLeaf(label, prefix.getUsedBits())) {
+      return allowEqual ? new Entry(prefix, valueSlice(cell, label)) : null;
+    }
+    boolean bit = key.get(keyOffset + prefix.getUsedBits());
+    BitString branch = prefix.clone();
+    branch.writeBit(bit);
+    Entry entry = nearest(cell.refs.get(bit ? 1 : 0), key, keyOffset, branch, prev, allowEqual);
+    if (isNull(entry) && bit == prev) {
+      // key is at the edge of its branch, the neighbour is the extreme entry of the other one
+      BitString other = prefix.clone();
+      other.writeBit(!prev);
+      entry = extreme(cell.refs.get(prev ? 0 : 1), other, prev);
+    }
+    return entry;
+  }
+
+  private Entry extreme(Cell cell, BitString prefix, boolean max) {
+    if (isNull(cell)) {
+      return null;
+    }
+    BitString key = prefix.clone();
+    while (true) {
+      if (cell.getCellType() == CellType.PRUNED_BRANCH) {
+        return null;
+      }
+      Label label = new Label(cell.getBits(), keySize - key.getUsedBits());
+      label.appendTo(key);
+      if (isLeaf(label, key.getUsedBits())) {
+        return new Entry(key, valueSlice(cell, label));
+      }
+      key.writeBit(max);
+      cell = cell.refs.get(max ? 1 : 0);
+    }
+  }
+
+  private boolean isLeaf(Label label, int consumed) {
+    return pfx ? !label.bits.get(label.end) : consumed == keySize;
+  }
+
+  private CellSlice valueSlice(Cell cell, Label label) {
+    CellSlice cs = CellSlice.beginParse(cell);
+    cs.skipBits(pfx ? label.end + 1 : label.end);
+    return cs;
+  }
+
+  private BitString toKey(BigInteger key) {
+    BitString bs = new BitString(keySize);
+    bs.writeUint(key, keySize);
+    return bs;
+  }
+
+  /** Dictionary entry. Value slice of augmented dictionaries starts with extra. */
+  @Getter
+  public static class Entry {
+    private final BitString key;
+    private final CellSlice value;
+
+    Entry(BitString key, CellSlice value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  /** Edge waiting to be visited, with the length of its key prefix and its branch bit. */
+  private static final class Pending {
+    final Cell cell;
+    final int prefixLength;
+    // -1 for the root, otherwise bit that selects this edge in the parent fork
+    final int bit;
+
+    Pending(Cell cell, int prefixLength, int bit) {
+      this.cell = cell;
+      this.prefixLength = prefixLength;
+      this.bit = bit;
+    }
+  }
+
+  /**
+   * Depth-first traversal with an explicit stack of pending right branches. All pending edges
+   * hang off the current path, so their prefixes are in the single key buffer. Splits hand off all
+   * but the bottom edge, i.e. all entries before the largest pending right subtree.
+   */
+  private final class EntrySpliterator implements Spliterator<Entry> {
+    private ArrayDeque<Pending> stack;
+    private final BitString key;
+
+    EntrySpliterator(ArrayDeque<Pending> stack, BitString key) {
+      this.stack = stack;
+      this.key = key;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Entry> action) {
+      while (!stack.isEmpty()) {
+        Pending pending = stack.pop();
+        Label label = visit(pending);
+        if (isNull(label)) {
+          continue;
+        }
+        if (isLeaf(label, key.writeCursor)) {
+          action.accept(new Entry(key.clone(), valueSlice(pending.cell, label)));
+          return true;
+        }
+        pushChildren(pending.cell);
+      }
+      return false;
+    }
+
+    @Override
+    public Spliterator<Entry> trySplit() {
+      if (stack.size() == 1) {
+        Pending pending = stack.peek();
+        Label label = visit(pending);
+        if (isNull(label) || isLeaf(label, key.writeCursor)) {
+          return null;
+        }
+        stack.pop();
+        pushChildren(pending.cell);
+      }
+      if (stack.size() < 2) {
+        return null;
+      }
+      ArrayDeque<Pending> prefix = stack;
+      stack = new ArrayDeque<>();
+      stack.push(prefix.pollLast());
+      return new EntrySpliterator(prefix, key.clone());
+    }
+
+    @Override
+    public long estimateSize() {
+      return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+
+    /** Restores the key prefix of the edge and appends its label, null for pruned branches. */
+    private Label visit(Pending pending) {
+      key.writeCursor = pending.prefixLength;
+      if (pending.bit >= 0) {
+        key.writeBit(pending.bit == 1);
+      }
+      if (pending.cell.getCellType() == CellType.PRUNED_BRANCH) {
+        return null;
+      }
+      Label label = new Label(pending.cell.getBits(), keySize - key.writeCursor);
+      label.appendTo(key);
+      return label;
+    }
+
+    /** Forks with missing refs (incomplete data) are walked as far as refs exist, as before. */
+    private void pushChildren(Cell fork) {
+      for (int j = Math.min(fork.refs.size(), 2) - 1; j >= 0; j--) {
+        stack.push(new Pending(fork.refs.get(j), key.writeCursor, j));
+      }
+    }
+  }
+
+  /** HmLabel parsed in place, without copying its bits. */
+  static final class Label {
+    final BitString bits;
+    final int length;
+    final int end;
+    // -1 for hml_same, otherwise position of label bits within the cell
+    private final int dataPos;
+    private final boolean same;
+
+    Label(BitString bits, int m) {
+      this.bits = bits;
+      int pos = 0;
+      int n;
+      if (!bits.get(pos++)) {
+        // hml_short$0 {m:#} {n:#} len:(Unary ~n) {n <= m} s:(n * Bit) = HmLabel ~n m;
+        n = 0;
+        while (bits.get(pos++)) {
+          n++;
+        }
+        dataPos = pos;
+        same = false;
+        pos += n;
+      } else if (!bits.get(pos++)) {
+        // hml_long$10 {m:#} n:(#<= m) s:(n * Bit) = HmLabel ~n m;
+        int lenBits = 32 - Integer.numberOfLeadingZeros(m);
+        n = readUint(bits, pos, lenBits);
+        pos += lenBits;
+        dataPos = pos;
+        same = false;
+        pos += n;
+      } else {
+        // hml_same$11 {m:#} v:Bit n:(#<= m) = HmLabel ~n m;
+        same = bits.get(pos++);
+        int lenBits = 32 - Integer.numberOfLeadingZeros(m);
+        n = readUint(bits, pos, lenBits);
+        pos += lenBits;
+        dataPos = -1;
+      }
+      if (n > m) {
+        throw new Error("Label length " + n + " exceeds maximum " + m);
+      }
+      this.length = n;
+      this.end = pos;
+    }
+
+    boolean bit(int i) {
+      return dataPos < 0 ? same : bits.get(dataPos + i);
+    }
+
+    /** Returns index of the first label bit that differs from key bits at offset, or length. */
+    int mismatch(BitString key, int offset) {
+      for (int i = 0; i < length; i++) {
+        if (key.get(offset + i) != bit(i)) {
+          return i;
+        }
+      }
+      return length;
+    }
+
+    void appendTo(BitString key) {
+      for (int i = 0; i < length; i++) {
+        key.writeBit(bit(i));
+      }
+    }
+
+    /** Label bits from the given index in a new BitString of the given capacity. */
+    BitString toBits(int from, int capacity) {
+      BitString bs = new BitString(capacity);
+      for (int i = from; i < length; i++) {
+        bs.writeBit(bit(i));
+      }
+      return bs;
+    }
+
+    private static int readUint(BitString bits, int pos, int length) {
+      int result = 0;
+      for (int i = 0; i < length; i++) {
+        result = (result << 1) | (bits.get(pos + i) ? 1 : 0);
+      }
+      return result;
+    }
+  }
+}
@@ -35,6 +35,16 @@ public class LevelMask implements Serializable {
     return calculateOnesBits(mask);
   }
 
+  /** Same as apply(lvl).getLevel() without creating a new mask. */
+  public int getLevel(int lvl) {
+    return calculateMinimumBits(mask & ((1 << lvl) - 1));
+  }
+
+  /** Same as apply(lvl).getHashIndex() without creating a new mask. */
+  public int getHashIndex(int lvl) {
+    return calculateOnesBits(mask & ((1 << lvl) - 1));
+  }
+
   public static int calculateMinimumBits(int number) {
     if (number == 0) {
       return 0;
@@ -0,0 +1,199 @@
+package org.ton.ton4j.cell;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Dictionary with 256-bit keys, like account ids of ShardAccounts or library hashes. Keys are kept
+ * in one flat byte array of an open-addressing table instead of a BigInteger per entry, as in
+ * {@link TonHashMap}.
+ *
+ * <p>Load with {@link CellSlice#loadDict256} or {@link CellSlice#loadDictE256}, store with {@link
+ * CellBuilder#storeDict(TonBytes32HashMap, Function)}. Null values are not supported. Iteration
+ * order is unspecified.
+ */
+public class TonBytes32HashMap implements Serializable {
+
+  public static final int KEY_SIZE = 256;
+  private static final int KEY_BYTES = 32;
+  private static final int MIN_CAPACITY = 8;
+
+  private byte[] keys;
+  // null marks a free slot
+  private Object[] values;
+  private int size;
+  private int shift;
+
+  public TonBytes32HashMap() {
+    allocate(MIN_CAPACITY);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public Object get(byte[] key) {
+    int i = indexOf(key);
+    return i < 0 ? null : values[i];
+  }
+
+  public boolean containsKey(byte[] key) {
+    return indexOf(key) >= 0;
+  }
+
+  /** Returns previous value or null. The key is copied. */
+  public Object put(byte[] key, Object value) {
+    if (isNull(value)) {
+      throw new Error("TonBytes32HashMap does not support null values");
+    }
+    checkKey(key);
+    if ((size + 1) * 4 > values.length * 3) {
+      rehash(values.length * 2);
+    }
+    int mask = values.length - 1;
+    for (int i = slot(key, 0); ; i = (i + 1) & mask) {
+      if (isNull(values[i])) {
+        System.arraycopy(key, 0, keys, i * KEY_BYTES, KEY_BYTES);
+        values[i] = value;
+        size++;
+        return null;
+      }
+      if (keyEquals(i, key)) {
+        Object old = values[i];
+        values[i] = value;
+        return old;
+      }
+    }
+  }
+
+  /** Returns removed value or null. */
+  public Object remove(byte[] key) {
+    int i = indexOf(key);
+    if (i < 0) {
+      return null;
+    }
+    Object old = values[i];
+    int mask = values.length - 1;
+    // backward shift deletion, keeps probe sequences without tombstones
+    for (int j = (i + 1) & mask; nonNull(values[j]); j = (j + 1) & mask) {
+      int home = slot(keys, j * KEY_BYTES);
+      boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+      if (!stays) {
+        System.arraycopy(keys, j * KEY_BYTES, keys, i * KEY_BYTES, KEY_BYTES);
+        values[i] = values[j];
+        i = j;
+      }
+    }
+    values[i] = null;
+    size--;
+    return old;
+  }
+
+  public void clear() {
+    allocate(MIN_CAPACITY);
+    size = 0;
+  }
+
+  /** Calls action with a copy of each key. */
+  public void forEach(BiConsumer<byte[], Object> action) {
+    for (int i = 0; i < values.length; i++) {
+      if (nonNull(values[i])) {
+        action.accept(Arrays.copyOfRange(keys, i * KEY_BYTES, (i + 1) * KEY_BYTES), values[i]);
+      }
+    }
+  }
+
+  /**
+   * Serializes to Hashmap 256 X, same as {@link TonHashMapE#serialize}.
+   *
+   * @param valueSerializer converts value to cell
+   * @return root edge, null if map is empty
+   */
+  public Cell serialize(Function<Object, Cell> valueSerializer) {
+    Integer[] order = new Integer[size];
+    int n = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (nonNull(values[i])) {
+        order[n++] = i;
+      }
+    }
+    Arrays.sort(order, (a, b) -> compareKeys(a * KEY_BYTES, b * KEY_BYTES));
+    return DictSerializer.serialize(
+        KEY_SIZE,
+        order.length,
+        (index, position) ->
+            (keys[order[index] * KEY_BYTES + (position >>> 3)] & (0x80 >>> (position & 7))) != 0,
+        index -> valueSerializer.apply(values[order[index]]));
+  }
+
+  /** Loads entries of the dictionary with the given root edge, root may be null. */
+  void deserialize(Cell root, Function<CellSlice, Object> valueParser) {
+    for (DictView.Entry entry : DictView.of(root, KEY_SIZE)) {
+      put(entry.getKey().toByteArray(), valueParser.apply(entry.getValue()));
+    }
+  }
+
+  private static void checkKey(byte[] key) {
+    if (key.length != KEY_BYTES) {
+      throw new Error("key must have " + KEY_BYTES + " bytes, got " + key.length);
+    }
+  }
+
+  private int compareKeys(int offsetA, int offsetB) {
+    return Arrays.compareUnsigned(
+        keys, offsetA, offsetA + KEY_BYTES, keys, offsetB, offsetB + KEY_BYTES);
+  }
+
+  private boolean keyEquals(int i, byte[] key) {
+    return Arrays.equals(keys, i * KEY_BYTES, (i + 1) * KEY_BYTES, key, 0, KEY_BYTES);
+  }
+
+  private int indexOf(byte[] key) {
+    checkKey(key);
+    int mask = values.length - 1;
+    for (int i = slot(key, 0); nonNull(values[i]); i = (i + 1) & mask) {
+      if (keyEquals(i, key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Fibonacci hashing of the first 8 bytes, keys are usually hashes themselves. */
+  private int slot(byte[] bytes, int offset) {
+    long h = 0;
+    for (int i = 0; i < 8; i++) {
+      h = (h << 8) | (bytes[offset + i] & 0xff);
+    }
+    return (int) ((h * 0x9E3779B97F4A7C15L) >>> shift);
+  }
+
+  private void allocate(int capacity) {
+    keys = new byte[capacity * KEY_BYTES];
+    values = new Object[capacity];
+    shift = 64 - Integer.numberOfTrailingZeros(capacity);
+  }
+
+  private void rehash(int capacity) {
+    byte[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+    size = 0;
+    byte[] key = new byte[KEY_BYTES];
+    for (int i = 0; i < oldValues.length; i++) {
+      if (nonNull(oldValues[i])) {
+        System.arraycopy(oldKeys, i * KEY_BYTES, key, 0, KEY_BYTES);
+        put(key, oldValues[i]);
+      }
+    }
+  }
+}
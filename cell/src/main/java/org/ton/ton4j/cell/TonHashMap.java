@@ -1,11 +1,13 @@
 package org.ton.ton4j.cell;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.*;
 import java.util.function.Function;
 import lombok.Data;
-import org.apache.commons.lang3.StringUtils;
 import org.ton.ton4j.bitstring.BitString;
 
 /** Ordinary Hashmap (Patricia Tree), with fixed length keys. */
@@ -27,7 +29,7 @@ public class TonHashMap implements Serializable {
   public TonHashMap(int keySize) {
     // Initialize with a reasonable initial capacity
     // Most TON dictionaries are small, so 16 is a good starting point
-    elements = new LinkedHashMap<>(16, 0.75f);
+    elements = new DictElements<>();
     this.keySize = keySize;
   }
 
@@ -55,15 +57,41 @@ public class TonHashMap implements Serializable {
     return nodes;
   }
 
-  /** Loads HashMap and parses keys and values HashMap X Y; */
+  /**
+   * Loads HashMap and parses keys and values HashMap X Y; Entries are streamed from {@link
+   * DictView}, the slice is left right after the root label, as before.
+   */
   void deserialize(
       CellSlice c, Function<BitString, Object> keyParser, Function<Cell, Object> valueParser) {
-    List<Node> nodes = deserializeEdge(c, keySize, new BitString(keySize));
-    for (Node node : nodes) {
-      elements.put(keyParser.apply(node.key), valueParser.apply(node.value));
+    if (c.type == CellType.PRUNED_BRANCH) {
+      return;
+    }
+    DictView view = DictView.of(c.sliceToCell(), keySize);
+    deserializeLabel(c, keySize);
+    load(view, keyParser, valueParser);
+  }
+
+  /** Puts entries of the view, the view is kept with elements if they were empty. */
+  void load(
+      DictView view, Function<BitString, Object> keyParser, Function<Cell, Object> valueParser) {
+    boolean fresh = elements.isEmpty();
+    for (DictView.Entry entry : view) {
+      Cell value = CellBuilder.beginCell().storeSlice(entry.getValue()).endCell();
+      elements.put(keyParser.apply(entry.getKey()), valueParser.apply(value));
+    }
+    if (fresh && elements instanceof DictElements) {
+      ((DictElements<?>) elements).setSource(view);
     }
   }
 
+  /**
+   * View of the cells this map was deserialized from, null for maps built in memory or changed
+   * since, the cells are released on the first change of elements.
+   */
+  DictView getView() {
+    return DictElements.sourceOf(elements);
+  }
+
   /**
    * Read the keys in array and return binary tree in the form of Patrcia Tree Node
    *
@@ -363,125 +391,62 @@ public class TonHashMap implements Serializable {
     throw new Error("value not found at index " + index);
   }
 
-  public Cell buildMerkleProof(
-      Object key,
-      Function<Object, BitString> keySerializer,
-      Function<Object, Cell> valueSerializer) {
-    Cell dictCell =
-        CellBuilder.beginCell()
-            .storeDictInLine(this.serialize(keySerializer, valueSerializer))
-            .endCell();
-
-    Cell cell =
-        generateMerkleProof(
-            "",
-            CellSlice.beginParse(dictCell),
-            keySize,
-            padString(keySerializer.apply(key).toBitString(), keySize, '0'));
-
-    return convertToMerkleProof(cell);
-  }
-
-  private int readUnaryLength(CellSlice slice) {
-    int res = 0;
-    while (slice.loadBit()) {
-      res++;
-    }
-    return res;
-  }
-
-  private Cell generateMerkleProof(String prefix, CellSlice slice, int n, String key) {
-    Cell originalCell = CellBuilder.beginCell().storeSlice(slice).endCell();
-
-    int lb0 = slice.loadBit() ? 1 : 0;
-    int prefixLength;
-    StringBuilder pp = new StringBuilder(prefix);
-
-    if (lb0 == 0) {
-      // Short label detected
-      prefixLength = readUnaryLength(slice);
-      for (int i = 0; i < prefixLength; i++) {
-        pp.append(slice.loadBit() ? '1' : '0');
-      }
-    } else {
-      int lb1 = slice.loadBit() ? 1 : 0;
-      if (lb1 == 0) {
-        // Long label detected
-        prefixLength = slice.loadUint((int) Math.ceil(Math.log(n + 1) / Math.log(2))).intValue();
-        for (int i = 0; i < prefixLength; i++) {
-          pp.append(slice.loadBit() ? '1' : '0');
-        }
-      } else {
-        // Same label detected
-        char bit = slice.loadBit() ? '1' : '0';
-        prefixLength = slice.loadUint((int) (Math.ceil(Math.log(n + 1) / Math.log(2)))).intValue();
-        for (int i = 0; i < prefixLength; i++) {
-          pp.append(bit);
-        }
-      }
-    }
-
-    if (n - prefixLength == 0) {
-      return originalCell;
-    } else {
-      CellSlice sl = CellSlice.beginParse(originalCell);
-      Cell left = sl.loadRef();
-      Cell right = sl.loadRef();
-      // NOTE: Left and right branches implicitly contain prefixes '0' and '1'
-
-      if (left.getCellType() == CellType.ORDINARY) {
-        left =
-            (pp.toString() + '0').equals(key.substring(0, pp.length() + 1))
-                ? generateMerkleProof(
-                    pp.toString() + '0', CellSlice.beginParse(left), n - prefixLength - 1, key)
-                : convertToPrunedBranch(left);
-      }
-
-      if (right.getCellType() == CellType.ORDINARY) {
-        right =
-            (pp.toString() + '1').equals(key.substring(0, pp.length() + 1))
-                ? generateMerkleProof(
-                    pp.toString() + '1', CellSlice.beginParse(right), n - prefixLength - 1, key)
-                : convertToPrunedBranch(right);
+  /**
+   * Returns value of the entry with the given serialized key, looked up in the cells this map was
+   * deserialized from, descending only the branch of the key. Null if there is no such entry.
+   * Elements of maps built in memory or changed after deserialization have no cells, for such
+   * non-empty maps use elements or serialize the map first.
+   *
+   * @param key key bits as produced by the key serializer
+   * @return CellSlice positioned at the value
+   */
+  public CellSlice getValueSlice(BitString key) {
+    DictView view = getView();
+    if (isNull(view)) {
+      if (elements.isEmpty()) {
+        return null;
       }
-
-      return CellBuilder.beginCell().storeSlice(sl).storeRef(left).storeRef(right).endCell();
+      throw new Error("elements do not match deserialized cells, look up elements instead");
     }
+    return view.get(key);
   }
 
-  private Cell endExoticCell(CellBuilder builder, CellType type) {
-    Cell c = builder.endCell();
-    Cell exotic = new Cell(c.getBits(), c.getBitLength(), c.getRefs(), true, type);
-    exotic.calculateHashes();
-    return exotic;
+  /** Same as {@link #getValueSlice(BitString)} but only checks presence of the key. */
+  public boolean containsKey(BitString key) {
+    return nonNull(getValueSlice(key));
   }
 
-  private Cell convertToMerkleProof(Cell c) {
-    return endExoticCell(
-        CellBuilder.beginCell()
-            .storeUint(3, 8)
-            .storeBytes(c.getHash(0))
-            .storeUint(c.getDepthLevels()[0], 16)
-            .storeRef(c),
-        CellType.MERKLE_PROOF);
-  }
-
-  private Cell convertToPrunedBranch(Cell c) {
-    return endExoticCell(
-        CellBuilder.beginCell()
-            .storeUint(1, 8)
-            .storeUint(1, 8)
-            .storeBytes(c.getHash(0))
-            .storeUint(c.getDepthLevels()[0], 16),
-        CellType.PRUNED_BRANCH);
+  /**
+   * Builds Merkle proof of a single key, see {@link #buildMerkleProof(Collection, Function,
+   * Function)}.
+   */
+  public Cell buildMerkleProof(
+      Object key,
+      Function<Object, BitString> keySerializer,
+      Function<Object, Cell> valueSerializer) {
+    return buildMerkleProof(Collections.singletonList(key), keySerializer, valueSerializer);
   }
 
-  private String padString(String original, int requiredSize, char padChar) {
-    if (original.length() >= requiredSize) {
-      return original; // No padding needed
+  /**
+   * Builds one Merkle proof for all given keys. The proof contains the root edge with the paths to
+   * all keys, all other branches are pruned, see {@link DictView#buildMerkleProof}. Deserialized
+   * maps are proven over their original cells, other maps are serialized first.
+   *
+   * @param keys keys to prove, absent keys are proven absent
+   * @return MERKLE_PROOF cell
+   */
+  public Cell buildMerkleProof(
+      Collection<?> keys,
+      Function<Object, BitString> keySerializer,
+      Function<Object, Cell> valueSerializer) {
+    List<BitString> keyBits = new ArrayList<>(keys.size());
+    for (Object key : keys) {
+      keyBits.add(keySerializer.apply(key));
     }
-
-    return StringUtils.repeat(padChar, Math.max(0, requiredSize - original.length() + 1))
-        + original;
+    DictView view = getView();
+    if (isNull(view)) {
+      view = DictView.of(this.serialize(keySerializer, valueSerializer), keySize);
+    }
+    return view.buildMerkleProof(keyBits);
   }
 }
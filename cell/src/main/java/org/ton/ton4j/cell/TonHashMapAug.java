@@ -19,7 +19,7 @@ public class TonHashMapAug implements Serializable {
   int keySize;
 
   public TonHashMapAug(int keySize) {
-    elements = new LinkedHashMap<>();
+    elements = new DictElements<>();
     this.keySize = keySize;
   }
 
@@ -60,22 +60,38 @@ public class TonHashMapAug implements Serializable {
     return deserializeLabelSame(edge, m);
   }
 
-  /** Loads HashMapAug and parses keys, values and extras */
+  /** Loads HashMapAug and parses keys, values and extras, streaming entries from DictView */
   void deserialize(
       CellSlice c,
       Function<BitString, Object> keyParser,
       Function<CellSlice, Object> valueParser,
       Function<CellSlice, Object> extraParser) {
 
-    List<Node> nodes = deserializeEdge(c, keySize, new BitString(keySize));
-    for (Node node : nodes) {
-      CellSlice valueAndExtra = CellSlice.beginParse(node.value);
+    if (c.type == CellType.PRUNED_BRANCH) {
+      return;
+    }
+    DictView view = DictView.ofAug(c.sliceToCell(), keySize);
+    deserializeLabel(c, keySize);
+    boolean fresh = elements.isEmpty();
+    for (DictView.Entry entry : view) {
+      CellSlice valueAndExtra = entry.getValue();
       Object extra = extraParser.apply(valueAndExtra);
       Object value = valueParser.apply(valueAndExtra);
-      elements.put(keyParser.apply(node.key), new ValueExtra(value, extra));
+      elements.put(keyParser.apply(entry.getKey()), new ValueExtra(value, extra));
+    }
+    if (fresh && elements instanceof DictElements) {
+      ((DictElements<?>) elements).setSource(view);
     }
   }
 
+  /**
+   * View of the cells this map was deserialized from, null for maps built in memory or changed
+   * since, the cells are released on the first change of elements.
+   */
+  DictView getView() {
+    return DictElements.sourceOf(elements);
+  }
+
   /**
    * Read the keys in array and return binary tree in the form of Patricia Tree Node
    *
@@ -345,4 +361,60 @@ public class TonHashMapAug implements Serializable {
     }
     throw new Error("edge not found at index " + index);
   }
+
+  /**
+   * Returns value of the entry with the given serialized key, looked up in the cells this map was
+   * deserialized from, descending only the branch of the key. Null if there is no such entry.
+   * Elements of maps built in memory or changed after deserialization have no cells, for such
+   * non-empty maps use elements or serialize the map first.
+   *
+   * @param key key bits as produced by the key serializer
+   * @return CellSlice positioned at the value, extra comes first
+   */
+  public CellSlice getValueSlice(BitString key) {
+    DictView view = getView();
+    if (isNull(view)) {
+      if (elements.isEmpty()) {
+        return null;
+      }
+      throw new Error("elements do not match deserialized cells, look up elements instead");
+    }
+    return view.get(key);
+  }
+
+  /** Same as {@link #getValueSlice(BitString)} but only checks presence of the key. */
+  public boolean containsKey(BitString key) {
+    return nonNull(getValueSlice(key));
+  }
+
+  /**
+   * Builds one Merkle proof for all given keys, the paths to them include fork extras, all other
+   * branches are pruned. See {@link DictView#buildMerkleProof}. Deserialized maps are proven over
+   * their original cells, other maps are serialized first.
+   *
+   * @param keys keys to prove, absent keys are proven absent
+   * @return MERKLE_PROOF cell over the root edge
+   */
+  public Cell buildMerkleProof(
+      Collection<?> keys,
+      Function<Object, BitString> keyParser,
+      Function<Object, Object> valueParser,
+      Function<Object, Object> extraParser,
+      BiFunction<Object, Object, Object> forkExtra) {
+    List<BitString> keyBits = new ArrayList<>(keys.size());
+    for (Object key : keys) {
+      keyBits.add(keyParser.apply(key));
+    }
+    DictView view = getView();
+    if (isNull(view)) {
+      Cell root = rootEdge(serialize(keyParser, valueParser, extraParser, forkExtra));
+      view = DictView.ofAug(root, keySize);
+    }
+    return view.buildMerkleProof(keyBits);
+  }
+
+  /** Root edge of the serialized dictionary, null if it is empty. */
+  Cell rootEdge(Cell serialized) {
+    return serialized;
+  }
 }
@@ -65,4 +65,10 @@ public class TonHashMapAugE extends TonHashMapAug {
       return CellBuilder.beginCell().storeBit(true).storeRef(b.endCell()).endCell();
     }
   }
+
+  @Override
+  Cell rootEdge(Cell serialized) {
+    CellSlice cs = CellSlice.beginParse(serialized);
+    return cs.loadBit() ? cs.loadRef() : null;
+  }
 }
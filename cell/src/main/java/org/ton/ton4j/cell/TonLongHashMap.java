@@ -0,0 +1,265 @@
+package org.ton.ton4j.cell;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Dictionary with integer keys of up to 64 bits, like uint32 config param indexes, uint64 query
+ * ids or int16 wallet indexes. Keys are kept as primitive longs in an open-addressing table, so
+ * there is no boxing and no entry objects, unlike in {@link TonHashMap}.
+ *
+ * <p>Load with {@link CellSlice#loadDictLong} or {@link CellSlice#loadDictELong}, store with
+ * {@link CellBuilder#storeDict(TonLongHashMap, Function)}. Null values are not supported. Iteration
+ * order is unspecified.
+ */
+public class TonLongHashMap implements Serializable {
+
+  private static final int MIN_CAPACITY = 8;
+
+  private final int keySize;
+  private final boolean signedKeys;
+  private long[] keys;
+  // null marks a free slot
+  private Object[] values;
+  private int size;
+  private int shift;
+
+  /** Functional interface for {@link #forEach}, avoids boxing of keys. */
+  @FunctionalInterface
+  public interface EntryConsumer {
+    void accept(long key, Object value);
+  }
+
+  /**
+   * @param keySize key size in bits, 1..64
+   */
+  public TonLongHashMap(int keySize) {
+    this(keySize, false);
+  }
+
+  /**
+   * @param keySize key size in bits, 1..64
+   * @param signedKeys whether keys are intN instead of uintN
+   */
+  public TonLongHashMap(int keySize, boolean signedKeys) {
+    if (keySize < 1 || keySize > 64) {
+      throw new Error("TonLongHashMap supports keys of 1..64 bits, got " + keySize);
+    }
+    this.keySize = keySize;
+    this.signedKeys = signedKeys;
+    allocate(MIN_CAPACITY);
+  }
+
+  public int getKeySize() {
+    return keySize;
+  }
+
+  public boolean isSignedKeys() {
+    return signedKeys;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public Object get(long key) {
+    int i = indexOf(key);
+    return i < 0 ? null : values[i];
+  }
+
+  public boolean containsKey(long key) {
+    return indexOf(key) >= 0;
+  }
+
+  /** Returns previous value or null. */
+  public Object put(long key, Object value) {
+    if (isNull(value)) {
+      throw new Error("TonLongHashMap does not support null values");
+    }
+    checkKey(key);
+    if ((size + 1) * 4 > values.length * 3) {
+      rehash(values.length * 2);
+    }
+    int mask = values.length - 1;
+    for (int i = slot(key); ; i = (i + 1) & mask) {
+      if (isNull(values[i])) {
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        return null;
+      }
+      if (keys[i] == key) {
+        Object old = values[i];
+        values[i] = value;
+        return old;
+      }
+    }
+  }
+
+  /** Returns removed value or null. */
+  public Object remove(long key) {
+    int i = indexOf(key);
+    if (i < 0) {
+      return null;
+    }
+    Object old = values[i];
+    int mask = values.length - 1;
+    // backward shift deletion, keeps probe sequences without tombstones
+    for (int j = (i + 1) & mask; nonNull(values[j]); j = (j + 1) & mask) {
+      int home = slot(keys[j]);
+      boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+      if (!stays) {
+        keys[i] = keys[j];
+        values[i] = values[j];
+        i = j;
+      }
+    }
+    keys[i] = 0;
+    values[i] = null;
+    size--;
+    return old;
+  }
+
+  public void clear() {
+    allocate(MIN_CAPACITY);
+    size = 0;
+  }
+
+  public void forEach(EntryConsumer action) {
+    for (int i = 0; i < values.length; i++) {
+      if (nonNull(values[i])) {
+        action.accept(keys[i], values[i]);
+      }
+    }
+  }
+
+  /** Keys in ascending order, uint64 keys are ordered as unsigned. */
+  public long[] keys() {
+    long flip = !signedKeys && keySize == 64 ? Long.MIN_VALUE : 0;
+    long[] result = new long[size];
+    int n = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (nonNull(values[i])) {
+        result[n++] = keys[i] ^ flip;
+      }
+    }
+    Arrays.sort(result);
+    for (int i = 0; i < n; i++) {
+      result[i] ^= flip;
+    }
+    return result;
+  }
+
+  /**
+   * Serializes to Hashmap n X, same as {@link TonHashMapE#serialize}.
+   *
+   * @param valueSerializer converts value to cell
+   * @return root edge, null if map is empty
+   */
+  public Cell serialize(Function<Object, Cell> valueSerializer) {
+    // sort n-bit patterns as unsigned numbers, flipping the sign bit allows a signed sort
+    long patternMask = keySize == 64 ? -1L : (1L << keySize) - 1;
+    long[] sorted = new long[size];
+    int n = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (nonNull(values[i])) {
+        sorted[n++] = (keys[i] & patternMask) ^ Long.MIN_VALUE;
+      }
+    }
+    Arrays.sort(sorted);
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] ^= Long.MIN_VALUE;
+    }
+    return DictSerializer.serialize(
+        keySize,
+        sorted.length,
+        (index, position) -> ((sorted[index] >>> (keySize - 1 - position)) & 1) != 0,
+        index -> valueSerializer.apply(get(toKey(sorted[index]))));
+  }
+
+  /** Loads entries of the dictionary with the given root edge, root may be null. */
+  void deserialize(Cell root, Function<CellSlice, Object> valueParser) {
+    for (DictView.Entry entry : DictView.of(root, keySize)) {
+      long key =
+          signedKeys
+              ? entry.getKey().readIntLong(keySize)
+              : entry.getKey().readUintLong(keySize);
+      put(key, valueParser.apply(entry.getValue()));
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    forEach(
+        (k, v) -> {
+          if (sb.length() > 1) {
+            sb.append(", ");
+          }
+          sb.append(signedKeys ? Long.toString(k) : Long.toUnsignedString(k)).append('=').append(v);
+        });
+    return sb.append('}').toString();
+  }
+
+  private long toKey(long pattern) {
+    if (!signedKeys || keySize == 64) {
+      return pattern;
+    }
+    int unused = 64 - keySize;
+    return (pattern << unused) >> unused;
+  }
+
+  private void checkKey(long key) {
+    if (keySize == 64) {
+      return;
+    }
+    boolean fits =
+        signedKeys
+            ? key >= -(1L << (keySize - 1)) && key < (1L << (keySize - 1))
+            : key >= 0 && key < (1L << keySize);
+    if (!fits) {
+      throw new Error("key " + key + " does not fit into " + keySize + " bits");
+    }
+  }
+
+  private int indexOf(long key) {
+    int mask = values.length - 1;
+    for (int i = slot(key); nonNull(values[i]); i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Fibonacci hashing, takes the high bits of the product. */
+  private int slot(long key) {
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new Object[capacity];
+    shift = 64 - Integer.numberOfTrailingZeros(capacity);
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+    size = 0;
+    for (int i = 0; i < oldValues.length; i++) {
+      if (nonNull(oldValues[i])) {
+        put(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+}
@@ -45,10 +45,10 @@ public class TonPfxHashMap extends TonHashMap {
      * HashMap X Y;
      */
     void deserialize(CellSlice c, Function<BitString, Object> keyParser, Function<Cell, Object> valueParser) {
-        List<Node> nodes = deserializeEdge(c, keySize, new BitString(keySize));
-        for (Node node : nodes) {
-            elements.put(keyParser.apply(node.key), valueParser.apply(node.value));
-        }
+        DictView view = DictView.ofPfx(c.sliceToCell(), keySize);
+        deserializeLabel(c, keySize);
+        c.loadBit(); // pfx feature
+        load(view, keyParser, valueParser);
     }
 
     /**
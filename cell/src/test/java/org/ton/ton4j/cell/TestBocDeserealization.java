@@ -1,9 +1,16 @@
 package org.ton.ton4j.cell;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.binary.Hex;
@@ -426,4 +433,69 @@ public class TestBocDeserealization {
     assertThat(hash)
         .isEqualTo("bf76eed0ac2f54e30c93c36e587a6dacd4526f45dcbf01a476c149f1991cb78a"); // works
   }
+
+  @Test
+  public void testShouldDeserializeFromByteBuffer() {
+    byte[] boc =
+        Utils.hexToSignedBytes(
+            "b5ee9c724101030100d700026fc00c419e2b8a3b6cd81acd3967dbbaf4442e1870e99eaf32278b7814a6ccaac5f802068148c314b1854000006735d812370d00764ce8d340010200deff0020dd2082014c97ba218201339cbab19f71b0ed44d0d31fd31f31d70bffe304e0a4f2608308d71820d31fd31fd31ff82313bbf263ed44d0d31fd31fd3ffd15132baf2a15144baf2a204f901541055f910f2a3f8009320d74a96d307d402fb00e8d101a4c8cb1fcb1fcbffc9ed5400500000000229a9a317d78e2ef9e6572eeaa3f206ae5c3dd4d00ddd2ffa771196dc0ab985fa84daf451c340d7fa");
+    Cell expected = Cell.fromBoc(boc);
+
+    ByteBuffer heap = ByteBuffer.wrap(boc);
+    Cell fromHeap = Cell.fromBoc(heap);
+    assertThat(heap.position()).isZero();
+    assertThat(fromHeap.getHash()).isEqualTo(expected.getHash());
+    assertThat(fromHeap.getBitLength()).isEqualTo(expected.getBitLength());
+    assertThat(fromHeap.toBoc(true)).isEqualTo(expected.toBoc(true));
+    assertThat(fromHeap.getRefs().get(0).getBits().toHex())
+        .isEqualTo(expected.getRefs().get(0).getBits().toHex());
+
+    // direct little-endian buffer with unrelated bytes around the boc
+    ByteBuffer direct = ByteBuffer.allocateDirect(boc.length + 7).order(ByteOrder.LITTLE_ENDIAN);
+    direct.put(new byte[3]).put(boc).put(new byte[4]);
+    direct.position(3).limit(3 + boc.length);
+    Cell fromDirect = Cell.fromBoc(direct);
+    assertThat(direct.position()).isEqualTo(3);
+    assertThat(fromDirect.getHash()).isEqualTo(expected.getHash());
+    assertThat(fromDirect.print()).isEqualTo(expected.print());
+    assertThat(fromDirect.clone().toHex()).isEqualTo(expected.toHex());
+  }
+
+  @Test
+  public void testShouldDetectCorruptedByteBuffer() {
+    byte[] boc = CellBuilder.beginCell().storeUint(42, 7).endCell().toBoc(true);
+    boc[boc.length - 5] ^= 1;
+    assertThrows(Error.class, () -> Cell.fromBoc(ByteBuffer.wrap(boc)));
+  }
+
+  @Test
+  public void testShouldWriteAndReadBocThroughStreams() throws IOException {
+    Cell c1 = CellBuilder.beginCell().storeUint(42, 7).endCell();
+    Cell c2 = CellBuilder.beginCell().storeUint(12, 8).storeRef(c1).endCell();
+    Cell c3 = CellBuilder.beginCell().storeUint(13, 8).storeRef(c1).storeRef(c2).endCell();
+
+    for (boolean withIdx : new boolean[] {false, true}) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      out.write(0x77);
+      c3.writeBoc(out, true, withIdx, withIdx);
+      out.write(0x55);
+      byte[] written = out.toByteArray();
+      byte[] boc = c3.toBoc(true, withIdx, withIdx);
+      assertThat(Arrays.copyOfRange(written, 1, written.length - 1)).isEqualTo(boc);
+
+      // only bytes of boc are consumed from the stream
+      ByteArrayInputStream in = new ByteArrayInputStream(written, 1, written.length - 1);
+      Cell parsed = Cell.readBoc(in);
+      assertThat(in.read()).isEqualTo(0x55);
+      assertThat(parsed.getHash()).isEqualTo(c3.getHash());
+      assertThat(parsed.toBoc(true, withIdx, withIdx)).isEqualTo(boc);
+
+      Cell fromChannel = Cell.readBoc(Channels.newChannel(new ByteArrayInputStream(boc)));
+      assertThat(fromChannel.getHash()).isEqualTo(c3.getHash());
+    }
+
+    byte[] corrupted = c3.toBoc(true);
+    corrupted[corrupted.length - 5] ^= 1;
+    assertThrows(Error.class, () -> Cell.readBoc(new ByteArrayInputStream(corrupted)));
+  }
 }
@@ -0,0 +1,73 @@
+package org.ton.ton4j.cell;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@Slf4j
+@RunWith(JUnit4.class)
+@Ignore
+public class TestBocSerializationPerformance {
+
+  private static final int ROUNDS = 20;
+  private static final int SHARED_CELLS = 16384;
+
+  @Test
+  public void testStateSerializationPerformance() {
+    // full 4-ary tree of depth 8 whose leaves refer to a pool of shared cells, 103765 cells
+    List<Cell> shared = new ArrayList<>(SHARED_CELLS);
+    for (int i = 0; i < SHARED_CELLS; i++) {
+      shared.add(CellBuilder.beginCell().storeUint(i, 64).storeUint(i % 100, 7).endCell());
+    }
+    int[] counter = new int[1];
+    Cell root = buildState(8, shared, counter);
+
+    byte[] boc = root.toBoc(true, true, true);
+    Cell parsed = Cell.fromBoc(boc);
+    assertThat(parsed.getHash()).isEqualTo(root.getHash());
+    assertThat(parsed.toBoc(true, true, true)).isEqualTo(boc);
+
+    measure("built", root, boc);
+    measure("parsed", parsed, boc);
+  }
+
+  private static Cell buildState(int depth, List<Cell> shared, int[] counter) {
+    int n = counter[0]++;
+    CellBuilder cb = CellBuilder.beginCell().storeUint(n, 256).storeUint(depth, 8);
+    if (depth > 0) {
+      for (int i = 0; i < 4; i++) {
+        cb.storeRef(buildState(depth - 1, shared, counter));
+      }
+    } else {
+      cb.storeRef(shared.get(n % shared.size()));
+    }
+    return cb.endCell();
+  }
+
+  private static void measure(String name, Cell root, byte[] expected) {
+    for (int i = 0; i < ROUNDS / 4; i++) { // warm-up
+      root.toBoc(true, true, true);
+    }
+
+    long start = System.nanoTime();
+    byte[] boc = null;
+    for (int i = 0; i < ROUNDS; i++) {
+      boc = root.toBoc(true, true, true);
+    }
+    long duration = System.nanoTime() - start;
+
+    log.info(
+        "{} state, {} bytes: {} ms per toBoc ({} ms total)",
+        name,
+        boc.length,
+        duration / ROUNDS / 1_000_000,
+        duration / 1_000_000);
+    assertThat(boc).isEqualTo(expected);
+  }
+}
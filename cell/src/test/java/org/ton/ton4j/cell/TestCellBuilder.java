@@ -8,6 +8,13 @@ import org.ton.ton4j.address.Address;
 import org.ton.ton4j.utils.Utils;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertThrows;
@@ -147,6 +154,23 @@ public class TestCellBuilder {
     log.info("c5 deserialized:\n{}", dc5.print());
   }
 
+  @Test
+  public void testCellBuilderStoreIntMaybeRange() {
+    CellBuilder cb = CellBuilder.beginCell();
+    assertThrows(Error.class, () -> cb.storeIntMaybe(128L, 8));
+    assertThrows(Error.class, () -> cb.storeIntMaybe(-129, 8));
+    assertThrows(Error.class, () -> cb.storeIntMaybe(BigInteger.valueOf(128), 8));
+    // nothing written on error
+    assertThat(cb.getUsedBits()).isEqualTo(0);
+
+    Cell c = cb.storeIntMaybe(127L, 8).storeIntMaybe(-128, 8).endCell();
+    CellSlice cs = CellSlice.beginParse(c);
+    assertThat(cs.loadBit()).isTrue();
+    assertThat(cs.loadIntAsLong(8)).isEqualTo(127);
+    assertThat(cs.loadBit()).isTrue();
+    assertThat(cs.loadIntAsLong(8)).isEqualTo(-128);
+  }
+
   @Test
   public void testCellBuilderStoreCoins() {
 
@@ -187,6 +211,65 @@ public class TestCellBuilder {
     assertThat(cellDict).isNotNull();
   }
 
+  @Test
+  public void testCellBuilderLazyHashes() {
+    Cell eager = CellBuilder.beginCell().storeUint(0, 32).endCell();
+    Cell lazy = CellBuilder.beginCell().storeUint(0, 32).endCell(true);
+    for (int i = 1; i < 1023; i++) {
+      eager = CellBuilder.beginCell().storeUint(i, 32).storeRef(eager).endCell();
+      lazy = CellBuilder.beginCell().storeUint(i, 32).storeRef(lazy).endCell(true);
+    }
+
+    // whole chain of max depth is hashed on first request, without recursion
+    assertThat(lazy.getHash()).isEqualTo(eager.getHash());
+    assertThat(lazy.getDepthLevels()).isEqualTo(eager.getDepthLevels());
+    assertThat(lazy.getRefs().get(0).getHash()).isEqualTo(eager.getRefs().get(0).getHash());
+
+    Cell lazyParsed = Cell.fromBoc(ByteBuffer.wrap(eager.toBoc()), true);
+    assertThat(lazyParsed.toBoc()).isEqualTo(eager.toBoc());
+    assertThat(lazyParsed.getHash()).isEqualTo(eager.getHash());
+  }
+
+  @Test
+  public void testCellLazyHashesConcurrent() throws Exception {
+    Cell eager = CellBuilder.beginCell().storeUint(0, 32).endCell();
+    for (int i = 1; i < 1023; i++) {
+      eager = CellBuilder.beginCell().storeUint(i, 32).storeRef(eager).endCell();
+    }
+    byte[] boc = eager.toBoc();
+    byte[] expected = eager.getHash();
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      for (int round = 0; round < 20; round++) {
+        Cell lazy = Cell.fromBoc(ByteBuffer.wrap(boc), true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<byte[]>> hashes = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+          // threads start hashing the chain at different depths
+          Cell from = lazy;
+          for (int d = 0; d < t * 100; d++) {
+            from = from.getRefs().get(0);
+          }
+          Cell root = from;
+          hashes.add(
+              executor.submit(
+                  () -> {
+                    start.await();
+                    root.getHash();
+                    return lazy.getHash();
+                  }));
+        }
+        start.countDown();
+        for (Future<byte[]> hash : hashes) {
+          assertThat(hash.get()).isEqualTo(expected);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Test
   public void testCellMask() {
     //        log.info("min bits {} for int {}", Cell.calculateMinimumBits(6), 6);
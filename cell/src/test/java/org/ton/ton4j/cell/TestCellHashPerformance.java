@@ -0,0 +1,80 @@
+package org.ton.ton4j.cell;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@Slf4j
+@RunWith(JUnit4.class)
+@Ignore
+public class TestCellHashPerformance {
+
+  private static final int ROUNDS = 200;
+
+  @Test
+  public void testDeepTreeHashPerformance() {
+    // chain of cells with max depth
+    List<Cell> cells = new ArrayList<>();
+    Cell c = CellBuilder.beginCell().storeUint(0, 32).endCell();
+    cells.add(c);
+    for (int i = 1; i < 1023; i++) {
+      c = CellBuilder.beginCell().storeUint(i, 32).storeRef(c).endCell();
+      cells.add(c);
+    }
+    assertThat(c.getDepthLevels()[0]).isEqualTo(1022);
+
+    measure("deep", cells);
+  }
+
+  @Test
+  public void testWideTreeHashPerformance() {
+    // full 4-ary tree of depth 6, 5461 cells
+    List<Cell> cells = new ArrayList<>();
+    buildWide(6, cells);
+
+    measure("wide", cells);
+  }
+
+  private static Cell buildWide(int depth, List<Cell> cells) {
+    CellBuilder cb = CellBuilder.beginCell().storeUint(cells.size(), 256).storeUint(depth, 8);
+    if (depth > 0) {
+      for (int i = 0; i < 4; i++) {
+        cb.storeRef(buildWide(depth - 1, cells));
+      }
+    }
+    Cell c = cb.endCell();
+    cells.add(c);
+    return c;
+  }
+
+  /** cells are given children first, so each cell is rehashed after its refs */
+  private static void measure(String name, List<Cell> cells) {
+    byte[] expected = cells.get(cells.size() - 1).getHash();
+    for (int i = 0; i < ROUNDS / 10; i++) { // warm-up
+      cells.forEach(Cell::calculateHashes);
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      for (Cell c : cells) {
+        c.calculateHashes();
+      }
+    }
+    long duration = System.nanoTime() - start;
+
+    long hashes = (long) ROUNDS * cells.size();
+    log.info(
+        "{} tree, {} cells: {} hashes/s ({} ms total)",
+        name,
+        cells.size(),
+        hashes * 1_000_000_000L / duration,
+        duration / 1_000_000);
+    assertThat(cells.get(cells.size() - 1).getHash()).isEqualTo(expected);
+  }
+}
@@ -0,0 +1,60 @@
+package org.ton.ton4j.cell;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestCellInterner {
+
+  private static Cell wallet(int seqno) {
+    Cell code = CellBuilder.beginCell().storeUint(0xFF00F4A4L, 32).endCell();
+    Cell data = CellBuilder.beginCell().storeUint(seqno, 32).endCell();
+    return CellBuilder.beginCell().storeRef(code).storeRef(data).endCell();
+  }
+
+  @Test
+  public void testShouldShareIdenticalSubtreesFromBoc() {
+    CellInterner interner = CellInterner.bounded(1000);
+
+    Cell first = Cell.fromBoc(wallet(1).toBoc(), interner);
+    Cell second = Cell.fromBoc(wallet(2).toBoc(), interner);
+
+    assertThat(second.getRefs().get(0)).isSameAs(first.getRefs().get(0));
+    assertThat(second.getRefs().get(1)).isNotSameAs(first.getRefs().get(1));
+    assertThat(Cell.fromBoc(wallet(1).toBoc(), interner)).isSameAs(first);
+    assertThat(interner.getMisses()).isEqualTo(5);
+    assertThat(interner.getHits()).isEqualTo(4);
+    log.info("{}", interner);
+  }
+
+  @Test
+  public void testShouldInternBuiltCells() {
+    CellInterner interner = CellInterner.weak();
+
+    Cell c1 = CellBuilder.beginCell().storeUint(42, 7).endCell(interner);
+    Cell c2 = CellBuilder.beginCell().storeUint(42, 7).endCell(interner);
+
+    assertThat(c2).isSameAs(c1);
+    assertThat(interner.size()).isEqualTo(1);
+    assertThat(interner.getHitRate()).isEqualTo(0.5);
+  }
+
+  @Test
+  public void testShouldEvictLeastRecentlyUsedCells() {
+    CellInterner interner = CellInterner.bounded(2);
+
+    Cell c1 = CellBuilder.beginCell().storeUint(1, 8).endCell(interner);
+    CellBuilder.beginCell().storeUint(2, 8).endCell(interner);
+    CellBuilder.beginCell().storeUint(1, 8).endCell(interner);
+    CellBuilder.beginCell().storeUint(3, 8).endCell(interner);
+
+    assertThat(interner.size()).isEqualTo(2);
+    assertThat(CellBuilder.beginCell().storeUint(1, 8).endCell(interner)).isSameAs(c1);
+    assertThat(interner.getHits()).isEqualTo(2);
+  }
+}
@@ -2,12 +2,21 @@ package org.ton.ton4j.cell;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -443,18 +452,147 @@ public class TestCellSerialization {
     log.info("cc levelMask {}, maxLevel {}", cc.resolveMask(), cc.getMaxLevel());
   }
 
-  @Ignore
+  private static Cell prunedBranch(int mask) {
+    Cell c =
+        CellBuilder.beginCell()
+            .storeUint(1, 8) // Pruned Branch Cell Type
+            .storeUint(mask, 8)
+            .storeUint(123456, 256)
+            .storeUint(1, 16)
+            .endCell();
+    Cell pb = new Cell(c.getBits(), c.getBitLength(), c.getRefs(), true, CellType.PRUNED_BRANCH);
+    pb.calculateHashes();
+    return pb;
+  }
+
+  private static Cell merkleUpdate(Cell left, Cell right) {
+    Cell c =
+        CellBuilder.beginCell()
+            .storeUint(4, 8) // Merkle Update Cell Type
+            .storeBytes(left.getHash(0))
+            .storeBytes(right.getHash(0))
+            .storeUint(left.getDepthLevels()[0], 16)
+            .storeUint(right.getDepthLevels()[0], 16)
+            .storeRef(left)
+            .storeRef(right)
+            .endCell();
+    Cell update =
+        new Cell(c.getBits(), c.getBitLength(), c.getRefs(), true, CellType.MERKLE_UPDATE);
+    update.calculateHashes();
+    return update;
+  }
+
   @Test
-  public void testMultiRootCellDeSerialization() {
+  public void testMerkleUpdateCellLevelMaskShouldShiftBothRefs() {
+    Cell plain = CellBuilder.beginCell().storeUint(1, 1).endCell();
+    Cell level1 = prunedBranch(1);
+    Cell level2 = prunedBranch(2);
+    assertThat(level1.levelMask.getMask()).isEqualTo(1);
+    assertThat(level2.levelMask.getMask()).isEqualTo(2);
+
+    // left ref with non-zero level used to keep its mask unshifted
+    assertThat(merkleUpdate(level1, plain).levelMask.getMask()).isEqualTo(0);
+    assertThat(merkleUpdate(level2, plain).levelMask.getMask()).isEqualTo(1);
+    assertThat(merkleUpdate(plain, level2).levelMask.getMask()).isEqualTo(1);
+    assertThat(merkleUpdate(level2, level1).levelMask.getMask()).isEqualTo(1);
+
+    Cell update = merkleUpdate(level2, level1);
+    Cell parsed = Cell.fromBoc(update.toBoc());
+    assertThat(parsed.levelMask.getMask()).isEqualTo(1);
+    assertThat(parsed.getHash()).isEqualTo(update.getHash());
+  }
+
+  @Test
+  public void testBocOrderShouldMatchRescanUntilStable() {
+    Random random = new Random(11);
+    for (int round = 0; round < 50; round++) {
+      // DAG where cells are shared between different depths, so breadth-first order needs moves
+      List<Cell> cells = new ArrayList<>();
+      int size = 2 + random.nextInt(150);
+      for (int i = 0; i < size; i++) {
+        CellBuilder cb = CellBuilder.beginCell().storeUint(i, 32);
+        int refs = cells.isEmpty() ? 0 : random.nextInt(5);
+        for (int r = 0; r < refs; r++) {
+          int from = random.nextBoolean() ? 0 : Math.max(0, cells.size() - 8);
+          cb.storeRef(cells.get(from + random.nextInt(cells.size() - from)));
+        }
+        cells.add(cb.endCell());
+      }
+      Cell root = cells.get(cells.size() - 1);
+
+      List<Cell> expected = rescanUntilStable(root);
+      Cell[] actual = new BocSerializer(Collections.singletonList(root)).getCells();
+      assertThat(actual).hasSameSizeAs(expected);
+      for (int i = 0; i < actual.length; i++) {
+        assertThat(actual[i].getHash()).isEqualTo(expected.get(i).getHash());
+      }
+      assertThat(Cell.fromBoc(root.toBoc()).getHash()).isEqualTo(root.getHash());
+    }
+  }
+
+  /** Order of the previous serializer: breadth-first, then full rescans until nothing moves. */
+  private static List<Cell> rescanUntilStable(Cell root) {
+    Map<ByteBuffer, Integer> index = new HashMap<>();
+    List<Cell> cells = new ArrayList<>();
+    List<Cell> level = Collections.singletonList(root);
+    while (!level.isEmpty()) {
+      List<Cell> next = new ArrayList<>();
+      for (Cell c : level) {
+        ByteBuffer hash = ByteBuffer.wrap(c.getHash());
+        if (!index.containsKey(hash)) {
+          index.put(hash, cells.size());
+          cells.add(c);
+          next.addAll(c.getRefs());
+        }
+      }
+      level = next;
+    }
+
+    int[] order = new int[cells.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    int next = order.length;
+    boolean moved = true;
+    while (moved) {
+      moved = false;
+      for (int i = 0; i < cells.size(); i++) {
+        for (Cell ref : cells.get(i).getRefs()) {
+          int r = index.get(ByteBuffer.wrap(ref.getHash()));
+          if (order[r] < order[i]) {
+            order[r] = next++;
+            moved = true;
+          }
+        }
+      }
+    }
+    List<Cell> sorted = new ArrayList<>(cells);
+    sorted.sort(Comparator.comparingInt(c -> order[index.get(ByteBuffer.wrap(c.getHash()))]));
+    return sorted;
+  }
+
+  @Test
+  public void testMultiRootCellDeSerialization() throws IOException {
     Cell c1 = CellBuilder.beginCell().storeUint(42, 7).endCell();
     Cell c2 = CellBuilder.beginCell().storeUint(12, 8).storeRef(c1).endCell();
     Cell c3 = CellBuilder.beginCell().storeUint(13, 8).storeRef(c1).storeRef(c2).endCell();
-    byte[] bocWithRoots =
-        new Cell().toBocMultiRoot(Arrays.asList(c1, c2, c3), true, true, false, false, false);
-    String bocWithRootsHex = Utils.bytesToHex(bocWithRoots);
-    List<Cell> cellWithRoots = Cell.fromBocMultiRoot(bocWithRoots);
-    log.info("cell with size {}", cellWithRoots.size());
-    log.info("cell with roots {}", cellWithRoots.size());
-    c3.toHex();
+    List<Cell> roots = Arrays.asList(c1, c2, c3);
+
+    byte[] bocWithRoots = new Cell().toBocMultiRoot(roots, true, true, false, false, false);
+    log.info("boc with roots {}", Utils.bytesToHex(bocWithRoots));
+    assertRoots(Cell.fromBocMultiRoot(bocWithRoots), roots);
+    assertRoots(Cell.fromBocMultiRoots(ByteBuffer.wrap(bocWithRoots)), roots);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Cell.writeBocMultiRoot(roots, out, true, false, false);
+    assertRoots(Cell.readBocMultiRoots(new ByteArrayInputStream(out.toByteArray())), roots);
+    assertRoots(Cell.fromBocMultiRoot(out.toByteArray()), roots);
+  }
+
+  private static void assertRoots(List<Cell> actual, List<Cell> expected) {
+    assertThat(actual).hasSameSizeAs(expected);
+    for (int i = 0; i < actual.size(); i++) {
+      assertThat(actual.get(i).getHash()).isEqualTo(expected.get(i).getHash());
+    }
   }
 }
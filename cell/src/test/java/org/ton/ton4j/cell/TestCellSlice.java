@@ -775,4 +775,51 @@ public class TestCellSlice {
     String commentDecoded = CellSlice.beginParse(Cell.fromHex(commentHex)).loadSnakeString();
     log.info("commentDecoded {}", commentDecoded);
   }
+
+  @Test
+  public void testCellSlicePrimitives() {
+    Cell c =
+        CellBuilder.beginCell()
+            .storeUint(0x9bc7a987L, 32)
+            .storeInt(-5, 8)
+            .storeUint(0x8000000000000000L >>> 1, 63)
+            .storeUint(new BigInteger("8000000000000000", 16), 64)
+            .storeCoins(Long.MAX_VALUE)
+            .storeCoins(0)
+            .storeIntMaybe(-1L, 16)
+            .endCell();
+
+    CellSlice cs = CellSlice.beginParse(c);
+    assertThat(cs.preloadUintAsLong(32)).isEqualTo(0x9bc7a987L);
+    assertThat(cs.preloadUintAsInt(32)).isEqualTo(0x9bc7a987);
+    assertThat(cs.loadUintAsLong(32)).isEqualTo(0x9bc7a987L);
+    assertThat(cs.loadIntAsInt(8)).isEqualTo(-5);
+    assertThat(cs.loadUintAsLong(63)).isEqualTo(0x4000000000000000L);
+    assertThat(cs.loadUintAsLong(64)).isEqualTo(Long.MIN_VALUE); // same as longValue()
+    assertThat(cs.loadCoinsAsLong()).isEqualTo(Long.MAX_VALUE);
+    assertThat(cs.loadCoinsAsLong()).isEqualTo(0);
+    assertThat(cs.loadBit()).isTrue();
+    assertThat(cs.loadIntAsLong(16)).isEqualTo(-1);
+    assertThat(cs.loadUintAsLong(0)).isEqualTo(0);
+    assertThat(cs.isSliceEmpty()).isTrue();
+
+    assertThrows(Error.class, () -> cs.loadUintAsLong(1));
+    assertThrows(Error.class, () -> CellSlice.beginParse(c).loadUintAsInt(33));
+  }
+
+  @Test
+  public void testCellSliceLoadCoinsAsLongOverflow() {
+    Cell c =
+        CellBuilder.beginCell()
+            .storeCoins(new BigInteger("9223372036854775808")) // Long.MAX_VALUE + 1
+            .storeCoins(new BigInteger("1000000000000000000000"))
+            .endCell();
+    CellSlice cs = CellSlice.beginParse(c);
+    assertThrows(Error.class, cs::loadCoinsAsLong);
+    // nothing consumed on overflow, the value can still be read as BigInteger
+    assertThat(cs.loadCoins()).isEqualTo(new BigInteger("9223372036854775808"));
+    CellSlice cs2 = CellSlice.beginParse(c);
+    cs2.loadCoins();
+    assertThrows(Error.class, cs2::loadCoinsAsLong);
+  }
 }
@@ -0,0 +1,144 @@
+package org.ton.ton4j.hashmaps;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.ton4j.bitstring.BitString;
+import org.ton.ton4j.cell.*;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestAugDictView {
+
+  private static final int KEY_SIZE = 64;
+
+  private static final Function<CellSlice, Object> EXTRA_PARSER = cs -> cs.loadUint(64);
+
+  private static final Function<Object, Cell> EXTRA_SERIALIZER =
+      e -> CellBuilder.beginCell().storeUint((BigInteger) e, 64).endCell();
+
+  private static final BiFunction<Object, Object, Object> SUM =
+      (l, r) -> ((BigInteger) l).add((BigInteger) r);
+
+  private static AugDictView empty() {
+    return AugDictView.of(null, KEY_SIZE, EXTRA_PARSER, EXTRA_SERIALIZER, SUM);
+  }
+
+  private static final Function<Object, BitString> KEY =
+      k -> CellBuilder.beginCell().storeUint((Long) k, KEY_SIZE).endCell().getBits();
+
+  private static BitString key(long k) {
+    return KEY.apply(k);
+  }
+
+  private static Cell value(long v) {
+    return CellBuilder.beginCell().storeUint(v, 32).endCell();
+  }
+
+  /** Recalculates extras from scratch and checks the stored ones, returns extra of the edge. */
+  private static BigInteger checkExtras(Cell edge, int consumed) {
+    CellSlice cs = CellSlice.beginParse(edge);
+    TonHashMapAug x = new TonHashMapAug(KEY_SIZE);
+    int labelLength = x.deserializeLabel(cs, KEY_SIZE - consumed).getUsedBits();
+    if (consumed + labelLength == KEY_SIZE) {
+      return cs.loadUint(64);
+    }
+    BigInteger stored = cs.loadUint(64);
+    BigInteger left = checkExtras(cs.loadRef(), consumed + labelLength + 1);
+    BigInteger right = checkExtras(cs.loadRef(), consumed + labelLength + 1);
+    assertThat(stored).isEqualTo(left.add(right));
+    return stored;
+  }
+
+  @Test
+  public void testIncrementalUpdatesShouldMatchBulkBuild() {
+    Random random = new Random(3);
+    Map<Long, ValueExtra> entries = new HashMap<>();
+    Map<Long, ValueExtra> first = new HashMap<>();
+    long total = 0;
+    for (int i = 0; i < 500; i++) {
+      long k = random.nextLong() & Long.MAX_VALUE;
+      ValueExtra entry = new ValueExtra(value(i), BigInteger.valueOf(i));
+      entries.put(k, entry);
+      if (i < 250) {
+        first.put(k, entry);
+      }
+      total += i;
+    }
+    AugDictView bulk = empty().setAll(entries, KEY);
+    assertThat(bulk.getRootExtra()).isEqualTo(BigInteger.valueOf(total));
+    checkExtras(bulk.getRoot(), 0);
+
+    AugDictView incremental = empty().setAll(first, KEY);
+    for (Map.Entry<Long, ValueExtra> e : entries.entrySet()) {
+      if (!first.containsKey(e.getKey())) {
+        incremental =
+            incremental.set(
+                key(e.getKey()), e.getValue().getExtra(), (Cell) e.getValue().getValue());
+      }
+    }
+    assertThat(incremental.getRoot().getHash()).isEqualTo(bulk.getRoot().getHash());
+
+    // merging a batch into an existing tree gives the same result
+    Map<Long, ValueExtra> rest = new HashMap<>(entries);
+    rest.keySet().removeAll(first.keySet());
+    AugDictView merged = empty().setAll(first, KEY).setAll(rest, KEY);
+    assertThat(merged.getRoot().getHash()).isEqualTo(bulk.getRoot().getHash());
+  }
+
+  @Test
+  public void testUpdateShouldRefoldAncestorsOnly() {
+    Map<Long, ValueExtra> entries = new HashMap<>();
+    for (long i = 0; i < 1000; i++) {
+      entries.put(i * 31, new ValueExtra(value(i), BigInteger.valueOf(i)));
+    }
+    AugDictView dict = empty().setAll(entries, KEY);
+    AugDictView updated = dict.set(key(31 * 7), BigInteger.valueOf(1007), value(1));
+    assertThat(updated.getRootExtra())
+        .isEqualTo(((BigInteger) dict.getRootExtra()).add(BigInteger.valueOf(1000)));
+    checkExtras(updated.getRoot(), 0);
+
+    CellSlice valueAndExtra = updated.get(key(31 * 7));
+    assertThat(valueAndExtra.loadUint(64).longValue()).isEqualTo(1007);
+    assertThat(valueAndExtra.loadUint(32).longValue()).isEqualTo(1);
+
+    // the subtree without the updated key is shared
+    assertThat(updated.getRoot().getRefs().get(1).getHash())
+        .isEqualTo(dict.getRoot().getRefs().get(1).getHash());
+  }
+
+  @Test
+  public void testDeleteShouldMatchRebuild() {
+    Map<Long, ValueExtra> entries = new HashMap<>();
+    Map<Long, ValueExtra> odd = new HashMap<>();
+    for (long i = 0; i < 200; i++) {
+      ValueExtra entry = new ValueExtra(value(i), BigInteger.valueOf(i));
+      entries.put(i, entry);
+      if (i % 2 == 1) {
+        odd.put(i, entry);
+      }
+    }
+    AugDictView dict = empty().setAll(entries, KEY);
+    for (long i = 0; i < 200; i += 2) {
+      dict = dict.delete(key(i));
+    }
+    assertThat(dict.delete(key(0))).isSameAs(dict);
+    assertThat(dict.getRoot().getHash()).isEqualTo(empty().setAll(odd, KEY).getRoot().getHash());
+    assertThat(dict.getRootExtra()).isEqualTo(BigInteger.valueOf(100 * 100));
+    checkExtras(dict.getRoot(), 0);
+
+    for (long i = 1; i < 200; i += 2) {
+      dict = dict.delete(key(i));
+    }
+    assertThat(dict.isEmpty()).isTrue();
+  }
+}
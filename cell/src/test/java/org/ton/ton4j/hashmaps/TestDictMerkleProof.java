@@ -0,0 +1,178 @@
+package org.ton.ton4j.hashmaps;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.ton4j.bitstring.BitString;
+import org.ton.ton4j.cell.*;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestDictMerkleProof {
+
+  private static final int KEY_SIZE = 32;
+
+  private static final Function<Object, BitString> KEY =
+      k -> CellBuilder.beginCell().storeUint((Long) k, KEY_SIZE).endCell().getBits();
+
+  private static final Function<Object, Cell> VALUE =
+      v -> CellBuilder.beginCell().storeUint((Long) v, 64).endCell();
+
+  private static BitString key(long k) {
+    return KEY.apply(k);
+  }
+
+  private static int countCells(Cell cell, CellType type) {
+    int count = cell.getCellType() == type ? 1 : 0;
+    for (Cell ref : cell.getRefs()) {
+      count += countCells(ref, type);
+    }
+    return count;
+  }
+
+  @Test
+  public void testProofOfManyKeysShouldKeepRootHash() {
+    Random random = new Random(7);
+    TonHashMapE x = new TonHashMapE(KEY_SIZE);
+    List<Long> keys = new ArrayList<>();
+    for (long i = 0; i < 1000; i++) {
+      long key = random.nextInt() & 0xFFFFFFFFL;
+      x.elements.put(key, i);
+      keys.add(key);
+    }
+    Cell root = x.serialize(KEY, VALUE);
+    DictView view = DictView.of(root, KEY_SIZE);
+
+    List<BitString> proven = new ArrayList<>();
+    for (int i = 0; i < keys.size(); i += 20) {
+      proven.add(key(keys.get(i)));
+    }
+    Cell proof = view.buildMerkleProof(proven);
+
+    assertThat(proof.getCellType()).isEqualTo(CellType.MERKLE_PROOF);
+    Cell pruned = proof.getRefs().get(0);
+    assertThat(pruned.getHash(0)).isEqualTo(root.getHash());
+
+    DictView provenView = DictView.of(pruned, KEY_SIZE);
+    for (int i = 0; i < keys.size(); i++) {
+      CellSlice value = provenView.get(keys.get(i));
+      if (i % 20 == 0) {
+        assertThat(value.loadUint(64).longValue()).isEqualTo(x.elements.get(keys.get(i)));
+      } else {
+        assertThat(value).isNull();
+      }
+    }
+    assertThat(countCells(pruned, CellType.PRUNED_BRANCH)).isPositive();
+
+    // absence proof keeps the edge where the key diverges, it may reveal a neighbouring leaf
+    proven.add(key(12345));
+    Cell absent = view.buildMerkleProof(proven).getRefs().get(0);
+    assertThat(absent.getHash(0)).isEqualTo(root.getHash());
+    assertThat(DictView.of(absent, KEY_SIZE).get(12345)).isNull();
+  }
+
+  @Test
+  public void testProofShouldIncludeSharedPathsOnce() {
+    TonHashMapE x = new TonHashMapE(KEY_SIZE);
+    for (long i = 0; i < 64; i++) {
+      x.elements.put(i, i);
+    }
+    DictView view = DictView.of(x.serialize(KEY, VALUE), KEY_SIZE);
+
+    Cell single = view.prune(Collections.singletonList(key(5)));
+    Cell duplicated = view.prune(Arrays.asList(key(5), key(5)));
+    assertThat(duplicated.getHash()).isEqualTo(single.getHash());
+
+    // 5 and 6 diverge at the last but one fork, only its other fork and leaf are added
+    Cell pair = view.prune(Arrays.asList(key(5), key(6)));
+    assertThat(countCells(pair, CellType.ORDINARY))
+        .isEqualTo(countCells(single, CellType.ORDINARY) + 2);
+
+    List<BitString> all = new ArrayList<>();
+    for (long i = 0; i < 64; i++) {
+      all.add(key(i));
+    }
+    assertThat(countCells(view.prune(all), CellType.PRUNED_BRANCH)).isZero();
+  }
+
+  @Test
+  public void testSingleKeyProofShouldMatchDictView() {
+    TonHashMap x = new TonHashMap(KEY_SIZE);
+    for (long i = 0; i < 100; i++) {
+      x.elements.put(i * 7, i);
+    }
+    Cell proof = x.buildMerkleProof(21L, KEY, VALUE);
+    Cell expected =
+        DictView.of(x.serialize(KEY, VALUE), KEY_SIZE)
+            .buildMerkleProof(Collections.singletonList(key(21)));
+    assertThat(proof.getHash()).isEqualTo(expected.getHash());
+  }
+
+  @Test
+  public void testShouldProveAugDictWithForkExtras() {
+    TonHashMapAugE x = new TonHashMapAugE(KEY_SIZE);
+    for (long i = 1; i <= 100; i++) {
+      x.elements.put(i * 1000, new ValueExtra(i, i * 3));
+    }
+    Function<Object, Object> value =
+        v -> CellBuilder.beginCell().storeUint((Long) v, 16).endCell();
+    Function<Object, Object> extra =
+        e -> CellBuilder.beginCell().storeUint((Long) e, 16).endCell();
+    Cell proof =
+        x.buildMerkleProof(
+            Arrays.asList(7000L, 42000L),
+            KEY,
+            value,
+            extra,
+            (fk, fv) -> CellBuilder.beginCell().storeUint(0, 16));
+
+    Cell dict =
+        x.serialize(KEY, value, extra, (fk, fv) -> CellBuilder.beginCell().storeUint(0, 16));
+    Cell root = CellSlice.beginParse(dict).loadMaybeRefX();
+    Cell pruned = proof.getRefs().get(0);
+    assertThat(pruned.getHash(0)).isEqualTo(root.getHash());
+
+    CellSlice valueAndExtra = DictView.of(pruned, KEY_SIZE).get(42000);
+    assertThat(valueAndExtra.loadUint(16).longValue()).isEqualTo(42);
+    assertThat(valueAndExtra.loadUint(16).longValue()).isEqualTo(126);
+    assertThat(DictView.of(pruned, KEY_SIZE).get(8000)).isNull();
+  }
+
+  @Test
+  public void testDeserializedMapShouldBeProvenOverOriginalCells() {
+    TonHashMapE x = new TonHashMapE(KEY_SIZE);
+    for (long i = 0; i < 100; i++) {
+      x.elements.put(i * 7, i);
+    }
+    Cell root = x.serialize(KEY, VALUE);
+    TonHashMapE loaded =
+        CellSlice.beginParse(CellBuilder.beginCell().storeDict(root).endCell())
+            .loadDictE(KEY_SIZE, k -> k.readUint(KEY_SIZE).longValue(), v -> v);
+    Function<Object, Cell> unused =
+        v -> {
+          throw new Error("map should not be serialized");
+        };
+
+    Cell proof = loaded.buildMerkleProof(Arrays.asList(14L, 700L), KEY, unused);
+    Cell pruned = proof.getRefs().get(0);
+    assertThat(pruned.getHash(0)).isEqualTo(root.getHash());
+    assertThat(DictView.of(pruned, KEY_SIZE).get(14).loadUint(64).longValue()).isEqualTo(2);
+
+    // changed maps are serialized from elements
+    loaded.elements.put(14L, CellBuilder.beginCell().storeUint(99, 64).endCell());
+    Cell changed =
+        loaded.buildMerkleProof(
+            Collections.singletonList(14L), KEY, v -> (Cell) v).getRefs().get(0);
+    assertThat(changed.getHash(0)).isNotEqualTo(root.getHash());
+    assertThat(DictView.of(changed, KEY_SIZE).get(14).loadUint(64).longValue()).isEqualTo(99);
+  }
+}
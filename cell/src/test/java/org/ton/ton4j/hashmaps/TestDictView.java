@@ -0,0 +1,330 @@
+package org.ton.ton4j.hashmaps;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.ton4j.bitstring.BitString;
+import org.ton.ton4j.cell.*;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestDictView {
+
+  private static final int KEY_SIZE = 32;
+
+  private static Cell serialize(TreeMap<Long, Long> entries) {
+    TonHashMapE x = new TonHashMapE(KEY_SIZE);
+    entries.forEach(x.elements::put);
+    return x.serialize(
+        k -> CellBuilder.beginCell().storeUint((Long) k, KEY_SIZE).endCell().getBits(),
+        v -> value((Long) v));
+  }
+
+  private static Cell value(long v) {
+    return CellBuilder.beginCell().storeUint(v, 64).endCell();
+  }
+
+  private static Cell buildDictE(TreeMap<Long, Long> entries) {
+    return CellBuilder.beginCell().storeDict(serialize(entries)).endCell();
+  }
+
+  @Test
+  public void testShouldLookupSingleKeys() {
+    Random random = new Random(42);
+    TreeMap<Long, Long> entries = new TreeMap<>();
+    for (int i = 0; i < 500; i++) {
+      entries.put((long) random.nextInt(1 << 20), (long) i);
+    }
+    DictView view = CellSlice.beginParse(buildDictE(entries)).loadDictEView(KEY_SIZE);
+
+    for (long key = 0; key < 1 << 20; key += 97) {
+      CellSlice value = view.get(key);
+      if (entries.containsKey(key)) {
+        assertThat(value.loadUint(64).longValue()).isEqualTo(entries.get(key));
+      } else {
+        assertThat(value).isNull();
+      }
+    }
+    for (long key : entries.keySet()) {
+      assertThat(view.containsKey(key)).isTrue();
+      assertThat(view.get(key).loadUint(64).longValue()).isEqualTo(entries.get(key));
+    }
+  }
+
+  @Test
+  public void testShouldFindMinMaxNextAndPrev() {
+    TreeMap<Long, Long> entries = new TreeMap<>();
+    for (long key : new long[] {3, 17, 18, 200, 4096, 70000, 0xFFFFFFF0L}) {
+      entries.put(key, key * 10);
+    }
+    DictView view = CellSlice.beginParse(buildDictE(entries)).loadDictEView(KEY_SIZE);
+
+    assertThat(view.getMin().getKey().readUint(KEY_SIZE).longValue()).isEqualTo(3);
+    assertThat(view.getMax().getKey().readUint(KEY_SIZE).longValue()).isEqualTo(0xFFFFFFF0L);
+    assertThat(view.getMax().getValue().loadUint(64).longValue()).isEqualTo(0xFFFFFFF0L * 10);
+
+    for (long key : new long[] {0, 3, 5, 17, 18, 19, 199, 200, 4097, 70000, 0xFFFFFFF0L}) {
+      Long next = entries.higherKey(key);
+      Long prev = entries.lowerKey(key);
+      DictView.Entry nextEntry = view.getNext(BigInteger.valueOf(key));
+      DictView.Entry prevEntry = view.getPrev(BigInteger.valueOf(key));
+      if (next == null) {
+        assertThat(nextEntry).isNull();
+      } else {
+        assertThat(nextEntry.getKey().readUint(KEY_SIZE).longValue()).isEqualTo(next);
+        assertThat(nextEntry.getValue().loadUint(64).longValue()).isEqualTo(next * 10);
+      }
+      if (prev == null) {
+        assertThat(prevEntry).isNull();
+      } else {
+        assertThat(prevEntry.getKey().readUint(KEY_SIZE).longValue()).isEqualTo(prev);
+      }
+    }
+
+    BitString key = new BitString(KEY_SIZE);
+    key.writeUint(BigInteger.valueOf(200), KEY_SIZE);
+    assertThat(view.getNext(key, true).getKey().readUint(KEY_SIZE).longValue()).isEqualTo(200);
+  }
+
+  @Test
+  public void testShouldHandleEmptyDict() {
+    DictView view = CellSlice.beginParse(buildDictE(new TreeMap<>())).loadDictEView(KEY_SIZE);
+    assertThat(view.isEmpty()).isTrue();
+    assertThat(view.get(1)).isNull();
+    assertThat(view.getMin()).isNull();
+    assertThat(view.getNext(BigInteger.ONE)).isNull();
+  }
+
+  @Test
+  public void testShouldLookupAugDict() {
+    TonHashMapAugE x = new TonHashMapAugE(KEY_SIZE);
+    for (long i = 1; i <= 10; i++) {
+      x.elements.put(i * 1000, new ValueExtra(i, i * 3));
+    }
+    Cell dict =
+        x.serialize(
+            k -> CellBuilder.beginCell().storeUint((Long) k, KEY_SIZE).endCell().getBits(),
+            v -> CellBuilder.beginCell().storeUint((Long) v, 16).endCell(),
+            e -> CellBuilder.beginCell().storeUint((Long) e, 16).endCell(),
+            (fk, fv) -> CellBuilder.beginCell().storeUint(0, 16));
+
+    DictView view = CellSlice.beginParse(dict).loadDictAugEView(KEY_SIZE);
+    CellSlice valueAndExtra = view.get(7000);
+    assertThat(valueAndExtra.loadUint(16).longValue()).isEqualTo(7);
+    assertThat(valueAndExtra.loadUint(16).longValue()).isEqualTo(21);
+    assertThat(view.get(7001)).isNull();
+    assertThat(view.getMax().getKey().readUint(KEY_SIZE).longValue()).isEqualTo(10000);
+
+    // leaves of augmented dictionaries hold extras that forks depend on
+    assertThatThrownBy(() -> view.set(7000, value(1))).isInstanceOf(Error.class);
+    assertThatThrownBy(() -> view.replace(7000, value(1))).isInstanceOf(Error.class);
+    assertThatThrownBy(() -> view.delete(7000)).isInstanceOf(Error.class);
+  }
+
+  @Test
+  public void testShouldLookupPfxDict() {
+    int keySize = 9;
+    TonPfxHashMap x = new TonPfxHashMap(keySize);
+    x.elements.put(100L, 1L);
+    x.elements.put(200L, 2L);
+    x.elements.put(300L, 3L);
+    Cell dict =
+        x.serialize(
+            k -> CellBuilder.beginCell().storeUint((Long) k, keySize).endCell().getBits(),
+            v -> CellBuilder.beginCell().storeUint((Long) v, 8).endCell());
+
+    DictView view = DictView.ofPfx(dict, keySize);
+    assertThat(view.get(200).loadUint(8).longValue()).isEqualTo(2);
+    assertThat(view.get(201)).isNull();
+    assertThat(view.getMin().getValue().loadUint(8).longValue()).isEqualTo(1);
+  }
+
+  @Test
+  public void testShouldSetAndDeleteLikeFullRebuild() {
+    Random random = new Random(7);
+    TreeMap<Long, Long> entries = new TreeMap<>();
+    DictView view = DictView.of(null, KEY_SIZE);
+    for (int i = 0; i < 300; i++) {
+      long key = random.nextInt(1 << 16);
+      if (random.nextInt(3) == 0 && !entries.isEmpty()) {
+        key = entries.ceilingKey(key) == null ? entries.firstKey() : entries.ceilingKey(key);
+        entries.remove(key);
+        view = view.delete(key);
+      } else {
+        entries.put(key, (long) i);
+        view = view.set(key, value(i));
+      }
+      if (entries.isEmpty()) {
+        assertThat(view.getRoot()).isNull();
+      } else {
+        assertThat(view.getRoot().getHash()).isEqualTo(serialize(entries).getHash());
+      }
+    }
+  }
+
+  @Test
+  public void testShouldShareUnchangedSubtrees() {
+    TreeMap<Long, Long> entries = new TreeMap<>();
+    for (long key = 0; key < 64; key++) {
+      entries.put(key << 8, key);
+    }
+    DictView view = DictView.of(serialize(entries), KEY_SIZE);
+
+    DictView updated = view.set(0, value(100));
+    assertThat(updated.get(0).loadUint(64).longValue()).isEqualTo(100);
+    assertThat(view.get(0).loadUint(64).longValue()).isEqualTo(0);
+    // keys with the highest bit of the fork set are in the untouched right subtree
+    assertThat(updated.getRoot().getRefs().get(1)).isSameAs(view.getRoot().getRefs().get(1));
+
+    assertThat(view.replace(1, value(1))).isSameAs(view);
+    assertThat(view.delete(1)).isSameAs(view);
+    assertThat(view.replace(256, value(5)).get(256).loadUint(64).longValue()).isEqualTo(5);
+    assertThat(view.delete(256).containsKey(256)).isFalse();
+  }
+
+  @Test
+  public void testShouldIterateInKeyOrder() {
+    Random random = new Random(3);
+    TreeMap<Long, Long> entries = new TreeMap<>();
+    for (int i = 0; i < 2000; i++) {
+      entries.put(random.nextLong() & 0xFFFFFFFFL, (long) i);
+    }
+    DictView view = DictView.of(serialize(entries), KEY_SIZE);
+
+    List<Long> keys = new ArrayList<>();
+    for (DictView.Entry entry : view) {
+      long key = entry.getKey().readUint(KEY_SIZE).longValue();
+      keys.add(key);
+      assertThat(entry.getValue().loadUint(64).longValue()).isEqualTo(entries.get(key));
+    }
+    assertThat(keys).containsExactlyElementsOf(entries.keySet());
+
+    List<Long> parallelKeys =
+        view.parallelStream()
+            .map(e -> e.getKey().readUint(KEY_SIZE).longValue())
+            .collect(Collectors.toList());
+    assertThat(parallelKeys).containsExactlyElementsOf(entries.keySet());
+  }
+
+  @Test
+  public void testShouldSplitAtForks() {
+    TreeMap<Long, Long> entries = new TreeMap<>();
+    for (long key = 0; key < 1000; key++) {
+      entries.put(key * 7919, key);
+    }
+    Spliterator<DictView.Entry> second = DictView.of(serialize(entries), KEY_SIZE).spliterator();
+    Spliterator<DictView.Entry> first = second.trySplit();
+    assertThat(first).isNotNull();
+
+    List<Long> keys = new ArrayList<>();
+    first.forEachRemaining(e -> keys.add(e.getKey().readUint(KEY_SIZE).longValue()));
+    int firstSize = keys.size();
+    second.forEachRemaining(e -> keys.add(e.getKey().readUint(KEY_SIZE).longValue()));
+
+    assertThat(firstSize).isBetween(1, 999);
+    assertThat(keys).containsExactlyElementsOf(entries.keySet());
+  }
+
+  @Test
+  public void testLoadDictShouldMatchView() {
+    TreeMap<Long, Long> entries = new TreeMap<>();
+    for (long key = 1; key < 300; key++) {
+      entries.put(key * key, key);
+    }
+    Cell dict = buildDictE(entries);
+    TonHashMapE loaded =
+        CellSlice.beginParse(dict)
+            .loadDictE(
+                KEY_SIZE,
+                k -> k.readUint(KEY_SIZE).longValue(),
+                v -> CellSlice.beginParse(v).loadUint(64).longValue());
+    assertThat(loaded.elements).containsExactlyEntriesOf(entries);
+  }
+
+  @Test
+  public void testDeserializedMapsShouldLookupKeyBits() {
+    TreeMap<Long, Long> entries = new TreeMap<>();
+    for (long key = 1; key < 300; key++) {
+      entries.put(key * key, key);
+    }
+    TonHashMapE loaded =
+        CellSlice.beginParse(buildDictE(entries))
+            .loadDictE(KEY_SIZE, k -> k.readUint(KEY_SIZE), v -> v);
+    assertThat(loaded.getValueSlice(keyBits(400, KEY_SIZE)).loadUint(64).longValue())
+        .isEqualTo(20);
+    assertThat(loaded.containsKey(keyBits(400, KEY_SIZE))).isTrue();
+    assertThat(loaded.containsKey(keyBits(401, KEY_SIZE))).isFalse();
+    assertThat(new TonHashMapE(KEY_SIZE).containsKey(keyBits(400, KEY_SIZE))).isFalse();
+
+    TonHashMapAugE aug = new TonHashMapAugE(KEY_SIZE);
+    for (long i = 1; i <= 10; i++) {
+      aug.elements.put(i * 1000, new ValueExtra(i, i * 3));
+    }
+    Cell augDict =
+        aug.serialize(
+            k -> CellBuilder.beginCell().storeUint((Long) k, KEY_SIZE).endCell().getBits(),
+            v -> CellBuilder.beginCell().storeUint((Long) v, 16).endCell(),
+            e -> CellBuilder.beginCell().storeUint((Long) e, 16).endCell(),
+            (fk, fv) -> CellBuilder.beginCell().storeUint(0, 16));
+    TonHashMapAugE loadedAug =
+        CellSlice.beginParse(augDict)
+            .loadDictAugE(KEY_SIZE, k -> k.readUint(KEY_SIZE), v -> v.loadUint(16), e -> e);
+    CellSlice leaf = loadedAug.getValueSlice(keyBits(7000, KEY_SIZE));
+    assertThat(leaf.loadUint(16).longValue()).isEqualTo(7);
+    assertThat(leaf.loadUint(16).longValue()).isEqualTo(21);
+    assertThat(loadedAug.containsKey(keyBits(7001, KEY_SIZE))).isFalse();
+
+    int pfxKeySize = 9;
+    TonPfxHashMap pfx = new TonPfxHashMap(pfxKeySize);
+    pfx.elements.put(100L, 1L);
+    pfx.elements.put(200L, 2L);
+    Cell pfxDict =
+        pfx.serialize(
+            k -> CellBuilder.beginCell().storeUint((Long) k, pfxKeySize).endCell().getBits(),
+            v -> CellBuilder.beginCell().storeUint((Long) v, 8).endCell());
+    TonPfxHashMap loadedPfx =
+        CellSlice.beginParse(pfxDict).loadDictPfx(pfxKeySize, k -> k.readUint(pfxKeySize), v -> v);
+    assertThat(loadedPfx.getValueSlice(keyBits(200, pfxKeySize)).loadUint(8).longValue())
+        .isEqualTo(2);
+    assertThat(loadedPfx.containsKey(keyBits(201, pfxKeySize))).isFalse();
+  }
+
+  @Test
+  public void testChangedMapsShouldNotLookupStaleCells() {
+    TreeMap<Long, Long> entries = new TreeMap<>();
+    for (long key = 1; key < 100; key++) {
+      entries.put(key, key);
+    }
+    TonHashMapE loaded =
+        CellSlice.beginParse(buildDictE(entries))
+            .loadDictE(KEY_SIZE, k -> k.readUint(KEY_SIZE).longValue(), v -> v);
+    assertThat(loaded.containsKey(keyBits(5, KEY_SIZE))).isTrue();
+    assertThatThrownBy(() -> loaded.elements.keySet().remove(5L))
+        .isInstanceOf(UnsupportedOperationException.class);
+
+    loaded.elements.remove(5L);
+    assertThatThrownBy(() -> loaded.containsKey(keyBits(5, KEY_SIZE))).isInstanceOf(Error.class);
+    assertThat(loaded.elements).hasSize(98).doesNotContainKey(5L);
+
+    TonHashMapE built = new TonHashMapE(KEY_SIZE);
+    assertThat(built.getValueSlice(keyBits(5, KEY_SIZE))).isNull();
+    built.elements.put(5L, value(5));
+    assertThatThrownBy(() -> built.getValueSlice(keyBits(5, KEY_SIZE)))
+        .isInstanceOf(Error.class);
+  }
+
+  private static BitString keyBits(long key, int keySize) {
+    return CellBuilder.beginCell().storeUint(key, keySize).endCell().getBits();
+  }
+}
@@ -0,0 +1,126 @@
+package org.ton.ton4j.hashmaps;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.math.BigInteger;
+import java.util.Random;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.ton4j.cell.*;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestPrimitiveKeyHashMaps {
+
+  private static Cell value(Object v) {
+    return CellBuilder.beginCell().storeUint((Long) v, 32).endCell();
+  }
+
+  private static Object parseValue(CellSlice cs) {
+    return cs.loadUint(32).longValue();
+  }
+
+  @Test
+  public void testLongHashMapShouldSerializeLikeTonHashMapE() {
+    Random random = new Random(1);
+    TonLongHashMap x = new TonLongHashMap(64);
+    TonHashMapE expected = new TonHashMapE(64);
+    for (long i = 0; i < 1000; i++) {
+      long key = random.nextLong();
+      x.put(key, i);
+      expected.elements.put(key, i);
+    }
+    Cell dict = x.serialize(TestPrimitiveKeyHashMaps::value);
+    Cell expectedDict =
+        expected.serialize(
+            k ->
+                CellBuilder.beginCell()
+                    .storeUint(new BigInteger(Long.toUnsignedString((Long) k)), 64)
+                    .endCell()
+                    .getBits(),
+            TestPrimitiveKeyHashMaps::value);
+    assertThat(dict.getHash()).isEqualTo(expectedDict.getHash());
+
+    Cell cell = CellBuilder.beginCell().storeDict(x, TestPrimitiveKeyHashMaps::value).endCell();
+    TonLongHashMap loaded =
+        CellSlice.beginParse(cell).loadDictELong(64, TestPrimitiveKeyHashMaps::parseValue);
+    assertThat(loaded.size()).isEqualTo(1000);
+    x.forEach((k, v) -> assertThat(loaded.get(k)).isEqualTo(v));
+  }
+
+  @Test
+  public void testLongHashMapShouldKeepSignedKeys() {
+    TonLongHashMap x = new TonLongHashMap(16, true);
+    for (long key = -300; key <= 300; key += 3) {
+      x.put(key, key + 1000);
+    }
+    assertThrows(Error.class, () -> x.put(1 << 15, 1L));
+
+    Cell cell = CellBuilder.beginCell().storeDict(x, TestPrimitiveKeyHashMaps::value).endCell();
+    TonLongHashMap loaded =
+        CellSlice.beginParse(cell).loadDictELong(16, true, TestPrimitiveKeyHashMaps::parseValue);
+    assertThat(loaded.keys()).isEqualTo(x.keys());
+    assertThat(loaded.keys()[0]).isEqualTo(-300);
+    assertThat(loaded.get(-3)).isEqualTo(997L);
+  }
+
+  @Test
+  public void testLongHashMapShouldRemoveKeys() {
+    TonLongHashMap x = new TonLongHashMap(32);
+    for (long key = 0; key < 10000; key++) {
+      x.put(key, key);
+    }
+    for (long key = 0; key < 10000; key += 2) {
+      assertThat(x.remove(key)).isEqualTo(key);
+    }
+    assertThat(x.size()).isEqualTo(5000);
+    for (long key = 0; key < 10000; key++) {
+      assertThat(x.containsKey(key)).isEqualTo(key % 2 == 1);
+    }
+    assertThat(x.remove(0)).isNull();
+
+    Cell empty =
+        CellBuilder.beginCell()
+            .storeDict(new TonLongHashMap(32), TestPrimitiveKeyHashMaps::value)
+            .endCell();
+    assertThat(empty.getBitLength()).isEqualTo(1);
+    assertThat(
+            CellSlice.beginParse(empty)
+                .loadDictELong(32, TestPrimitiveKeyHashMaps::parseValue)
+                .isEmpty())
+        .isTrue();
+  }
+
+  @Test
+  public void testBytes32HashMapShouldSerializeLikeTonHashMapE() {
+    Random random = new Random(2);
+    TonBytes32HashMap x = new TonBytes32HashMap();
+    TonHashMapE expected = new TonHashMapE(256);
+    for (long i = 0; i < 500; i++) {
+      byte[] key = new byte[32];
+      random.nextBytes(key);
+      x.put(key, i);
+      expected.elements.put(new BigInteger(1, key), i);
+    }
+    Cell dict = x.serialize(TestPrimitiveKeyHashMaps::value);
+    Cell expectedDict =
+        expected.serialize(
+            k -> CellBuilder.beginCell().storeUint((BigInteger) k, 256).endCell().getBits(),
+            TestPrimitiveKeyHashMaps::value);
+    assertThat(dict.getHash()).isEqualTo(expectedDict.getHash());
+
+    Cell cell = CellBuilder.beginCell().storeDict(x, TestPrimitiveKeyHashMaps::value).endCell();
+    TonBytes32HashMap loaded =
+        CellSlice.beginParse(cell).loadDictE256(TestPrimitiveKeyHashMaps::parseValue);
+    assertThat(loaded.size()).isEqualTo(500);
+    x.forEach((k, v) -> assertThat(loaded.get(k)).isEqualTo(v));
+
+    byte[] missing = new byte[32];
+    assertThat(loaded.get(missing)).isNull();
+    x.forEach((k, v) -> assertThat(loaded.remove(k)).isEqualTo(v));
+    assertThat(loaded.isEmpty()).isTrue();
+  }
+}
@@ -0,0 +1,270 @@
+package org.ton.ton4j.exporter;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * Writes flattened blocks into three Arrow IPC files: blocks, transactions and messages. Rows are
+ * buffered per table and written as one record batch (row group) once rowGroupSize rows are
+ * collected. Coin amounts are decimal(38,0) in nanotons, hashes and addresses are hex strings.
+ */
+@Slf4j
+public class ArrowBlockWriter implements Closeable {
+
+  public static final String BLOCKS_FILE_NAME = "blocks.arrow";
+  public static final String TRANSACTIONS_FILE_NAME = "transactions.arrow";
+  public static final String MESSAGES_FILE_NAME = "messages.arrow";
+  public static final int DEFAULT_ROW_GROUP_SIZE = 65536;
+
+  private static final ArrowType INT32 = new ArrowType.Int(32, true);
+  private static final ArrowType INT64 = new ArrowType.Int(64, true);
+  private static final ArrowType COINS = new ArrowType.Decimal(38, 0, 128);
+  private static final ArrowType UTF8 = ArrowType.Utf8.INSTANCE;
+  private static final ArrowType BOOL = ArrowType.Bool.INSTANCE;
+
+  private final BufferAllocator allocator = new RootAllocator();
+  private final Table blocks;
+  private final Table transactions;
+  private final Table messages;
+
+  /**
+   * @param directory existing directory, files in it are overwritten
+   * @param rowGroupSize rows per record batch of each file
+   */
+  public ArrowBlockWriter(Path directory, int rowGroupSize) throws IOException {
+    if (rowGroupSize < 1) {
+      throw new Error("rowGroupSize must be positive");
+    }
+    blocks =
+        new Table(
+            directory.resolve(BLOCKS_FILE_NAME),
+            rowGroupSize,
+            Arrays.asList(
+                Field.notNullable("workchain", INT32),
+                Field.notNullable("shard", INT64),
+                Field.notNullable("seqno", INT64),
+                Field.notNullable("root_hash", UTF8),
+                Field.notNullable("gen_utime", INT64),
+                Field.notNullable("start_lt", INT64),
+                Field.notNullable("end_lt", INT64),
+                Field.notNullable("key_block", BOOL),
+                Field.notNullable("tx_count", INT32),
+                Field.notNullable("msg_count", INT32)));
+    transactions =
+        new Table(
+            directory.resolve(TRANSACTIONS_FILE_NAME),
+            rowGroupSize,
+            Arrays.asList(
+                Field.notNullable("workchain", INT32),
+                Field.notNullable("shard", INT64),
+                Field.notNullable("block_seqno", INT64),
+                Field.notNullable("account", UTF8),
+                Field.notNullable("lt", INT64),
+                Field.notNullable("hash", UTF8),
+                Field.notNullable("now", INT64),
+                Field.notNullable("orig_status", UTF8),
+                Field.notNullable("end_status", UTF8),
+                Field.notNullable("total_fees", COINS),
+                Field.nullable("type", UTF8),
+                Field.nullable("aborted", BOOL),
+                Field.nullable("destroyed", BOOL),
+                Field.nullable("success", BOOL),
+                Field.nullable("storage_fees", COINS),
+                Field.nullable("compute_exit_code", INT32),
+                Field.nullable("gas_used", INT64),
+                Field.nullable("gas_fees", COINS),
+                Field.nullable("action_result_code", INT32),
+                Field.nullable("total_fwd_fees", COINS),
+                Field.nullable("total_action_fees", COINS),
+                Field.notNullable("out_msg_count", INT32),
+                Field.nullable("old_state_hash", UTF8),
+                Field.nullable("new_state_hash", UTF8)));
+    messages =
+        new Table(
+            directory.resolve(MESSAGES_FILE_NAME),
+            rowGroupSize,
+            Arrays.asList(
+                Field.notNullable("tx_hash", UTF8),
+                Field.notNullable("tx_lt", INT64),
+                Field.notNullable("direction", UTF8),
+                Field.nullable("out_index", INT32),
+                Field.notNullable("hash", UTF8),
+                Field.notNullable("type", UTF8),
+                Field.nullable("src", UTF8),
+                Field.nullable("dst", UTF8),
+                Field.nullable("value", COINS),
+                Field.nullable("fwd_fee", COINS),
+                Field.nullable("created_lt", INT64),
+                Field.nullable("bounce", BOOL),
+                Field.nullable("bounced", BOOL),
+                Field.nullable("op_code", INT64),
+                Field.nullable("body_hash", UTF8)));
+  }
+
+  /** Appends rows of the block to all three tables, safe to call from several threads. */
+  synchronized void write(FlatBlock block) throws IOException {
+    blocks.set("workchain", block.workchain);
+    blocks.set("shard", block.shard);
+    blocks.set("seqno", block.seqno);
+    blocks.set("root_hash", block.rootHash);
+    blocks.set("gen_utime", block.genUtime);
+    blocks.set("start_lt", block.startLt);
+    blocks.set("end_lt", block.endLt);
+    blocks.set("key_block", block.keyBlock);
+    blocks.set("tx_count", block.transactions.size());
+    blocks.set("msg_count", block.messages.size());
+    blocks.endRow();
+
+    for (FlatBlock.Tx tx : block.transactions) {
+      transactions.set("workchain", block.workchain);
+      transactions.set("shard", block.shard);
+      transactions.set("block_seqno", block.seqno);
+      transactions.set("account", tx.account);
+      transactions.set("lt", tx.lt);
+      transactions.set("hash", tx.hash);
+      transactions.set("now", tx.now);
+      transactions.set("orig_status", tx.origStatus);
+      transactions.set("end_status", tx.endStatus);
+      transactions.set("total_fees", tx.totalFees);
+      transactions.set("type", tx.type);
+      transactions.set("aborted", tx.aborted);
+      transactions.set("destroyed", tx.destroyed);
+      transactions.set("success", tx.success);
+      transactions.set("storage_fees", tx.storageFees);
+      transactions.set("compute_exit_code", tx.computeExitCode);
+      transactions.set("gas_used", tx.gasUsed);
+      transactions.set("gas_fees", tx.gasFees);
+      transactions.set("action_result_code", tx.actionResultCode);
+      transactions.set("total_fwd_fees", tx.totalFwdFees);
+      transactions.set("total_action_fees", tx.totalActionFees);
+      transactions.set("out_msg_count", tx.outMsgCount);
+      transactions.set("old_state_hash", tx.oldStateHash);
+      transactions.set("new_state_hash", tx.newStateHash);
+      transactions.endRow();
+    }
+
+    for (FlatBlock.Msg msg : block.messages) {
+      messages.set("tx_hash", msg.txHash);
+      messages.set("tx_lt", msg.txLt);
+      messages.set("direction", msg.direction);
+      messages.set("out_index", msg.index);
+      messages.set("hash", msg.hash);
+      messages.set("type", msg.type);
+      messages.set("src", msg.src);
+      messages.set("dst", msg.dst);
+      messages.set("value", msg.value);
+      messages.set("fwd_fee", msg.fwdFee);
+      messages.set("created_lt", msg.createdLt);
+      messages.set("bounce", msg.bounce);
+      messages.set("bounced", msg.bounced);
+      messages.set("op_code", msg.opCode);
+      messages.set("body_hash", msg.bodyHash);
+      messages.endRow();
+    }
+  }
+
+  public long getBlocksWritten() {
+    return blocks.total;
+  }
+
+  public long getTransactionsWritten() {
+    return transactions.total;
+  }
+
+  public long getMessagesWritten() {
+    return messages.total;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      blocks.close();
+      transactions.close();
+      messages.close();
+    } finally {
+      allocator.close();
+    }
+  }
+
+  /** One Arrow file, values of the current row group are kept in the vectors of root. */
+  private class Table implements Closeable {
+    private final VectorSchemaRoot root;
+    private final ArrowFileWriter writer;
+    private final int rowGroupSize;
+    private int rows;
+    private long total;
+
+    Table(Path file, int rowGroupSize, List<Field> fields) throws IOException {
+      this.rowGroupSize = rowGroupSize;
+      root = VectorSchemaRoot.create(new Schema(fields), allocator);
+      FileOutputStream out = new FileOutputStream(file.toFile());
+      writer = new ArrowFileWriter(root, null, out.getChannel());
+      writer.start();
+      root.allocateNew();
+    }
+
+    /** Sets value of the current row, columns left unset are null. */
+    void set(String column, Object value) {
+      if (value == null) {
+        return;
+      }
+      FieldVector vector = root.getVector(column);
+      if (vector instanceof BigIntVector) {
+        ((BigIntVector) vector).setSafe(rows, ((Number) value).longValue());
+      } else if (vector instanceof IntVector) {
+        ((IntVector) vector).setSafe(rows, ((Number) value).intValue());
+      } else if (vector instanceof BitVector) {
+        ((BitVector) vector).setSafe(rows, (Boolean) value ? 1 : 0);
+      } else if (vector instanceof DecimalVector) {
+        ((DecimalVector) vector).setSafe(rows, new BigDecimal((BigInteger) value));
+      } else {
+        ((VarCharVector) vector)
+            .setSafe(rows, value.toString().getBytes(StandardCharsets.UTF_8));
+      }
+    }
+
+    void endRow() throws IOException {
+      rows++;
+      total++;
+      if (rows >= rowGroupSize) {
+        flush();
+      }
+    }
+
+    private void flush() throws IOException {
+      if (rows == 0) {
+        return;
+      }
+      root.setRowCount(rows);
+      writer.writeBatch();
+      root.allocateNew();
+      rows = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        flush();
+        writer.end();
+      } finally {
+        writer.close();
+        root.close();
+      }
+    }
+  }
+}
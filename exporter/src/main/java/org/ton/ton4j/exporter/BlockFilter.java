@@ -0,0 +1,216 @@
+package org.ton.ton4j.exporter;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.Predicate;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import org.ton.ton4j.address.Address;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellSlice;
+import org.ton.ton4j.cell.DictView;
+import org.ton.ton4j.tlb.BlockInfo;
+import org.ton.ton4j.tlb.CurrencyCollection;
+import org.ton.ton4j.tlb.Message;
+
+/**
+ * Export filter evaluated against raw block cells, so blocks and transactions it rejects are never
+ * deserialized. Block criteria are checked against {@link BlockInfo} only. Account and op-code
+ * criteria walk keys of ShardAccountBlocks and transactions of matching accounts, parsing only
+ * in and out messages of transactions when op-codes are given. All criteria are optional and
+ * combined with AND.
+ *
+ * <pre>
+ * BlockFilter filter =
+ *     BlockFilter.builder().workchain(0).accounts(watched).opCodes(Set.of(0x0f8a7ea5L)).build();
+ * </pre>
+ */
+@Getter
+public class BlockFilter implements Predicate<Cell> {
+
+  private final Integer workchain;
+
+  /** Shard id, blocks of this shard, its ancestors and descendants match. */
+  private final Long shard;
+
+  /** Inclusive range of block seqno. */
+  private final Long fromSeqno;
+
+  private final Long toSeqno;
+
+  /** Inclusive range of block gen_utime. */
+  private final Long fromUtime;
+
+  private final Long toUtime;
+
+  /** Transactions of these accounts match. */
+  private final Set<Address> accounts;
+
+  /** Transactions with an in or out message with one of these op-codes in body match. */
+  private final Set<Long> opCodes;
+
+  @Getter(AccessLevel.NONE)
+  private final Map<Integer, Set<ByteBuffer>> accountIds;
+
+  @Builder
+  private BlockFilter(
+      Integer workchain,
+      Long shard,
+      Long fromSeqno,
+      Long toSeqno,
+      Long fromUtime,
+      Long toUtime,
+      Set<Address> accounts,
+      Set<Long> opCodes) {
+    this.workchain = workchain;
+    this.shard = shard;
+    this.fromSeqno = fromSeqno;
+    this.toSeqno = toSeqno;
+    this.fromUtime = fromUtime;
+    this.toUtime = toUtime;
+    this.accounts = accounts;
+    this.opCodes = opCodes;
+    if (accounts == null) {
+      accountIds = null;
+    } else {
+      accountIds = new HashMap<>();
+      for (Address address : accounts) {
+        accountIds
+            .computeIfAbsent((int) address.wc, wc -> new HashSet<>())
+            .add(ByteBuffer.wrap(address.hashPart));
+      }
+    }
+  }
+
+  /** True if the filter selects transactions, not only blocks. */
+  public boolean hasTransactionCriteria() {
+    return accounts != null || opCodes != null;
+  }
+
+  /**
+   * Returns true if the block matches the block criteria and, when transaction criteria are given,
+   * contains at least one matching transaction.
+   *
+   * @param block root cell of a Block
+   */
+  @Override
+  public boolean test(Cell block) {
+    BlockInfo info = BlockInfo.deserialize(CellSlice.beginParse(block.getRefs().get(0)));
+    if (!test(info)) {
+      return false;
+    }
+    return !hasTransactionCriteria()
+        || !transactions(block, info.getShard().getWorkchain(), true).isEmpty();
+  }
+
+  /**
+   * Returns cells of transactions of the block that match the filter, empty list if the block does
+   * not match the block criteria.
+   *
+   * @param block root cell of a Block
+   */
+  public List<Cell> findTransactions(Cell block) {
+    BlockInfo info = BlockInfo.deserialize(CellSlice.beginParse(block.getRefs().get(0)));
+    if (!test(info)) {
+      return Collections.emptyList();
+    }
+    return transactions(block, info.getShard().getWorkchain(), false);
+  }
+
+  private boolean test(BlockInfo info) {
+    if (workchain != null && workchain != info.getShard().getWorkchain()) {
+      return false;
+    }
+    if (shard != null
+        && !shardsIntersect(shard, info.getShard().convertShardIdentToShard().longValue())) {
+      return false;
+    }
+    if ((fromSeqno != null && info.getSeqno() < fromSeqno)
+        || (toSeqno != null && info.getSeqno() > toSeqno)) {
+      return false;
+    }
+    return (fromUtime == null || info.getGenuTime() >= fromUtime)
+        && (toUtime == null || info.getGenuTime() <= toUtime);
+  }
+
+  /** Same as shard_is_ancestor() of ton in both directions. */
+  private static boolean shardsIntersect(long a, long b) {
+    // shards intersect if they agree on the prefix of the larger one
+    long x = Long.lowestOneBit(a);
+    long y = Long.lowestOneBit(b);
+    long low = Long.compareUnsigned(x, y) >= 0 ? x : y;
+    return ((a ^ b) & (-low << 1)) == 0;
+  }
+
+  private List<Cell> transactions(Cell block, int workchain, boolean firstOnly) {
+    List<Cell> result = new ArrayList<>();
+    Set<ByteBuffer> ids = null;
+    if (accountIds != null) {
+      ids = accountIds.get(workchain);
+      if (ids == null) {
+        return result;
+      }
+    }
+
+    // block_extra#4a33f6fd in_msg_descr:^InMsgDescr out_msg_descr:^OutMsgDescr
+    //   account_blocks:^ShardAccountBlocks ...
+    CellSlice accountBlocks = CellSlice.beginParse(block.getRefs().get(3).getRefs().get(2));
+    if (!accountBlocks.loadBit()) {
+      return result;
+    }
+    for (DictView.Entry account : DictView.ofAug(accountBlocks.loadRef(), 256)) {
+      if (ids != null && !ids.contains(ByteBuffer.wrap(account.getKey().toByteArray()))) {
+        continue;
+      }
+      // acc_trans#5 account_addr:bits256
+      //   transactions:(HashmapAug 64 ^Transaction CurrencyCollection) state_update:^...
+      CellSlice accountBlock = account.getValue();
+      CurrencyCollection.deserialize(accountBlock);
+      accountBlock.skipBits(4 + 256);
+      for (DictView.Entry entry : DictView.ofAug(accountBlock.sliceToCell(), 64)) {
+        CellSlice value = entry.getValue();
+        CurrencyCollection.deserialize(value);
+        Cell tx = value.loadRef();
+        if (opCodes == null || hasOpCode(tx)) {
+          result.add(tx);
+          if (firstOnly) {
+            return result;
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private boolean hasOpCode(Cell tx) {
+    // ^[ in_msg:(Maybe ^(Message Any)) out_msgs:(HashmapE 15 ^(Message Any)) ]
+    CellSlice io = CellSlice.beginParse(tx.getRefs().get(0));
+    if (io.loadBit() && matchesOpCode(io.loadRef())) {
+      return true;
+    }
+    if (io.loadBit()) {
+      for (DictView.Entry out : DictView.of(io.loadRef(), 15)) {
+        if (matchesOpCode(out.getValue().loadRef())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean matchesOpCode(Cell message) {
+    // immutable sets like Set.of() throw on contains(null)
+    Long opCode = opCode(message);
+    return opCode != null && opCodes.contains(opCode);
+  }
+
+  /** Returns op-code of the message body or null if the body is shorter than 32 bits. */
+  private static Long opCode(Cell message) {
+    Cell body = Message.deserialize(CellSlice.beginParse(message)).getBody();
+    if (body == null || body.getBitLength() < 32) {
+      return null;
+    }
+    return CellSlice.beginParse(body).preloadUintAsLong(32);
+  }
+}
@@ -0,0 +1,527 @@
+package org.ton.ton4j.exporter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellSlice;
+import org.ton.ton4j.exporter.reader.PackageReader;
+import org.ton.ton4j.exporter.reader.StateDbReader;
+import org.ton.ton4j.exporter.types.BlockRange;
+import org.ton.ton4j.exporter.types.ExportedBlock;
+import org.ton.ton4j.exporter.types.FollowCursor;
+import org.ton.ton4j.tlb.*;
+
+/**
+ * Follow mode of {@link Exporter}. Tails temp packages of a live node database, where new blocks
+ * are appended, and delivers every masterchain block applied by the node, see {@link
+ * StateDbReader#getLastBlockIdExt()}, followed by shard blocks it commits. Shard blocks are found
+ * by walking back from the shard tops of the masterchain block to the tops of the previous one.
+ * Blocks already moved to archive packages are read via the archive index.
+ *
+ * <p>The cursor is saved to a json file after each masterchain block with its shard blocks is
+ * consumed, after a restart delivery continues with the next masterchain block. A block group
+ * interrupted by a crash is delivered again.
+ */
+@Slf4j
+public class BlockFollower {
+
+  public static final String CURSOR_FILE_NAME = "follow.json";
+
+  private static final long POLL_INTERVAL_MS = 250;
+  private static final int PACKAGE_HEADER_SIZE = 4;
+  private static final int ENTRY_HEADER_SIZE = 8;
+  private static final int ENTRY_HEADER_MAGIC = 0x1e8b;
+  private static final Pattern BLOCK_FILENAME =
+      Pattern.compile("^block_\\((-?\\d+),([0-9a-fA-F]+),(\\d+)\\):([0-9a-fA-F]{64}):.*");
+
+  private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+  /** Block stored in a temp package. */
+  private static class StoredBlock {
+    final int workchain;
+    final long shard;
+    final long seqno;
+    final String rootHash;
+    final Path pack;
+    final long offset;
+
+    StoredBlock(int workchain, long shard, long seqno, String rootHash, Path pack, long offset) {
+      this.workchain = workchain;
+      this.shard = shard;
+      this.seqno = seqno;
+      this.rootHash = rootHash;
+      this.pack = pack;
+      this.offset = offset;
+    }
+  }
+
+  /** Shard block referenced by a masterchain block or by a next shard block. */
+  private static class BlockRef {
+    final int workchain;
+    final long shard;
+    final long seqno;
+    final String rootHash;
+
+    BlockRef(int workchain, long shard, long seqno, String rootHash) {
+      this.workchain = workchain;
+      this.shard = shard;
+      this.seqno = seqno;
+      this.rootHash = rootHash;
+    }
+  }
+
+  private final Exporter exporter;
+  private final String tonDatabaseRootPath;
+  private final Path cursorPath;
+  private final boolean deserialized;
+  private final BooleanSupplier stopRequested;
+
+  /** Position of the next unread entry of each temp package. */
+  private final Map<Path, Long> positions = new HashMap<>();
+
+  private final Map<Path, PackageReader> readers = new HashMap<>();
+
+  /** Stored and not yet delivered blocks by root hash. */
+  private final Map<String, StoredBlock> blocks = new HashMap<>();
+
+  /** Root hashes of stored masterchain blocks by seqno. */
+  private final TreeMap<Long, String> masterBlocks = new TreeMap<>();
+
+  private FollowCursor cursor;
+  private long waitingForSeqno = -1;
+
+  /**
+   * @param exporter exporter used to read blocks from the archive
+   * @param tonDatabaseRootPath root of the node database
+   * @param cursorPath cursor file, created if it doesn't exist
+   * @param deserialized if true - delivered blocks carry deserialized Block TL-B object
+   * @param stopRequested checked between polls and blocks
+   */
+  BlockFollower(
+      Exporter exporter,
+      String tonDatabaseRootPath,
+      Path cursorPath,
+      boolean deserialized,
+      BooleanSupplier stopRequested) {
+    this.exporter = exporter;
+    this.tonDatabaseRootPath = tonDatabaseRootPath;
+    this.cursorPath = cursorPath;
+    this.deserialized = deserialized;
+    this.stopRequested = stopRequested;
+  }
+
+  /** Delivers blocks until stop is requested or the thread is interrupted. */
+  void run(Consumer<ExportedBlock> consumer) throws IOException {
+    cursor = loadCursor();
+    if (cursor != null) {
+      log.info("Following from masterchain block {}", cursor.getMcSeqno() + 1);
+    }
+    // opened once as a secondary instance, each poll only catches up with the node's writes
+    StateDbReader stateReader = new StateDbReader(tonDatabaseRootPath, true);
+    try {
+      while (!stopped()) {
+        scanTempPackages();
+        long lastApplied = stateReader.getLastBlockIdExt().getSeqno();
+        if (cursor == null) {
+          cursor = initialCursor(lastApplied);
+          if (cursor != null) {
+            saveCursor();
+            prune();
+            log.info("Following from masterchain block {}", lastApplied + 1);
+          }
+        }
+        while (cursor != null && cursor.getMcSeqno() < lastApplied && !stopped()) {
+          if (!deliver(cursor.getMcSeqno() + 1, consumer)) {
+            break;
+          }
+        }
+        if (stopped()) {
+          break;
+        }
+        try {
+          Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    } finally {
+      try {
+        for (PackageReader reader : readers.values()) {
+          reader.close();
+        }
+        readers.clear();
+      } finally {
+        stateReader.close();
+      }
+    }
+  }
+
+  private boolean stopped() {
+    return stopRequested.getAsBoolean() || Thread.currentThread().isInterrupted();
+  }
+
+  /** Starts after the last applied masterchain block, once it can be read. */
+  private FollowCursor initialCursor(long lastApplied) throws IOException {
+    String rootHash = masterBlocks.get(lastApplied);
+    Block mcBlock;
+    if (rootHash != null) {
+      mcBlock = read(blocks.get(rootHash), true).getBlock();
+    } else {
+      List<ExportedBlock> group = readArchiveGroup(lastApplied);
+      if (group == null) {
+        return null;
+      }
+      mcBlock = group.get(0).getBlock();
+    }
+    return new FollowCursor(lastApplied, shardTops(mcBlock), null);
+  }
+
+  /**
+   * Delivers the masterchain block and shard blocks it commits.
+   *
+   * @return false if the blocks can't be read yet
+   */
+  private boolean deliver(long seqno, Consumer<ExportedBlock> consumer) throws IOException {
+    List<ExportedBlock> group = readGroup(seqno);
+    if (group == null) {
+      if (waitingForSeqno != seqno) {
+        log.warn("Masterchain block {} is applied, but its blocks are not stored yet", seqno);
+        waitingForSeqno = seqno;
+      }
+      return false;
+    }
+    List<BlockId> tops = shardTops(group.get(0).getBlock());
+    if (!deserialized) {
+      group.set(0, toExportedBlock(group.get(0), false));
+    }
+    for (ExportedBlock block : group) {
+      consumer.accept(block);
+    }
+    cursor = new FollowCursor(seqno, tops, null);
+    saveCursor();
+    prune();
+    return true;
+  }
+
+  /**
+   * Reads the masterchain block and shard blocks it commits from temp packages or, if they are
+   * not there, from the archive. The masterchain block is always deserialized.
+   *
+   * @return masterchain block followed by shard blocks in seqno order, null if not stored yet
+   */
+  private List<ExportedBlock> readGroup(long seqno) throws IOException {
+    String rootHash = masterBlocks.get(seqno);
+    if (rootHash != null) {
+      StoredBlock stored = blocks.get(rootHash);
+      ExportedBlock mcBlock = read(stored, true);
+      List<StoredBlock> shardBlocks = committedShardBlocks(shardRefs(mcBlock.getBlock()));
+      if (shardBlocks != null) {
+        List<ExportedBlock> group = new ArrayList<>();
+        group.add(mcBlock);
+        for (StoredBlock shardBlock : shardBlocks) {
+          group.add(read(shardBlock, deserialized));
+        }
+        return group;
+      }
+    }
+    return readArchiveGroup(seqno);
+  }
+
+  private List<ExportedBlock> readArchiveGroup(long seqno) {
+    ExportedBlock mcBlock = null;
+    // shard blocks by seqno, then by position in the archive
+    TreeMap<Long, List<ExportedBlock>> shardBlocks = new TreeMap<>();
+    try {
+      List<ExportedBlock> group = new ArrayList<>();
+      exporter.readArchiveBlocks(
+          exporter.getArchiveIndexBySeqno(seqno),
+          BlockRange.ofSeqno(seqno, seqno),
+          (packFilename, rootHash, data) ->
+              group.add(toExportedBlock(packFilename, rootHash, data, false)));
+      for (ExportedBlock block : group) {
+        Cell cell = Cell.fromBoc(block.getRawDataBytes());
+        BlockInfo info = BlockInfo.deserialize(CellSlice.beginParse(cell.getRefs().get(0)));
+        if (info.getShard().getWorkchain() == -1) {
+          mcBlock = toExportedBlock(block, true);
+        } else {
+          shardBlocks
+              .computeIfAbsent(info.getSeqno(), k -> new ArrayList<>())
+              .add(deserialized ? toExportedBlock(block, true) : block);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      log.debug("Masterchain block {} not found in archive: {}", seqno, e.getMessage());
+      return null;
+    }
+    if (mcBlock == null) {
+      return null;
+    }
+    List<ExportedBlock> result = new ArrayList<>();
+    result.add(mcBlock);
+    shardBlocks.values().forEach(result::addAll);
+    return result;
+  }
+
+  /**
+   * Walks back from the shard tops to blocks committed by the cursor.
+   *
+   * @return shard blocks in seqno order, null if one of them is not stored yet
+   */
+  private List<StoredBlock> committedShardBlocks(List<BlockRef> tops) throws IOException {
+    List<StoredBlock> result = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    Deque<BlockRef> pending = new ArrayDeque<>(tops);
+    while (!pending.isEmpty()) {
+      BlockRef ref = pending.pop();
+      if (!seen.add(ref.rootHash) || isCommitted(ref.workchain, ref.shard, ref.seqno)) {
+        continue;
+      }
+      StoredBlock stored = blocks.get(ref.rootHash);
+      if (stored == null) {
+        return null;
+      }
+      result.add(stored);
+
+      // only block info is needed to find previous blocks
+      Cell cell = readCell(stored);
+      BlockInfo info = BlockInfo.deserialize(CellSlice.beginParse(cell.getRefs().get(0)));
+      ExtBlkRef prev1 = info.getPrevRef().getPrev1();
+      if (info.isAfterMerge()) {
+        ExtBlkRef prev2 = info.getPrevRef().getPrev2();
+        long half = Long.lowestOneBit(ref.shard) >>> 1;
+        pending.push(new BlockRef(ref.workchain, ref.shard - half, prev1.getSeqno(), hex(prev1)));
+        pending.push(new BlockRef(ref.workchain, ref.shard + half, prev2.getSeqno(), hex(prev2)));
+      } else {
+        long shard = ref.shard;
+        if (info.isAfterSplit()) {
+          long bit = Long.lowestOneBit(shard);
+          shard = (shard - bit) | (bit << 1);
+        }
+        pending.push(new BlockRef(ref.workchain, shard, prev1.getSeqno(), hex(prev1)));
+      }
+    }
+    result.sort(Comparator.comparingLong((StoredBlock b) -> b.seqno));
+    return result;
+  }
+
+  /** True if the cursor already delivered the block, the zero state is never delivered. */
+  private boolean isCommitted(int workchain, long shard, long seqno) {
+    if (seqno == 0) {
+      return true;
+    }
+    for (BlockId top : cursor.getShardTops()) {
+      if (top.getWorkchain() == workchain
+          && shardsIntersect(top.shard, shard)
+          && seqno <= top.getSeqno()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean shardsIntersect(long a, long b) {
+    long x = Long.lowestOneBit(a);
+    long y = Long.lowestOneBit(b);
+    long low = Long.compareUnsigned(x, y) >= 0 ? x : y;
+    return ((a ^ b) & (-low << 1)) == 0;
+  }
+
+  private static List<BlockRef> shardRefs(Block mcBlock) {
+    List<BlockRef> result = new ArrayList<>();
+    McBlockExtra mcExtra = mcBlock.getExtra().getMcBlockExtra();
+    if (mcExtra == null || mcExtra.getShardHashes() == null) {
+      return result;
+    }
+    for (Map.Entry<Object, Object> entry :
+        mcExtra.getShardHashes().getShardHashes().elements.entrySet()) {
+      int workchain = ((Number) entry.getKey()).intValue();
+      for (ShardDescr descr : ((BinTree) entry.getValue()).toList()) {
+        result.add(
+            new BlockRef(
+                workchain,
+                descr.getComputedShardId(),
+                descr.getSeqNo(),
+                pad(descr.getRootHash())));
+      }
+    }
+    return result;
+  }
+
+  private static List<BlockId> shardTops(Block mcBlock) {
+    List<BlockId> result = new ArrayList<>();
+    for (BlockRef ref : shardRefs(mcBlock)) {
+      result.add(
+          BlockId.builder().workchain(ref.workchain).shard(ref.shard).seqno(ref.seqno).build());
+    }
+    return result;
+  }
+
+  private static String hex(ExtBlkRef ref) {
+    return pad(ref.getRootHash());
+  }
+
+  private static String pad(String hash) {
+    StringBuilder sb = new StringBuilder(64);
+    for (int i = hash.length(); i < 64; i++) {
+      sb.append('0');
+    }
+    return sb.append(hash).toString().toUpperCase();
+  }
+
+  /** Reads entries appended to temp packages since the last scan, packages may be removed. */
+  private void scanTempPackages() throws IOException {
+    Path dir = Paths.get(tonDatabaseRootPath, "files", "packages");
+    Set<Path> packs = new HashSet<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "temp.archive.*.pack")) {
+      for (Path pack : stream) {
+        packs.add(pack);
+        scan(pack);
+      }
+    }
+    for (Path pack : new ArrayList<>(positions.keySet())) {
+      if (!packs.contains(pack)) {
+        positions.remove(pack);
+        PackageReader reader = readers.remove(pack);
+        if (reader != null) {
+          reader.close();
+        }
+        blocks.values().removeIf(b -> b.pack.equals(pack));
+        masterBlocks.values().removeIf(hash -> !blocks.containsKey(hash));
+      }
+    }
+  }
+
+  /** Indexes complete entries after the last position, an entry being written is read later. */
+  private void scan(Path pack) throws IOException {
+    long position = positions.getOrDefault(pack, (long) PACKAGE_HEADER_SIZE);
+    try (FileChannel channel = FileChannel.open(pack, StandardOpenOption.READ)) {
+      long size = channel.size();
+      ByteBuffer header = ByteBuffer.allocate(ENTRY_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      while (position + ENTRY_HEADER_SIZE <= size) {
+        header.clear();
+        readFully(channel, header, position);
+        int header0 = header.getInt(0);
+        int filenameLength = header0 >>> 16;
+        long dataSize = Integer.toUnsignedLong(header.getInt(4));
+        if ((header0 & 0xffff) != ENTRY_HEADER_MAGIC) {
+          log.warn("Invalid entry header at {} of {}, skipping the rest", position, pack);
+          position = size;
+          break;
+        }
+        long next = position + ENTRY_HEADER_SIZE + filenameLength + dataSize;
+        if (next > size) {
+          break;
+        }
+        ByteBuffer filename = ByteBuffer.allocate(filenameLength);
+        readFully(channel, filename, position + ENTRY_HEADER_SIZE);
+        index(new String(filename.array(), StandardCharsets.UTF_8), pack, position);
+        position = next;
+      }
+    }
+    positions.put(pack, position);
+  }
+
+  private void index(String filename, Path pack, long position) {
+    Matcher m = BLOCK_FILENAME.matcher(filename);
+    if (!m.matches()) {
+      return;
+    }
+    int workchain = Integer.parseInt(m.group(1));
+    long shard = Long.parseUnsignedLong(m.group(2), 16);
+    long seqno = Long.parseLong(m.group(3));
+    String rootHash = m.group(4).toUpperCase();
+    if (cursor != null && isDelivered(workchain, shard, seqno)) {
+      return;
+    }
+    blocks.put(
+        rootHash,
+        new StoredBlock(
+            workchain, shard, seqno, rootHash, pack, position - PACKAGE_HEADER_SIZE));
+    if (workchain == -1) {
+      masterBlocks.put(seqno, rootHash);
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of package at " + position);
+      }
+    }
+  }
+
+  /** Drops delivered blocks. */
+  private void prune() {
+    masterBlocks.headMap(cursor.getMcSeqno(), true).clear();
+    blocks.values().removeIf(b -> isDelivered(b.workchain, b.shard, b.seqno));
+  }
+
+  private boolean isDelivered(int workchain, long shard, long seqno) {
+    return workchain == -1 ? seqno <= cursor.getMcSeqno() : isCommitted(workchain, shard, seqno);
+  }
+
+  private byte[] readData(StoredBlock stored) throws IOException {
+    PackageReader reader = readers.get(stored.pack);
+    if (reader == null) {
+      reader = new PackageReader(stored.pack.toString());
+      readers.put(stored.pack, reader);
+    }
+    return reader.getEntryAt(stored.offset).getData();
+  }
+
+  private Cell readCell(StoredBlock stored) throws IOException {
+    return Cell.fromBoc(readData(stored));
+  }
+
+  private ExportedBlock read(StoredBlock stored, boolean deserialize) throws IOException {
+    return toExportedBlock(stored.pack.toString(), stored.rootHash, readData(stored), deserialize);
+  }
+
+  private static ExportedBlock toExportedBlock(ExportedBlock block, boolean deserialize) {
+    return toExportedBlock(
+        block.getArchiveKey(), block.getBlockKey(), block.getRawDataBytes(), deserialize);
+  }
+
+  private static ExportedBlock toExportedBlock(
+      String archiveKey, String rootHash, byte[] data, boolean deserialize) {
+    return ExportedBlock.builder()
+        .archiveKey(archiveKey)
+        .blockKey(rootHash)
+        .rawData(data)
+        .deserializedBlock(
+            deserialize ? Block.deserialize(CellSlice.beginParse(Cell.fromBoc(data))) : null)
+        .isDeserialized(deserialize)
+        .build();
+  }
+
+  private FollowCursor loadCursor() throws IOException {
+    if (!Files.exists(cursorPath)) {
+      return null;
+    }
+    return gson.fromJson(
+        new String(Files.readAllBytes(cursorPath), StandardCharsets.UTF_8), FollowCursor.class);
+  }
+
+  /** Replaces the cursor file atomically, so a crash leaves either the old or the new cursor. */
+  private void saveCursor() throws IOException {
+    cursor.setLastUpdate(Instant.now().toString());
+    Path tmp = cursorPath.resolveSibling(cursorPath.getFileName() + ".tmp");
+    Files.write(tmp, gson.toJson(cursor).getBytes(StandardCharsets.UTF_8));
+    Files.move(
+        tmp, cursorPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -0,0 +1,225 @@
+package org.ton.ton4j.exporter;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import lombok.extern.slf4j.Slf4j;
+import org.ton.ton4j.bitstring.BitString;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellSlice;
+import org.ton.ton4j.cell.CellType;
+import org.ton.ton4j.tlb.Block;
+import org.ton.ton4j.utils.Utils;
+
+/**
+ * Reads an export made by {@link Exporter#exportToCellStore(String, int)}: the cell store written
+ * by {@link CellStoreWriter} and block records, one {@code workchain,shard,seqno,rootHash} line
+ * per block. Any block or cell can be rebuilt from the store by its hash.
+ *
+ * <p>Only offsets of cell records are kept in memory, about {@link
+ * CellStoreWriter#HEAP_BYTES_PER_CELL} bytes of heap per cell, cells are read on demand. The number
+ * of cells is limited the same way as by {@link CellStoreWriter}. Safe for use from several
+ * threads.
+ */
+@Slf4j
+public class CellStoreReader implements Closeable {
+
+  private static final int HEADER_SIZE = 32 + 1 + 2;
+
+  /** Receives records found by {@link #scan(FileChannel, RecordVisitor)}. */
+  @FunctionalInterface
+  interface RecordVisitor {
+    void accept(ByteBuffer hash, long offset) throws IOException;
+  }
+
+  private final FileChannel cells;
+  private final Map<ByteBuffer, Long> offsets = new HashMap<>();
+  private final Map<String, byte[]> blocks = new LinkedHashMap<>();
+
+  /**
+   * @param directory directory with {@link CellStoreWriter#CELLS_FILE_NAME} and {@link
+   *     CellStoreWriter#BLOCKS_FILE_NAME}
+   */
+  public CellStoreReader(String directory) throws IOException {
+    this(directory, CellStoreWriter.getDefaultMaxCells());
+  }
+
+  /**
+   * @param directory directory with {@link CellStoreWriter#CELLS_FILE_NAME} and {@link
+   *     CellStoreWriter#BLOCKS_FILE_NAME}
+   * @param maxCells maximum number of cells in the store
+   */
+  public CellStoreReader(String directory, long maxCells) throws IOException {
+    if (maxCells < 1) {
+      throw new Error("maxCells must be positive");
+    }
+    Path dir = Paths.get(directory);
+    Path cellsPath = dir.resolve(CellStoreWriter.CELLS_FILE_NAME);
+    Path blocksPath = dir.resolve(CellStoreWriter.BLOCKS_FILE_NAME);
+    cells = FileChannel.open(cellsPath, StandardOpenOption.READ);
+    try {
+      scan(
+          cells,
+          (hash, offset) -> {
+            offsets.put(hash, offset);
+            CellStoreWriter.checkCellCount(offsets.size(), maxCells);
+          });
+      for (String line : Files.readAllLines(blocksPath, StandardCharsets.UTF_8)) {
+        String[] parts = line.split(",");
+        if (parts.length != 4) {
+          continue;
+        }
+        blocks.put(
+            blockKey(
+                Integer.parseInt(parts[0]),
+                Long.parseUnsignedLong(parts[1], 16),
+                Long.parseLong(parts[2])),
+            Utils.hexToSignedBytes(parts[3]));
+      }
+    } catch (IOException | RuntimeException e) {
+      cells.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Reads records of the cell store from the beginning, passing hash and offset of each to the
+   * visitor.
+   *
+   * @return offset following the last complete record
+   */
+  static long scan(FileChannel channel, RecordVisitor visitor) throws IOException {
+    DataInputStream in =
+        new DataInputStream(
+            new BufferedInputStream(Channels.newInputStream(channel.position(0)), 1 << 20));
+    long size = channel.size();
+    long offset = 0;
+    while (offset + HEADER_SIZE <= size) {
+      byte[] hash = new byte[32];
+      in.readFully(hash);
+      int flags = in.readUnsignedByte();
+      int bitSize = in.readUnsignedShort();
+      int rest = (bitSize + 7) / 8 + (flags & 7) * 32;
+      if (offset + HEADER_SIZE + rest > size) {
+        break;
+      }
+      for (int skipped = 0; skipped < rest; ) {
+        skipped += in.skipBytes(rest - skipped);
+      }
+      visitor.accept(ByteBuffer.wrap(hash), offset);
+      offset += HEADER_SIZE + rest;
+    }
+    return offset;
+  }
+
+  private static String blockKey(int workchain, long shard, long seqno) {
+    return workchain + ":" + Long.toHexString(shard) + ":" + seqno;
+  }
+
+  /** Number of unique cells in the store. */
+  public int getCellCount() {
+    return offsets.size();
+  }
+
+  /** Number of exported blocks. */
+  public int getBlockCount() {
+    return blocks.size();
+  }
+
+  /** Returns root hash of the block or null if it was not exported. */
+  public byte[] getBlockRootHash(int workchain, long shard, long seqno) {
+    return blocks.get(blockKey(workchain, shard, seqno));
+  }
+
+  /** Returns root hashes of all exported blocks in export order. */
+  public Collection<byte[]> getBlockRootHashes() {
+    return Collections.unmodifiableCollection(blocks.values());
+  }
+
+  /** Rebuilds the block or returns null if it was not exported. */
+  public Block getBlock(int workchain, long shard, long seqno) throws IOException {
+    byte[] rootHash = getBlockRootHash(workchain, shard, seqno);
+    return rootHash == null ? null : getBlock(rootHash);
+  }
+
+  /** Rebuilds the block with the given root hash. */
+  public Block getBlock(byte[] rootHash) throws IOException {
+    Cell root = getCell(rootHash);
+    if (root == null) {
+      throw new IOException("Block root not found in cell store: " + Utils.bytesToHex(rootHash));
+    }
+    return Block.deserialize(CellSlice.beginParse(root));
+  }
+
+  /**
+   * Rebuilds the cell tree with the given root hash, subtrees referenced several times are built
+   * once and shared.
+   *
+   * @return root cell or null if there is no such cell in the store
+   */
+  public Cell getCell(byte[] hash) throws IOException {
+    if (!offsets.containsKey(ByteBuffer.wrap(hash))) {
+      return null;
+    }
+    return build(ByteBuffer.wrap(hash), new HashMap<>());
+  }
+
+  private Cell build(ByteBuffer hash, Map<ByteBuffer, Cell> built) throws IOException {
+    Cell cell = built.get(hash);
+    if (cell != null) {
+      return cell;
+    }
+    Long offset = offsets.get(hash);
+    if (offset == null) {
+      throw new IOException("Cell not found in cell store: " + Utils.bytesToHex(hash.array()));
+    }
+    ByteBuffer header = read(offset, HEADER_SIZE);
+    header.position(32);
+    int flags = header.get() & 0xff;
+    int bitSize = header.getShort() & 0xffff;
+    int dataSize = (bitSize + 7) / 8;
+    ByteBuffer body = read(offset + HEADER_SIZE, dataSize + (flags & 7) * 32);
+
+    byte[] data = new byte[dataSize];
+    body.get(data);
+    List<Cell> refs = new ArrayList<>(flags & 7);
+    for (int i = 0; i < (flags & 7); i++) {
+      byte[] refHash = new byte[32];
+      body.get(refHash);
+      refs.add(build(ByteBuffer.wrap(refHash), built));
+    }
+
+    boolean exotic = (flags & 8) != 0;
+    CellType type = exotic ? Cell.toCellType(data[0]) : CellType.ORDINARY;
+    cell = new Cell(new BitString(data, bitSize), bitSize, refs, exotic, type);
+    cell.calculateHashes();
+    if (!Arrays.equals(cell.getHash(), hash.array())) {
+      throw new IOException("Corrupted cell record: " + Utils.bytesToHex(hash.array()));
+    }
+    built.put(hash, cell);
+    return cell;
+  }
+
+  private ByteBuffer read(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (cells.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("Unexpected end of cell store at " + position);
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  @Override
+  public void close() throws IOException {
+    cells.close();
+  }
+}
@@ -0,0 +1,172 @@
+package org.ton.ton4j.exporter;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.ton.ton4j.cell.Cell;
+
+/**
+ * Append-only content-addressed store of cells, where each cell is written once no matter how many
+ * blocks contain it. Every record is
+ *
+ * <pre>
+ * hash:bits256 flags:uint8 bit_size:uint16 data:bytes(ceil(bit_size / 8)) refs:bits256[refs]
+ * </pre>
+ *
+ * where hash is the representation hash of the cell, flags hold the number of refs in the lower 3
+ * bits and 8 for exotic cells, and refs are hashes of referenced cells. Records of a tree may
+ * precede or follow records of its subtrees, use {@link CellStoreReader} to read it back.
+ *
+ * <p>Hashes of all written cells are kept in memory, about {@link #HEAP_BYTES_PER_CELL} bytes of
+ * heap per unique cell, so a store of 100M cells needs about 16 GB. The number of cells is limited
+ * by {@link #getDefaultMaxCells()} unless given explicitly, going over it fails the write instead
+ * of running out of memory. Safe for use from several threads.
+ */
+@Slf4j
+public class CellStoreWriter implements Closeable {
+
+  public static final String CELLS_FILE_NAME = "cells.bin";
+  public static final String BLOCKS_FILE_NAME = "blocks.txt";
+
+  /**
+   * Approximate heap used per unique cell by the hash set of the writer or the offsets of {@link
+   * CellStoreReader}: 32-byte hash array, its ByteBuffer key and the map entry.
+   */
+  public static final int HEAP_BYTES_PER_CELL = 160;
+
+  private final Set<ByteBuffer> written = ConcurrentHashMap.newKeySet();
+  private final long maxCells;
+  private final OutputStream out;
+  private final AtomicLong cellsWritten = new AtomicLong();
+  private final AtomicLong cellsSkipped = new AtomicLong();
+
+  /**
+   * @param path cell store file
+   * @param resume if true, appends to existing file skipping cells it already has, an incomplete
+   *     record left by an interrupted export is cut off
+   */
+  public CellStoreWriter(Path path, boolean resume) throws IOException {
+    this(path, resume, getDefaultMaxCells());
+  }
+
+  /**
+   * @param path cell store file
+   * @param resume if true, appends to existing file skipping cells it already has, an incomplete
+   *     record left by an interrupted export is cut off
+   * @param maxCells maximum number of unique cells in the store, including resumed ones
+   */
+  public CellStoreWriter(Path path, boolean resume, long maxCells) throws IOException {
+    if (maxCells < 1) {
+      throw new Error("maxCells must be positive");
+    }
+    this.maxCells = maxCells;
+    if (resume && Files.exists(path)) {
+      try (FileChannel channel =
+          FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        long end =
+            CellStoreReader.scan(
+                channel,
+                (hash, offset) -> {
+                  written.add(hash);
+                  checkCellCount(written.size(), maxCells);
+                });
+        if (end < channel.size()) {
+          log.warn("Truncating incomplete cell record at {} of {}", end, path);
+          channel.truncate(end);
+        }
+      }
+      log.info("Resuming cell store {} with {} cells", path, written.size());
+    }
+    out = new BufferedOutputStream(new FileOutputStream(path.toFile(), resume), 1 << 20);
+  }
+
+  /**
+   * Writes all cells of the tree not written before. Cells are marked as written only once the
+   * whole tree is passed to the file, so a failed write can be repeated. Trees sharing new cells
+   * written from several threads at the same time may store such cells twice, which readers
+   * ignore.
+   *
+   * @return representation hash of the root
+   */
+  public byte[] write(Cell root) throws IOException {
+    ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+    DataOutputStream records = new DataOutputStream(chunk);
+    Set<ByteBuffer> added = new HashSet<>();
+    long skipped = 0;
+    ArrayDeque<Cell> stack = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      Cell cell = stack.pop();
+      byte[] hash = cell.getHash();
+      ByteBuffer key = ByteBuffer.wrap(hash);
+      if (written.contains(key) || !added.add(key)) {
+        skipped++;
+        continue;
+      }
+      checkCellCount(written.size() + added.size(), maxCells);
+      int bitSize = cell.getBitLength();
+      records.write(hash);
+      records.writeByte(cell.getRefs().size() | (cell.isExotic() ? 8 : 0));
+      records.writeShort(bitSize);
+      records.write(cell.getBits().toByteArray(), 0, (bitSize + 7) / 8);
+      for (Cell ref : cell.getRefs()) {
+        records.write(ref.getHash());
+        stack.push(ref);
+      }
+    }
+    synchronized (out) {
+      chunk.writeTo(out);
+    }
+    written.addAll(added);
+    cellsWritten.addAndGet(added.size());
+    cellsSkipped.addAndGet(skipped);
+    return root.getHash();
+  }
+
+  /** Flushes written cells to the file, must be called before a block referencing them is saved. */
+  public void flush() throws IOException {
+    synchronized (out) {
+      out.flush();
+    }
+  }
+
+  /** Number of cells whose hashes fit into half of the maximum heap. */
+  public static long getDefaultMaxCells() {
+    return Runtime.getRuntime().maxMemory() / 2 / HEAP_BYTES_PER_CELL;
+  }
+
+  static void checkCellCount(long cells, long maxCells) throws IOException {
+    if (cells > maxCells) {
+      throw new IOException(
+          String.format(
+              "Cell store has more than %d cells, its index needs about %d MB of heap, "
+                  + "increase -Xmx or the cell limit",
+              maxCells, cells * HEAP_BYTES_PER_CELL >> 20));
+    }
+  }
+
+  public long getCellsWritten() {
+    return cellsWritten.get();
+  }
+
+  /** Number of cells not written again, since they are already in the store. */
+  public long getCellsSkipped() {
+    return cellsSkipped.get();
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (out) {
+      out.close();
+    }
+  }
+}
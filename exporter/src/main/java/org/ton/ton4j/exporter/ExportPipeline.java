@@ -0,0 +1,481 @@
+package org.ton.ton4j.exporter;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellSlice;
+import org.ton.ton4j.exporter.reader.MappedPackageReader;
+import org.ton.ton4j.exporter.reader.PackageReader;
+import org.ton.ton4j.exporter.types.ArchiveInfo;
+import org.ton.ton4j.exporter.types.ExportPipelineConfig;
+import org.ton.ton4j.exporter.types.StageMetrics;
+import org.ton.ton4j.tlb.Block;
+
+/**
+ * Export of archive packages split into stages: package read, BoC parse, TL-B deserialize, encode
+ * and write. Every stage has its own bounded queue and threads, a full queue blocks the stage
+ * before it. The deserialize stage is skipped when the encoder does not need a deserialized Block.
+ * A package is reported as completed once all its blocks have left the pipeline. Packages are read
+ * with {@link PackageReader}, or mapped with {@link MappedPackageReader}, in which case blocks are
+ * parsed from slices of the mapping without copies.
+ *
+ * @param <T> what blocks are encoded to, e.g. a line of text or a row of columnar export
+ */
+@Slf4j
+class ExportPipeline<T> {
+
+  static final int DEFAULT_QUEUE_CAPACITY = 256;
+  static final int DEFAULT_METRICS_INTERVAL_SECONDS = 10;
+
+  // indexes of stageThreads
+  static final int READ = 0;
+  static final int PARSE = 1;
+  static final int DESERIALIZE = 2;
+  static final int ENCODE = 3;
+
+  /**
+   * Encodes a parsed block, block is null unless the pipeline deserializes blocks. Data is the BoC
+   * of the block, read-only and possibly a slice of a mapped package.
+   */
+  @FunctionalInterface
+  interface Encoder<T> {
+    T encode(Cell cell, Block block, ByteBuffer data) throws Exception;
+  }
+
+  /** Writes encoded blocks, called from the single write thread. */
+  @FunctionalInterface
+  interface Output<T> {
+    void write(T encoded) throws Exception;
+  }
+
+  /** Receives results of the pipeline, called from pipeline threads. */
+  interface Listener {
+    void blockWritten();
+
+    void nonBlock();
+
+    void error(String blockKey, byte[] data, Throwable e);
+
+    void packageCompleted(
+        String archiveKey,
+        ArchiveInfo archiveInfo,
+        int parsedBlocks,
+        int nonBlocks,
+        long elapsedMs);
+  }
+
+  private static class PackageTicket {
+    final String archiveKey;
+    final ArchiveInfo archiveInfo;
+    final long startedAt = System.currentTimeMillis();
+    // the reader holds one reference until the whole package is read
+    final AtomicInteger pending = new AtomicInteger(1);
+    final AtomicInteger parsedBlocks = new AtomicInteger(0);
+    final AtomicInteger nonBlocks = new AtomicInteger(0);
+    volatile boolean failed;
+
+    PackageTicket(String archiveKey, ArchiveInfo archiveInfo) {
+      this.archiveKey = archiveKey;
+      this.archiveInfo = archiveInfo;
+    }
+  }
+
+  private static class Item<T> {
+    final PackageTicket ticket;
+    final String blockKey;
+    // heap copy read by PackageReader, or slice of a mapped package
+    final byte[] data;
+    final ByteBuffer mapped;
+    Cell cell;
+    Block block;
+    T encoded;
+
+    Item(PackageTicket ticket, String blockKey, byte[] data, ByteBuffer mapped) {
+      this.ticket = ticket;
+      this.blockKey = blockKey;
+      this.data = data;
+      this.mapped = mapped;
+    }
+
+    ByteBuffer buffer() {
+      return data != null ? ByteBuffer.wrap(data).asReadOnlyBuffer() : mapped.duplicate();
+    }
+
+    byte[] bytes() {
+      if (data != null) {
+        return data;
+      }
+      byte[] bytes = new byte[mapped.remaining()];
+      mapped.duplicate().get(bytes);
+      return bytes;
+    }
+  }
+
+  @FunctionalInterface
+  private interface ItemHandler<T> {
+    /** Returns stage the item goes to next, null if the item is done. */
+    Stage<Item<T>> handle(Item<T> item) throws Exception;
+  }
+
+  private static class Stage<T> {
+    final String name;
+    final int threads;
+    final int capacity;
+    final BlockingQueue<T> queue;
+    final AtomicInteger running;
+    final AtomicLong processed = new AtomicLong();
+    final AtomicLong busyNanos = new AtomicLong();
+    volatile boolean inputClosed;
+
+    Stage(String name, int threads, int capacity) {
+      this.name = name;
+      this.threads = threads;
+      this.capacity = capacity;
+      this.queue = new ArrayBlockingQueue<>(capacity);
+      this.running = new AtomicInteger(threads);
+    }
+
+    void record(long nanos) {
+      processed.incrementAndGet();
+      busyNanos.addAndGet(nanos);
+    }
+
+    StageMetrics snapshot(long elapsedNanos) {
+      long count = processed.get();
+      return StageMetrics.builder()
+          .stage(name)
+          .threads(threads)
+          .processed(count)
+          .queueDepth(queue.size())
+          .queueCapacity(capacity)
+          .throughput(elapsedNanos > 0 ? count * 1e9 / elapsedNanos : 0)
+          .averageLatencyMs(count > 0 ? busyNanos.get() / 1e6 / count : 0)
+          .build();
+    }
+  }
+
+  private final boolean deserializing;
+  private final boolean mappedPackages;
+  private final BlockFilter filter;
+  private final Encoder<T> encoder;
+  private final Output<T> output;
+  private final Listener listener;
+  private final BooleanSupplier stopRequested;
+
+  private final Stage<PackageTicket> readStage;
+  private final Stage<Item<T>> parseStage;
+  private final Stage<Item<T>> deserializeStage;
+  private final Stage<Item<T>> encodeStage;
+  private final Stage<Item<T>> writeStage;
+  private final ExecutorService executor;
+  private final long startedAt = System.nanoTime();
+
+  ExportPipeline(
+      ExportPipelineConfig config,
+      int parallelThreads,
+      boolean deserializing,
+      boolean mappedPackages,
+      BlockFilter filter,
+      Encoder<T> encoder,
+      Output<T> output,
+      Listener listener,
+      BooleanSupplier stopRequested) {
+    if (parallelThreads < 1) {
+      throw new Error("parallelThreads must be positive");
+    }
+    this.deserializing = deserializing;
+    this.mappedPackages = mappedPackages;
+    this.filter = filter;
+    this.encoder = encoder;
+    this.output = output;
+    this.listener = listener;
+    this.stopRequested = stopRequested;
+
+    ExportPipelineConfig settings =
+        config == null ? ExportPipelineConfig.builder().build() : config;
+    int capacity = valueOr(settings.getQueueCapacity(), DEFAULT_QUEUE_CAPACITY);
+    int[] threads = stageThreads(settings, parallelThreads, deserializing);
+    readStage = new Stage<>("read", threads[READ], capacity);
+    parseStage = new Stage<>("parse", threads[PARSE], capacity);
+    deserializeStage = new Stage<>("deserialize", threads[DESERIALIZE], capacity);
+    encodeStage = new Stage<>("encode", threads[ENCODE], capacity);
+    writeStage = new Stage<>("write", 1, capacity);
+
+    AtomicInteger threadCounter = new AtomicInteger();
+    executor =
+        Executors.newFixedThreadPool(
+            readStage.threads
+                + parseStage.threads
+                + deserializeStage.threads
+                + encodeStage.threads
+                + writeStage.threads,
+            r -> new Thread(r, "ExportPipeline-" + threadCounter.incrementAndGet()));
+
+    for (int i = 0; i < readStage.threads; i++) {
+      executor.submit(this::readLoop);
+    }
+    startWorkers(parseStage, deserializeStage, this::parse);
+    startWorkers(deserializeStage, encodeStage, this::deserialize);
+    startWorkers(encodeStage, writeStage, this::encode);
+    startWorkers(writeStage, null, this::write);
+  }
+
+  /** Executor running all stage threads, used for shutdown coordination. */
+  ExecutorService getExecutor() {
+    return executor;
+  }
+
+  /** Queues the package for reading, blocks while the read queue is full. */
+  void submit(String archiveKey, ArchiveInfo archiveInfo) throws InterruptedException {
+    readStage.queue.put(new PackageTicket(archiveKey, archiveInfo));
+  }
+
+  /** Waits until all submitted packages have passed all stages. */
+  void finish() throws InterruptedException {
+    readStage.inputClosed = true;
+    executor.shutdown();
+    while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+      log.debug("Waiting for export pipeline, {}", getMetrics());
+    }
+  }
+
+  List<StageMetrics> getMetrics() {
+    long elapsedNanos = System.nanoTime() - startedAt;
+    List<StageMetrics> metrics = new ArrayList<>();
+    metrics.add(readStage.snapshot(elapsedNanos));
+    metrics.add(parseStage.snapshot(elapsedNanos));
+    metrics.add(deserializeStage.snapshot(elapsedNanos));
+    metrics.add(encodeStage.snapshot(elapsedNanos));
+    metrics.add(writeStage.snapshot(elapsedNanos));
+    return metrics;
+  }
+
+  private void readLoop() {
+    try {
+      while (true) {
+        PackageTicket ticket = readStage.queue.poll(100, TimeUnit.MILLISECONDS);
+        if (ticket == null) {
+          if (readStage.inputClosed && readStage.queue.isEmpty()) {
+            break;
+          }
+          continue;
+        }
+        if (stopRequested.getAsBoolean()) {
+          // remaining packages stay unprocessed and are picked up on resume
+          continue;
+        }
+        readPackage(ticket);
+        release(ticket);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      closeNext(readStage, parseStage);
+    }
+  }
+
+  private void readPackage(PackageTicket ticket) throws InterruptedException {
+    String path = ticket.archiveInfo.getPackagePath();
+    long[] started = {System.nanoTime()};
+    try {
+      if (mappedPackages) {
+        // slices stay valid after the reader is closed
+        try (MappedPackageReader packageReader = new MappedPackageReader(path)) {
+          packageReader.forEachTyped(
+              entry -> queueBlock(ticket, entry.getFilename(), null, entry.getData(), started));
+        }
+      } else {
+        try (PackageReader packageReader = new PackageReader(path)) {
+          packageReader.forEachTyped(
+              entry -> queueBlock(ticket, entry.getFilename(), entry.getData(), null, started));
+        }
+      }
+    } catch (CancellationException e) {
+      ticket.failed = true;
+      throw new InterruptedException(e.getMessage());
+    } catch (Exception e) {
+      ticket.failed = true;
+      log.error("Unexpected error reading archive {}: {}", ticket.archiveKey, e.getMessage());
+    }
+  }
+
+  private void queueBlock(
+      PackageTicket ticket, String filename, byte[] data, ByteBuffer mapped, long[] started) {
+    if (!filename.startsWith("block_")) {
+      return;
+    }
+    String blockKey = Exporter.extractHashFromFilename(filename);
+    if (blockKey == null) {
+      return;
+    }
+    readStage.record(System.nanoTime() - started[0]);
+    ticket.pending.incrementAndGet();
+    try {
+      parseStage.queue.put(new Item<>(ticket, blockKey, data, mapped));
+    } catch (InterruptedException e) {
+      ticket.pending.decrementAndGet();
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while reading " + ticket.archiveKey);
+    }
+    started[0] = System.nanoTime();
+  }
+
+  private Stage<Item<T>> parse(Item<T> item) {
+    Cell c =
+        item.data != null
+            ? Exporter.parseBlockCell(item.data)
+            : Exporter.parseBlockCell(item.mapped.duplicate());
+    if (c == null) {
+      item.ticket.nonBlocks.incrementAndGet();
+      listener.nonBlock();
+      return null;
+    }
+    if (filter != null && !filter.test(c)) {
+      // rejected before deserialization, not counted as parsed
+      return null;
+    }
+    item.cell = c;
+    return deserializing ? deserializeStage : encodeStage;
+  }
+
+  private Stage<Item<T>> deserialize(Item<T> item) {
+    item.block = Block.deserialize(CellSlice.beginParse(item.cell));
+    return encodeStage;
+  }
+
+  private Stage<Item<T>> encode(Item<T> item) throws Exception {
+    item.encoded = encoder.encode(item.cell, item.block, item.buffer());
+    item.cell = null;
+    item.block = null;
+    return writeStage;
+  }
+
+  private Stage<Item<T>> write(Item<T> item) throws Exception {
+    output.write(item.encoded);
+    item.encoded = null;
+    item.ticket.parsedBlocks.incrementAndGet();
+    listener.blockWritten();
+    return null;
+  }
+
+  private void startWorkers(Stage<Item<T>> stage, Stage<Item<T>> next, ItemHandler<T> handler) {
+    for (int i = 0; i < stage.threads; i++) {
+      executor.submit(() -> workerLoop(stage, next, handler));
+    }
+  }
+
+  private void workerLoop(Stage<Item<T>> stage, Stage<Item<T>> next, ItemHandler<T> handler) {
+    try {
+      while (true) {
+        Item<T> item = stage.queue.poll(100, TimeUnit.MILLISECONDS);
+        if (item == null) {
+          if (stage.inputClosed && stage.queue.isEmpty()) {
+            break;
+          }
+          continue;
+        }
+        Stage<Item<T>> target;
+        long started = System.nanoTime();
+        try {
+          target = handler.handle(item);
+        } catch (Throwable e) {
+          listener.error(item.blockKey, item.bytes(), e);
+          target = null;
+        }
+        stage.record(System.nanoTime() - started);
+        if (target == null) {
+          release(item.ticket);
+        } else {
+          target.queue.put(item);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      closeNext(stage, next);
+    }
+  }
+
+  /** The last thread leaving a stage closes input of the following one. */
+  private void closeNext(Stage<?> stage, Stage<Item<T>> next) {
+    if (stage.running.decrementAndGet() == 0 && next != null) {
+      next.inputClosed = true;
+      if (next == deserializeStage && deserializeStage.threads == 0) {
+        // skipped stage, parse threads fed the encode stage directly
+        encodeStage.inputClosed = true;
+      }
+    }
+  }
+
+  private void release(PackageTicket ticket) {
+    if (ticket.pending.decrementAndGet() == 0 && !ticket.failed) {
+      listener.packageCompleted(
+          ticket.archiveKey,
+          ticket.archiveInfo,
+          ticket.parsedBlocks.get(),
+          ticket.nonBlocks.get(),
+          System.currentTimeMillis() - ticket.startedAt);
+    }
+  }
+
+  /**
+   * Thread counts of read, parse, deserialize and encode stages. Counts set in the config are used
+   * as is, the other stages share what is left of parallelThreads, at least one thread each, extra
+   * threads go to deserialize, parse, encode and read in turn. The deserialize stage gets no
+   * threads if blocks are not deserialized.
+   */
+  static int[] stageThreads(
+      ExportPipelineConfig settings, int parallelThreads, boolean deserializing) {
+    Integer[] configured = {
+      settings.getReadThreads(),
+      settings.getParseThreads(),
+      settings.getDeserializeThreads(),
+      settings.getEncodeThreads()
+    };
+    int[] threads = new int[configured.length];
+    List<Integer> shared = new ArrayList<>();
+    int left = parallelThreads;
+    for (int stage = 0; stage < configured.length; stage++) {
+      if (stage == DESERIALIZE && !deserializing) {
+        continue;
+      }
+      if (configured[stage] == null) {
+        shared.add(stage);
+      } else {
+        threads[stage] = valueOr(configured[stage], 0);
+        left -= threads[stage];
+      }
+    }
+    if (shared.isEmpty()) {
+      return threads;
+    }
+    int each = Math.max(1, left / shared.size());
+    int extra = Math.max(0, left - each * shared.size());
+    for (int stage : shared) {
+      threads[stage] = each;
+    }
+    for (int stage : new int[] {DESERIALIZE, PARSE, ENCODE, READ}) {
+      if (extra > 0 && shared.contains(stage)) {
+        threads[stage]++;
+        extra--;
+      }
+    }
+    return threads;
+  }
+
+  private static int valueOr(Integer value, int defaultValue) {
+    if (value == null) {
+      return defaultValue;
+    }
+    if (value < 1) {
+      throw new Error("pipeline thread count and queue capacity must be positive");
+    }
+    return value;
+  }
+}
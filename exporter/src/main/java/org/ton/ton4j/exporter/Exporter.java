@@ -1,7 +1,6 @@
 package org.ton.ton4j.exporter;
 
 import static java.util.Objects.isNull;
-import static org.ton.ton4j.exporter.reader.CellDbReader.parseCell;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
@@ -13,33 +12,33 @@ import java.io.*;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.time.StopWatch;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.LoggerFactory;
 import org.ton.ton4j.address.Address;
 import org.ton.ton4j.bitstring.BitString;
 import org.ton.ton4j.cell.*;
-import org.ton.ton4j.exporter.lazy.CellSliceLazy;
 import org.ton.ton4j.exporter.lazy.ShardAccountLazy;
-import org.ton.ton4j.exporter.lazy.ShardStateUnsplitLazy;
 import org.ton.ton4j.exporter.reader.*;
 import org.ton.ton4j.exporter.types.*;
 import org.ton.ton4j.tl.types.db.block.BlockIdExt;
 import org.ton.ton4j.tl.types.db.block.BlockInfo;
 import org.ton.ton4j.tl.types.db.blockdb.key.BlockDbValueKey;
-import org.ton.ton4j.tl.types.db.celldb.CellDbValue;
 import org.ton.ton4j.tl.types.db.filedb.key.BlockFileKey;
 import org.ton.ton4j.tl.types.db.files.index.IndexValue;
 import org.ton.ton4j.tl.types.db.lt.desc.DbLtDescKey;
+import org.ton.ton4j.tl.types.db.lt.el.DbLtElValue;
 import org.ton.ton4j.tlb.Block;
 import org.ton.ton4j.tlb.BlockId;
+import org.ton.ton4j.tlb.Transaction;
 import org.ton.ton4j.tlb.adapters.*;
 import org.ton.ton4j.utils.Utils;
 
@@ -90,6 +89,18 @@ public class Exporter {
   /** whether to show blocks' reading progress every second, default false */
   private Boolean showProgress;
 
+  /** thread counts, queue sizes and metrics listener of export stages, defaults if null */
+  private ExportPipelineConfig pipelineConfig;
+
+  /**
+   * whether exports to file, stdout, cell store and Arrow and query sessions map archive packages
+   * with {@link MappedPackageReader} instead of reading them entry by entry, default false.
+   * Packages must be under 2 GB. Temp packages followed by {@link #follow} are always read.
+   */
+  private Boolean mappedPackages;
+
+  private volatile ExportPipeline<?> currentPipeline;
+
   private static DbReader dbReader;
 
   public static class ExporterBuilder {}
@@ -110,6 +121,10 @@ public class Exporter {
         super.showProgress = false;
       }
 
+      if (isNull(super.mappedPackages)) {
+        super.mappedPackages = false;
+      }
+
       Exporter exporter = super.build();
 
       // Initialize statistics tracking fields
@@ -133,6 +148,15 @@ public class Exporter {
     return tonDatabaseRootPath;
   }
 
+  /**
+   * Gets metrics of read, parse, deserialize, encode and write stages of the running or last
+   * export, empty list if no export was started.
+   */
+  public List<StageMetrics> getPipelineMetrics() {
+    ExportPipeline<?> pipeline = currentPipeline;
+    return pipeline == null ? Collections.emptyList() : pipeline.getMetrics();
+  }
+
   /**
    * Gets the current count of successfully parsed blocks. This method is thread-safe and can be
    * called during export interruption.
@@ -300,6 +324,9 @@ public class Exporter {
    * @param showProgressInfo whether to show progress information during export
    * @param exportStatus the export status for tracking progress
    * @param errorFilePath path to the errors.txt file where error block data will be written
+   * @param cellStore if not null, cells of blocks are written to it and output lines reference
+   *     block roots by hash
+   * @param filter if not null, only blocks matching it are written
    */
   private void exportDataWithStatus(
       OutputWriter outputWriter,
@@ -307,7 +334,9 @@ public class Exporter {
       int parallelThreads,
       boolean showProgressInfo,
       ExportStatus exportStatus,
-      String errorFilePath)
+      String errorFilePath,
+      CellStoreWriter cellStore,
+      BlockFilter filter)
       throws IOException {
 
     // Reuse existing dbReader if available, otherwise create new one
@@ -340,16 +369,79 @@ public class Exporter {
 
     long startTime = System.currentTimeMillis();
 
-    ExecutorService executor = Executors.newFixedThreadPool(parallelThreads);
-    currentProcessingExecutor = executor; // Store reference for shutdown coordination
-    List<Future<Void>> futures = new ArrayList<>();
+    ExportPipeline<String> pipeline =
+        new ExportPipeline<>(
+            pipelineConfig,
+            parallelThreads,
+            deserialized && cellStore == null,
+            isMappedPackages(),
+            filter,
+            (cell, block, data) -> encodeLine(cell, block, data, deserialized, cellStore),
+            outputWriter::writeLine,
+            new ExportPipeline.Listener() {
+              @Override
+              public void blockWritten() {
+                parsedBlocksCounter.incrementAndGet();
+                sessionParsedBlocks.incrementAndGet();
+                totalParsedBlocks.incrementAndGet();
+              }
+
+              @Override
+              public void nonBlock() {
+                nonBlocksCounter.incrementAndGet();
+                totalNonBlocks.incrementAndGet();
+              }
 
-    // Phase 2: Track processed blocks for reset mechanism
-    AtomicInteger globalProcessedBlocks = new AtomicInteger(0);
+              @Override
+              public void error(String blockKey, byte[] data, Throwable e) {
+                log.debug("Error parsing block {}: {}", blockKey, e.getMessage());
+                errorCounter.incrementAndGet();
+                totalErrors.incrementAndGet();
+                writeErrorBlock(errorFilePath, data);
+              }
+
+              @Override
+              public void packageCompleted(
+                  String archiveKey,
+                  ArchiveInfo archiveInfo,
+                  int parsedBlocks,
+                  int nonBlocks,
+                  long elapsedMs) {
+                try {
+                  if (cellStore != null) {
+                    // cells must be on disk before the package is marked as processed
+                    cellStore.flush();
+                  }
+                  exportStatus.markPackageProcessed(archiveKey, parsedBlocks, nonBlocks);
+                  StatusManager.getInstance().saveStatus(exportStatus);
+                } catch (Exception e) {
+                  log.error(
+                      "Unexpected error completing archive {}: {}", archiveKey, e.getMessage());
+                  return;
+                }
+                if (showProgressInfo) {
+                  System.out.printf(
+                      "progress: %5.1f%%, package %6d/%d, size %7dkb, blocks %6d, elapsed %6dms - %s %n",
+                      exportStatus.getProgressPercentage(),
+                      exportStatus.getProcessedCount(),
+                      exportStatus.getTotalPackages(),
+                      archiveInfo.getPackageSize() / 1024,
+                      parsedBlocks,
+                      elapsedMs,
+                      archiveKey);
+                }
+              }
+            },
+            () -> shutdownRequested);
+    currentPipeline = pipeline;
+    currentProcessingExecutor = pipeline.getExecutor(); // Store reference for shutdown coordination
+
+    Consumer<List<StageMetrics>> metricsListener =
+        pipelineConfig == null ? null : pipelineConfig.getMetricsListener();
 
     // Create a separate thread for periodic rate display
-    ScheduledExecutorService rateDisplayExecutor;
-    if (showProgressInfo) {
+    ScheduledExecutorService rateDisplayExecutor = null;
+    if (showProgressInfo || metricsListener != null) {
       // Create a custom thread factory to make threads daemon so they don't keep JVM alive
       ThreadFactory daemonThreadFactory =
           r -> {
@@ -360,6 +452,25 @@ public class Exporter {
       rateDisplayExecutor = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory);
       currentRateDisplayExecutor = rateDisplayExecutor; // Store reference for shutdown coordination
 
+      if (metricsListener != null) {
+        int interval =
+            isNull(pipelineConfig.getMetricsIntervalSeconds())
+                ? ExportPipeline.DEFAULT_METRICS_INTERVAL_SECONDS
+                : pipelineConfig.getMetricsIntervalSeconds();
+        rateDisplayExecutor.scheduleWithFixedDelay(
+            () -> {
+              try {
+                metricsListener.accept(pipeline.getMetrics());
+              } catch (Exception e) {
+                log.warn("Error in export metrics listener: {}", e.getMessage());
+              }
+            },
+            interval,
+            interval,
+            TimeUnit.SECONDS);
+      }
+    }
+    if (showProgressInfo) {
       rateDisplayExecutor.scheduleWithFixedDelay(
           () -> {
             try {
@@ -391,6 +502,11 @@ public class Exporter {
                     elapsedSeconds,
                     progressPercentage,
                     timeRemainingStr);
+                StringBuilder stages = new StringBuilder("Stages:");
+                for (StageMetrics metrics : pipeline.getMetrics()) {
+                  stages.append(' ').append(metrics.toShortString()).append(';');
+                }
+                System.out.println(stages);
               }
             } catch (Exception e) {
               System.out.println("DEBUG: CRITICAL ERROR in scheduler thread: " + e.getMessage());
@@ -419,63 +535,23 @@ public class Exporter {
         continue;
       }
 
-      Future<Void> future =
-          executor.submit(
-              () -> {
-                StopWatch stopWatch = new StopWatch();
-                stopWatch.start();
-                if (shutdownRequested) {
-                  return null;
-                }
-                try {
-                  int localParsedBlocks = 0;
-                  int localNonBlocks = 0;
-                  localParsedBlocks =
-                      processFilesPackageInMemory(
-                          archiveKey,
-                          archiveInfo,
-                          outputWriter,
-                          deserialized,
-                          errorFilePath,
-                          parsedBlocksCounter,
-                          nonBlocksCounter,
-                          errorCounter,
-                          sessionParsedBlocks);
-
-                  // Mark package as processed (optimized to avoid synchronized file I/O)
-                  exportStatus.markPackageProcessed(archiveKey, localParsedBlocks, localNonBlocks);
-
-                  StatusManager.getInstance().saveStatus(exportStatus);
-
-                  if (showProgressInfo) {
-                    System.out.printf(
-                        "progress: %5.1f%%, package %6d/%d, size %7dkb, blocks %6d, elapsed %6dms - %s %n",
-                        exportStatus.getProgressPercentage(),
-                        exportStatus.getProcessedCount(),
-                        exportStatus.getTotalPackages(),
-                        entry.getValue().getPackageSize() / 1024,
-                        localParsedBlocks,
-                        stopWatch.getTime(),
-                        archiveKey);
-                  }
-                } catch (Exception e) {
-                  log.error("Unexpected error reading archive {}: {}", archiveKey, e.getMessage());
-                }
-
-                return null;
-              });
-      futures.add(future);
-    }
-
-    // Wait for all tasks to complete
-    for (Future<Void> future : futures) {
       try {
-        future.get();
-      } catch (Exception e) {
-        log.error("Error waiting for archive reading task: {}", e.getMessage());
+        pipeline.submit(archiveKey, archiveInfo);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.warn("Interrupted while submitting archive {}", archiveKey);
+        break;
       }
     }
 
+    // Wait for all packages to pass the pipeline
+    try {
+      pipeline.finish();
+    } catch (InterruptedException e) {
+      pipeline.getExecutor().shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+
     long endTime = System.currentTimeMillis();
     long durationMs = endTime - startTime;
     double durationSeconds = durationMs / 1000.0;
@@ -484,15 +560,8 @@ public class Exporter {
     // PerformanceProfiler completely disabled to eliminate atomic contention
     // globalProfiler.recordWallClockEnd();
 
-    // Shutdown executor
-    executor.shutdown();
-    try {
-      if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
-        executor.shutdownNow();
-      }
-    } catch (InterruptedException e) {
-      executor.shutdownNow();
-      Thread.currentThread().interrupt();
+    if (metricsListener != null) {
+      metricsListener.accept(pipeline.getMetrics());
     }
 
     // Shutdown rate display executor properly
@@ -562,6 +631,19 @@ public class Exporter {
    */
   public void exportToFile(String outputToFile, boolean deserialized, int parallelThreads)
       throws IOException {
+    exportToFile(outputToFile, deserialized, parallelThreads, null);
+  }
+
+  /**
+   * Same as {@link #exportToFile(String, boolean, int)}, but writes only blocks matching the
+   * filter. Other blocks are rejected on raw cells and never deserialized. The filter is not part
+   * of the saved export status, resume with the same filter.
+   *
+   * @param filter block filter, null to export all blocks
+   */
+  public void exportToFile(
+      String outputToFile, boolean deserialized, int parallelThreads, BlockFilter filter)
+      throws IOException {
     if (StringUtils.isEmpty(outputToFile)) {
       throw new Error("outputToFile is empty");
     }
@@ -631,10 +713,471 @@ public class Exporter {
       OutputWriter outputWriter = asyncWriter::writeLine;
 
       exportDataWithStatus(
-          outputWriter, deserialized, parallelThreads, showProgress, exportStatus, errorFilePath);
+          outputWriter,
+          deserialized,
+          parallelThreads,
+          showProgress,
+          exportStatus,
+          errorFilePath,
+          null,
+          filter);
     }
   }
 
+  /**
+   * Exports only blocks of the range. Instead of scanning all packages, archive packages covering
+   * the range are found in the global index, blocks of each shard are found in their archive index
+   * and read from pack files at their offsets. Output lines are the same as in {@link
+   * #exportToFile(String, boolean, int)}. Range exports are not resumed, the output file is
+   * overwritten.
+   *
+   * @param outputToFile path to file where result will be stored
+   * @param deserialized if true - deserialized Block TL-B object will be saved as json string,
+   *     otherwise boc in hex format will be stored in a single line
+   * @param parallelThreads number of archive packages processed in parallel
+   * @param range seqno, lt or unix time range
+   */
+  public void exportRangeToFile(
+      String outputToFile, boolean deserialized, int parallelThreads, BlockRange range)
+      throws IOException {
+    exportRangeToFile(outputToFile, deserialized, parallelThreads, range, null);
+  }
+
+  /**
+   * Same as {@link #exportRangeToFile(String, boolean, int, BlockRange)}, but writes only blocks
+   * of the range matching the filter.
+   *
+   * @param filter block filter, null to export all blocks of the range
+   */
+  public void exportRangeToFile(
+      String outputToFile,
+      boolean deserialized,
+      int parallelThreads,
+      BlockRange range,
+      BlockFilter filter)
+      throws IOException {
+    if (StringUtils.isEmpty(outputToFile)) {
+      throw new Error("outputToFile is empty");
+    }
+    if (isNull(range)) {
+      throw new Error("range is null");
+    }
+    if (dbReader == null) {
+      dbReader = new DbReader(tonDatabaseRootPath);
+    }
+
+    List<Integer> archiveIndexes =
+        dbReader.getGlobalIndexDbReader().getArchiveIndexesByRange(range);
+    log.info("Exporting {} from {} archive packages", range, archiveIndexes.size());
+
+    File outputFile = new File(outputToFile);
+    String errorFilePath = new File(outputFile.getParent(), "errors.txt").getAbsolutePath();
+    AtomicInteger parsedBlocksCounter = new AtomicInteger(0);
+    AtomicInteger nonBlocksCounter = new AtomicInteger(0);
+    AtomicInteger errorCounter = new AtomicInteger(0);
+    AtomicInteger sessionParsedBlocks = new AtomicInteger(0);
+    long startTime = System.currentTimeMillis();
+
+    ExecutorService executor = Executors.newFixedThreadPool(parallelThreads);
+    currentProcessingExecutor = executor;
+    try (AsyncFileWriter asyncWriter =
+        new AsyncFileWriter(outputToFile, false, 5000, 256 * 1024, 1000)) {
+      OutputWriter outputWriter = asyncWriter::writeLine;
+
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int archiveIndex : archiveIndexes) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  if (shutdownRequested) {
+                    return null;
+                  }
+                  int blocks =
+                      processArchiveRange(
+                          archiveIndex,
+                          range,
+                          outputWriter,
+                          deserialized,
+                          errorFilePath,
+                          filter,
+                          parsedBlocksCounter,
+                          nonBlocksCounter,
+                          errorCounter,
+                          sessionParsedBlocks);
+                  if (showProgress) {
+                    log.info("archive package {}: {} blocks of range", archiveIndex, blocks);
+                  }
+                  return null;
+                }));
+      }
+      for (Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Range export interrupted", e);
+        } catch (ExecutionException e) {
+          throw new IOException("Range export failed: " + e.getCause().getMessage(), e.getCause());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    double durationSeconds = (System.currentTimeMillis() - startTime) / 1000.0;
+    System.out.printf(
+        "Range export completed. Duration: %.1fs, blocks %s, errors %s%n",
+        durationSeconds, parsedBlocksCounter.get(), errorCounter.get());
+
+    totalParsedBlocks.set(parsedBlocksCounter.get());
+    totalNonBlocks.set(nonBlocksCounter.get());
+    totalErrors.set(errorCounter.get());
+  }
+
+  /**
+   * Same as {@link #follow(String, boolean, Consumer)} with cursor {@link
+   * BlockFollower#CURSOR_FILE_NAME} in the current directory and not deserialized blocks.
+   */
+  public void follow(Consumer<ExportedBlock> consumer) throws IOException {
+    follow(BlockFollower.CURSOR_FILE_NAME, false, consumer);
+  }
+
+  /**
+   * Streams blocks of a live node database. Every masterchain block applied by the node is passed
+   * to the consumer within a second, followed by shard blocks it commits in seqno order. Without
+   * a cursor file it starts after the last applied masterchain block, otherwise after the block
+   * saved in the cursor, catching up from the archive if needed. Blocks the calling thread until
+   * {@link #waitForThreadsToFinish()} is called or the thread is interrupted.
+   *
+   * @param cursorFile path to json file with position, updated after each masterchain block
+   * @param deserialized if true - blocks carry deserialized Block TL-B object
+   * @param consumer receives blocks, the cursor is saved once it returns
+   */
+  public void follow(String cursorFile, boolean deserialized, Consumer<ExportedBlock> consumer)
+      throws IOException {
+    if (StringUtils.isEmpty(cursorFile)) {
+      throw new Error("cursorFile is empty");
+    }
+    new BlockFollower(
+            this,
+            tonDatabaseRootPath,
+            new File(cursorFile).toPath(),
+            deserialized,
+            () -> shutdownRequested)
+        .run(consumer);
+  }
+
+  /** Returns id of the archive package holding the masterchain block. */
+  int getArchiveIndexBySeqno(long mcSeqno) throws IOException {
+    return getArchiveIndexBySeqno(-1, mcSeqno);
+  }
+
+  /** Returns id of the archive package holding the block of the workchain. */
+  int getArchiveIndexBySeqno(int workchain, long seqno) throws IOException {
+    if (dbReader == null) {
+      dbReader = new DbReader(tonDatabaseRootPath);
+    }
+    return dbReader.getGlobalIndexDbReader().getArchiveIndexBySeqno(workchain, seqno);
+  }
+
+  /** Receives blocks read by {@link #readArchiveBlocks(int, BlockRange, ArchiveBlockConsumer)}. */
+  interface ArchiveBlockConsumer {
+    void accept(String packFilename, String rootHash, byte[] data) throws IOException;
+  }
+
+  /**
+   * Writes blocks of the range stored in one archive package.
+   *
+   * @return number of blocks of the range found in the archive index
+   */
+  private int processArchiveRange(
+      int archiveIndex,
+      BlockRange range,
+      OutputWriter outputWriter,
+      boolean deserialized,
+      String errorFilePath,
+      BlockFilter filter,
+      AtomicInteger parsedBlocksCounter,
+      AtomicInteger nonBlocksCounter,
+      AtomicInteger errorCounter,
+      AtomicInteger sessionParsedBlocks)
+      throws IOException {
+    return readArchiveBlocks(
+        archiveIndex,
+        range,
+        (packFilename, rootHash, data) ->
+            processBlockData(
+                rootHash,
+                data,
+                outputWriter,
+                deserialized,
+                errorFilePath,
+                null,
+                filter,
+                parsedBlocksCounter,
+                nonBlocksCounter,
+                errorCounter,
+                sessionParsedBlocks));
+  }
+
+  /**
+   * Reads blocks of the range stored in one archive package, each pack file of the package is
+   * read once with entries in offset order.
+   *
+   * @return number of blocks of the range found in the archive index
+   */
+  int readArchiveBlocks(int archiveIndex, BlockRange range, ArchiveBlockConsumer consumer)
+      throws IOException {
+    if (dbReader == null) {
+      dbReader = new DbReader(tonDatabaseRootPath);
+    }
+
+    // pack file -> offsets of blocks of the range
+    Map<String, TreeMap<Long, String>> offsetsByPackFile = new TreeMap<>();
+    int blocks = 0;
+    try (ArchiveIndexReader archiveIndexReader =
+        new ArchiveIndexReader(dbReader.getDbRootPath(), archiveIndex)) {
+      for (DbLtDescKey shard : archiveIndexReader.getShards()) {
+        for (DbLtElValue dbLtElValue : archiveIndexReader.getBlocksInRange(shard, range)) {
+          BlockIdExt blockIdExt = dbLtElValue.getId();
+          BlockFileKey blockFileKey = BlockFileKey.builder().blockIdExt(blockIdExt).build();
+          String packFilename =
+              archiveIndexReader.getExactPackFilename(
+                  archiveIndex,
+                  blockIdExt.getSeqno(),
+                  blockIdExt.getWorkchain(),
+                  blockIdExt.getShard(),
+                  archiveIndexReader.getMasterRefSeqno(blockIdExt));
+          if (packFilename == null) {
+            log.warn("Pack file of block {} not found in archive {}", blockIdExt, archiveIndex);
+            continue;
+          }
+          offsetsByPackFile
+              .computeIfAbsent(packFilename, k -> new TreeMap<>())
+              .put(
+                  archiveIndexReader.getOffsetByHash(blockFileKey.getKeyHash()),
+                  blockIdExt.getRootHash());
+          blocks++;
+        }
+      }
+    }
+
+    for (Map.Entry<String, TreeMap<Long, String>> pack : offsetsByPackFile.entrySet()) {
+      try (PackageReader packageReader = new PackageReader(pack.getKey())) {
+        for (Map.Entry<Long, String> block : pack.getValue().entrySet()) {
+          if (shutdownRequested) {
+            return blocks;
+          }
+          consumer.accept(
+              pack.getKey(),
+              block.getValue(),
+              packageReader.getEntryAt(block.getKey()).getData());
+        }
+      }
+    }
+    return blocks;
+  }
+
+  /**
+   * Exports blocks of all shards without repeating cells. Each cell is written once across the
+   * whole export to {@link CellStoreWriter#CELLS_FILE_NAME}, keyed by its representation hash, and
+   * {@link CellStoreWriter#BLOCKS_FILE_NAME} gets a {@code workchain,shard,seqno,rootHash} line per
+   * block. Use {@link CellStoreReader} to rebuild blocks. Supports resume like {@link
+   * #exportToFile(String, boolean, int)}.
+   *
+   * @param outputDirectory directory where the files are stored, created if it doesn't exist
+   * @param parallelThreads number of parallel threads used to export a database
+   */
+  public void exportToCellStore(String outputDirectory, int parallelThreads) throws IOException {
+    if (StringUtils.isEmpty(outputDirectory)) {
+      throw new Error("outputDirectory is empty");
+    }
+    File directory = new File(outputDirectory).getAbsoluteFile();
+    File cellsFile = new File(directory, CellStoreWriter.CELLS_FILE_NAME);
+
+    ExportStatus exportStatus = StatusManager.getInstance().loadStatus();
+    boolean isResume = false;
+
+    if (exportStatus != null && !exportStatus.isCompleted()) {
+      if ("cellstore".equals(exportStatus.getExportType())
+          && outputDirectory.equals(exportStatus.getOutputFile())
+          && parallelThreads == exportStatus.getParallelThreads()) {
+        if (cellsFile.exists()) {
+          log.info(
+              "Resuming export from previous session. Progress: {}% ({}/{}), cell store size: {} bytes",
+              exportStatus.getProgressPercentage(),
+              exportStatus.getProcessedCount(),
+              exportStatus.getTotalPackages(),
+              cellsFile.length());
+          isResume = true;
+        } else {
+          log.warn(
+              "Resume requested but cell store '{}' doesn't exist. Starting fresh export.",
+              cellsFile.getAbsolutePath());
+          StatusManager.getInstance().deleteStatus();
+          exportStatus = null;
+        }
+      } else {
+        log.warn("Export parameters don't match existing status. Starting fresh export.");
+        StatusManager.getInstance().deleteStatus();
+        exportStatus = null;
+      }
+    }
+
+    if (exportStatus == null) {
+      if (dbReader == null) {
+        dbReader = new DbReader(tonDatabaseRootPath);
+      }
+      long totalPackages = dbReader.getAllPackFiles().size();
+
+      exportStatus =
+          StatusManager.getInstance()
+              .createNewStatus(totalPackages, "cellstore", outputDirectory, false, parallelThreads);
+      StatusManager.getInstance().saveStatus(exportStatus);
+      log.info("Starting new export to cell store: {}", outputDirectory);
+    }
+
+    Files.createDirectories(directory.toPath());
+    String errorFilePath = new File(directory, "errors.txt").getAbsolutePath();
+
+    try (CellStoreWriter cellStore = new CellStoreWriter(cellsFile.toPath(), isResume);
+        AsyncFileWriter blocksWriter =
+            new AsyncFileWriter(
+                new File(directory, CellStoreWriter.BLOCKS_FILE_NAME).getPath(),
+                isResume,
+                5000,
+                256 * 1024,
+                1000)) {
+
+      exportDataWithStatus(
+          blocksWriter::writeLine,
+          false,
+          parallelThreads,
+          showProgress,
+          exportStatus,
+          errorFilePath,
+          cellStore,
+          null);
+
+      log.info(
+          "Cell store: {} cells written, {} repeated cells skipped",
+          cellStore.getCellsWritten(),
+          cellStore.getCellsSkipped());
+    }
+  }
+
+  /**
+   * Exports blocks of all shards as columnar Arrow IPC files {@link
+   * ArrowBlockWriter#BLOCKS_FILE_NAME}, {@link ArrowBlockWriter#TRANSACTIONS_FILE_NAME} and {@link
+   * ArrowBlockWriter#MESSAGES_FILE_NAME} with one row per block, transaction and in or out
+   * message. Rows are written in record batches of {@link
+   * ArrowBlockWriter#DEFAULT_ROW_GROUP_SIZE}, so the files can be queried directly. Only block info
+   * and transactions are deserialized. Columnar exports are not resumed, the files are overwritten.
+   *
+   * @param outputDirectory directory where the files are stored, created if it doesn't exist
+   * @param parallelThreads threads of each pipeline stage not set in {@link ExportPipelineConfig}
+   */
+  public void exportToArrow(String outputDirectory, int parallelThreads) throws IOException {
+    exportToArrow(outputDirectory, parallelThreads, null);
+  }
+
+  /**
+   * Same as {@link #exportToArrow(String, int)}, but writes only blocks matching the filter. With
+   * account or op-code criteria only matching transactions and their messages are written.
+   *
+   * @param filter block filter, null to export all blocks
+   */
+  public void exportToArrow(String outputDirectory, int parallelThreads, BlockFilter filter)
+      throws IOException {
+    if (StringUtils.isEmpty(outputDirectory)) {
+      throw new Error("outputDirectory is empty");
+    }
+    if (dbReader == null) {
+      dbReader = new DbReader(tonDatabaseRootPath);
+    }
+    Map<String, ArchiveInfo> packFiles = dbReader.getAllPackFiles();
+
+    File directory = new File(outputDirectory).getAbsoluteFile();
+    Files.createDirectories(directory.toPath());
+    String errorFilePath = new File(directory, "errors.txt").getAbsolutePath();
+    AtomicInteger parsedBlocksCounter = new AtomicInteger(0);
+    AtomicInteger nonBlocksCounter = new AtomicInteger(0);
+    AtomicInteger errorCounter = new AtomicInteger(0);
+    long startTime = System.currentTimeMillis();
+
+    try (ArrowBlockWriter writer =
+        new ArrowBlockWriter(directory.toPath(), ArrowBlockWriter.DEFAULT_ROW_GROUP_SIZE)) {
+      // FlatBlock deserializes only what it needs, the deserialize stage is skipped
+      ExportPipeline<FlatBlock> pipeline =
+          new ExportPipeline<>(
+              pipelineConfig,
+              parallelThreads,
+              false,
+              isMappedPackages(),
+              filter,
+              (cell, block, data) -> FlatBlock.of(cell, filter),
+              writer::write,
+              new ExportPipeline.Listener() {
+                @Override
+                public void blockWritten() {
+                  parsedBlocksCounter.incrementAndGet();
+                }
+
+                @Override
+                public void nonBlock() {
+                  nonBlocksCounter.incrementAndGet();
+                }
+
+                @Override
+                public void error(String blockKey, byte[] data, Throwable e) {
+                  log.debug("Error parsing block {}: {}", blockKey, e.getMessage());
+                  errorCounter.incrementAndGet();
+                  writeErrorBlock(errorFilePath, data);
+                }
+
+                @Override
+                public void packageCompleted(
+                    String archiveKey,
+                    ArchiveInfo archiveInfo,
+                    int parsedBlocks,
+                    int nonBlocks,
+                    long elapsedMs) {
+                  if (showProgress) {
+                    log.info("archive package {}: {} blocks", archiveKey, parsedBlocks);
+                  }
+                }
+              },
+              () -> shutdownRequested);
+      currentPipeline = pipeline;
+      currentProcessingExecutor = pipeline.getExecutor();
+      try {
+        for (Map.Entry<String, ArchiveInfo> pack : packFiles.entrySet()) {
+          if (shutdownRequested) {
+            break;
+          }
+          pipeline.submit(pack.getKey(), pack.getValue());
+        }
+        pipeline.finish();
+      } catch (InterruptedException e) {
+        pipeline.getExecutor().shutdownNow();
+        Thread.currentThread().interrupt();
+        throw new IOException("Arrow export interrupted", e);
+      }
+
+      System.out.printf(
+          "Arrow export completed. Duration: %.1fs, blocks %s, transactions %s, messages %s, errors %s%n",
+          (System.currentTimeMillis() - startTime) / 1000.0,
+          writer.getBlocksWritten(),
+          writer.getTransactionsWritten(),
+          writer.getMessagesWritten(),
+          errorCounter.get());
+    }
+
+    totalParsedBlocks.set(parsedBlocksCounter.get());
+    totalNonBlocks.set(nonBlocksCounter.get());
+    totalErrors.set(errorCounter.get());
+  }
+
   /**
    * @param deserialized if true - deserialized Block TL-B object will be saved as json string,
    *     otherwise boc in hex format will be stored in a single line
@@ -685,7 +1228,8 @@ public class Exporter {
 
     OutputWriter stdoutWriter = System.out::println;
 
-    exportDataWithStatus(stdoutWriter, deserialized, parallelThreads, false, exportStatus, null);
+    exportDataWithStatus(
+        stdoutWriter, deserialized, parallelThreads, false, exportStatus, null, null, null);
 
     for (Logger logger : loggerContext.getLoggerList()) {
       logger.setLevel(Level.INFO);
@@ -704,6 +1248,19 @@ public class Exporter {
    */
   public Stream<ExportedBlock> exportToObjects(boolean deserialized, int parallelThreads)
       throws IOException {
+    return exportToObjects(deserialized, parallelThreads, null);
+  }
+
+  /**
+   * Same as {@link #exportToObjects(boolean, int)}, but streams only blocks matching the filter.
+   * Other blocks are rejected on raw cells and never deserialized. If the filter has account or
+   * op-code criteria, {@link ExportedBlock#getTransactions()} holds only matching transactions,
+   * deserialized even if deserialized is false, so the rest of the block can be left untouched.
+   *
+   * @param filter block filter, null to export all blocks
+   */
+  public Stream<ExportedBlock> exportToObjects(
+      boolean deserialized, int parallelThreads, BlockFilter filter) throws IOException {
 
     // Check for existing status and resume if possible
     ExportStatus exportStatus = StatusManager.getInstance().loadStatus();
@@ -776,6 +1333,20 @@ public class Exporter {
                                     long magic = c.getBits().preReadUint(32).longValue();
 
                                     if (magic == 0x11ef55aaL) {
+                                      List<Transaction> transactions = null;
+                                      if (filter != null && filter.hasTransactionCriteria()) {
+                                        List<Cell> txCells = filter.findTransactions(c);
+                                        if (txCells.isEmpty()) {
+                                          return;
+                                        }
+                                        transactions = new ArrayList<>(txCells.size());
+                                        for (Cell tx : txCells) {
+                                          transactions.add(
+                                              Transaction.deserialize(CellSlice.beginParse(tx)));
+                                        }
+                                      } else if (filter != null && !filter.test(c)) {
+                                        return;
+                                      }
                                       Block deserializedBlock = null;
 
                                       if (deserialized) {
@@ -798,6 +1369,7 @@ public class Exporter {
                                               .blockKey(kv.getFilename())
                                               .rawData(kv.getData())
                                               .deserializedBlock(deserializedBlock)
+                                              .transactions(transactions)
                                               .isDeserialized(
                                                   deserialized && deserializedBlock != null)
                                               .build();
@@ -885,66 +1457,11 @@ public class Exporter {
     }
   }
 
-  /** Process Files package using streaming approach to avoid memory accumulation */
-  private int processFilesPackageInMemory(
-      String archiveKey,
-      ArchiveInfo archiveInfo,
-      OutputWriter outputWriter,
-      boolean deserialized,
-      String errorFilePath,
-      AtomicInteger parsedBlocksCounter,
-      AtomicInteger nonBlocksCounter,
-      AtomicInteger errorCounter,
-      AtomicInteger sessionParsedBlocks)
-      throws IOException {
-
-    AtomicInteger localParsedBlocks = new AtomicInteger(0);
-    AtomicInteger localNonBlocks = new AtomicInteger(0);
-
-    // Use streaming PackageReader instead of loading everything into memory
-    try (PackageReader packageReader = new PackageReader(archiveInfo.getPackagePath())) {
-      // Process each entry as it's read from disk (no memory accumulation)
-      packageReader.forEachTyped(
-          entry -> {
-            String filename = entry.getFilename();
-
-            // Only process block files
-            if (filename.startsWith("block_")) {
-              String blockKey = extractHashFromFilename(filename);
-              if (blockKey != null) {
-                int beforeParsed = parsedBlocksCounter.get();
-                int beforeNonBlocks = nonBlocksCounter.get();
-
-                processBlockData(
-                    blockKey,
-                    entry.getData(),
-                    outputWriter,
-                    deserialized,
-                    errorFilePath,
-                    parsedBlocksCounter,
-                    nonBlocksCounter,
-                    errorCounter,
-                    sessionParsedBlocks);
-
-                // Track local increments
-                int afterParsed = parsedBlocksCounter.get();
-                int afterNonBlocks = nonBlocksCounter.get();
-
-                localParsedBlocks.addAndGet(afterParsed - beforeParsed);
-                localNonBlocks.addAndGet(afterNonBlocks - beforeNonBlocks);
-              }
-            }
-          });
-
-      return localParsedBlocks.get();
-    }
-  }
-
   /**
    * Extracts hash from a filename like "block_(-1,8000000000000000,100):hash1:hash2". Returns the
    * first hash (hash1) which is typically used as the key.
    */
-  private String extractHashFromFilename(String filename) {
+  static String extractHashFromFilename(String filename) {
     try {
       if (filename.contains("):")) {
         int colonIndex = filename.indexOf("):");
@@ -971,68 +1488,31 @@ public class Exporter {
       OutputWriter outputWriter,
       boolean deserialized,
       String errorFilePath,
+      CellStoreWriter cellStore,
+      BlockFilter filter,
       AtomicInteger parsedBlocksCounter,
       AtomicInteger nonBlocksCounter,
       AtomicInteger errorCounter,
       AtomicInteger sessionParsedBlocks) {
 
     try {
-      // Parse BOC to TLB
-      Cell c = CellBuilder.beginCell().fromBoc(blockData).endCell();
-
-      // Check magic number after BOC parsing
-      long magic = c.getBits().preReadUint(32).longValue();
-
-      if (magic == 0x11ef55aaL) {
-        String lineToWrite;
-        Block block = null; // Declare block variable for explicit cleanup
-
-        if (deserialized) {
-          // Deserialize Block from TLB when deserialized output is requested
-          block = Block.deserialize(CellSlice.beginParse(c));
-
-          // Pre-compute values to avoid repeated calls during JSON serialization
-          int workchain = block.getBlockInfo().getShard().getWorkchain();
-          String shardHex = block.getBlockInfo().getShard().convertShardIdentToShard().toString(16);
-          long seqno = block.getBlockInfo().getSeqno();
-
-          String jsonBlock = Exporter.gson.toJson(block);
-
-          // Use StringBuilder for more efficient string construction
-          StringBuilder lineBuilder = new StringBuilder(1024); // Pre-allocate reasonable size
-          lineBuilder
-              .append(workchain)
-              .append(',')
-              .append(shardHex)
-              .append(',')
-              .append(seqno)
-              .append(',')
-              .append(jsonBlock);
-
-          lineToWrite = lineBuilder.toString();
-
-          // Clear JSON string reference immediately after use
-          jsonBlock = null;
-        } else {
-          // Write raw BOC in hex format - no deserialization needed
-          lineToWrite = Utils.bytesToHex(blockData);
+      Cell c = parseBlockCell(blockData);
+
+      if (c != null) {
+        if (filter != null && !filter.test(c)) {
+          // rejected before deserialization, not counted as parsed
+          return;
         }
+        Block block =
+            deserialized && cellStore == null ? Block.deserialize(CellSlice.beginParse(c)) : null;
 
         // Write to output
-        outputWriter.writeLine(lineToWrite);
+        outputWriter.writeLine(
+            encodeLine(c, block, ByteBuffer.wrap(blockData), deserialized, cellStore));
 
-        int currentParsedCount = parsedBlocksCounter.getAndIncrement();
+        parsedBlocksCounter.getAndIncrement();
         sessionParsedBlocks.incrementAndGet(); // Track session blocks for accurate rate calculation
         totalParsedBlocks.incrementAndGet();
-
-        // Pure reference clearing - No GC calls, just help the garbage collector
-        if (deserialized && currentParsedCount > 0 && currentParsedCount % 1000 == 0) {
-          // Clear references to help GC - let G1GC handle timing naturally
-          block = null;
-          c = null;
-          lineToWrite = null;
-        }
-
       } else {
         nonBlocksCounter.getAndIncrement();
         totalNonBlocks.incrementAndGet();
@@ -1045,24 +1525,88 @@ public class Exporter {
           e.getMessage()); // Changed to debug to reduce logging overhead
       errorCounter.getAndIncrement();
       totalErrors.incrementAndGet();
+      writeErrorBlock(errorFilePath, blockData);
+    }
+  }
 
-      // Write error block data to errors.txt file if errorFilePath is provided
-      if (errorFilePath != null) {
-        try {
-          synchronized (this) {
-            try (PrintWriter errorWriter =
-                new PrintWriter(new FileWriter(errorFilePath, StandardCharsets.UTF_8, true))) {
-              errorWriter.println(Utils.bytesToHex(blockData));
-              errorWriter.flush();
-            }
-          }
-        } catch (IOException ioException) {
-          log.warn(
-              "Failed to write error block data to {}: {}",
-              errorFilePath,
-              ioException.getMessage());
+  /** Parses BoC of a package entry, returns null if the root is not a block. */
+  static Cell parseBlockCell(byte[] blockData) {
+    Cell c = CellBuilder.beginCell().fromBoc(blockData).endCell();
+
+    // Check magic number after BOC parsing
+    long magic = c.getBits().preReadUint(32).longValue();
+    return magic == 0x11ef55aaL ? c : null;
+  }
+
+  /** Same as {@link #parseBlockCell(byte[])}, cells keep reading their data from the buffer. */
+  static Cell parseBlockCell(ByteBuffer blockData) {
+    Cell c = Cell.fromBoc(blockData);
+    long magic = c.getBits().preReadUint(32).longValue();
+    return magic == 0x11ef55aaL ? c : null;
+  }
+
+  /**
+   * Builds output line of a block: "wc,shard,seqno,root hash" when cells go to the cell store,
+   * "wc,shard,seqno,json" for deserialized block or boc in hex.
+   */
+  static String encodeLine(
+      Cell c, Block block, ByteBuffer blockData, boolean deserialized, CellStoreWriter cellStore)
+      throws IOException {
+    if (cellStore != null) {
+      // only block info is needed, the rest is referenced by root hash
+      org.ton.ton4j.tlb.BlockInfo info =
+          org.ton.ton4j.tlb.BlockInfo.deserialize(CellSlice.beginParse(c.getRefs().get(0)));
+      byte[] rootHash = cellStore.write(c);
+      return info.getShard().getWorkchain()
+          + ","
+          + info.getShard().convertShardIdentToShard().toString(16)
+          + ","
+          + info.getSeqno()
+          + ","
+          + Utils.bytesToHex(rootHash);
+    }
+    if (deserialized) {
+      // Pre-compute values to avoid repeated calls during JSON serialization
+      int workchain = block.getBlockInfo().getShard().getWorkchain();
+      String shardHex = block.getBlockInfo().getShard().convertShardIdentToShard().toString(16);
+      long seqno = block.getBlockInfo().getSeqno();
+
+      String jsonBlock = Exporter.gson.toJson(block);
+
+      // Use StringBuilder for more efficient string construction
+      StringBuilder lineBuilder = new StringBuilder(jsonBlock.length() + 64);
+      lineBuilder
+          .append(workchain)
+          .append(',')
+          .append(shardHex)
+          .append(',')
+          .append(seqno)
+          .append(',')
+          .append(jsonBlock);
+      return lineBuilder.toString();
+    }
+    // Write raw BOC in hex format - no deserialization needed
+    byte[] boc = new byte[blockData.remaining()];
+    blockData.duplicate().get(boc);
+    return Utils.bytesToHex(boc);
+  }
+
+  /** Appends block data to errors.txt if errorFilePath is provided */
+  private void writeErrorBlock(String errorFilePath, byte[] blockData) {
+    if (errorFilePath == null) {
+      return;
+    }
+    try {
+      synchronized (this) {
+        try (PrintWriter errorWriter =
+            new PrintWriter(new FileWriter(errorFilePath, StandardCharsets.UTF_8, true))) {
+          errorWriter.println(Utils.bytesToHex(blockData));
+          errorWriter.flush();
         }
       }
+    } catch (IOException ioException) {
+      log.warn(
+          "Failed to write error block data to {}: {}", errorFilePath, ioException.getMessage());
     }
   }
 
@@ -1359,40 +1903,40 @@ public class Exporter {
     return null;
   }
 
+  boolean isMappedPackages() {
+    return Boolean.TRUE.equals(mappedPackages);
+  }
+
+  /**
+   * Opens a query session that keeps CellDB and StateDB opened and caches parsed cells between
+   * lookups. Prefer it to the single-shot lookups below when querying accounts repeatedly.
+   *
+   * @param cellCacheSize maximum number of parsed cells kept in memory
+   */
+  public ExporterSession openSession(int cellCacheSize) throws IOException {
+    return new ExporterSession(this, tonDatabaseRootPath, new CellCache(cellCacheSize));
+  }
+
   public ShardAccountLazy getShardAccountByAddress(
       org.ton.ton4j.tlb.BlockIdExt blockIdExt, Address address) throws IOException {
-    return getShardAccountByAddress(
-        BlockIdExt.builder()
-            .shard(blockIdExt.shard)
-            .workchain(blockIdExt.getWorkchain())
-            .seqno((int) blockIdExt.getSeqno())
-            .fileHash(blockIdExt.fileHash)
-            .rootHash(blockIdExt.rootHash)
-            .build(),
-        address);
+    try (ExporterSession session = new ExporterSession(this, tonDatabaseRootPath, null)) {
+      return session.getShardAccountByAddress(blockIdExt, address);
+    }
   }
 
   /** return ShardAccount only */
   public ShardAccountLazy getShardAccountByAddress(BlockIdExt blockIdExt, Address address)
       throws IOException {
-    try (CellDbReader cellDbReader = new CellDbReader(tonDatabaseRootPath)) {
-      String key = "desc" + Utils.bytesToBase64(Utils.sha256AsArray(blockIdExt.serializeBoxed()));
-      byte[] value = cellDbReader.getCellDb().get(key.getBytes());
-
-      CellDbValue cellDbValue = CellDbValue.deserialize(ByteBuffer.wrap(value));
-      byte[] shardStateRootHash = cellDbValue.rootHash;
-
-      // find full cell containing ShardStateUnsplit by shardStateRootHash
-      byte[] rawShardStateUnsplit = cellDbReader.getCellDb().get(shardStateRootHash);
-
-      Cell shardStateCell = parseCell(ByteBuffer.wrap(rawShardStateUnsplit));
-
-      // looking in
-      ShardStateUnsplitLazy shardStateUnsplitLazy =
-          ShardStateUnsplitLazy.deserialize(
-              cellDbReader, CellSliceLazy.beginParse(cellDbReader, shardStateCell));
+    try (ExporterSession session = new ExporterSession(this, tonDatabaseRootPath, null)) {
+      return session.getShardAccountByAddress(blockIdExt, address);
+    }
+  }
 
-      return shardStateUnsplitLazy.getShardAccounts().lookup(address);
+  /** Looks up accounts of several addresses of one shard, see {@link ExporterSession}. */
+  public Map<Address, ShardAccountLazy> getShardAccounts(
+      BlockIdExt blockIdExt, Collection<Address> addresses) throws IOException {
+    try (ExporterSession session = new ExporterSession(this, tonDatabaseRootPath, null)) {
+      return session.getShardAccounts(blockIdExt, addresses);
     }
   }
 
@@ -1419,22 +1963,8 @@ public class Exporter {
    * there is no need to retrieve other shards' information.
    */
   public BigInteger getBalance(Address address) {
-    try (StateDbReader stateReader = new StateDbReader(tonDatabaseRootPath)) {
-
-      if (address.wc == -1) {
-        BlockIdExt lastBlockIdExt = stateReader.getLastBlockIdExt();
-        return getShardAccountByAddress(lastBlockIdExt, address).getBalance();
-      } else {
-        // 1. get latest block
-        // 2. extract shard hashes
-        // 3. find shard where target address is
-        // 4. query balance with that shard info
-        Block lastBlock = getLast().getValue();
-        org.ton.ton4j.tlb.BlockIdExt shardInfo =
-            ShardLookup.findShardBlock(lastBlock, address.wc, address.hashPart);
-        return getShardAccountByAddress(shardInfo, address).getBalance();
-      }
-
+    try (ExporterSession session = new ExporterSession(this, tonDatabaseRootPath, null)) {
+      return session.getBalance(address);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -1445,31 +1975,20 @@ public class Exporter {
    * is much faster, since there is no need to retrieve other shards' information.
    */
   public BigInteger getBalance(Address address, long seqno) {
-    try (StateDbReader ignored = new StateDbReader(tonDatabaseRootPath)) {
-      BlockId blockId =
-          BlockId.builder().workchain(-1).shard(0x8000000000000000L).seqno(seqno).build();
-
-      if (address.wc == -1) {
-        BlockIdExt lastBlockIdExt = getBlockIdExt(blockId);
-        ShardAccountLazy shardAccountLazy = getShardAccountByAddress(lastBlockIdExt, address);
-        if (isNull(shardAccountLazy)) {
-          throw new RuntimeException("Could not find shard account for address " + address);
-        }
-        return shardAccountLazy.getBalance();
-      } else {
-        Block mcBlock = getBlock(blockId);
-        org.ton.ton4j.tlb.BlockIdExt shardInfo =
-            ShardLookup.findShardBlock(mcBlock, address.wc, address.hashPart);
+    try (ExporterSession session = new ExporterSession(this, tonDatabaseRootPath, null)) {
+      return session.getBalance(address, seqno);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
 
-        if (isNull(shardInfo)) {
-          throw new RuntimeException("Could not find shard for address " + address);
-        }
-        ShardAccountLazy shardAccountLazy = getShardAccountByAddress(shardInfo, address);
-        if (isNull(shardAccountLazy)) {
-          throw new RuntimeException("Could not find shard account for address " + address);
-        }
-        return shardAccountLazy.getBalance();
-      }
+  /**
+   * Returns balances of several addresses at the given masterchain seqno, resolving the addresses
+   * of each shard in one batch lookup. Addresses without an account are absent from the result.
+   */
+  public Map<Address, BigInteger> getBalances(long seqno, Collection<Address> addresses) {
+    try (ExporterSession session = new ExporterSession(this, tonDatabaseRootPath, null)) {
+      return session.getBalances(seqno, addresses);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -0,0 +1,347 @@
+package org.ton.ton4j.exporter;
+
+import static java.util.Objects.isNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.ton.ton4j.address.Address;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.exporter.lazy.CellSliceLazy;
+import org.ton.ton4j.exporter.lazy.ShardAccountLazy;
+import org.ton.ton4j.exporter.lazy.ShardAccountsLazy;
+import org.ton.ton4j.exporter.lazy.ShardStateUnsplitLazy;
+import org.ton.ton4j.exporter.reader.ArchiveIndexReader;
+import org.ton.ton4j.exporter.reader.CellCache;
+import org.ton.ton4j.exporter.reader.CellDbReader;
+import org.ton.ton4j.exporter.reader.MappedPackageReader;
+import org.ton.ton4j.exporter.reader.PackageReader;
+import org.ton.ton4j.exporter.reader.PackageReaderInterface;
+import org.ton.ton4j.exporter.reader.StateDbReader;
+import org.ton.ton4j.tl.types.db.block.BlockIdExt;
+import org.ton.ton4j.tl.types.db.blockdb.key.BlockDbValueKey;
+import org.ton.ton4j.tl.types.db.celldb.CellDbValue;
+import org.ton.ton4j.tl.types.db.filedb.key.BlockFileKey;
+import org.ton.ton4j.tl.types.db.lt.desc.DbLtDescKey;
+import org.ton.ton4j.tlb.Block;
+import org.ton.ton4j.tlb.BlockId;
+import org.ton.ton4j.utils.Utils;
+
+/**
+ * Query session of {@link Exporter} that keeps CellDB, StateDB, archive indexes and packages
+ * opened between lookups and shares a cache of parsed cells, so repeated account and balance
+ * lookups against the same state are served mostly from memory. Obtain with {@link
+ * Exporter#openSession(int)} and close when done.
+ *
+ * <p>A session is a snapshot: the databases are opened read-only and show the node's data as of
+ * opening, and the last masterchain block is read once on first use, so balances without seqno do
+ * not change during the session. Open a new session to see blocks applied since then.
+ *
+ * <p>Safe for use from several threads.
+ */
+@Slf4j
+public class ExporterSession implements Closeable {
+
+  private final Exporter exporter;
+  private final CellDbReader cellDbReader;
+  private final StateDbReader stateDbReader;
+  private final CellCache cellCache;
+  private final String dbPath;
+
+  private final Map<Integer, ArchiveIndexReader> indexReaders = new HashMap<>();
+  private final Map<String, PackageReaderInterface> packageReaders = new HashMap<>();
+
+  private Block lastBlock;
+
+  /**
+   * @param exporter exporter the session belongs to
+   * @param dbPath database root path
+   * @param cellCache cache of parsed cells, null to disable caching
+   */
+  ExporterSession(Exporter exporter, String dbPath, CellCache cellCache) throws IOException {
+    this.exporter = exporter;
+    this.cellCache = cellCache;
+    this.dbPath = dbPath;
+    this.cellDbReader = new CellDbReader(dbPath, cellCache);
+    try {
+      this.stateDbReader = new StateDbReader(dbPath);
+    } catch (IOException e) {
+      cellDbReader.close();
+      throw e;
+    }
+  }
+
+  /** Cache of parsed cells, null if caching is disabled. */
+  public CellCache getCellCache() {
+    return cellCache;
+  }
+
+  /** Returns the latest masterchain BlockIdExt of the snapshot. */
+  public BlockIdExt getLastBlockIdExt() throws IOException {
+    return stateDbReader.getLastBlockIdExt();
+  }
+
+  public ShardAccountLazy getShardAccountByAddress(
+      org.ton.ton4j.tlb.BlockIdExt blockIdExt, Address address) throws IOException {
+    return getShardAccountByAddress(toTl(blockIdExt), address);
+  }
+
+  /** return ShardAccount only */
+  public ShardAccountLazy getShardAccountByAddress(BlockIdExt blockIdExt, Address address)
+      throws IOException {
+    return loadShardAccounts(blockIdExt).lookup(address);
+  }
+
+  public Map<Address, ShardAccountLazy> getShardAccounts(
+      org.ton.ton4j.tlb.BlockIdExt blockIdExt, Collection<Address> addresses) throws IOException {
+    return getShardAccounts(toTl(blockIdExt), addresses);
+  }
+
+  /**
+   * Looks up accounts of several addresses of the shard in one ordered descent of its accounts
+   * dictionary, see {@link ShardAccountsLazy#lookup(Collection)}.
+   *
+   * @return accounts keyed by the given Address instances, addresses without an account are absent
+   */
+  public Map<Address, ShardAccountLazy> getShardAccounts(
+      BlockIdExt blockIdExt, Collection<Address> addresses) throws IOException {
+    return loadShardAccounts(blockIdExt).lookup(addresses);
+  }
+
+  /**
+   * Returns balances of several addresses at the given masterchain seqno. Addresses are grouped by
+   * the shard holding them, and each shard's accounts are resolved in one batch lookup.
+   *
+   * @return balances keyed by the given Address instances, addresses without an account are absent
+   */
+  public Map<Address, BigInteger> getBalances(long seqno, Collection<Address> addresses) {
+    try {
+      BlockId blockId =
+          BlockId.builder().workchain(-1).shard(0x8000000000000000L).seqno(seqno).build();
+
+      Map<String, BlockIdExt> shards = new LinkedHashMap<>();
+      Map<String, List<Address>> groups = new LinkedHashMap<>();
+      Block mcBlock = null;
+      for (Address address : addresses) {
+        BlockIdExt shardBlock;
+        if (address.wc == -1) {
+          shardBlock = shards.get("mc");
+          if (isNull(shardBlock)) {
+            shardBlock = getBlockIdExt(blockId);
+          }
+        } else {
+          if (isNull(mcBlock)) {
+            mcBlock = getBlock(getBlockIdExt(blockId));
+          }
+          org.ton.ton4j.tlb.BlockIdExt shardInfo =
+              ShardLookup.findShardBlock(mcBlock, address.wc, address.hashPart);
+          if (isNull(shardInfo)) {
+            throw new RuntimeException("Could not find shard for address " + address);
+          }
+          shardBlock = toTl(shardInfo);
+        }
+        String key = address.wc == -1 ? "mc" : Utils.bytesToHex(shardBlock.rootHash);
+        shards.putIfAbsent(key, shardBlock);
+        groups.computeIfAbsent(key, k -> new ArrayList<>()).add(address);
+      }
+
+      Map<Address, BigInteger> balances = new LinkedHashMap<>();
+      for (Map.Entry<String, List<Address>> group : groups.entrySet()) {
+        Map<Address, ShardAccountLazy> accounts =
+            getShardAccounts(shards.get(group.getKey()), group.getValue());
+        for (Map.Entry<Address, ShardAccountLazy> account : accounts.entrySet()) {
+          balances.put(account.getKey(), account.getValue().getBalance());
+        }
+      }
+      return balances;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private ShardAccountsLazy loadShardAccounts(BlockIdExt blockIdExt) throws IOException {
+    String key = "desc" + Utils.bytesToBase64(Utils.sha256AsArray(blockIdExt.serializeBoxed()));
+    byte[] value = cellDbReader.getCellDb().get(key.getBytes());
+    if (isNull(value)) {
+      throw new IOException("Could not find shard state of block " + blockIdExt);
+    }
+
+    CellDbValue cellDbValue = CellDbValue.deserialize(ByteBuffer.wrap(value));
+    byte[] shardStateRootHash = cellDbValue.rootHash;
+
+    // find full cell containing ShardStateUnsplit by shardStateRootHash
+    Cell shardStateCell = cellDbReader.getCell(shardStateRootHash);
+
+    // looking in
+    ShardStateUnsplitLazy shardStateUnsplitLazy =
+        ShardStateUnsplitLazy.deserialize(
+            cellDbReader, CellSliceLazy.beginParse(cellDbReader, shardStateCell));
+
+    return shardStateUnsplitLazy.getShardAccounts();
+  }
+
+  private static BlockIdExt toTl(org.ton.ton4j.tlb.BlockIdExt blockIdExt) {
+    return BlockIdExt.builder()
+        .shard(blockIdExt.shard)
+        .workchain(blockIdExt.getWorkchain())
+        .seqno((int) blockIdExt.getSeqno())
+        .fileHash(blockIdExt.fileHash)
+        .rootHash(blockIdExt.rootHash)
+        .build();
+  }
+
+  /**
+   * Returns balance by address. Retrieval of address located in a masterchain is much faster, since
+   * there is no need to retrieve other shards' information.
+   */
+  public BigInteger getBalance(Address address) {
+    try {
+      if (address.wc == -1) {
+        BlockIdExt lastBlockIdExt = stateDbReader.getLastBlockIdExt();
+        return getShardAccountByAddress(lastBlockIdExt, address).getBalance();
+      } else {
+        // 1. get latest block
+        // 2. extract shard hashes
+        // 3. find shard where target address is
+        // 4. query balance with that shard info
+        org.ton.ton4j.tlb.BlockIdExt shardInfo =
+            ShardLookup.findShardBlock(getLastBlock(), address.wc, address.hashPart);
+        return getShardAccountByAddress(shardInfo, address).getBalance();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Returns balance by address and masterchain seqno. Retrieval of address located in a masterchain
+   * is much faster, since there is no need to retrieve other shards' information.
+   */
+  public BigInteger getBalance(Address address, long seqno) {
+    try {
+      BlockId blockId =
+          BlockId.builder().workchain(-1).shard(0x8000000000000000L).seqno(seqno).build();
+
+      if (address.wc == -1) {
+        ShardAccountLazy shardAccountLazy =
+            getShardAccountByAddress(getBlockIdExt(blockId), address);
+        if (isNull(shardAccountLazy)) {
+          throw new RuntimeException("Could not find shard account for address " + address);
+        }
+        return shardAccountLazy.getBalance();
+      } else {
+        Block mcBlock = getBlock(getBlockIdExt(blockId));
+        org.ton.ton4j.tlb.BlockIdExt shardInfo =
+            ShardLookup.findShardBlock(mcBlock, address.wc, address.hashPart);
+
+        if (isNull(shardInfo)) {
+          throw new RuntimeException("Could not find shard for address " + address);
+        }
+        ShardAccountLazy shardAccountLazy = getShardAccountByAddress(shardInfo, address);
+        if (isNull(shardAccountLazy)) {
+          throw new RuntimeException("Could not find shard account for address " + address);
+        }
+        return shardAccountLazy.getBalance();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** Returns the last masterchain block, read once per session. */
+  private synchronized Block getLastBlock() throws IOException {
+    if (isNull(lastBlock)) {
+      // the last block may still be in a temp package, which archive indexes do not cover
+      lastBlock = exporter.getLast().getValue();
+    }
+    return lastBlock;
+  }
+
+  private BlockIdExt getBlockIdExt(BlockId blockId) throws IOException {
+    DbLtDescKey key =
+        DbLtDescKey.builder().workchain(blockId.getWorkchain()).shard(blockId.shard).build();
+    int archiveIndex = exporter.getArchiveIndexBySeqno(blockId.getWorkchain(), blockId.getSeqno());
+    return getIndexReader(archiveIndex).getBlockIdExtByDbLtDescKey(key, blockId.getSeqno());
+  }
+
+  private Block getBlock(BlockIdExt blockIdExt) throws IOException {
+    int archiveIndex =
+        exporter.getArchiveIndexBySeqno(blockIdExt.getWorkchain(), blockIdExt.getSeqno());
+    ArchiveIndexReader indexReader = getIndexReader(archiveIndex);
+    long offset =
+        indexReader.getOffsetByHash(
+            BlockFileKey.builder().blockIdExt(blockIdExt).build().getKeyHash());
+
+    long mcSeqno;
+    if (blockIdExt.getWorkchain() == -1) {
+      mcSeqno = blockIdExt.getSeqno();
+    } else {
+      BlockDbValueKey key = BlockDbValueKey.builder().blockIdExt(blockIdExt).build();
+      mcSeqno = indexReader.getDbInfoByHash(key.getKeyHash()).getMasterRefSeqno();
+    }
+    String packFilename =
+        indexReader.getExactPackFilename(
+            archiveIndex,
+            blockIdExt.getSeqno(),
+            blockIdExt.getWorkchain(),
+            blockIdExt.getShard(),
+            mcSeqno);
+    PackageReaderInterface packageReader = getPackageReader(packFilename);
+    if (packageReader instanceof MappedPackageReader) {
+      return ((MappedPackageReader) packageReader).getEntryAt(offset).getBlock();
+    }
+    // entries are read by seeking the shared file
+    synchronized (packageReader) {
+      return ((PackageReader) packageReader).getEntryAt(offset).getBlock();
+    }
+  }
+
+  private synchronized ArchiveIndexReader getIndexReader(int archiveIndex) throws IOException {
+    ArchiveIndexReader reader = indexReaders.get(archiveIndex);
+    if (isNull(reader)) {
+      reader = new ArchiveIndexReader(dbPath, archiveIndex);
+      indexReaders.put(archiveIndex, reader);
+    }
+    return reader;
+  }
+
+  private synchronized PackageReaderInterface getPackageReader(String filename)
+      throws IOException {
+    PackageReaderInterface reader = packageReaders.get(filename);
+    if (isNull(reader)) {
+      reader =
+          exporter.isMappedPackages()
+              ? new MappedPackageReader(filename)
+              : new PackageReader(filename);
+      packageReaders.put(filename, reader);
+    }
+    return reader;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      synchronized (this) {
+        for (PackageReaderInterface reader : packageReaders.values()) {
+          reader.close();
+        }
+        packageReaders.clear();
+        for (ArchiveIndexReader reader : indexReaders.values()) {
+          reader.close();
+        }
+        indexReaders.clear();
+      }
+      stateDbReader.close();
+    } finally {
+      cellDbReader.close();
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package org.ton.ton4j.exporter;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellSlice;
+import org.ton.ton4j.cell.DictView;
+import org.ton.ton4j.tlb.*;
+import org.ton.ton4j.utils.Utils;
+
+/**
+ * Block flattened into rows of the blocks, transactions and messages tables of the columnar
+ * export. Only BlockInfo and transactions are deserialized, transaction and message hashes are
+ * taken from their cells.
+ */
+class FlatBlock {
+
+  int workchain;
+  long shard;
+  long seqno;
+  String rootHash;
+  long genUtime;
+  long startLt;
+  long endLt;
+  boolean keyBlock;
+  final List<Tx> transactions = new ArrayList<>();
+  final List<Msg> messages = new ArrayList<>();
+
+  static class Tx {
+    String account;
+    long lt;
+    String hash;
+    long now;
+    String origStatus;
+    String endStatus;
+    BigInteger totalFees;
+    String type;
+    Boolean aborted;
+    Boolean destroyed;
+    Boolean success;
+    BigInteger storageFees;
+    Long computeExitCode;
+    BigInteger gasUsed;
+    BigInteger gasFees;
+    Long actionResultCode;
+    BigInteger totalFwdFees;
+    BigInteger totalActionFees;
+    long outMsgCount;
+    String oldStateHash;
+    String newStateHash;
+  }
+
+  static class Msg {
+    String txHash;
+    long txLt;
+    /** "in" or "out" */
+    String direction;
+    /** key in out_msgs, null for the in message */
+    Integer index;
+    String hash;
+    String type;
+    String src;
+    String dst;
+    BigInteger value;
+    BigInteger fwdFee;
+    BigInteger createdLt;
+    Boolean bounce;
+    Boolean bounced;
+    Long opCode;
+    String bodyHash;
+  }
+
+  /**
+   * @param block root cell of a Block
+   * @param filter if it has account or op-code criteria, only matching transactions are included
+   */
+  static FlatBlock of(Cell block, BlockFilter filter) {
+    BlockInfo info = BlockInfo.deserialize(CellSlice.beginParse(block.getRefs().get(0)));
+    FlatBlock flat = new FlatBlock();
+    flat.workchain = info.getShard().getWorkchain();
+    flat.shard = info.getShard().convertShardIdentToShard().longValue();
+    flat.seqno = info.getSeqno();
+    flat.rootHash = Utils.bytesToHex(block.getHash());
+    flat.genUtime = info.getGenuTime();
+    flat.startLt = info.getStartLt().longValue();
+    flat.endLt = info.getEndLt().longValue();
+    flat.keyBlock = info.isKeyBlock();
+
+    BlockFilter transactions = filter == null ? BlockFilter.builder().build() : filter;
+    for (Cell txCell : transactions.findTransactions(block)) {
+      Transaction tx = Transaction.deserialize(CellSlice.beginParse(txCell));
+      Tx row = toTx(flat.workchain, tx, txCell);
+      flat.transactions.add(row);
+
+      // ^[ in_msg:(Maybe ^(Message Any)) out_msgs:(HashmapE 15 ^(Message Any)) ]
+      CellSlice io = CellSlice.beginParse(txCell.getRefs().get(0));
+      if (io.loadBit()) {
+        flat.messages.add(toMsg(row, "in", null, tx.getInOut().getIn(), io.loadRef()));
+      }
+      if (io.loadBit()) {
+        int index = 0;
+        // keys of out_msgs are 0..outmsg_cnt-1, dictionary is iterated in key order
+        for (DictView.Entry out : DictView.of(io.loadRef(), 15)) {
+          Cell msgCell = out.getValue().loadRef();
+          Message msg = (Message) tx.getInOut().getOut().elements.get(BigInteger.valueOf(index));
+          if (msg == null) {
+            msg = Message.deserialize(CellSlice.beginParse(msgCell));
+          }
+          flat.messages.add(toMsg(row, "out", index, msg, msgCell));
+          index++;
+        }
+      }
+    }
+    return flat;
+  }
+
+  private static Tx toTx(int workchain, Transaction tx, Cell txCell) {
+    Tx row = new Tx();
+    row.account = workchain + ":" + tx.getAccountAddr();
+    row.lt = tx.getLt().longValue();
+    row.hash = Utils.bytesToHex(txCell.getHash());
+    row.now = tx.getNow();
+    row.origStatus = String.valueOf(tx.getOrigStatus());
+    row.endStatus = String.valueOf(tx.getEndStatus());
+    row.totalFees = tx.getTotalFees().getCoins();
+    row.outMsgCount = tx.getOutMsgCount();
+    // HashUpdate does not expose its hashes, they are read from the state_update ref
+    if (txCell.getRefs().size() > 1) {
+      CellSlice update = CellSlice.beginParse(txCell.getRefs().get(1));
+      if (!update.isExotic()) {
+        update.skipBits(8); // update_hashes#72
+        row.oldStateHash = Utils.bytesToHex(update.loadBytes(256));
+        row.newStateHash = Utils.bytesToHex(update.loadBytes(256));
+      }
+    }
+
+    TransactionDescription description = tx.getDescription();
+    if (description == null) {
+      return row;
+    }
+    row.type = description.getType();
+    row.aborted = description.isAborted();
+    row.destroyed = description.isDestroyed();
+
+    StoragePhase storage = null;
+    ComputePhase compute = null;
+    ActionPhase action = null;
+    if (description instanceof TransactionDescriptionOrdinary) {
+      TransactionDescriptionOrdinary ordinary = (TransactionDescriptionOrdinary) description;
+      storage = ordinary.getStoragePhase();
+      compute = ordinary.getComputePhase();
+      action = ordinary.getActionPhase();
+    } else if (description instanceof TransactionDescriptionTickTock) {
+      TransactionDescriptionTickTock tickTock = (TransactionDescriptionTickTock) description;
+      storage = tickTock.getStoragePhase();
+      compute = tickTock.getComputePhase();
+      action = tickTock.getActionPhase();
+    }
+    if (storage != null) {
+      row.storageFees = storage.getStorageFeesCollected();
+    }
+    if (compute instanceof ComputePhaseVM) {
+      ComputePhaseVM vm = (ComputePhaseVM) compute;
+      row.success = vm.isSuccess();
+      row.gasFees = vm.getGasFees();
+      if (vm.getDetails() != null) {
+        row.gasUsed = vm.getDetails().getGasUsed();
+        row.computeExitCode = vm.getDetails().getExitCode();
+      }
+    } else if (compute instanceof ComputeSkipReason) {
+      row.success = true;
+    }
+    if (action != null) {
+      row.actionResultCode = action.getResultCode();
+      row.totalFwdFees = action.getTotalFwdFees();
+      row.totalActionFees = action.getTotalActionFees();
+    }
+    return row;
+  }
+
+  private static Msg toMsg(Tx tx, String direction, Integer index, Message message, Cell cell) {
+    Msg row = new Msg();
+    row.txHash = tx.hash;
+    row.txLt = tx.lt;
+    row.direction = direction;
+    row.index = index;
+    row.hash = Utils.bytesToHex(cell.getHash());
+
+    CommonMsgInfo info = message.getInfo();
+    row.type = info.getType();
+    if (info instanceof InternalMessageInfo) {
+      InternalMessageInfo internal = (InternalMessageInfo) info;
+      row.src = address(internal.getSrcAddr());
+      row.dst = address(internal.getDstAddr());
+      row.value = internal.getValue().getCoins();
+      row.fwdFee = internal.getFwdFee();
+      row.createdLt = internal.getCreatedLt();
+      row.bounce = internal.getBounce();
+      row.bounced = internal.getBounced();
+    } else if (info instanceof ExternalMessageInInfo) {
+      ExternalMessageInInfo external = (ExternalMessageInInfo) info;
+      row.src = address(external.getSrcAddr());
+      row.dst = address(external.getDstAddr());
+    } else if (info instanceof ExternalMessageOutInfo) {
+      ExternalMessageOutInfo external = (ExternalMessageOutInfo) info;
+      row.src = address(external.getSrcAddr());
+      row.dst = address(external.getDstAddr());
+      row.createdLt = external.getCreatedLt();
+    }
+
+    Cell body = message.getBody();
+    if (body != null) {
+      row.bodyHash = Utils.bytesToHex(body.getHash());
+      if (body.getBitLength() >= 32) {
+        row.opCode = CellSlice.beginParse(body).preloadUintAsLong(32);
+      }
+    }
+    return row;
+  }
+
+  /** Raw form wc:hex of internal addresses, null for addr_none. */
+  private static String address(MsgAddress address) {
+    if (address == null || address instanceof MsgAddressExtNone) {
+      return null;
+    }
+    return address.toString();
+  }
+}
@@ -2,13 +2,10 @@ package org.ton.ton4j.exporter.lazy;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static org.ton.ton4j.exporter.reader.CellDbReader.parseCell;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.math.BigInteger;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -768,12 +765,12 @@ public class CellSliceLazy implements Serializable {
 
   public Cell getRefByHash(byte[] hash) {
     try {
-      byte[] value = cellDbReader.getCellDb().get(hash);
+      Cell cell = cellDbReader.getCell(hash);
       //      System.out.println("looking for hash " + Utils.bytesToHex(hash));
-      if (value == null) {
+      if (cell == null) {
         throw new RuntimeException("Cannot find cell with hash " + Utils.bytesToHex(hash));
       }
-      return parseCell(ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN));
+      return cell;
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -1,9 +1,8 @@
 package org.ton.ton4j.exporter.lazy;
 
+import java.io.IOException;
 import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import lombok.Builder;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -151,4 +150,123 @@ public class ShardAccountsLazy {
       rootCell = label.getRemainder().getRefByHash(hash);
     }
   }
+
+  /**
+   * Looks up several accounts in one ordered descent of the accounts dictionary. Addresses are
+   * sorted by account id, so every trie cell on the way to any of them is read once, and both
+   * children of a fork needed by the remaining addresses are read from CellDB with one multiGet.
+   *
+   * @param addresses addresses of accounts of this shard
+   * @return accounts keyed by the given Address instances, addresses without an account are absent
+   */
+  public Map<Address, ShardAccountLazy> lookup(Collection<Address> addresses) {
+    Map<Address, ShardAccountLazy> result = new LinkedHashMap<>();
+    if (rootSlice == null || addresses.isEmpty()) {
+      return result;
+    }
+    CellSliceLazy cs = rootSlice.clone();
+    if (!cs.loadBit()) {
+      return result;
+    }
+    if (cs.getRefsCountLazy() < 1) {
+      log.error("HashmapAugE marked as non-empty but has no root reference");
+      return result;
+    }
+    Cell rootCell = cs.getRefByHash(Utils.slice(cs.hashes, 0, 32));
+
+    Address[] sorted = addresses.toArray(new Address[0]);
+    Arrays.sort(sorted, (a, b) -> Arrays.compareUnsigned(a.hashPart, b.hashPart));
+    lookup(rootCell, 256, sorted, 0, sorted.length, result);
+    return result;
+  }
+
+  /**
+   * Resolves addresses[from, to), all of which share the first 256 - n bits already consumed, in
+   * the subtree of the given edge.
+   */
+  private void lookup(
+      Cell cell,
+      int n,
+      Address[] addresses,
+      int from,
+      int to,
+      Map<Address, ShardAccountLazy> result) {
+    int consumed = 256 - n;
+    LabelParser label = new LabelParser(cellDbReader, cell, n, 0);
+    if (!label.isValid()) {
+      log.error("cannot parse label at depth {}", consumed);
+      return;
+    }
+    BitString labelBits = new BitString(label.getLBits());
+    label.extractLabelTo(labelBits);
+
+    // addresses are sorted, those matching the label form a contiguous range
+    int lo = from;
+    while (lo < to && !hasPrefix(addresses[lo], consumed, labelBits)) {
+      lo++;
+    }
+    int hi = lo;
+    while (hi < to && hasPrefix(addresses[hi], consumed, labelBits)) {
+      hi++;
+    }
+    if (lo == hi) {
+      return;
+    }
+    n -= label.getLBits();
+    consumed += label.getLBits();
+
+    if (n == 0) {
+      CellSliceLazy leafSlice = label.getRemainder();
+      DepthBalanceInfoLazy.deserialize(leafSlice);
+      ShardAccountLazy account = ShardAccountLazy.deserialize(leafSlice);
+      for (int i = lo; i < hi; i++) {
+        result.put(addresses[i], account);
+      }
+      return;
+    }
+
+    int mid = lo;
+    while (mid < hi && !bit(addresses[mid], consumed)) {
+      mid++;
+    }
+    byte[] refHashes = label.getRemainder().hashes;
+    List<byte[]> hashes = new ArrayList<>(2);
+    if (lo < mid) {
+      hashes.add(Utils.slice(refHashes, 0, 32));
+    }
+    if (mid < hi) {
+      hashes.add(Utils.slice(refHashes, 32, 32));
+    }
+    List<Cell> children;
+    try {
+      children = cellDbReader.getCells(hashes);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    for (int i = 0; i < children.size(); i++) {
+      if (children.get(i) == null) {
+        throw new RuntimeException("Cannot find cell with hash " + Utils.bytesToHex(hashes.get(i)));
+      }
+    }
+    int next = 0;
+    if (lo < mid) {
+      lookup(children.get(next++), n - 1, addresses, lo, mid, result);
+    }
+    if (mid < hi) {
+      lookup(children.get(next), n - 1, addresses, mid, hi, result);
+    }
+  }
+
+  private static boolean hasPrefix(Address address, int offset, BitString prefix) {
+    for (int i = 0; i < prefix.getUsedBits(); i++) {
+      if (bit(address, offset + i) != prefix.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean bit(Address address, int i) {
+    return (address.hashPart[i >>> 3] & (0x80 >>> (i & 7))) != 0;
+  }
 }
@@ -14,12 +14,16 @@ import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.ton.ton4j.exporter.types.BlockRange;
 import org.ton.ton4j.tl.types.db.block.BlockIdExt;
 import org.ton.ton4j.tl.types.db.block.BlockInfo;
+import org.ton.ton4j.tl.types.db.blockdb.key.BlockDbValueKey;
 import org.ton.ton4j.tl.types.db.lt.desc.DbLtDescKey;
 import org.ton.ton4j.tl.types.db.lt.desc.DbLtDescValue;
 import org.ton.ton4j.tl.types.db.lt.el.DbLtElKey;
 import org.ton.ton4j.tl.types.db.lt.el.DbLtElValue;
+import org.ton.ton4j.tl.types.db.lt.shard.ShardKey;
+import org.ton.ton4j.tl.types.db.lt.status.StatusKey;
 
 /**
  * Reader for individual archive index databases (archive.XXXXX.index). Each archive package has a
@@ -221,6 +225,102 @@ public class ArchiveIndexReader implements Closeable {
     throw new RuntimeException("Can't find DbLtElValue in ArchiveIndex for seqno " + seqno);
   }
 
+  /**
+   * Returns shards having blocks in this archive, as stored under db.lt.status and db.lt.shard
+   * keys.
+   */
+  public List<DbLtDescKey> getShards() throws IOException {
+    List<DbLtDescKey> result = new ArrayList<>();
+    byte[] status = indexDb.get(StatusKey.builder().build().serialize());
+    if (status == null) {
+      return result;
+    }
+    int totalShards =
+        org.ton.ton4j.tl.types.db.lt.status.Value.deserialize(ByteBuffer.wrap(status))
+            .getTotalShards();
+    for (int i = 0; i < totalShards; i++) {
+      org.ton.ton4j.tl.types.db.lt.shard.Value shard =
+          org.ton.ton4j.tl.types.db.lt.shard.Value.deserialize(
+              ByteBuffer.wrap(indexDb.get(ShardKey.builder().idx(i).build().serialize())));
+      result.add(
+          DbLtDescKey.builder().workchain(shard.getWorkchain()).shard(shard.getShard()).build());
+    }
+    return result;
+  }
+
+  /**
+   * Returns blocks of the shard within the range, in ascending order. Blocks of a shard are stored
+   * under consecutive db.lt.el indexes, so the first one is found by binary search and only
+   * blocks of the range are read after it. For seqno ranges, shard blocks are selected by seqno of
+   * the masterchain block that commits them.
+   *
+   * @param dbLtDescKey shard, see {@link #getShards()}
+   * @param range seqno, lt or unix time range
+   */
+  public List<DbLtElValue> getBlocksInRange(DbLtDescKey dbLtDescKey, BlockRange range)
+      throws IOException {
+    List<DbLtElValue> result = new ArrayList<>();
+    byte[] value = indexDb.get(dbLtDescKey.serialize());
+    if (value == null) {
+      return result;
+    }
+    DbLtDescValue dbLtDescValue = DbLtDescValue.deserialize(ByteBuffer.wrap(value));
+    if ((range.getType() == BlockRange.Type.LT && dbLtDescValue.getLastLt() < range.getFrom())
+        || (range.getType() == BlockRange.Type.UTIME
+            && Integer.toUnsignedLong(dbLtDescValue.getLastTs()) < range.getFrom())) {
+      return result;
+    }
+
+    int lo = dbLtDescValue.getFirstIdx();
+    int hi = dbLtDescValue.getLastIdx();
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (rangeKey(getDbLtElValue(dbLtDescKey, mid), range) < range.getFrom()) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    for (int i = lo; i < dbLtDescValue.getLastIdx(); i++) {
+      DbLtElValue dbLtElValue = getDbLtElValue(dbLtDescKey, i);
+      if (rangeKey(dbLtElValue, range) > range.getTo()) {
+        break;
+      }
+      result.add(dbLtElValue);
+    }
+    return result;
+  }
+
+  /** Returns seqno of the masterchain block that commits the block. */
+  public long getMasterRefSeqno(BlockIdExt blockIdExt) throws IOException {
+    if (blockIdExt.getWorkchain() == -1) {
+      return blockIdExt.getSeqno();
+    }
+    BlockDbValueKey key = BlockDbValueKey.builder().blockIdExt(blockIdExt).build();
+    return getDbInfoByHash(key.getKeyHash()).getMasterRefSeqno();
+  }
+
+  private DbLtElValue getDbLtElValue(DbLtDescKey dbLtDescKey, int idx) throws IOException {
+    DbLtElKey dbLtElKey =
+        DbLtElKey.builder()
+            .shard(dbLtDescKey.getShard())
+            .workchain(dbLtDescKey.getWorkchain())
+            .idx(idx)
+            .build();
+    return DbLtElValue.deserialize(ByteBuffer.wrap(indexDb.get(dbLtElKey.serialize())));
+  }
+
+  private long rangeKey(DbLtElValue dbLtElValue, BlockRange range) throws IOException {
+    switch (range.getType()) {
+      case LT:
+        return dbLtElValue.getLt();
+      case UTIME:
+        return Integer.toUnsignedLong(dbLtElValue.getTs());
+      default:
+        return getMasterRefSeqno(dbLtElValue.getId());
+    }
+  }
+
   /**
    * Gets the number of file entries in this archive index.
    *
@@ -0,0 +1,116 @@
+package org.ton.ton4j.exporter.reader;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.ton.ton4j.cell.Cell;
+
+/**
+ * Size-bounded LRU cache of cells parsed from CellDB, keyed by cell hash. Shared by all lookups of
+ * a {@link CellDbReader}, so upper levels of ShardAccounts and other dictionaries, which every
+ * lookup passes, are read from RocksDB and parsed once.
+ *
+ * <p>Entries are split into segments by hash, each segment is locked separately, so concurrent
+ * readers rarely wait for each other. Cached cells are shared and must not be modified.
+ */
+public class CellCache {
+
+  private static final int SEGMENTS = 16;
+
+  private final Segment[] segments = new Segment[SEGMENTS];
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * @param maxSize maximum number of cells held, least recently used ones are evicted
+   */
+  public CellCache(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive, got " + maxSize);
+    }
+    int segmentSize = Math.max(1, maxSize / SEGMENTS);
+    for (int i = 0; i < SEGMENTS; i++) {
+      segments[i] = new Segment(segmentSize);
+    }
+  }
+
+  /** Returns cached cell with the given hash or null. */
+  public Cell get(byte[] hash) {
+    Segment segment = segmentFor(hash);
+    Cell cell;
+    synchronized (segment) {
+      cell = segment.get(ByteBuffer.wrap(hash));
+    }
+    (cell == null ? misses : hits).incrementAndGet();
+    return cell;
+  }
+
+  public void put(byte[] hash, Cell cell) {
+    Segment segment = segmentFor(hash);
+    synchronized (segment) {
+      segment.put(ByteBuffer.wrap(hash.clone()), cell);
+    }
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public double getHitRate() {
+    long h = hits.get();
+    long total = h + misses.get();
+    return total == 0 ? 0 : (double) h / total;
+  }
+
+  /** Number of cells currently held. */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public void clear() {
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+    hits.set(0);
+    misses.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "CellCache{size=%d, hits=%d, misses=%d, hitRate=%.2f%%}",
+        size(), getHits(), getMisses(), getHitRate() * 100);
+  }
+
+  private Segment segmentFor(byte[] hash) {
+    // cell hashes are uniformly distributed, the first byte is good enough
+    return segments[(hash[0] & 0xff) % SEGMENTS];
+  }
+
+  private static final class Segment extends LinkedHashMap<ByteBuffer, Cell> {
+    private final int maxSize;
+
+    Segment(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Cell> eldest) {
+      return size() > maxSize;
+    }
+  }
+}
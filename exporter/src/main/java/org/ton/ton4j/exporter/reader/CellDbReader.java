@@ -3,6 +3,7 @@ package org.ton.ton4j.exporter.reader;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -39,6 +40,9 @@ public class CellDbReader implements Closeable {
   private final Map<String, CellDbValue> entryCache = new HashMap<>();
   private CellDbValue emptyEntry;
 
+  // Parsed cells by hash, null if cells are not cached
+  private final CellCache cellCache;
+
   /**
    * Creates a new CellDbReader.
    *
@@ -46,7 +50,19 @@ public class CellDbReader implements Closeable {
    * @throws IOException If an I/O error occurs
    */
   public CellDbReader(String dbPath) throws IOException {
+    this(dbPath, null);
+  }
+
+  /**
+   * Creates a new CellDbReader that keeps parsed cells in the given cache.
+   *
+   * @param dbPath Path to the database root directory (should contain celldb subdirectory)
+   * @param cellCache cache shared by all lookups, may be null
+   * @throws IOException If an I/O error occurs
+   */
+  public CellDbReader(String dbPath, CellCache cellCache) throws IOException {
     this.dbPath = dbPath;
+    this.cellCache = cellCache;
     initializeCellDatabase();
   }
 
@@ -66,6 +82,71 @@ public class CellDbReader implements Closeable {
     }
   }
 
+  /**
+   * Returns the cell with the given hash, parsed from CellDB or taken from the cell cache.
+   *
+   * @param hash cell hash
+   * @return cell, or null if there is no such cell
+   * @throws IOException If an I/O error occurs
+   */
+  public Cell getCell(byte[] hash) throws IOException {
+    if (cellCache != null) {
+      Cell cached = cellCache.get(hash);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    byte[] value = cellDb.get(hash);
+    if (value == null) {
+      return null;
+    }
+    Cell cell = parseCell(ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN));
+    if (cellCache != null) {
+      cellCache.put(hash, cell);
+    }
+    return cell;
+  }
+
+  /**
+   * Returns cells with the given hashes, reading all cells missing in the cell cache from CellDB
+   * with one multiGet.
+   *
+   * @param hashes cell hashes
+   * @return cells in the order of hashes, null for missing cells
+   * @throws IOException If an I/O error occurs
+   */
+  public List<Cell> getCells(List<byte[]> hashes) throws IOException {
+    List<Cell> cells = new ArrayList<>(hashes.size());
+    List<byte[]> missing = new ArrayList<>();
+    for (byte[] hash : hashes) {
+      Cell cached = cellCache == null ? null : cellCache.get(hash);
+      cells.add(cached);
+      if (cached == null) {
+        missing.add(hash);
+      }
+    }
+    if (missing.isEmpty()) {
+      return cells;
+    }
+    List<byte[]> values = cellDb.multiGet(missing);
+    int next = 0;
+    for (int i = 0; i < cells.size(); i++) {
+      if (cells.get(i) != null) {
+        continue;
+      }
+      byte[] value = values.get(next++);
+      if (value == null) {
+        continue;
+      }
+      Cell cell = parseCell(ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN));
+      if (cellCache != null) {
+        cellCache.put(hashes.get(i), cell);
+      }
+      cells.set(i, cell);
+    }
+    return cells;
+  }
+
   public static Cell parseCell(ByteBuffer data) throws IOException {
 
     //    log.info("cell in hex {}", Utils.bytesToHex(data.array()));
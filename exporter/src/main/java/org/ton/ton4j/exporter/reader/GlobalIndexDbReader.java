@@ -13,6 +13,7 @@ import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.ton.ton4j.exporter.types.ArchiveFileLocation;
 import org.ton.ton4j.exporter.types.ArchiveInfo;
+import org.ton.ton4j.exporter.types.BlockRange;
 import org.ton.ton4j.tl.types.db.files.GlobalIndexKey;
 import org.ton.ton4j.tl.types.db.files.GlobalIndexValue;
 import org.ton.ton4j.tl.types.db.files.index.IndexValue;
@@ -48,6 +49,9 @@ public class GlobalIndexDbReader implements Closeable {
   // Key: workchain, Value: TreeMap of (seqno -> packageId)
   private final Map<Integer, TreeMap<Integer, Integer>> packageIndexByWorkchain = new HashMap<>();
 
+  // First masterchain block of each non-key package, key: packageId
+  private final TreeMap<Integer, FirstBlock> masterchainFirstBlocks = new TreeMap<>();
+
   /**
    * Creates a new FilesDbReader.
    *
@@ -177,6 +181,10 @@ public class GlobalIndexDbReader implements Closeable {
               int workchain = firstBlock.getWorkchain();
               int seqno = firstBlock.getSeqno();
 
+              if (workchain == -1 && !packageValue.isKey()) {
+                masterchainFirstBlocks.put(packageId, firstBlock);
+              }
+
               // Get or create TreeMap for this workchain
               TreeMap<Integer, Integer> seqnoMap =
                   packageIndexByWorkchain.computeIfAbsent(workchain, k -> new TreeMap<>());
@@ -811,6 +819,44 @@ public class GlobalIndexDbReader implements Closeable {
     return packageId;
   }
 
+  /**
+   * Returns ids of archive packages that hold blocks of the range, in ascending order. Key block
+   * packages are skipped, their blocks are also stored in ordinary packages. For lt and unix time
+   * ranges the package following the range is included too, since shard blocks are stored in the
+   * package of the masterchain block that commits them.
+   *
+   * @param range seqno, lt or unix time range
+   * @return package ids, empty if the package index was not built
+   */
+  public List<Integer> getArchiveIndexesByRange(BlockRange range) {
+    List<Integer> result = new ArrayList<>();
+    for (Map.Entry<Integer, FirstBlock> entry : masterchainFirstBlocks.entrySet()) {
+      if (rangeKey(entry.getValue(), range) > range.getTo()) {
+        if (range.getType() != BlockRange.Type.SEQNO) {
+          result.add(entry.getKey());
+        }
+        break;
+      }
+      // package ends where the next one starts
+      Map.Entry<Integer, FirstBlock> next = masterchainFirstBlocks.higherEntry(entry.getKey());
+      if (next == null || rangeKey(next.getValue(), range) > range.getFrom()) {
+        result.add(entry.getKey());
+      }
+    }
+    return result;
+  }
+
+  private static long rangeKey(FirstBlock firstBlock, BlockRange range) {
+    switch (range.getType()) {
+      case LT:
+        return firstBlock.getLt();
+      case UTIME:
+        return Integer.toUnsignedLong(firstBlock.getUnixtime());
+      default:
+        return firstBlock.getSeqno();
+    }
+  }
+
   @Override
   public void close() throws IOException {
     // Close all package readers
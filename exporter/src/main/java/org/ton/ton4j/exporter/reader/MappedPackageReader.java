@@ -0,0 +1,231 @@
+package org.ton.ton4j.exporter.reader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellSlice;
+import org.ton.ton4j.tlb.Block;
+
+/**
+ * Reader for TON package files that maps the whole file into memory with {@link
+ * FileChannel#map}. Only entry headers are read when the reader is opened, entry data is handed
+ * out as read-only {@link ByteBuffer} slices of the mapping, so neither seeks and reads per entry
+ * nor heap copies of the package are needed, and the OS page cache is shared between readers.
+ *
+ * <p>Slices can be passed straight to {@link Cell#fromBoc(ByteBuffer)}. They, and cells parsed
+ * from them, stay valid after {@link #close()}, the mapping is released once all of them are
+ * garbage collected. Safe for use from several threads.
+ */
+@Slf4j
+public class MappedPackageReader implements PackageReaderInterface {
+
+  private static final int PACKAGE_HEADER_MAGIC = 0xae8fdd01;
+  private static final short ENTRY_HEADER_MAGIC = 0x1e8b;
+
+  private final String filePath;
+  // null once closed
+  private volatile MappedByteBuffer buffer;
+  private final Map<Long, MappedEntry> entryIndex = new HashMap<>();
+  private final List<MappedEntry> entryList = new ArrayList<>();
+
+  /**
+   * Maps the package file and builds the entry offset table from its entry headers.
+   *
+   * @param path Path to the package file
+   * @throws IOException If an I/O error occurs or the package header is invalid
+   */
+  public MappedPackageReader(String path) throws IOException {
+    this.filePath = path;
+    try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      if (fileSize > Integer.MAX_VALUE) {
+        throw new IOException("Package file too large to map: " + fileSize + " bytes");
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+    }
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+    int magic = buffer.limit() < 4 ? 0 : buffer.getInt(0);
+    if (magic != PACKAGE_HEADER_MAGIC) {
+      throw new IOException(
+          "Invalid package header magic: 0x"
+              + Integer.toHexString(magic)
+              + ", expected: 0x"
+              + Integer.toHexString(PACKAGE_HEADER_MAGIC));
+    }
+    parseAllEntries();
+  }
+
+  private void parseAllEntries() {
+    int position = 4; // Skip package header
+    int limit = buffer.limit();
+
+    while (position + 8 <= limit) {
+      int header0 = buffer.getInt(position);
+      int entryMagic = header0 & 0xFFFF;
+      int filenameLength = (header0 >>> 16) & 0xFFFF;
+
+      if (entryMagic != ENTRY_HEADER_MAGIC) {
+        log.warn(
+            "Invalid entry header magic at position {} of {}: 0x{}, skipping rest of file",
+            position,
+            filePath,
+            Integer.toHexString(entryMagic));
+        break;
+      }
+
+      long dataSize = buffer.getInt(position + 4) & 0xFFFFFFFFL;
+      int dataOffset = position + 8 + filenameLength;
+      if (dataOffset + dataSize > limit) {
+        // package may still be written to
+        log.warn("Entry at position {} of {} extends beyond file boundary", position, filePath);
+        break;
+      }
+
+      byte[] filenameBytes = new byte[filenameLength];
+      ByteBuffer name = buffer.duplicate();
+      name.position(position + 8);
+      name.get(filenameBytes);
+
+      MappedEntry entry =
+          new MappedEntry(new String(filenameBytes), slice(dataOffset, (int) dataSize));
+      entryIndex.put((long) position, entry);
+      entryList.add(entry);
+
+      position = dataOffset + (int) dataSize;
+    }
+  }
+
+  private ByteBuffer slice(int offset, int length) {
+    ByteBuffer data = buffer.duplicate();
+    data.position(offset);
+    data.limit(offset + length);
+    return data.slice().asReadOnlyBuffer();
+  }
+
+  private MappedByteBuffer checkOpen() throws IOException {
+    MappedByteBuffer mapped = buffer;
+    if (mapped == null) {
+      throw new IOException("Package reader is closed: " + filePath);
+    }
+    return mapped;
+  }
+
+  /**
+   * Gets an entry at a specific offset.
+   *
+   * @param offset The offset in the file, not counting the package header
+   * @return The entry
+   * @throws IOException If there is no entry at the offset
+   */
+  @Override
+  public MappedEntry getEntryAt(long offset) throws IOException {
+    checkOpen();
+    if (offset < 0) {
+      throw new IOException("Negative seek offset: " + offset);
+    }
+    MappedEntry entry = entryIndex.get(offset + 4);
+    if (entry == null) {
+      throw new IOException("No entry found at offset: " + offset);
+    }
+    return entry;
+  }
+
+  /**
+   * Iterates through all entries in the package.
+   *
+   * @param consumer Consumer for entries of type {@link MappedEntry}
+   * @throws IOException If the reader is closed
+   */
+  @Override
+  public void forEach(Consumer<Object> consumer) throws IOException {
+    checkOpen();
+    for (MappedEntry entry : entryList) {
+      consumer.accept(entry);
+    }
+  }
+
+  /**
+   * Iterates through all entries in the package with typed consumer.
+   *
+   * @param consumer Consumer for entries
+   * @throws IOException If the reader is closed
+   */
+  public void forEachTyped(Consumer<MappedEntry> consumer) throws IOException {
+    checkOpen();
+    for (MappedEntry entry : entryList) {
+      consumer.accept(entry);
+    }
+  }
+
+  /**
+   * Reads all entries from the package and returns them as a Map. Copies entry data to the heap,
+   * prefer {@link #forEachTyped(Consumer)} for large packages.
+   *
+   * @return Map containing all entries with filename as key and data as value
+   * @throws IOException If the reader is closed
+   */
+  @Override
+  public Map<String, byte[]> readAllEntries() throws IOException {
+    Map<String, byte[]> result = new HashMap<>(entryList.size());
+    forEachTyped(entry -> result.put(entry.getFilename(), entry.getBytes()));
+    return result;
+  }
+
+  /** Gets the number of entries in this package. */
+  public int getEntryCount() {
+    return entryList.size();
+  }
+
+  /** Gets the file size in bytes. */
+  public long getFileSize() throws IOException {
+    return checkOpen().limit();
+  }
+
+  @Override
+  public void close() {
+    // a mapping can't be unmapped explicitly, it is released when no longer referenced; entries
+    // are not cleared, so threads still iterating them are not broken
+    buffer = null;
+  }
+
+  /** Entry of a package file backed by a slice of the mapped file. */
+  @Getter
+  public static class MappedEntry {
+    private final String filename;
+    private final ByteBuffer data; // boc, read-only
+
+    public MappedEntry(String filename, ByteBuffer data) {
+      this.filename = filename;
+      this.data = data;
+    }
+
+    /** Returns a heap copy of the entry data. */
+    public byte[] getBytes() {
+      byte[] bytes = new byte[data.remaining()];
+      data.duplicate().get(bytes);
+      return bytes;
+    }
+
+    /** Parses the entry without copying it, see {@link Cell#fromBoc(ByteBuffer)}. */
+    public Cell getCell() {
+      return Cell.fromBoc(data);
+    }
+
+    public Block getBlock() {
+      return Block.deserialize(CellSlice.beginParse(getCell()));
+    }
+  }
+}
@@ -2,10 +2,14 @@ package org.ton.ton4j.exporter.reader;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 import org.rocksdb.Options;
 import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
@@ -21,14 +25,29 @@ public class RocksDbWrapper implements Closeable {
 
   private final RocksDB db;
   private final ReadOptions readOptions;
+  // directory of the secondary instance, null in read-only mode
+  private final Path secondaryPath;
 
   /**
-   * Opens a RocksDB database in read-only mode.
+   * Opens a RocksDB database in read-only mode. The database is seen as it was when opened.
    *
    * @param path Path to the RocksDB database
    * @throws IOException If an I/O error occurs
    */
   public RocksDbWrapper(String path) throws IOException {
+    this(path, false);
+  }
+
+  /**
+   * Opens a RocksDB database in read-only mode, or as a secondary instance that can catch up with
+   * writes of a running node, see {@link #catchUpWithPrimary()}. A secondary instance keeps its
+   * info log in a temporary directory removed on close.
+   *
+   * @param path Path to the RocksDB database
+   * @param secondary open as a secondary instance
+   * @throws IOException If an I/O error occurs
+   */
+  public RocksDbWrapper(String path, boolean secondary) throws IOException {
     try {
       Options options = new Options();
       options.setCreateIfMissing(false);
@@ -36,12 +55,42 @@ public class RocksDbWrapper implements Closeable {
 
       readOptions = new ReadOptions();
 
-      db = RocksDB.openReadOnly(options, path);
+      if (secondary) {
+        // secondary instance has to keep all files of the primary opened
+        options.setMaxOpenFiles(-1);
+        secondaryPath = Files.createTempDirectory("rocksdb-secondary");
+        try {
+          db = RocksDB.openAsSecondary(options, path, secondaryPath.toString());
+        } catch (RocksDBException e) {
+          deleteSecondaryPath(secondaryPath);
+          throw e;
+        }
+      } else {
+        secondaryPath = null;
+        db = RocksDB.openReadOnly(options, path);
+      }
     } catch (RocksDBException e) {
       throw new IOException("Failed to open RocksDB: " + e.getMessage(), e);
     }
   }
 
+  /**
+   * Makes writes done by the primary instance since the last call visible. Does nothing in
+   * read-only mode.
+   *
+   * @throws IOException If an I/O error occurs
+   */
+  public void catchUpWithPrimary() throws IOException {
+    if (secondaryPath == null) {
+      return;
+    }
+    try {
+      db.tryCatchUpWithPrimary();
+    } catch (RocksDBException e) {
+      throw new IOException("Failed to catch up with primary: " + e.getMessage(), e);
+    }
+  }
+
   /**
    * Gets a value by key.
    *
@@ -57,6 +106,21 @@ public class RocksDbWrapper implements Closeable {
     }
   }
 
+  /**
+   * Gets values of several keys in one call.
+   *
+   * @param keys The keys
+   * @return The values in the order of keys, null for keys that don't exist
+   * @throws IOException If an I/O error occurs
+   */
+  public List<byte[]> multiGet(List<byte[]> keys) throws IOException {
+    try {
+      return db.multiGetAsList(readOptions, keys);
+    } catch (RocksDBException e) {
+      throw new IOException("Failed to get values: " + e.getMessage(), e);
+    }
+  }
+
   /**
    * Gets all key-value pairs in the database.
    *
@@ -110,5 +174,16 @@ public class RocksDbWrapper implements Closeable {
     if (db != null) {
       db.close();
     }
+    if (secondaryPath != null) {
+      deleteSecondaryPath(secondaryPath);
+    }
+  }
+
+  private static void deleteSecondaryPath(Path dir) throws IOException {
+    try (Stream<Path> files = Files.walk(dir)) {
+      for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.deleteIfExists(file);
+      }
+    }
   }
 }
@@ -36,6 +36,7 @@ public class StateDbReader implements Closeable {
   private RocksDbWrapper stateRocksDb;
   private Options stateDbOptions;
   private final String stateDbPath;
+  private final boolean followNode;
 
   public static final byte[] INIT_BLOCK_KEY_HASH =
       Utils.sha256AsArray(InitBlockId.builder().build().serialize());
@@ -53,6 +54,19 @@ public class StateDbReader implements Closeable {
    * @throws IOException If an I/O error occurs
    */
   public StateDbReader(String dbPath) throws IOException {
+    this(dbPath, false);
+  }
+
+  /**
+   * Creates a new StateDbReader.
+   *
+   * @param dbPath Path to the database root directory
+   * @param followNode open state database as a secondary instance, so {@link #getLastBlockIdExt()}
+   *     sees blocks applied by a running node after the reader was opened
+   * @throws IOException If an I/O error occurs
+   */
+  public StateDbReader(String dbPath, boolean followNode) throws IOException {
+    this.followNode = followNode;
     this.statesPath = Paths.get(dbPath, "archive", "states").toString();
     this.stateDbPath = Paths.get(dbPath, "state").toString();
 
@@ -67,7 +81,7 @@ public class StateDbReader implements Closeable {
   private void initializeRocksDb() {
     try {
 
-      stateRocksDb = new RocksDbWrapper(stateDbPath);
+      stateRocksDb = new RocksDbWrapper(stateDbPath, followNode);
       //      log.debug("Opened RocksDB state database at: {}", stateDbPath);
 
     } catch (IOException e) {
@@ -322,7 +336,14 @@ public class StateDbReader implements Closeable {
     }
   }
 
+  /**
+   * Returns the last masterchain block applied by the node. When following the node, catches up
+   * with its writes first.
+   */
   public org.ton.ton4j.tl.types.db.block.BlockIdExt getLastBlockIdExt() throws IOException {
+    if (followNode) {
+      stateRocksDb.catchUpWithPrimary();
+    }
     byte[] value = stateRocksDb.get(SHARD_CLIENT_KEY_HASH);
     org.ton.ton4j.tl.liteserver.responses.BlockIdExt blockIdExtTL =
         InitBlockId.deserialize(ByteBuffer.wrap(value)).getBlock();
@@ -0,0 +1,49 @@
+package org.ton.ton4j.exporter.types;
+
+import lombok.Data;
+
+/**
+ * Inclusive range of blocks used by range export. A seqno range selects masterchain blocks by
+ * seqno and shard blocks committed by them, logical time and unix time ranges select blocks of
+ * all workchains by their own lt and gen_utime.
+ */
+@Data
+public class BlockRange {
+
+  public enum Type {
+    SEQNO,
+    LT,
+    UTIME
+  }
+
+  private final Type type;
+  private final long from;
+  private final long to;
+
+  private BlockRange(Type type, long from, long to) {
+    if (from > to) {
+      throw new IllegalArgumentException("Empty block range " + from + ".." + to);
+    }
+    this.type = type;
+    this.from = from;
+    this.to = to;
+  }
+
+  /** Masterchain blocks with seqno from..to and shard blocks they commit. */
+  public static BlockRange ofSeqno(long from, long to) {
+    return new BlockRange(Type.SEQNO, from, to);
+  }
+
+  public static BlockRange ofLt(long from, long to) {
+    return new BlockRange(Type.LT, from, to);
+  }
+
+  /** Blocks generated between the two unix times. */
+  public static BlockRange ofUtime(long from, long to) {
+    return new BlockRange(Type.UTIME, from, to);
+  }
+
+  public boolean contains(long value) {
+    return value >= from && value <= to;
+  }
+}
@@ -0,0 +1,31 @@
+package org.ton.ton4j.exporter.types;
+
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings of the staged export pipeline: package read, BoC parse, TL-B deserialize, encode and
+ * write. Stages whose thread count is not set share parallelThreads of the export call, at least
+ * one thread each, so by default an export runs about parallelThreads threads plus the single
+ * write thread. E.g. 8 parallelThreads give read, parse, deserialize and encode 2 threads each.
+ */
+@Builder
+@Getter
+public class ExportPipelineConfig {
+
+  private Integer readThreads;
+  private Integer parseThreads;
+  private Integer deserializeThreads;
+  private Integer encodeThreads;
+
+  /** capacity of each stage queue, default 256 */
+  private Integer queueCapacity;
+
+  /** how often metricsListener is called, default 10 seconds */
+  private Integer metricsIntervalSeconds;
+
+  /** receives metrics of all stages periodically and once more when the export ends */
+  private Consumer<List<StageMetrics>> metricsListener;
+}
@@ -1,8 +1,10 @@
 package org.ton.ton4j.exporter.types;
 
+import java.util.List;
 import lombok.Builder;
 import lombok.Data;
 import org.ton.ton4j.tlb.Block;
+import org.ton.ton4j.tlb.Transaction;
 import org.ton.ton4j.utils.Utils;
 
 /** Data class representing an exported block object that can be used in streams */
@@ -15,6 +17,9 @@ public class ExportedBlock {
   private final Block deserializedBlock;
   private final boolean isDeserialized;
 
+  /** Transactions matching the export filter, null if no transaction criteria were given. */
+  private final List<Transaction> transactions;
+
   /**
    * Get the block as a deserialized Block object
    *
@@ -0,0 +1,26 @@
+package org.ton.ton4j.exporter.types;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.ton.ton4j.tlb.BlockId;
+
+/** Position of follow mode: the last delivered masterchain block and shard blocks it commits */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowCursor {
+
+  @SerializedName("mc_seqno")
+  private long mcSeqno;
+
+  /** Top shard blocks of the masterchain block, older blocks of these shards are delivered. */
+  @SerializedName("shard_tops")
+  private List<BlockId> shardTops = new ArrayList<>();
+
+  @SerializedName("last_update")
+  private String lastUpdate;
+}
@@ -0,0 +1,37 @@
+package org.ton.ton4j.exporter.types;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Snapshot of one export pipeline stage. Items of the read stage queue are packages, all other
+ * counters are in blocks.
+ */
+@Builder
+@Data
+public class StageMetrics {
+
+  /** read, parse, deserialize, encode or write */
+  private final String stage;
+
+  private final int threads;
+
+  /** blocks handled by the stage since the export started */
+  private final long processed;
+
+  private final int queueDepth;
+  private final int queueCapacity;
+
+  /** processed blocks per second since the export started */
+  private final double throughput;
+
+  /** average time spent on a block, not counting waits on full downstream queues */
+  private final double averageLatencyMs;
+
+  /** Short single line form used in progress output. */
+  public String toShortString() {
+    return String.format(
+        "%s: %d, %.0f/s, queue %d/%d, %.2fms",
+        stage, processed, throughput, queueDepth, queueCapacity, averageLatencyMs);
+  }
+}
@@ -0,0 +1,149 @@
+package org.ton.ton4j.exporter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.ton4j.address.Address;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellBuilder;
+import org.ton.ton4j.cell.CellSlice;
+import org.ton.ton4j.tlb.Transaction;
+import org.ton.ton4j.utils.Utils;
+
+/**
+ * BlockFilter against block fixtures, no database needed.
+ *
+ * <ul>
+ *   <li>block-wc0.txt - workchain 0, shard 8000000000000000, seqno 212201, gen_utime 1757251777,
+ *       jetton transfers
+ *   <li>block-wc0-shard.txt - workchain 0, shard 2000000000000000
+ *   <li>block-mc.txt - masterchain seqno 1, messages with empty bodies
+ * </ul>
+ */
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestBlockFilter {
+
+  private static final Address JETTON_WALLET =
+      Address.of("0:442a09fc5d21be11dd73b1e62139af9b82f2454dffead788c4841637236de212");
+
+  private static final long JETTON_TRANSFER = 0x0f8a7ea5L;
+  private static final long JETTON_NOTIFY = 0x7362d09cL;
+
+  private static Cell block(String fileName) {
+    String boc =
+        Utils.streamToString(
+            Objects.requireNonNull(
+                TestBlockFilter.class.getClassLoader().getResourceAsStream(fileName)));
+    return CellBuilder.beginCell().fromBoc(boc.trim()).endCell();
+  }
+
+  private static String account(Cell tx) {
+    return Transaction.deserialize(CellSlice.beginParse(tx)).getAccountAddr();
+  }
+
+  @Test
+  public void testBlockCriteria() {
+    Cell block = block("block-wc0.txt");
+    assertThat(BlockFilter.builder().build().test(block)).isTrue();
+
+    assertThat(BlockFilter.builder().workchain(0).build().test(block)).isTrue();
+    assertThat(BlockFilter.builder().workchain(-1).build().test(block)).isFalse();
+
+    assertThat(BlockFilter.builder().fromSeqno(212201L).toSeqno(212201L).build().test(block))
+        .isTrue();
+    assertThat(BlockFilter.builder().fromSeqno(212202L).build().test(block)).isFalse();
+    assertThat(BlockFilter.builder().toSeqno(212200L).build().test(block)).isFalse();
+
+    assertThat(
+            BlockFilter.builder()
+                .fromUtime(1757251777L)
+                .toUtime(1757251777L)
+                .build()
+                .test(block))
+        .isTrue();
+    assertThat(BlockFilter.builder().fromUtime(1757251778L).build().test(block)).isFalse();
+    assertThat(BlockFilter.builder().toUtime(1757251776L).build().test(block)).isFalse();
+
+    // rejected blocks have no transactions
+    assertThat(BlockFilter.builder().workchain(-1).build().findTransactions(block)).isEmpty();
+  }
+
+  @Test
+  public void testShardCriteria() {
+    Cell block = block("block-wc0-shard.txt");
+    // the block shard, its ancestors and descendants
+    assertThat(BlockFilter.builder().shard(0x2000000000000000L).build().test(block)).isTrue();
+    assertThat(BlockFilter.builder().shard(0x4000000000000000L).build().test(block)).isTrue();
+    assertThat(BlockFilter.builder().shard(0x8000000000000000L).build().test(block)).isTrue();
+    assertThat(BlockFilter.builder().shard(0x1000000000000000L).build().test(block)).isTrue();
+    // siblings and other branches
+    assertThat(BlockFilter.builder().shard(0x6000000000000000L).build().test(block)).isFalse();
+    assertThat(BlockFilter.builder().shard(0xc000000000000000L).build().test(block)).isFalse();
+  }
+
+  @Test
+  public void testAccountCriteria() {
+    Cell block = block("block-wc0.txt");
+    BlockFilter filter = BlockFilter.builder().accounts(Set.of(JETTON_WALLET)).build();
+    assertThat(filter.test(block)).isTrue();
+    List<Cell> txs = filter.findTransactions(block);
+    assertThat(txs).hasSize(2);
+    for (Cell tx : txs) {
+      assertThat(account(tx)).isEqualTo(Utils.bytesToHex(JETTON_WALLET.hashPart));
+    }
+
+    // same account id in another workchain
+    Address masterchain = Address.of("-1:" + Utils.bytesToHex(JETTON_WALLET.hashPart));
+    assertThat(BlockFilter.builder().accounts(Set.of(masterchain)).build().test(block)).isFalse();
+    assertThat(
+            BlockFilter.builder()
+                .accounts(
+                    Set.of(
+                        Address.of(
+                            "0:3333333333333333333333333333333333333333333333333333333333333333")))
+                .build()
+                .test(block))
+        .isFalse();
+    assertThat(BlockFilter.builder().accounts(Collections.emptySet()).build().test(block))
+        .isFalse();
+  }
+
+  @Test
+  public void testOpCodeCriteria() {
+    Cell block = block("block-wc0.txt");
+    // in message of one transaction, out message of another
+    List<Cell> transfers =
+        BlockFilter.builder().opCodes(Set.of(JETTON_TRANSFER)).build().findTransactions(block);
+    assertThat(transfers).hasSize(2);
+
+    BlockFilter both =
+        BlockFilter.builder()
+            .accounts(Set.of(JETTON_WALLET))
+            .opCodes(Set.of(JETTON_TRANSFER))
+            .build();
+    List<Cell> txs = both.findTransactions(block);
+    assertThat(txs).hasSize(1);
+    assertThat(account(txs.get(0))).isEqualTo(Utils.bytesToHex(JETTON_WALLET.hashPart));
+
+    assertThat(BlockFilter.builder().opCodes(Set.of(JETTON_NOTIFY)).build().test(block)).isTrue();
+    assertThat(BlockFilter.builder().opCodes(Set.of(0x12345678L)).build().test(block)).isFalse();
+  }
+
+  @Test
+  public void testOpCodeCriteriaShouldSkipShortBodies() {
+    Cell block = block("block-mc.txt");
+    // Set.of() throws on contains(null), messages with bodies shorter than 32 bits have no op-code
+    BlockFilter filter = BlockFilter.builder().opCodes(Set.of(0xffffffffL)).build();
+    assertThat(filter.test(block)).isTrue();
+    assertThat(filter.findTransactions(block)).hasSize(2);
+    assertThat(BlockFilter.builder().opCodes(Set.of(0L)).build().test(block)).isFalse();
+  }
+}
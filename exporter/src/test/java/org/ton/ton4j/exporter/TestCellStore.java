@@ -0,0 +1,234 @@
+package org.ton.ton4j.exporter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellBuilder;
+import org.ton.ton4j.cell.CellType;
+import org.ton.ton4j.utils.Utils;
+
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestCellStore {
+
+  /** Chain of n cells. */
+  private static Cell chain(int n) {
+    Cell cell = CellBuilder.beginCell().storeUint(0, 32).endCell();
+    for (int i = 1; i < n; i++) {
+      cell = CellBuilder.beginCell().storeUint(i, 32).storeRef(cell).endCell();
+    }
+    return cell;
+  }
+
+  private static Cell block(int seqno, Cell shared) {
+    return CellBuilder.beginCell().storeUint(seqno, 32).storeBit(true).storeRef(shared).endCell();
+  }
+
+  private static Cell exotic(CellBuilder builder, CellType type) {
+    Cell c = builder.endCell();
+    Cell exotic = new Cell(c.getBits(), c.getBitLength(), c.getRefs(), true, type);
+    exotic.calculateHashes();
+    return exotic;
+  }
+
+  private static Cell pruned(Cell c) {
+    return exotic(
+        CellBuilder.beginCell()
+            .storeUint(1, 8)
+            .storeUint(1, 8)
+            .storeBytes(c.getHash(0))
+            .storeUint(c.getDepthLevels()[0], 16),
+        CellType.PRUNED_BRANCH);
+  }
+
+  private static void writeBlocks(Path dir, String... lines) throws IOException {
+    Files.write(dir.resolve(CellStoreWriter.BLOCKS_FILE_NAME), Arrays.asList(lines));
+  }
+
+  private static void delete(Path dir) throws IOException {
+    try (Stream<Path> files = Files.walk(dir)) {
+      files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  @Test
+  public void testRepeatedCellsShouldBeWrittenOnce() throws IOException {
+    Path dir = Files.createTempDirectory("cellstore");
+    try {
+      Cell shared = chain(10);
+      Cell block1 = block(1, shared);
+      Cell block2 = block(2, shared);
+      byte[] hash1;
+      byte[] hash2;
+      try (CellStoreWriter writer =
+          new CellStoreWriter(dir.resolve(CellStoreWriter.CELLS_FILE_NAME), false)) {
+        hash1 = writer.write(block1);
+        hash2 = writer.write(block2);
+        assertThat(writer.getCellsWritten()).isEqualTo(12);
+        assertThat(writer.getCellsSkipped()).isEqualTo(1);
+      }
+      writeBlocks(
+          dir,
+          "0,8000000000000000,1," + Utils.bytesToHex(hash1),
+          "0,8000000000000000,2," + Utils.bytesToHex(hash2));
+
+      try (CellStoreReader reader = new CellStoreReader(dir.toString())) {
+        assertThat(reader.getCellCount()).isEqualTo(12);
+        assertThat(reader.getBlockCount()).isEqualTo(2);
+        assertThat(reader.getBlockRootHash(0, 0x8000000000000000L, 2)).isEqualTo(hash2);
+        assertThat(reader.getBlockRootHash(0, 0x8000000000000000L, 3)).isNull();
+
+        Cell rebuilt = reader.getCell(hash1);
+        assertThat(rebuilt.getHash()).isEqualTo(block1.getHash());
+        assertThat(rebuilt.getRefs().get(0).getHash()).isEqualTo(shared.getHash());
+        assertThat(reader.getCell(new byte[32])).isNull();
+      }
+    } finally {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void testCellLimitShouldFailInsteadOfGrowingIndex() throws IOException {
+    Path dir = Files.createTempDirectory("cellstore");
+    try {
+      Path cells = dir.resolve(CellStoreWriter.CELLS_FILE_NAME);
+      try (CellStoreWriter writer = new CellStoreWriter(cells, false, 10)) {
+        writer.write(chain(10));
+        // repeated cells do not count
+        writer.write(chain(10));
+        assertThatThrownBy(() -> writer.write(chain(11)))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("more than 10 cells");
+      }
+      writeBlocks(dir);
+
+      // the failed tree is not written
+      try (CellStoreReader reader = new CellStoreReader(dir.toString(), 10)) {
+        assertThat(reader.getCellCount()).isEqualTo(10);
+      }
+      assertThatThrownBy(() -> new CellStoreReader(dir.toString(), 9))
+          .isInstanceOf(IOException.class);
+      assertThatThrownBy(() -> new CellStoreWriter(cells, true, 9))
+          .isInstanceOf(IOException.class);
+    } finally {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void testFailedWriteShouldNotMarkCellsAsWritten() throws IOException {
+    Path dir = Files.createTempDirectory("cellstore");
+    try {
+      Path cells = dir.resolve(CellStoreWriter.CELLS_FILE_NAME);
+      byte[] hash;
+      try (CellStoreWriter writer = new CellStoreWriter(cells, false, 11)) {
+        writer.write(chain(10));
+        // fails on the second new cell, the root of chain(11)
+        assertThatThrownBy(() -> writer.write(chain(12))).isInstanceOf(IOException.class);
+        hash = writer.write(chain(11));
+        assertThat(writer.getCellsWritten()).isEqualTo(11);
+      }
+      writeBlocks(dir, "0,8000000000000000,1," + Utils.bytesToHex(hash));
+
+      try (CellStoreReader reader = new CellStoreReader(dir.toString(), 11)) {
+        assertThat(reader.getCellCount()).isEqualTo(11);
+        assertThat(reader.getCell(hash).getHash()).isEqualTo(chain(11).getHash());
+      }
+    } finally {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void testExoticCellsShouldRoundTrip() throws IOException {
+    Path dir = Files.createTempDirectory("cellstore");
+    try {
+      Cell oldState = chain(5);
+      Cell newState = chain(6);
+      Cell update =
+          exotic(
+              CellBuilder.beginCell()
+                  .storeUint(4, 8)
+                  .storeBytes(oldState.getHash())
+                  .storeBytes(newState.getHash())
+                  .storeUint(oldState.getDepthLevels()[0], 16)
+                  .storeUint(newState.getDepthLevels()[0], 16)
+                  .storeRef(pruned(oldState))
+                  .storeRef(pruned(newState)),
+              CellType.MERKLE_UPDATE);
+      // both branches are pruned at level 1, the update itself is at level 0
+      assertThat(update.levelMask.getLevel()).isEqualTo(0);
+      Cell block = block(1, update);
+
+      byte[] hash;
+      try (CellStoreWriter writer =
+          new CellStoreWriter(dir.resolve(CellStoreWriter.CELLS_FILE_NAME), false)) {
+        hash = writer.write(block);
+      }
+      writeBlocks(dir, "-1,8000000000000000,1," + Utils.bytesToHex(hash));
+
+      try (CellStoreReader reader = new CellStoreReader(dir.toString())) {
+        Cell rebuilt = reader.getCell(hash);
+        assertThat(rebuilt.getHash()).isEqualTo(block.getHash());
+        Cell rebuiltUpdate = rebuilt.getRefs().get(0);
+        assertThat(rebuiltUpdate.isExotic()).isTrue();
+        assertThat(rebuiltUpdate.getCellType()).isEqualTo(CellType.MERKLE_UPDATE);
+        assertThat(rebuiltUpdate.getRefs().get(0).getCellType())
+            .isEqualTo(CellType.PRUNED_BRANCH);
+      }
+    } finally {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void testResumeShouldSkipStoredCellsAndCutIncompleteRecord() throws IOException {
+    Path dir = Files.createTempDirectory("cellstore");
+    try {
+      Path cells = dir.resolve(CellStoreWriter.CELLS_FILE_NAME);
+      Cell shared = chain(10);
+      byte[] hash1;
+      try (CellStoreWriter writer = new CellStoreWriter(cells, false)) {
+        hash1 = writer.write(block(1, shared));
+      }
+      long complete = Files.size(cells);
+      // interrupted export left half of a record
+      Files.write(cells, new byte[20], StandardOpenOption.APPEND);
+
+      byte[] hash2;
+      try (CellStoreWriter writer = new CellStoreWriter(cells, true)) {
+        hash2 = writer.write(block(2, shared));
+        assertThat(writer.getCellsWritten()).isEqualTo(1);
+        assertThat(writer.getCellsSkipped()).isEqualTo(1);
+      }
+      assertThat(Files.size(cells)).isGreaterThan(complete);
+      Files.write(
+          dir.resolve(CellStoreWriter.BLOCKS_FILE_NAME),
+          Collections.singletonList("0,8000000000000000,1," + Utils.bytesToHex(hash1)),
+          StandardCharsets.UTF_8);
+
+      try (CellStoreReader reader = new CellStoreReader(dir.toString())) {
+        assertThat(reader.getCellCount()).isEqualTo(12);
+        assertThat(reader.getCell(hash2).getHash()).isEqualTo(block(2, shared).getHash());
+      }
+    } finally {
+      delete(dir);
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package org.ton.ton4j.exporter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.ton.ton4j.exporter.types.ArchiveInfo;
+import org.ton.ton4j.exporter.types.ExportPipelineConfig;
+import org.ton.ton4j.utils.Utils;
+
+/** ExportPipeline over a package of block fixtures, no database needed. */
+@Slf4j
+@RunWith(JUnit4.class)
+public class TestExportPipeline {
+
+  private static final String[] BLOCKS = {"block-wc0.txt", "block-wc0-shard.txt", "block-mc.txt"};
+
+  private static String hex(String fileName) {
+    return Utils.streamToString(
+            Objects.requireNonNull(
+                TestExportPipeline.class.getClassLoader().getResourceAsStream(fileName)))
+        .trim()
+        .toLowerCase();
+  }
+
+  /** Writes a package with the blocks and one entry that is not a block. */
+  private static void writePackage(Path path, List<String> blocks) throws IOException {
+    List<String> names = new ArrayList<>();
+    List<byte[]> data = new ArrayList<>();
+    for (int i = 0; i < blocks.size(); i++) {
+      names.add("proof_(0,8000000000000000," + i + "):" + i + ":" + i);
+      data.add(new byte[] {1, 2, 3});
+      names.add("block_(0,8000000000000000," + i + "):" + i + ":" + i);
+      data.add(Utils.hexToSignedBytes(blocks.get(i)));
+    }
+    int size = 4;
+    for (int i = 0; i < names.size(); i++) {
+      size += 8 + names.get(i).length() + data.get(i).length;
+    }
+    ByteBuffer buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    buf.putInt(0xae8fdd01);
+    for (int i = 0; i < names.size(); i++) {
+      buf.putInt(0x1e8b | (names.get(i).length() << 16));
+      buf.putInt(data.get(i).length);
+      buf.put(names.get(i).getBytes());
+      buf.put(data.get(i));
+    }
+    Files.write(path, buf.array());
+  }
+
+  private static List<String> export(Path pack, boolean deserializing, boolean mapped)
+      throws InterruptedException {
+    List<String> lines = Collections.synchronizedList(new ArrayList<>());
+    AtomicInteger completed = new AtomicInteger();
+    ExportPipeline<String> pipeline =
+        new ExportPipeline<>(
+            ExportPipelineConfig.builder().queueCapacity(2).build(),
+            2,
+            deserializing,
+            mapped,
+            null,
+            (cell, block, data) ->
+                deserializing
+                    ? String.valueOf(block.getBlockInfo().getSeqno())
+                    : Exporter.encodeLine(cell, null, data, false, null),
+            lines::add,
+            new ExportPipeline.Listener() {
+              @Override
+              public void blockWritten() {}
+
+              @Override
+              public void nonBlock() {}
+
+              @Override
+              public void error(String blockKey, byte[] data, Throwable e) {
+                log.error("Error in block {}", blockKey, e);
+              }
+
+              @Override
+              public void packageCompleted(
+                  String archiveKey,
+                  ArchiveInfo archiveInfo,
+                  int parsedBlocks,
+                  int nonBlocks,
+                  long elapsedMs) {
+                completed.incrementAndGet();
+              }
+            },
+            () -> false);
+    pipeline.submit("pack", new ArchiveInfo(0, pack.toString(), 0));
+    pipeline.finish();
+    assertThat(completed.get()).isEqualTo(1);
+    return lines;
+  }
+
+  @Test
+  public void testMappedPackagesShouldExportSameBlocks() throws Exception {
+    List<String> blocks = new ArrayList<>();
+    for (String block : BLOCKS) {
+      blocks.add(hex(block));
+    }
+    Path pack = Files.createTempFile("archive", ".pack");
+    try {
+      writePackage(pack, blocks);
+
+      assertThat(export(pack, false, false)).containsExactlyInAnyOrderElementsOf(blocks);
+      assertThat(export(pack, false, true)).containsExactlyInAnyOrderElementsOf(blocks);
+
+      List<String> seqnos = export(pack, true, false);
+      assertThat(seqnos).hasSize(3).contains("212201");
+      assertThat(export(pack, true, true)).containsExactlyInAnyOrderElementsOf(seqnos);
+    } finally {
+      Files.delete(pack);
+    }
+  }
+
+  @Test
+  public void testParallelThreadsShouldBeDividedBetweenStages() {
+    ExportPipelineConfig defaults = ExportPipelineConfig.builder().build();
+    assertThat(ExportPipeline.stageThreads(defaults, 8, true)).containsExactly(2, 2, 2, 2);
+    // read, parse, deserialize, encode
+    assertThat(ExportPipeline.stageThreads(defaults, 8, false)).containsExactly(2, 3, 0, 3);
+    assertThat(ExportPipeline.stageThreads(defaults, 10, true)).containsExactly(2, 3, 3, 2);
+    assertThat(ExportPipeline.stageThreads(defaults, 1, true)).containsExactly(1, 1, 1, 1);
+
+    ExportPipelineConfig deserialize =
+        ExportPipelineConfig.builder().deserializeThreads(12).readThreads(1).build();
+    assertThat(ExportPipeline.stageThreads(deserialize, 16, true)).containsExactly(1, 2, 12, 1);
+    assertThat(ExportPipeline.stageThreads(deserialize, 4, true)).containsExactly(1, 1, 12, 1);
+  }
+}
@@ -1,10 +1,14 @@
 package org.ton.ton4j.exporter;
 
+import java.util.Collections;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Test;
+import org.ton.ton4j.address.Address;
 import org.ton.ton4j.exporter.types.ExportedBlock;
+import org.ton.ton4j.tlb.Transaction;
+import org.ton.ton4j.utils.Utils;
 
 @Slf4j
 public class TestExportToObjects {
@@ -144,4 +148,41 @@ public class TestExportToObjects {
       log.warn("Test skipped - database path not available: {}", e.getMessage());
     }
   }
+
+  @Test
+  public void testExportToObjectsWithFilter() {
+
+    try {
+      Exporter exporter = Exporter.builder().tonDatabaseRootPath(TON_DB_ROOT_PATH).build();
+      Address elector =
+          Address.of("-1:3333333333333333333333333333333333333333333333333333333333333333");
+
+      BlockFilter filter =
+          BlockFilter.builder()
+              .workchain(-1)
+              .fromSeqno(100L)
+              .accounts(Collections.singleton(elector))
+              .build();
+
+      AtomicInteger blockCount = new AtomicInteger(0);
+      Stream<ExportedBlock> blockStream = exporter.exportToObjects(false, 20, filter);
+
+      blockStream.forEach(
+          block -> {
+            blockCount.incrementAndGet();
+            // only matching transactions are deserialized
+            assert block.getBlock() == null;
+            assert !block.getTransactions().isEmpty();
+            for (Transaction tx : block.getTransactions()) {
+              assert tx.getAccountAddr().equals(Utils.bytesToHex(elector.hashPart));
+            }
+          });
+      blockStream.close();
+
+      log.info("Total blocks with elector transactions: {}", blockCount.get());
+
+    } catch (Exception e) {
+      log.warn("Test skipped - database path not available: {}", e.getMessage());
+    }
+  }
 }
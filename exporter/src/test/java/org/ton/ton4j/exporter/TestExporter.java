@@ -5,13 +5,22 @@ import static org.assertj.core.api.Assertions.assertThat;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.ToNumberPolicy;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -24,6 +33,7 @@ import org.ton.ton4j.exporter.types.*;
 import org.ton.ton4j.tlb.Block;
 import org.ton.ton4j.tlb.BlockId;
 import org.ton.ton4j.tlb.BlockIdExt;
+import org.ton.ton4j.tlb.BlockInfo;
 import org.ton.ton4j.tlb.adapters.*;
 import org.ton.ton4j.utils.Utils;
 
@@ -105,6 +115,111 @@ public class TestExporter {
     exporter.exportToFile("blocks-boc.txt", false, 32);
   }
 
+  @Test
+  public void testExporterToFileWithPipelineMetrics() throws IOException {
+    List<List<StageMetrics>> reports = new CopyOnWriteArrayList<>();
+    Exporter exporter =
+        Exporter.builder()
+            .tonDatabaseRootPath(TON_DB_ROOT_PATH)
+            .showProgress(true)
+            .pipelineConfig(
+                ExportPipelineConfig.builder()
+                    .readThreads(4)
+                    .parseThreads(8)
+                    .deserializeThreads(16)
+                    .encodeThreads(8)
+                    .queueCapacity(128)
+                    .metricsIntervalSeconds(1)
+                    .metricsListener(reports::add)
+                    .build())
+            .build();
+    exporter.exportToFile("blocks-pipeline.txt", true, 16);
+
+    assertThat(reports).isNotEmpty();
+    List<StageMetrics> last = reports.get(reports.size() - 1);
+    last.forEach(metrics -> log.info(metrics.toShortString()));
+    assertThat(last)
+        .extracting(StageMetrics::getStage)
+        .containsExactly("read", "parse", "deserialize", "encode", "write");
+    assertThat(last.get(2).getThreads()).isEqualTo(16);
+    assertThat(last.get(4).getProcessed())
+        .isPositive()
+        .isLessThanOrEqualTo(last.get(1).getProcessed());
+    assertThat(last).allMatch(metrics -> metrics.getQueueDepth() == 0);
+  }
+
+  @Test
+  public void testExporterToArrow() throws IOException {
+    Exporter exporter =
+        Exporter.builder().tonDatabaseRootPath(TON_DB_ROOT_PATH).showProgress(true).build();
+    exporter.exportToArrow("arrow", 8);
+
+    long rows = 0;
+    try (BufferAllocator allocator = new RootAllocator();
+        FileInputStream in = new FileInputStream("arrow/" + ArrowBlockWriter.BLOCKS_FILE_NAME);
+        ArrowFileReader reader = new ArrowFileReader(in.getChannel(), allocator)) {
+      while (reader.loadNextBatch()) {
+        VectorSchemaRoot root = reader.getVectorSchemaRoot();
+        assertThat(root.getSchema().findField("root_hash")).isNotNull();
+        rows += root.getRowCount();
+      }
+    }
+    log.info("blocks {}", rows);
+    assertThat(rows).isEqualTo(exporter.getParsedBlocksCount());
+    assertThat(Path.of("arrow", ArrowBlockWriter.TRANSACTIONS_FILE_NAME)).isNotEmptyFile();
+    assertThat(Path.of("arrow", ArrowBlockWriter.MESSAGES_FILE_NAME)).isNotEmptyFile();
+  }
+
+  @Test
+  public void testExporterRangeToFile() throws IOException {
+    Exporter exporter =
+        Exporter.builder().tonDatabaseRootPath(TON_DB_ROOT_PATH).showProgress(true).build();
+    exporter.exportRangeToFile("blocks-range.txt", true, 4, BlockRange.ofSeqno(229400, 229441));
+    List<String> lines = Files.readAllLines(Path.of("blocks-range.txt"));
+    log.info("exported {} blocks", lines.size());
+    assertThat(lines).isNotEmpty();
+    for (String line : lines) {
+      String[] parts = line.split(",", 4);
+      if (parts[0].equals("-1")) {
+        assertThat(Long.parseLong(parts[2])).isBetween(229400L, 229441L);
+      }
+    }
+  }
+
+  @Test
+  public void testExporterFollow() throws Exception {
+    Path cursor = Files.createTempFile("follow", ".json");
+    Files.delete(cursor);
+    Exporter exporter = Exporter.builder().tonDatabaseRootPath(TON_DB_ROOT_PATH).build();
+    List<ExportedBlock> received = new CopyOnWriteArrayList<>();
+    Thread follower =
+        new Thread(
+            () -> {
+              try {
+                exporter.follow(cursor.toString(), true, received::add);
+              } catch (IOException e) {
+                log.error("follow failed", e);
+              }
+            });
+    follower.start();
+    Thread.sleep(20_000);
+    follower.interrupt();
+    follower.join();
+
+    log.info("received {} blocks, cursor {}", received.size(), Files.readString(cursor));
+    long prevMcSeqno = -1;
+    for (ExportedBlock block : received) {
+      BlockInfo info = block.getBlock().getBlockInfo();
+      if (info.getShard().getWorkchain() == -1) {
+        if (prevMcSeqno != -1) {
+          assertThat(info.getSeqno()).isEqualTo(prevMcSeqno + 1);
+        }
+        prevMcSeqno = info.getSeqno();
+      }
+    }
+    Files.deleteIfExists(cursor);
+  }
+
   @Test
   public void testExporterToStdout() throws IOException {
     Exporter exporter = Exporter.builder().tonDatabaseRootPath(TON_DB_ROOT_PATH).build();
@@ -583,6 +698,54 @@ public class TestExporter {
     log.info("Balance {}", Utils.formatNanoValue(exporter.getBalance(address, mcSeqno)));
   }
 
+  @Test
+  public void testSessionGetBalanceRepeatedly() throws IOException {
+    List<Address> addresses =
+        Arrays.asList(
+            Address.of("-1:0000000000000000000000000000000000000000000000000000000000000000"),
+            // wc0 lookups need the last masterchain block, it is read once per session
+            Address.of("0:7216e9db71acddecba3944137540c400f11fbabebeb23138fa5535c6a8784f2c"));
+    Exporter exporter = Exporter.builder().tonDatabaseRootPath(TON_DB_ROOT_PATH).build();
+    for (Address address : addresses) {
+      try (ExporterSession session = exporter.openSession(100_000)) {
+        long started = System.currentTimeMillis();
+        BigInteger first = session.getBalance(address);
+        long firstMs = System.currentTimeMillis() - started;
+        started = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+          assertThat(session.getBalance(address)).isEqualTo(first);
+        }
+        long repeatedMs = (System.currentTimeMillis() - started) / 100;
+        log.info(
+            "{} balance {}, first lookup {}ms, repeated {}ms, {}",
+            address,
+            Utils.formatNanoValue(first),
+            firstMs,
+            repeatedMs,
+            session.getCellCache());
+        assertThat(session.getCellCache().getHitRate()).isGreaterThan(0.9);
+        assertThat(repeatedMs).isLessThanOrEqualTo(firstMs);
+      }
+    }
+  }
+
+  @Test
+  public void testGetBalancesShouldMatchSingleLookups() {
+    List<Address> addresses =
+        Arrays.asList(
+            Address.of("-1:0000000000000000000000000000000000000000000000000000000000000000"),
+            Address.of("-1:3333333333333333333333333333333333333333333333333333333333333333"),
+            Address.of("-1:5555555555555555555555555555555555555555555555555555555555555555"),
+            Address.of("0:b3dd5c861f4b3ff36da1996e31ef8394a83d0a5d08cfa472adc2eb804e5e849a"));
+    long mcSeqno = 220000;
+    Exporter exporter = Exporter.builder().tonDatabaseRootPath(TON_DB_ROOT_PATH).build();
+    Map<Address, BigInteger> balances = exporter.getBalances(mcSeqno, addresses);
+    for (Map.Entry<Address, BigInteger> entry : balances.entrySet()) {
+      log.info("{} {}", entry.getKey(), Utils.formatNanoValue(entry.getValue()));
+      assertThat(entry.getValue()).isEqualTo(exporter.getBalance(entry.getKey(), mcSeqno));
+    }
+  }
+
   @Test
   public void testCellDbReaderGetBalanceBySeqnoE() {
     Address address =
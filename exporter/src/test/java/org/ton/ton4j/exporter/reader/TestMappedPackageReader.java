@@ -0,0 +1,108 @@
+package org.ton.ton4j.exporter.reader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.ton.ton4j.cell.Cell;
+import org.ton.ton4j.cell.CellBuilder;
+
+@Slf4j
+public class TestMappedPackageReader {
+
+  private static byte[] boc(int i) {
+    Cell child = CellBuilder.beginCell().storeUint(i * 7L, 64).endCell();
+    return CellBuilder.beginCell().storeUint(i, 32).storeRef(child).endCell().toBoc();
+  }
+
+  /** Writes a package with the given entries and returns offsets of entries, as in index DB. */
+  private static List<Long> writePackage(Path path, List<String> names, List<byte[]> data)
+      throws IOException {
+    int size = 4;
+    for (int i = 0; i < names.size(); i++) {
+      size += 8 + names.get(i).length() + data.get(i).length;
+    }
+    ByteBuffer buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    buf.putInt(0xae8fdd01);
+    List<Long> offsets = new ArrayList<>();
+    for (int i = 0; i < names.size(); i++) {
+      offsets.add((long) buf.position() - 4);
+      buf.putInt(0x1e8b | (names.get(i).length() << 16));
+      buf.putInt(data.get(i).length);
+      buf.put(names.get(i).getBytes());
+      buf.put(data.get(i));
+    }
+    Files.write(path, buf.array());
+    return offsets;
+  }
+
+  @Test
+  public void testMappedEntriesShouldMatchPackageReader() throws IOException {
+    Path path = Files.createTempFile("test", ".pack");
+    try {
+      List<String> names = new ArrayList<>();
+      List<byte[]> data = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        names.add("block_" + i);
+        data.add(boc(i));
+      }
+      List<Long> offsets = writePackage(path, names, data);
+
+      try (MappedPackageReader mapped = new MappedPackageReader(path.toString());
+          PackageReader reader = new PackageReader(path.toString())) {
+        assertThat(mapped.getEntryCount()).isEqualTo(100);
+        for (int i = 0; i < 100; i++) {
+          MappedPackageReader.MappedEntry entry = mapped.getEntryAt(offsets.get(i));
+          PackageReader.PackageEntry expected = reader.getEntryAt(offsets.get(i));
+          assertThat(entry.getFilename()).isEqualTo(expected.getFilename());
+          assertThat(entry.getBytes()).isEqualTo(expected.getData());
+          assertThat(entry.getCell().getHash()).isEqualTo(expected.getCell().getHash());
+        }
+        Map<String, byte[]> all = mapped.readAllEntries();
+        assertThat(all).hasSize(100);
+        assertThat(all.get("block_42")).isEqualTo(data.get(42));
+
+        List<String> iterated = new ArrayList<>();
+        mapped.forEachTyped(e -> iterated.add(e.getFilename()));
+        assertThat(iterated).isEqualTo(names);
+
+        assertThatThrownBy(() -> mapped.getEntryAt(offsets.get(1) + 1))
+            .isInstanceOf(IOException.class);
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testTruncatedPackageShouldKeepCompleteEntries() throws IOException {
+    Path path = Files.createTempFile("test", ".pack");
+    try {
+      List<String> names = new ArrayList<>();
+      List<byte[]> data = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        names.add("block_" + i);
+        data.add(boc(i));
+      }
+      writePackage(path, names, data);
+      byte[] bytes = Files.readAllBytes(path);
+      Files.write(path, Arrays.copyOf(bytes, bytes.length - 5));
+
+      try (MappedPackageReader mapped = new MappedPackageReader(path.toString())) {
+        assertThat(mapped.getEntryCount()).isEqualTo(2);
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+}
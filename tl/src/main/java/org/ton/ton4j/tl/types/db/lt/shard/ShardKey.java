@@ -17,22 +17,22 @@ import org.ton.ton4j.tl.types.db.lt.Key;
 @Builder
 @Data
 public class ShardKey extends Key {
-
+  int magic;
   int idx;
 
   public static ShardKey deserialize(ByteBuffer buffer) {
     buffer.order(ByteOrder.LITTLE_ENDIAN);
+    int magic = buffer.getInt();
     int idx = buffer.getInt();
-    
-    return ShardKey.builder()
-        .idx(idx)
-        .build();
+
+    return ShardKey.builder().magic(magic).idx(idx).build();
   }
 
   @Override
   public byte[] serialize() {
-    ByteBuffer buffer = ByteBuffer.allocate(4);
+    ByteBuffer buffer = ByteBuffer.allocate(4 + 4);
     buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(1353120015);
     buffer.putInt(idx);
     return buffer.array();
   }
@@ -17,24 +17,23 @@ import lombok.Data;
 @Builder
 @Data
 public class Value implements Serializable {
-
+  int magic;
   int workchain;
   long shard;
 
   public static Value deserialize(ByteBuffer buffer) {
     buffer.order(ByteOrder.LITTLE_ENDIAN);
+    int magic = buffer.getInt();
     int workchain = buffer.getInt();
     long shard = buffer.getLong();
-    
-    return Value.builder()
-        .workchain(workchain)
-        .shard(shard)
-        .build();
+
+    return Value.builder().magic(magic).workchain(workchain).shard(shard).build();
   }
 
   public byte[] serialize() {
-    ByteBuffer buffer = ByteBuffer.allocate(4 + 8);
+    ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 8);
     buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(1014209147);
     buffer.putInt(workchain);
     buffer.putLong(shard);
     return buffer.array();
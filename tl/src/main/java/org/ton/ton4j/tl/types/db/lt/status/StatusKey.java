@@ -1,6 +1,7 @@
 package org.ton.ton4j.tl.types.db.lt.status;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import lombok.Builder;
 import lombok.Data;
 import org.ton.ton4j.tl.types.db.lt.Key;
@@ -16,14 +17,21 @@ import org.ton.ton4j.tl.types.db.lt.Key;
 @Builder
 @Data
 public class StatusKey extends Key {
+  int magic;
 
   public static StatusKey deserialize(ByteBuffer buffer) {
-    return StatusKey.builder().build();
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    int magic = buffer.getInt();
+
+    return StatusKey.builder().magic(magic).build();
   }
 
   @Override
   public byte[] serialize() {
-    // This key has no fields, so it's just an empty byte array
-    return new byte[0];
+    // This key has no fields, so it's just the constructor id
+    ByteBuffer buffer = ByteBuffer.allocate(4);
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(2003591255);
+    return buffer.array();
   }
 }
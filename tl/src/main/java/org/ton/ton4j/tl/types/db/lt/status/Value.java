@@ -17,21 +17,21 @@ import lombok.Data;
 @Builder
 @Data
 public class Value implements Serializable {
-
+  int magic;
   int totalShards;
 
   public static Value deserialize(ByteBuffer buffer) {
     buffer.order(ByteOrder.LITTLE_ENDIAN);
+    int magic = buffer.getInt();
     int totalShards = buffer.getInt();
-    
-    return Value.builder()
-        .totalShards(totalShards)
-        .build();
+
+    return Value.builder().magic(magic).totalShards(totalShards).build();
   }
 
   public byte[] serialize() {
-    ByteBuffer buffer = ByteBuffer.allocate(4);
+    ByteBuffer buffer = ByteBuffer.allocate(4 + 4);
     buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(-88150727);
     buffer.putInt(totalShards);
     return buffer.array();
   }
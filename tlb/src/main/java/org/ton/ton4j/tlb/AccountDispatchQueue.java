@@ -34,7 +34,7 @@ public class AccountDispatchQueue implements Serializable {
         .messages(
             cs.loadDictE(
                 64, k -> k.readUint(64), v -> EnqueuedMsg.deserialize(CellSlice.beginParse(v))))
-        .count(cs.loadUint(48).longValue())
+        .count(cs.loadUintAsLong(48))
         .build();
   }
 }
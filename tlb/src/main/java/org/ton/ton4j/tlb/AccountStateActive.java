@@ -21,7 +21,7 @@ public class AccountStateActive implements AccountState, Serializable {
 
   public static AccountStateActive deserialize(CellSlice cs) {
     return AccountStateActive.builder()
-        .magic(cs.loadUint(1).intValue())
+        .magic(cs.loadUintAsInt(1))
         .stateInit(StateInit.deserialize(cs))
         .build();
   }
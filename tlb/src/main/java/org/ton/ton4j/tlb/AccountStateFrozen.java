@@ -21,7 +21,7 @@ public class AccountStateFrozen implements AccountState, Serializable {
 
   public static AccountStateFrozen deserialize(CellSlice cs) {
     return AccountStateFrozen.builder()
-        .magic(cs.loadUint(2).intValue())
+        .magic(cs.loadUintAsInt(2))
         .stateHash(cs.getRestBits() >= 256 ? cs.loadUint(256) : null)
         .build();
   }
@@ -18,6 +18,6 @@ public class AccountStateUninit implements AccountState, Serializable {
   }
 
   public static AccountStateUninit deserialize(CellSlice cs) {
-    return AccountStateUninit.builder().magic(cs.loadUint(2).intValue()).build();
+    return AccountStateUninit.builder().magic(cs.loadUintAsInt(2)).build();
   }
 }
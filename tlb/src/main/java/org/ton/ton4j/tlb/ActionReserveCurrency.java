@@ -26,8 +26,8 @@ public class ActionReserveCurrency implements OutAction, Serializable {
 
   public static ActionReserveCurrency deserialize(CellSlice cs) {
     return ActionReserveCurrency.builder()
-        .magic(cs.loadUint(32).intValue())
-        .mode(cs.loadUint(8).intValue())
+        .magic(cs.loadUintAsInt(32))
+        .mode(cs.loadUintAsInt(8))
         .currency(CurrencyCollection.deserialize(cs))
         .build();
   }
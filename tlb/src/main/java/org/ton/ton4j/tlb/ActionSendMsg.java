@@ -26,8 +26,8 @@ public class ActionSendMsg implements OutAction, Serializable {
 
   public static ActionSendMsg deserialize(CellSlice cs) {
     return ActionSendMsg.builder()
-        .magic(cs.loadUint(32).intValue())
-        .mode(cs.loadUint(8).intValue())
+        .magic(cs.loadUintAsInt(32))
+        .mode(cs.loadUintAsInt(8))
         .outMsg(MessageRelaxed.deserialize(CellSlice.beginParse(cs.loadRef())))
         .build();
   }
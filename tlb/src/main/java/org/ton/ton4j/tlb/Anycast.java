@@ -30,7 +30,7 @@ public class Anycast implements Serializable {
   }
 
   public static Anycast deserialize(CellSlice cs) {
-    int depth = cs.loadUint(5).intValue();
-    return Anycast.builder().depth(depth).rewritePfx(cs.loadUint(depth).intValue()).build();
+    int depth = cs.loadUintAsInt(5);
+    return Anycast.builder().depth(depth).rewritePfx(cs.loadUintAsInt(depth)).build();
   }
 }
@@ -48,14 +48,14 @@ public class Block implements Serializable {
 
   public static Block deserialize(CellSlice cs) {
 
-    long magic = cs.loadUint(32).longValue();
+    long magic = cs.loadUintAsLong(32);
     assert (magic == 0x11ef55aaL)
         : "Block: magic not equal to 0x11ef55aa, found 0x" + Long.toHexString(magic);
 
     Block block =
         Block.builder()
             .magic(0x11ef55aaL)
-            .globalId(cs.loadInt(32).intValue())
+            .globalId(cs.loadIntAsInt(32))
             .blockInfo(BlockInfo.deserialize(CellSlice.beginParse(cs.loadRef())))
             .build();
 
@@ -68,14 +68,14 @@ public class Block implements Serializable {
 
   public static Block deserializeWithoutMerkleUpdate(CellSlice cs) {
 
-    long magic = cs.loadUint(32).longValue();
+    long magic = cs.loadUintAsLong(32);
     assert (magic == 0x11ef55aaL)
         : "Block: magic not equal to 0x11ef55aa, found 0x" + Long.toHexString(magic);
 
     Block block =
         Block.builder()
             .magic(0x11ef55aaL)
-            .globalId(cs.loadInt(32).intValue())
+            .globalId(cs.loadIntAsInt(32))
             .blockInfo(BlockInfo.deserialize(CellSlice.beginParse(cs.loadRef())))
             .build();
 
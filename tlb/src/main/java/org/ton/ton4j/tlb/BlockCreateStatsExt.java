@@ -36,7 +36,7 @@ public class BlockCreateStatsExt implements BlockCreateStats, Serializable {
   }
 
   public static BlockCreateStatsExt deserialize(CellSlice cs) {
-    long magic = cs.loadUint(8).longValue();
+    long magic = cs.loadUintAsLong(8);
     assert (magic == 0x34)
         : "BlockCreateStatsExt: magic not equal to 0x34, found 0x" + Long.toHexString(magic);
 
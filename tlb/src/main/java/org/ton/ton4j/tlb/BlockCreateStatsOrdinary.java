@@ -33,7 +33,7 @@ public class BlockCreateStatsOrdinary implements BlockCreateStats, Serializable
   }
 
   public static BlockCreateStatsOrdinary deserialize(CellSlice cs) {
-    long magic = cs.loadUint(8).longValue();
+    long magic = cs.loadUintAsLong(8);
     assert (magic == 0x17)
         : "BlockCreateStatsOrdinary: magic not equal to 0x17, found 0x" + Long.toHexString(magic);
 
@@ -70,9 +70,9 @@ public class BlockHeader implements Serializable {
   public static BlockHeader deserialize(CellSlice cs) {
     return BlockHeader.builder()
         .id(BlockIdExt.deserialize(cs))
-        .global_id(cs.loadInt(32).intValue())
-        .version(cs.loadInt(32).longValue())
-        .flags(cs.loadUint(4).longValue())
+        .global_id(cs.loadIntAsInt(32))
+        .version(cs.loadIntAsLong(32))
+        .flags(cs.loadUintAsLong(4))
         .build();
   }
 }
@@ -38,9 +38,9 @@ public class BlockId implements Serializable {
 
   public static BlockId deserialize(CellSlice cs) {
     return BlockId.builder()
-        .workchain(cs.loadInt(32).intValue())
-        .shard(cs.loadUint(64).longValue())
-        .seqno(cs.loadUint(32).longValue())
+        .workchain(cs.loadIntAsInt(32))
+        .shard(cs.loadUintAsLong(64))
+        .seqno(cs.loadUintAsLong(32))
         .build();
   }
 
@@ -55,11 +55,11 @@ public class BlockIdExt implements Serializable {
 
   public static BlockIdExt deserialize(CellSlice cs) {
     return BlockIdExt.builder()
-        .workchain(cs.loadInt(32).intValue())
-        .shard(cs.loadUint(64).longValue())
+        .workchain(cs.loadIntAsInt(32))
+        .shard(cs.loadUintAsLong(64))
         //                        .shardId((ShardIdent) cs.loadTlb(ShardIdent.class)) // todo weird
         // - this does not work
-        .seqno(cs.loadUint(32).longValue())
+        .seqno(cs.loadUintAsLong(32))
         .rootHash(cs.loadBytes(32))
         .fileHash(cs.loadBytes(32))
         .build();
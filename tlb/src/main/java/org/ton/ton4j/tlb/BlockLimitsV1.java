@@ -27,7 +27,7 @@ public class BlockLimitsV1 implements BlockLimits, Serializable {
 
   public static BlockLimitsV1 deserialize(CellSlice cs) {
     return BlockLimitsV1.builder()
-        .magic(cs.loadUint(8).intValue())
+        .magic(cs.loadUintAsInt(8))
         .bytes(ParamLimits.deserialize(cs))
         .gas(ParamLimits.deserialize(cs))
         .ltDelta(ParamLimits.deserialize(cs))
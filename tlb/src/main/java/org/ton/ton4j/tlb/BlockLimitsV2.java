@@ -30,7 +30,7 @@ public class BlockLimitsV2 implements BlockLimits, Serializable {
 
   public static BlockLimitsV2 deserialize(CellSlice cs) {
     return BlockLimitsV2.builder()
-        .magic(cs.loadUint(8).intValue())
+        .magic(cs.loadUintAsInt(8))
         .bytes(ParamLimits.deserialize(cs))
         .gas(ParamLimits.deserialize(cs))
         .ltDelta(ParamLimits.deserialize(cs))
@@ -34,7 +34,7 @@ public class BlockSignatures implements Serializable {
   }
 
   public static BlockSignatures deserialize(CellSlice cs) {
-    long magic = cs.loadUint(8).longValue();
+    long magic = cs.loadUintAsLong(8);
     assert (magic == 0x11)
         : "BlockSignatures: magic not equal to 0x11, found 0x" + Long.toHexString(magic);
 
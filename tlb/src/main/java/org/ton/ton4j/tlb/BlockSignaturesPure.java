@@ -40,7 +40,7 @@ public class BlockSignaturesPure implements Serializable {
 
   public static BlockSignaturesPure deserialize(CellSlice cs) {
     return BlockSignaturesPure.builder()
-        .sigCount(cs.loadUint(32).longValue())
+        .sigCount(cs.loadUintAsLong(32))
         .sigWeight(cs.loadUint(64))
         .signatures(
             cs.loadDictE(
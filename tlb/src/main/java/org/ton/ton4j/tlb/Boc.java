@@ -85,7 +85,7 @@ public class Boc {
   }
 
   public static Boc deserialize(CellSlice cs) {
-    int magic = cs.loadUint(32).intValue();
+    int magic = cs.loadUintAsInt(32);
     assert (magic == 0xb5ee9c72)
         : "Boc: magic not equal to 0xb5ee9c72, found 0x" + Integer.toHexString(magic);
     Boc boc = Boc.builder().magic(magic).build();
@@ -94,8 +94,8 @@ public class Boc {
     boc.setHasCacheBits(cs.loadBit());
     boc.setHasTopHash(cs.loadBit());
     boc.setHasIntHashes(cs.loadBit());
-    boc.setSize(cs.loadUint(3).intValue());
-    boc.setOffBytes(cs.loadUint(8).intValue());
+    boc.setSize(cs.loadUintAsInt(3));
+    boc.setOffBytes(cs.loadUintAsInt(8));
     boc.setCells(cs.loadUint(boc.getSize() * 8).intValue());
     boc.setRoots(cs.loadUint(boc.getSize() * 8).intValue());
     boc.setAbsent(cs.loadUint(boc.getSize() * 8).intValue());
@@ -103,7 +103,7 @@ public class Boc {
     boc.setRootList(cs.loadList(boc.getRoots(), boc.getSize() * 8));
     boc.setIndex(boc.isHasIdx() ? cs.loadList(boc.getCells(), boc.getOffBytes() * 8) : null);
     boc.setCellData(cs.loadBytes(boc.getTotalCellsSize() * 8));
-    boc.setCrc32c(boc.isHasCrc32c() ? cs.loadUint(32).longValue() : 0);
+    boc.setCrc32c(boc.isHasCrc32c() ? cs.loadUintAsLong(32) : 0);
     return boc;
   }
 }
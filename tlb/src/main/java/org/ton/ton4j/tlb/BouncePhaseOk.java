@@ -41,7 +41,7 @@ public class BouncePhaseOk implements BouncePhase, Serializable {
   }
 
   public static BouncePhaseOk deserialize(CellSlice cs) {
-    long magic = cs.loadUint(1).intValue();
+    long magic = cs.loadUintAsInt(1);
     assert (magic == 0b1)
         : "BouncePhaseok: magic not equal to 0b1, found 0x" + Long.toHexString(magic);
 
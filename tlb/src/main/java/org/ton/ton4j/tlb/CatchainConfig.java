@@ -8,7 +8,7 @@ public interface CatchainConfig {
   Cell toCell();
 
   static CatchainConfig deserialize(CellSlice cs) {
-    int magic = cs.preloadUint(8).intValue();
+    int magic = cs.preloadUintAsInt(8);
     if (magic == 0xc1) {
       return CatchainConfigC1.deserialize(cs);
     } else if (magic == 0xc2) {
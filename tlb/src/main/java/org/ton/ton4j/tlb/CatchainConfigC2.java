@@ -32,13 +32,13 @@ public class CatchainConfigC2 implements CatchainConfig, Serializable {
 
   public static CatchainConfigC2 deserialize(CellSlice cs) {
     return CatchainConfigC2.builder()
-        .magic(cs.loadUint(8).intValue())
-        .flags(cs.loadUint(7).intValue())
+        .magic(cs.loadUintAsInt(8))
+        .flags(cs.loadUintAsInt(7))
         .shuffleMcValidators(cs.loadBit())
-        .mcCatchainLifetime(cs.loadUint(32).longValue())
-        .shardCatchainLifetime(cs.loadUint(32).longValue())
-        .shardValidatorsLifetime(cs.loadUint(32).longValue())
-        .shardValidatorsNum(cs.loadUint(32).longValue())
+        .mcCatchainLifetime(cs.loadUintAsLong(32))
+        .shardCatchainLifetime(cs.loadUintAsLong(32))
+        .shardValidatorsLifetime(cs.loadUintAsLong(32))
+        .shardValidatorsNum(cs.loadUintAsLong(32))
         .build();
   }
 }
@@ -68,10 +68,10 @@ public class ComputePhaseVMDetails implements Serializable {
         .gasUsed(cs.loadVarUInteger(7))
         .gasLimit(cs.loadVarUInteger(7))
         .gasCredit(cs.loadBit() ? cs.loadVarUInteger(3) : null)
-        .mode(cs.loadInt(8).intValue())
-        .exitCode(cs.loadInt(32).longValue())
+        .mode(cs.loadIntAsInt(8))
+        .exitCode(cs.loadIntAsLong(32))
         .exitArg(cs.loadBit() ? cs.loadInt(32) : null)
-        .vMSteps(cs.loadUint(32).longValue())
+        .vMSteps(cs.loadUintAsLong(32))
         .vMInitStateHash(cs.loadUint(256))
         .vMFinalStateHash(cs.loadUint(256))
         .build();
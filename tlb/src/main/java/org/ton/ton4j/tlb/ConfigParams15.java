@@ -36,10 +36,10 @@ public class ConfigParams15 implements Serializable {
 
   public static ConfigParams15 deserialize(CellSlice cs) {
     return ConfigParams15.builder()
-        .validatorsElectedFor(cs.loadUint(32).longValue())
-        .electionsStartBefore(cs.loadUint(32).longValue())
-        .electionsEndBefore(cs.loadUint(32).longValue())
-        .stakeHeldFor(cs.loadUint(32).longValue())
+        .validatorsElectedFor(cs.loadUintAsLong(32))
+        .electionsStartBefore(cs.loadUintAsLong(32))
+        .electionsEndBefore(cs.loadUintAsLong(32))
+        .stakeHeldFor(cs.loadUintAsLong(32))
         .build();
   }
 }
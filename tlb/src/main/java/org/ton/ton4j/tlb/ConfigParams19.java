@@ -19,6 +19,6 @@ public class ConfigParams19 implements Serializable {
   }
 
   public static ConfigParams19 deserialize(CellSlice cs) {
-    return ConfigParams19.builder().globalId(cs.loadInt(32).longValue()).build();
+    return ConfigParams19.builder().globalId(cs.loadIntAsLong(32)).build();
   }
 }
@@ -40,9 +40,9 @@ public class ConfigParams44 implements Serializable {
 
   public static ConfigParams44 deserialize(CellSlice cs) {
     return ConfigParams44.builder()
-        .magic(cs.loadUint(8).intValue())
+        .magic(cs.loadUintAsInt(8))
         .suspendedAddressList(cs.loadDictE(288, k -> k.readUint(288), v -> v))
-        .suspendedUntil(cs.loadUint(32).longValue())
+        .suspendedUntil(cs.loadUintAsLong(32))
         .build();
   }
 }
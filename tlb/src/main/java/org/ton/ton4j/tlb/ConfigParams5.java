@@ -47,10 +47,10 @@ public class ConfigParams5 implements Serializable {
 
   public static ConfigParams5 deserialize(CellSlice cs) {
     return ConfigParams5.builder()
-        .magic(cs.loadUint(8).longValue())
+        .magic(cs.loadUintAsLong(8))
         .blackholeAddr(cs.loadBit() ? cs.loadUint(256) : null)
-        .feeBurnNum(cs.loadUint(32).longValue())
-        .feeBurnDenom(cs.loadUint(32).longValue())
+        .feeBurnNum(cs.loadUintAsLong(32))
+        .feeBurnDenom(cs.loadUintAsLong(32))
         .build();
   }
 }
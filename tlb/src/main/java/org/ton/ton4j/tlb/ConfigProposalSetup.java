@@ -50,15 +50,15 @@ public class ConfigProposalSetup implements Serializable {
 
   public static ConfigProposalSetup deserialize(CellSlice cs) {
     return ConfigProposalSetup.builder()
-        .cfgVoteCfg(cs.loadUint(8).intValue())
-        .minTotRounds(cs.loadUint(8).intValue())
-        .maxTotRounds(cs.loadUint(8).intValue())
-        .minWins(cs.loadUint(8).intValue())
-        .maxLosses(cs.loadUint(8).intValue())
-        .minStoreSec(cs.loadUint(32).intValue())
-        .maxStoreSec(cs.loadUint(32).intValue())
-        .bitPrice(cs.loadUint(32).intValue())
-        .cellPrice(cs.loadUint(32).intValue())
+        .cfgVoteCfg(cs.loadUintAsInt(8))
+        .minTotRounds(cs.loadUintAsInt(8))
+        .maxTotRounds(cs.loadUintAsInt(8))
+        .minWins(cs.loadUintAsInt(8))
+        .maxLosses(cs.loadUintAsInt(8))
+        .minStoreSec(cs.loadUintAsInt(32))
+        .maxStoreSec(cs.loadUintAsInt(32))
+        .bitPrice(cs.loadUintAsInt(32))
+        .cellPrice(cs.loadUintAsInt(32))
         .build();
   }
 }
@@ -42,7 +42,7 @@ public class ConfigVotingSetup implements Serializable {
 
   public static ConfigVotingSetup deserialize(CellSlice cs) {
     return ConfigVotingSetup.builder()
-        .cfgVoteSetup(cs.loadUint(8).intValue())
+        .cfgVoteSetup(cs.loadUintAsInt(8))
         .normalParams(ConfigProposalSetup.deserialize(CellSlice.beginParse(cs.loadRef())))
         .criticalParams(ConfigProposalSetup.deserialize(CellSlice.beginParse(cs.loadRef())))
         .build();
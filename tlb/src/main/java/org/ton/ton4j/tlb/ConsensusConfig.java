@@ -38,7 +38,7 @@ public interface ConsensusConfig {
   Cell toCell();
 
   static ConsensusConfig deserialize(CellSlice cs) {
-    int magic = cs.preloadUint(8).intValue();
+    int magic = cs.preloadUintAsInt(8);
     if (magic == 0xd6) {
       return ConsensusConfigV1.deserialize(cs);
     } else if (magic == 0xd7) {
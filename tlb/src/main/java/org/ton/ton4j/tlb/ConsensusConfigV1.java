@@ -46,15 +46,15 @@ public class ConsensusConfigV1 implements ConsensusConfig, Serializable {
 
   public static ConsensusConfigV1 deserialize(CellSlice cs) {
     return ConsensusConfigV1.builder()
-        .magic(cs.loadUint(8).intValue())
-        .roundCandidates(cs.loadUint(32).intValue())
-        .nextCandidateDelayMs(cs.loadUint(32).longValue())
-        .consensusTimeoutMs(cs.loadUint(32).longValue())
-        .fastAttempts(cs.loadUint(32).longValue())
-        .attemptDuration(cs.loadUint(32).longValue())
-        .catchainNaxDeps(cs.loadUint(32).longValue())
-        .maxBlockBytes(cs.loadUint(32).longValue())
-        .maxCollatedBytes(cs.loadUint(32).longValue())
+        .magic(cs.loadUintAsInt(8))
+        .roundCandidates(cs.loadUintAsInt(32))
+        .nextCandidateDelayMs(cs.loadUintAsLong(32))
+        .consensusTimeoutMs(cs.loadUintAsLong(32))
+        .fastAttempts(cs.loadUintAsLong(32))
+        .attemptDuration(cs.loadUintAsLong(32))
+        .catchainNaxDeps(cs.loadUintAsLong(32))
+        .maxBlockBytes(cs.loadUintAsLong(32))
+        .maxCollatedBytes(cs.loadUintAsLong(32))
         .build();
   }
 }
@@ -32,7 +32,7 @@ public class CreatorStats implements Serializable {
   }
 
   public static CreatorStats deserialize(CellSlice cs) {
-    long magic = cs.loadUint(4).longValue();
+    long magic = cs.loadUintAsLong(4);
 
     // Handle empty/null dictionary entries (magic 0x0) by returning zero counters
     // This matches the original TON implementation behavior in unpack_CreatorStats()
@@ -28,7 +28,7 @@ public class CryptoSignature implements Serializable {
   }
 
   public static CryptoSignature deserialize(CellSlice cs) {
-    long magic = cs.loadUint(4).longValue();
+    long magic = cs.loadUintAsLong(4);
     assert (magic == 0x5)
         : "CryptoSignature: magic not equal to 0x5, found 0x" + Long.toHexString(magic);
 
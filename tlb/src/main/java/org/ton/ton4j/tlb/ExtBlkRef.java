@@ -53,7 +53,7 @@ public class ExtBlkRef implements Serializable {
   public static ExtBlkRef deserialize(CellSlice cs) {
     return ExtBlkRef.builder()
         .endLt(cs.loadUint(64))
-        .seqno(cs.loadUint(32).intValue())
+        .seqno(cs.loadUintAsInt(32))
         .rootHash(cs.loadUint(256))
         .fileHash(cs.loadUint(256))
         .build();
@@ -48,7 +48,7 @@ public class ExternalMessageInInfo implements CommonMsgInfo, Serializable {
   }
 
   public static ExternalMessageInInfo deserialize(CellSlice cs) {
-    long magic = cs.loadUint(2).intValue();
+    long magic = cs.loadUintAsInt(2);
     assert (magic == 0b10)
         : "ExternalMessage: magic not equal to 0b10, found 0b" + Long.toBinaryString(magic);
     return ExternalMessageInInfo.builder()
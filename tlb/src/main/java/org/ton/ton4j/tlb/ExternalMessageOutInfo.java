@@ -49,7 +49,7 @@ public class ExternalMessageOutInfo implements CommonMsgInfo, Serializable {
   }
 
   public static ExternalMessageOutInfo deserialize(CellSlice cs) {
-    long magic = cs.loadUint(2).intValue();
+    long magic = cs.loadUintAsInt(2);
     assert (magic == 0b11)
         : "ExternalMessageOut: magic not equal to 0b11, found 0b" + Long.toBinaryString(magic);
     return ExternalMessageOutInfo.builder()
@@ -57,7 +57,7 @@ public class ExternalMessageOutInfo implements CommonMsgInfo, Serializable {
         .srcAddr(MsgAddressInt.deserialize(cs))
         .dstAddr(MsgAddressExt.deserialize(cs))
         .createdLt(cs.loadUint(64))
-        .createdAt(cs.loadUint(32).longValue())
+        .createdAt(cs.loadUintAsLong(32))
         .build();
   }
 
@@ -49,7 +49,7 @@ public class ExternalMessageOutInfoRelaxed implements CommonMsgInfoRelaxed, Seri
   }
 
   public static ExternalMessageOutInfoRelaxed deserialize(CellSlice cs) {
-    long magic = cs.loadUint(2).intValue();
+    long magic = cs.loadUintAsInt(2);
     assert (magic == 0b11)
         : "ExternalMessageOutInfoRelaxed: magic not equal to 0b11, found 0b"
             + Long.toBinaryString(magic);
@@ -58,7 +58,7 @@ public class ExternalMessageOutInfoRelaxed implements CommonMsgInfoRelaxed, Seri
         .srcAddr(MsgAddress.deserialize(cs))
         .dstAddr(MsgAddressExt.deserialize(cs))
         .createdLt(cs.loadUint(64))
-        .createdAt(cs.loadUint(32).longValue())
+        .createdAt(cs.loadUintAsLong(32))
         .build();
   }
 }
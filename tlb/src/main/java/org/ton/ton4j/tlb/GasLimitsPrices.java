@@ -8,7 +8,7 @@ public interface GasLimitsPrices {
   Cell toCell();
 
   static GasLimitsPrices deserialize(CellSlice cs) {
-    int magic = cs.preloadUint(8).intValue();
+    int magic = cs.preloadUintAsInt(8);
 
     if (magic == 0xdd) {
       return GasLimitsPricesOrdinary.deserialize(cs);
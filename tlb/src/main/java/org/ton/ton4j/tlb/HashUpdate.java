@@ -46,7 +46,7 @@ public class HashUpdate implements Serializable {
     if (cs.isExotic()) {
       return HashUpdate.builder().build();
     }
-    long magic = cs.loadUint(8).intValue();
+    long magic = cs.loadUintAsInt(8);
     assert (magic == 0x72)
         : "HashUpdate: magic not equal to 0x72, found 0x" + Long.toHexString(magic);
 
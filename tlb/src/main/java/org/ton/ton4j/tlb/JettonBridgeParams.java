@@ -7,7 +7,7 @@ public interface JettonBridgeParams {
   Cell toCell();
 
   static JettonBridgeParams deserialize(CellSlice cs) {
-    int magic = cs.preloadUint(8).intValue();
+    int magic = cs.preloadUintAsInt(8);
     if (magic == 0x00) {
       return JettonBridgeParamsV1.deserialize(cs);
     } else if (magic == 0x01) {
@@ -50,12 +50,12 @@ public class JettonBridgeParamsV1 implements JettonBridgeParams, Serializable {
 
   public static JettonBridgeParamsV1 deserialize(CellSlice cs) {
     return JettonBridgeParamsV1.builder()
-        .magic(cs.loadUint(8).intValue())
+        .magic(cs.loadUintAsInt(8))
         .bridgeAddress(cs.loadUint(256))
         .oracleAddress(cs.loadUint(256))
         .oracles(
             cs.loadDictE(256, k -> k.readUint(256), v -> CellSlice.beginParse(v).loadUint(256)))
-        .stateFlags(cs.loadUint(8).intValue())
+        .stateFlags(cs.loadUintAsInt(8))
         .burnBridgeFee(cs.loadCoins())
         .build();
   }
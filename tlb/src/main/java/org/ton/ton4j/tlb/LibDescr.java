@@ -40,7 +40,7 @@ public class LibDescr implements Serializable {
   }
 
   public static LibDescr deserialize(CellSlice cs) {
-    long magic = cs.loadUint(2).longValue();
+    long magic = cs.loadUintAsLong(2);
     assert (magic == 0b00)
         : "LibDescr: magic not equal to 0b00, found 0x" + Long.toHexString(magic);
     return LibDescr.builder()
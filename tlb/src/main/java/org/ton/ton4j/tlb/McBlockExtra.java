@@ -55,7 +55,7 @@ public class McBlockExtra implements Serializable {
   }
 
   public static McBlockExtra deserialize(CellSlice cs) {
-    long magic = cs.loadUint(16).longValue();
+    long magic = cs.loadUintAsLong(16);
     assert (magic == 0xcca5L)
         : "McBlockExtra: magic not equal to 0xcca5, found 0x" + Long.toHexString(magic);
 
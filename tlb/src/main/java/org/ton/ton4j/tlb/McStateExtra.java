@@ -57,7 +57,7 @@ public class McStateExtra implements Serializable {
     if (cs.isExotic()) {
       return null;
     }
-    long magic = cs.loadUint(16).longValue();
+    long magic = cs.loadUintAsLong(16);
     assert (magic == 0xcc26L)
         : "McStateExtra: magic not equal to 0xcc26, found 0x" + Long.toHexString(magic);
 
@@ -113,7 +113,7 @@ public class Message implements Serializable {
   public String getComment() {
     if (nonNull(body)) {
       CellSlice cs = CellSlice.beginParse(body);
-      if (cs.preloadUint(32).longValue() == 0) {
+      if (cs.preloadUintAsLong(32) == 0) {
         if (cs.getRefsCount() == 1) {
           cs.loadUint(32);
           return cs.loadSnakeString();
@@ -30,7 +30,7 @@ public interface MsgAddress extends Serializable {
 
   static MsgAddress deserialize(CellSlice cs) {
 
-    int magic = cs.preloadUint(2).intValue();
+    int magic = cs.preloadUintAsInt(2);
     switch (magic) {
       case 0b00:
         {
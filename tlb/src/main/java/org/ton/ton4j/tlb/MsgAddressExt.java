@@ -18,7 +18,7 @@ public interface MsgAddressExt extends MsgAddress {
   Cell toCell();
 
   static MsgAddressExt deserialize(CellSlice cs) {
-    int magic = cs.preloadUint(2).intValue();
+    int magic = cs.preloadUintAsInt(2);
 
     if (magic == 0b00) {
       return MsgAddressExtNone.deserialize(cs);
@@ -29,7 +29,7 @@ public class MsgAddressExtNone implements MsgAddressExt, Serializable {
   }
 
   public static MsgAddressExtNone deserialize(CellSlice cs) {
-    int magic = cs.loadUint(2).intValue();
+    int magic = cs.loadUintAsInt(2);
     assert (magic == 0b00) : "MsgAddressExtNone: magic not equal to 0b00, found " + magic;
 
     return MsgAddressExtNone.builder().magic(magic).build();
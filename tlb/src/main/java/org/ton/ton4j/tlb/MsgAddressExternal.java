@@ -38,9 +38,9 @@ public class MsgAddressExternal implements MsgAddressExt, Serializable {
   }
 
   public static MsgAddressExternal deserialize(CellSlice cs) {
-    int magic = cs.loadUint(2).intValue();
+    int magic = cs.loadUintAsInt(2);
     assert (magic == 0b01) : "MsgAddressExternal: magic not equal to 0b01, found " + magic;
-    int len = cs.loadUint(9).intValue();
+    int len = cs.loadUintAsInt(9);
     BigInteger externalAddress = cs.loadUint(len);
     return MsgAddressExternal.builder()
         .magic(magic)
@@ -19,7 +19,7 @@ public interface MsgAddressInt extends MsgAddress {
   Address toAddress();
 
   static MsgAddressInt deserialize(CellSlice cs) {
-    int magic = cs.preloadUint(2).intValue();
+    int magic = cs.preloadUintAsInt(2);
     switch (magic) {
       case 0b10:
         {
@@ -51,19 +51,19 @@ public class MsgAddressIntVar implements MsgAddressInt, Serializable {
   }
 
   public static MsgAddressIntVar deserialize(CellSlice cs) {
-    int magic = cs.loadUint(2).intValue();
+    int magic = cs.loadUintAsInt(2);
     assert (magic == 0b11) : "MsgAddressIntVar: magic not equal to 0b11, found " + magic;
 
     Anycast anycast = null;
     if (cs.loadBit()) {
       anycast = Anycast.deserialize(cs);
     }
-    int addrLen = cs.loadUint(9).intValue();
+    int addrLen = cs.loadUintAsInt(9);
     return MsgAddressIntVar.builder()
         .magic(magic)
         .anycast(anycast)
         .addrLen(addrLen)
-        .workchainId(cs.loadInt(32).intValue())
+        .workchainId(cs.loadIntAsInt(32))
         .address(cs.loadUint(addrLen))
         .build();
   }
@@ -10,7 +10,7 @@ public interface MsgEnvelope {
     if (cs.isExotic()) {
       return MsgEnvelopeV1.builder().build();
     }
-    int msgEnvelopeFlag = cs.preloadUint(4).intValue();
+    int msgEnvelopeFlag = cs.preloadUintAsInt(4);
     switch (msgEnvelopeFlag) {
       case 4:
         {
@@ -44,7 +44,7 @@ public class MsgEnvelopeV1 implements MsgEnvelope, Serializable {
   }
 
   public static MsgEnvelopeV1 deserialize(CellSlice cs) {
-    long magic = cs.loadUint(4).longValue();
+    long magic = cs.loadUintAsLong(4);
     assert (magic == 4) : "MsgEnvelopeV1: magic not equal to 4, found 0x" + Long.toHexString(magic);
 
     return MsgEnvelopeV1.builder()
@@ -48,7 +48,7 @@ public class MsgEnvelopeV2 implements MsgEnvelope, Serializable {
   }
 
   public static MsgEnvelopeV2 deserialize(CellSlice cs) {
-    long magic = cs.loadUint(4).longValue();
+    long magic = cs.loadUintAsLong(4);
     assert (magic == 5) : "MsgEnvelopeV2: magic not equal to 5, found 0x" + Long.toHexString(magic);
 
     return MsgEnvelopeV2.builder()
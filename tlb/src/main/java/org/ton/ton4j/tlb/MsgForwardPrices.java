@@ -34,13 +34,13 @@ public class MsgForwardPrices implements Serializable {
 
   public static MsgForwardPrices deserialize(CellSlice cs) {
     return MsgForwardPrices.builder()
-        .magic(cs.loadUint(8).intValue())
+        .magic(cs.loadUintAsInt(8))
         .lumpPrice(cs.loadUint(64))
         .bitPrice(cs.loadUint(64))
         .cellPrice(cs.loadUint(64))
-        .ihrPriceFactor(cs.loadUint(32).longValue())
-        .firstFrac(cs.loadUint(16).intValue())
-        .nextFrac(cs.loadUint(16).intValue())
+        .ihrPriceFactor(cs.loadUintAsLong(32))
+        .firstFrac(cs.loadUintAsInt(16))
+        .nextFrac(cs.loadUintAsInt(16))
         .build();
   }
 }
@@ -36,12 +36,12 @@ public class MsgMetaData implements MsgEnvelope, Serializable {
 
   public static MsgMetaData deserialize(CellSlice cs) {
     return null;
-    //    long magic = cs.loadUint(4).longValue();
+    //    long magic = cs.loadUintAsLong(4);
     //    assert (magic == 0) : "MsgMetaData: magic not equal to 0, found 0x" +
     // Long.toHexString(magic);
     //
     //    return MsgMetaData.builder()
-    //        .depth(cs.loadUint(32).longValue())
+    //        .depth(cs.loadUintAsLong(32))
     //        .initiatorAddress(
     //            MsgAddressInt.deserialize(cs)) // there are blocks with ext address though, todo
     //        .initiatorLt(cs.loadUint(64))
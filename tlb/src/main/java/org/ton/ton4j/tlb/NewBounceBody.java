@@ -62,11 +62,11 @@ public class NewBounceBody implements Serializable {
   public static NewBounceBody deserialize(CellSlice cs) {
     NewBounceBody newBounceBody =
         NewBounceBody.builder()
-            .magic(cs.loadUint(32).longValue())
+            .magic(cs.loadUintAsLong(32))
             .originalBody(cs.loadRef())
             .originalInfo(NewBounceOriginalInfo.deserialize(CellSlice.beginParse(cs.loadRef())))
-            .bouncedByPhase(cs.loadUint(8).intValue())
-            .exitCode(cs.loadUint(32).longValue())
+            .bouncedByPhase(cs.loadUintAsInt(8))
+            .exitCode(cs.loadUintAsLong(32))
             .build();
     if (cs.loadBit()) {
       newBounceBody.setComputePhase(
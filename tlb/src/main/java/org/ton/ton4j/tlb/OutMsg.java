@@ -22,7 +22,7 @@ public interface OutMsg {
 
   static OutMsg deserialize(CellSlice cs) {
 
-    int outMsgFlag = cs.preloadUint(3).intValue();
+    int outMsgFlag = cs.preloadUintAsInt(3);
     switch (outMsgFlag) {
       case 0b000:
         {
@@ -35,7 +35,7 @@ public class OutMsgExt implements OutMsg, Serializable {
 
   public static OutMsgExt deserialize(CellSlice cs) {
     return OutMsgExt.builder()
-        .magic(cs.loadUint(3).intValue())
+        .magic(cs.loadUintAsInt(3))
         .msg(Message.deserialize(CellSlice.beginParse(cs.loadRef())))
         .transaction(Transaction.deserialize(CellSlice.beginParse(cs.loadRef())))
         .build();
@@ -30,7 +30,7 @@ public class OutMsgImm implements OutMsg, Serializable {
 
   public static OutMsgImm deserialize(CellSlice cs) {
     return OutMsgImm.builder()
-        .magic(cs.loadUint(3).intValue())
+        .magic(cs.loadUintAsInt(3))
         .msg(MsgEnvelope.deserialize(CellSlice.beginParse(cs.loadRef())))
         .transaction(Transaction.deserialize(CellSlice.beginParse(cs.loadRef())))
         .reimport(InMsg.deserialize(CellSlice.beginParse(cs.loadRef())))
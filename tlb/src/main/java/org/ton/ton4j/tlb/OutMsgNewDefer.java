@@ -39,7 +39,7 @@ public class OutMsgNewDefer implements OutMsg, Serializable {
     stopWatch.start();
     OutMsgNewDefer result =
         OutMsgNewDefer.builder()
-            .magic(cs.loadUint(5).intValue())
+            .magic(cs.loadUintAsInt(5))
             .outMsg(MsgEnvelope.deserialize(CellSlice.beginParse(cs.loadRef())))
             .transaction(Transaction.deserialize(CellSlice.beginParse(cs.loadRef())))
             .build();
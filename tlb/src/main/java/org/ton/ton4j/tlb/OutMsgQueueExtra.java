@@ -35,13 +35,13 @@ public class OutMsgQueueExtra implements Serializable {
   }
 
   public static OutMsgQueueExtra deserialize(CellSlice cs) {
-    long magic = cs.loadUint(4).longValue();
+    long magic = cs.loadUintAsLong(4);
     assert (magic == 0)
         : "OutMsgQueueExtra: magic not equal to 0, found 0x" + Long.toHexString(magic);
     return OutMsgQueueExtra.builder()
         .magic(magic)
         .dispatchQueue(DispatchQueue.deserialize(cs))
-        .outQueueSize(cs.loadBit() ? cs.loadUint(48).longValue() : null)
+        .outQueueSize(cs.loadBit() ? cs.loadUintAsLong(48) : null)
         .build();
   }
 }
@@ -39,7 +39,7 @@ public class OutMsgTr implements OutMsg, Serializable {
     stopWatch.start();
     OutMsgTr result =
         OutMsgTr.builder()
-            .magic(cs.loadUint(3).intValue())
+            .magic(cs.loadUintAsInt(3))
             .outMsg(MsgEnvelope.deserialize(CellSlice.beginParse(cs.loadRef())))
             .imported(InMsg.deserialize(CellSlice.beginParse(cs.loadRef())))
             .build();
@@ -39,7 +39,7 @@ public class OutMsgTrReq implements OutMsg, Serializable {
     stopWatch.start();
     OutMsgTrReq result =
         OutMsgTrReq.builder()
-            .magic(cs.loadUint(3).intValue())
+            .magic(cs.loadUintAsInt(3))
             .msg(MsgEnvelope.deserialize(CellSlice.beginParse(cs.loadRef())))
             .imported(InMsg.deserialize(CellSlice.beginParse(cs.loadRef())))
             .build();
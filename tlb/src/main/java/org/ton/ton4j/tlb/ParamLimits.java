@@ -26,10 +26,10 @@ public class ParamLimits implements Serializable {
 
   public static ParamLimits deserialize(CellSlice cs) {
     return ParamLimits.builder()
-        .magic(cs.loadUint(8).intValue())
-        .underload(cs.loadUint(32).intValue())
-        .softLimit(cs.loadUint(32).intValue())
-        .hardLimit(cs.loadUint(32).intValue())
+        .magic(cs.loadUintAsInt(8))
+        .underload(cs.loadUintAsInt(32))
+        .softLimit(cs.loadUintAsInt(32))
+        .hardLimit(cs.loadUintAsInt(32))
         .build();
   }
 }
@@ -61,7 +61,7 @@ public class ShardState implements Serializable {
   }
 
   public static ShardState deserialize(CellSlice cs) {
-    long tag = cs.preloadUint(32).longValue();
+    long tag = cs.preloadUintAsLong(32);
     if (tag == 0x5f327da5L) {
       ShardStateUnsplit left, right;
       left = ShardStateUnsplit.deserialize(CellSlice.beginParse(cs.loadRef()));
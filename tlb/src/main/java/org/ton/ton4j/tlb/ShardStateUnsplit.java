@@ -78,20 +78,20 @@ public class ShardStateUnsplit implements Serializable {
     if (cs.isExotic()) {
       return ShardStateUnsplit.builder().build();
     }
-    long magic = cs.loadUint(32).longValue();
+    long magic = cs.loadUintAsLong(32);
     assert (magic == 0x9023afe2L)
         : "ShardStateUnsplit magic not equal to 0x9023afe2L, found 0x" + Long.toHexString(magic);
 
     ShardStateUnsplit shardStateUnsplit =
         ShardStateUnsplit.builder()
             .magic(magic)
-            .globalId(cs.loadInt(32).intValue())
+            .globalId(cs.loadIntAsInt(32))
             .shardIdent(ShardIdent.deserialize(cs)) // 104
-            .seqno(cs.loadUint(32).longValue())
-            .vertSeqno(cs.loadUint(32).longValue())
-            .genUTime(cs.loadUint(32).longValue())
+            .seqno(cs.loadUintAsLong(32))
+            .vertSeqno(cs.loadUintAsLong(32))
+            .genUTime(cs.loadUintAsLong(32))
             .genLt(cs.loadUint(64))
-            .minRefMCSeqno(cs.loadUint(32).longValue())
+            .minRefMCSeqno(cs.loadUintAsLong(32))
             .build(); // 360 bits
 
     //    shardStateUnsplit.setOutMsgQueueInfo(cs.loadRef());
@@ -116,19 +116,19 @@ public class ShardStateUnsplit implements Serializable {
     if (cs.isExotic()) {
       return ShardStateUnsplit.builder().build();
     }
-    long magic = cs.loadUint(32).longValue();
+    long magic = cs.loadUintAsLong(32);
     assert (magic == 0x9023afe2L)
         : "ShardStateUnsplit magic not equal to 0x9023afe2L, found 0x" + Long.toHexString(magic);
 
     return ShardStateUnsplit.builder()
         .magic(magic)
-        .globalId(cs.loadInt(32).intValue())
+        .globalId(cs.loadIntAsInt(32))
         .shardIdent(ShardIdent.deserialize(cs)) // 104 bits
-        .seqno(cs.loadUint(32).longValue())
-        .vertSeqno(cs.loadUint(32).longValue())
-        .genUTime(cs.loadUint(32).longValue())
+        .seqno(cs.loadUintAsLong(32))
+        .vertSeqno(cs.loadUintAsLong(32))
+        .genUTime(cs.loadUintAsLong(32))
         .genLt(cs.loadUint(64))
-        .minRefMCSeqno(cs.loadUint(32).longValue())
+        .minRefMCSeqno(cs.loadUintAsLong(32))
         .build(); // 360 bits
   }
 
@@ -137,20 +137,20 @@ public class ShardStateUnsplit implements Serializable {
     if (cs.isExotic()) {
       return ShardStateUnsplit.builder().build();
     }
-    long magic = cs.loadUint(32).longValue();
+    long magic = cs.loadUintAsLong(32);
     assert (magic == 0x9023afe2L)
         : "ShardStateUnsplit magic not equal to 0x9023afe2L, found 0x" + Long.toHexString(magic);
 
     ShardStateUnsplit shardStateUnsplit =
         ShardStateUnsplit.builder()
             .magic(magic)
-            .globalId(cs.loadInt(32).intValue())
+            .globalId(cs.loadIntAsInt(32))
             .shardIdent(ShardIdent.deserialize(cs)) // 104
-            .seqno(cs.loadUint(32).longValue())
-            .vertSeqno(cs.loadUint(32).longValue())
-            .genUTime(cs.loadUint(32).longValue())
+            .seqno(cs.loadUintAsLong(32))
+            .vertSeqno(cs.loadUintAsLong(32))
+            .genUTime(cs.loadUintAsLong(32))
             .genLt(cs.loadUint(64))
-            .minRefMCSeqno(cs.loadUint(32).longValue())
+            .minRefMCSeqno(cs.loadUintAsLong(32))
             .build(); // 360 bits
 
     //    shardStateUnsplit.setOutMsgQueueInfo(cs.loadRef());
@@ -26,6 +26,6 @@ public class SigPubKey implements Serializable {
   }
 
   public static SigPubKey deserialize(CellSlice cs) {
-    return SigPubKey.builder().magic(cs.loadUint(32).longValue()).pubkey(cs.loadUint(256)).build();
+    return SigPubKey.builder().magic(cs.loadUintAsLong(32)).pubkey(cs.loadUint(256)).build();
   }
 }
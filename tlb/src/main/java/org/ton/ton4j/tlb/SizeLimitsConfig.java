@@ -8,7 +8,7 @@ public interface SizeLimitsConfig {
     Cell toCell();
 
     static SizeLimitsConfig deserialize(CellSlice cs) {
-        int magic = cs.preloadUint(8).intValue();
+        int magic = cs.preloadUintAsInt(8);
         if (magic == 0x01) {
             return SizeLimitsConfigV1.deserialize(cs);
         } else if (magic == 0x02) {
@@ -32,13 +32,13 @@ public class SizeLimitsConfigV1 implements SizeLimitsConfig, Serializable {
 
   public static SizeLimitsConfigV1 deserialize(CellSlice cs) {
     return SizeLimitsConfigV1.builder()
-        .magic(cs.loadUint(8).intValue())
-        .maxMsgBits(cs.loadUint(32).longValue())
-        .maxMsgCells(cs.loadUint(32).longValue())
-        .maxLibraryCells(cs.loadUint(32).longValue())
-        .maxVmDataDepth(cs.loadUint(32).intValue())
-        .maxExtMsgSize(cs.loadUint(32).longValue())
-        .maxExtMsgDepth(cs.loadUint(32).intValue())
+        .magic(cs.loadUintAsInt(8))
+        .maxMsgBits(cs.loadUintAsLong(32))
+        .maxMsgCells(cs.loadUintAsLong(32))
+        .maxLibraryCells(cs.loadUintAsLong(32))
+        .maxVmDataDepth(cs.loadUintAsInt(32))
+        .maxExtMsgSize(cs.loadUintAsLong(32))
+        .maxExtMsgDepth(cs.loadUintAsInt(32))
         .build();
   }
 }
@@ -44,19 +44,19 @@ public class SizeLimitsConfigV2 implements SizeLimitsConfig, Serializable {
 
   public static SizeLimitsConfigV2 deserialize(CellSlice cs) {
     return SizeLimitsConfigV2.builder()
-        .magic(cs.loadUint(8).intValue())
-        .maxMsgBits(cs.loadUint(32).longValue())
-        .maxMsgCells(cs.loadUint(32).longValue())
-        .maxLibraryCells(cs.loadUint(32).longValue())
-        .maxVmDataDepth(cs.loadUint(32).intValue())
-        .maxExtMsgSize(cs.loadUint(32).longValue())
-        .maxExtMsgDepth(cs.loadUint(32).intValue())
-        .maxAccStateCells(cs.loadUint(32).longValue())
-        .maxAccStateBits(cs.loadUint(32).longValue())
-        .maxAccPublicLibraries(cs.loadUint(32).longValue())
-        .deferOutQueueSizeLimit(cs.loadUint(32).longValue())
-        .maxMsgExtraCurrencies(cs.loadUint(32).longValue())
-        .maxAccFixedPrefixLength(cs.loadUint(8).longValue())
+        .magic(cs.loadUintAsInt(8))
+        .maxMsgBits(cs.loadUintAsLong(32))
+        .maxMsgCells(cs.loadUintAsLong(32))
+        .maxLibraryCells(cs.loadUintAsLong(32))
+        .maxVmDataDepth(cs.loadUintAsInt(32))
+        .maxExtMsgSize(cs.loadUintAsLong(32))
+        .maxExtMsgDepth(cs.loadUintAsInt(32))
+        .maxAccStateCells(cs.loadUintAsLong(32))
+        .maxAccStateBits(cs.loadUintAsLong(32))
+        .maxAccPublicLibraries(cs.loadUintAsLong(32))
+        .deferOutQueueSizeLimit(cs.loadUintAsLong(32))
+        .maxMsgExtraCurrencies(cs.loadUintAsLong(32))
+        .maxAccFixedPrefixLength(cs.loadUintAsLong(8))
         .build();
   }
 }
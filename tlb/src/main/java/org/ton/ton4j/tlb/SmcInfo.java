@@ -57,10 +57,10 @@ public class SmcInfo implements Serializable {
 
   public static SmcInfo deserialize(CellSlice cs) {
     return SmcInfo.builder()
-        .magic(cs.loadUint(32).intValue())
-        .actions(cs.loadUint(16).longValue())
-        .msgsSent(cs.loadUint(16).longValue())
-        .unixtime(cs.loadUint(32).longValue())
+        .magic(cs.loadUintAsInt(32))
+        .actions(cs.loadUintAsLong(16))
+        .msgsSent(cs.loadUintAsLong(16))
+        .unixtime(cs.loadUintAsLong(32))
         .blockLt(cs.loadUint(64))
         .transLt(cs.loadUint(64))
         .randSeed(cs.loadUint(256))
@@ -39,8 +39,8 @@ public class SplitMergeInfo implements Serializable {
 
   public static SplitMergeInfo deserialize(CellSlice cs) {
     return SplitMergeInfo.builder()
-        .curShardPfxLen(cs.loadUint(6).intValue())
-        .accSplitDepth(cs.loadUint(6).intValue())
+        .curShardPfxLen(cs.loadUintAsInt(6))
+        .accSplitDepth(cs.loadUintAsInt(6))
         .thisAddr(cs.loadUint(256))
         .siblingAddr(cs.loadUint(256))
         .build();
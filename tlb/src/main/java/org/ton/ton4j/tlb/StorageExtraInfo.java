@@ -9,7 +9,7 @@ public interface StorageExtraInfo extends Serializable {
   Cell toCell();
 
   static StorageExtraInfo deserialize(CellSlice cs) {
-    int magic = cs.preloadUint(3).intValue();
+    int magic = cs.preloadUintAsInt(3);
     if (magic == 0b000) {
       return StorageExtraNone.deserialize(cs);
     } else if (magic == 0b001) {
@@ -26,6 +26,6 @@ public class StorageExtraNone implements StorageExtraInfo, Serializable {
   }
 
   public static StorageExtraNone deserialize(CellSlice cs) {
-    return StorageExtraNone.builder().magic(cs.loadUint(3).intValue()).build();
+    return StorageExtraNone.builder().magic(cs.loadUintAsInt(3)).build();
   }
 }
@@ -104,7 +104,7 @@ public class Transaction implements Serializable {
   }
 
   public static Transaction deserialize(CellSlice cs) {
-    long magic = cs.loadUint(4).intValue();
+    long magic = cs.loadUintAsInt(4);
     assert (magic == 0b0111)
         : "Transaction: magic not equal to 0b0111, found 0b" + Long.toBinaryString(magic);
 
@@ -115,8 +115,8 @@ public class Transaction implements Serializable {
             .lt(cs.loadUint(64))
             .prevTxHash(cs.loadUint(256))
             .prevTxLt(cs.loadUint(64))
-            .now(cs.loadUint(32).longValue())
-            .outMsgCount(cs.loadUint(15).intValue())
+            .now(cs.loadUintAsLong(32))
+            .outMsgCount(cs.loadUintAsInt(15))
             .origStatus(deserializeAccountState(cs.loadUint(2).byteValue()))
             .endStatus(deserializeAccountState(cs.loadUint(2).byteValueExact()))
             .build();
@@ -71,7 +71,7 @@ public interface TransactionDescription {
   Cell toCell();
 
   static TransactionDescription deserialize(CellSlice cs) {
-    int pfx = cs.preloadUint(3).intValue();
+    int pfx = cs.preloadUintAsInt(3);
     switch (pfx) {
       case 0b000:
         {
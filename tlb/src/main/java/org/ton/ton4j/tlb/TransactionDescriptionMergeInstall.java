@@ -56,7 +56,7 @@ public class TransactionDescriptionMergeInstall implements TransactionDescriptio
   }
 
   public static TransactionDescriptionMergeInstall deserialize(CellSlice cs) {
-    long magic = cs.loadUint(4).intValue();
+    long magic = cs.loadUintAsInt(4);
     assert (magic == 0b0111)
         : "TransactionDescriptionMergeInstall: magic not equal to 0b0111, found 0x"
             + Long.toHexString(magic);
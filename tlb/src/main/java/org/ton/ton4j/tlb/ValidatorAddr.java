@@ -37,7 +37,7 @@ public class ValidatorAddr implements ValidatorDescr, Serializable {
 
   public static ValidatorAddr deserialize(CellSlice cs) {
     return ValidatorAddr.builder()
-        .magic(cs.loadUint(8).intValue())
+        .magic(cs.loadUintAsInt(8))
         .publicKey(SigPubKey.deserialize(cs))
         .weight(cs.loadUint(64))
         .adnlAddr(cs.loadUint(256))
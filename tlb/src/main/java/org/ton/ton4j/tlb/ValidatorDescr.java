@@ -17,7 +17,7 @@ public interface ValidatorDescr {
   Cell toCell();
 
   static ValidatorDescr deserialize(CellSlice cs) {
-    int magic = cs.preloadUint(8).intValue();
+    int magic = cs.preloadUintAsInt(8);
     if (magic == 0x53) {
       return Validator.deserialize(cs);
     } else if (magic == 0x73) {
@@ -22,7 +22,7 @@ public interface ValidatorSet {
   Cell toCell();
 
   static ValidatorSet deserialize(CellSlice cs) {
-    int magic = cs.preloadUint(8).intValue();
+    int magic = cs.preloadUintAsInt(8);
     if (magic == 0x11) {
       return Validators.deserialize(cs);
     } else if (magic == 0x12) {
@@ -25,7 +25,7 @@ public class ValidatorSignedTempKey implements Serializable {
 
   public static ValidatorSignedTempKey deserialize(CellSlice cs) {
     return ValidatorSignedTempKey.builder()
-        .magic(cs.loadUint(4).intValue())
+        .magic(cs.loadUintAsInt(4))
         .key(ValidatorTempKey.deserialize(CellSlice.beginParse(cs.loadRef())))
         .signature(CryptoSignature.deserialize(cs))
         .build();
@@ -36,10 +36,10 @@ public class VmCellSlice implements Serializable {
   public static VmCellSlice deserialize(CellSlice cs) {
     return VmCellSlice.builder()
         .cell(cs.loadRef())
-        .stBits(cs.loadUint(10).intValue())
-        .endBits(cs.loadUint(10).intValue())
-        .stRef(cs.loadUint(3).intValue())
-        .endRef(cs.loadUint(3).intValue())
+        .stBits(cs.loadUintAsInt(10))
+        .endBits(cs.loadUintAsInt(10))
+        .stRef(cs.loadUintAsInt(3))
+        .endRef(cs.loadUintAsInt(3))
         .build();
   }
 }
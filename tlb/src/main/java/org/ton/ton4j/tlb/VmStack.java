@@ -19,7 +19,7 @@ public class VmStack implements Serializable {
   }
 
   public static VmStack deserialize(CellSlice cs) {
-    int depth = cs.loadUint(24).intValue();
+    int depth = cs.loadUintAsInt(24);
     return VmStack.builder().depth(depth).stack(VmStackList.deserialize(cs, depth)).build();
   }
 }
@@ -34,20 +34,20 @@ public interface VmStackValue {
       return null;
     }
 
-    int tag = cs.preloadUint(15).intValue();
+    int tag = cs.preloadUintAsInt(15);
 
     if (tag == 256) {
       return VmStackValueInt.deserialize(cs);
     }
 
-    int magic = cs.preloadUint(8).intValue();
+    int magic = cs.preloadUintAsInt(8);
 
     if (magic == 0x00) {
       return VmStackValueNull.deserialize(cs);
     } else if (magic == 0x01) {
       return VmStackValueTinyInt.deserialize(cs);
     } else if (magic == 0x02) {
-      int magic2 = cs.skipBits(8).preloadUint(7).intValue();
+      int magic2 = cs.skipBits(8).preloadUintAsInt(7);
       if (magic2 == 0) {
         return VmStackValueInt.deserialize(cs);
       } else {
@@ -63,7 +63,7 @@ public interface VmStackValue {
     } else if (magic == 0x06) {
       return VmStackValueCont.deserialize(cs);
     } else if (magic == 0x07) {
-      int len = cs.skipBits(8).loadUint(16).intValue();
+      int len = cs.skipBits(8).loadUintAsInt(16);
       return VmTuple.deserialize(cs, len);
     } else {
       throw new Error("Error deserializing VmStackValue, wrong magic " + magic);
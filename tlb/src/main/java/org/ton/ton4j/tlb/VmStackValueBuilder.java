@@ -21,7 +21,7 @@ public class VmStackValueBuilder implements VmStackValue, Serializable {
 
   public static VmStackValueBuilder deserialize(CellSlice cs) {
     return VmStackValueBuilder.builder()
-        .magic(cs.loadUint(8).intValue())
+        .magic(cs.loadUintAsInt(8))
         .cell(cs.loadRef())
         .build();
   }
@@ -20,6 +20,6 @@ public class VmStackValueCell implements VmStackValue, Serializable {
   }
 
   public static VmStackValueCell deserialize(CellSlice cs) {
-    return VmStackValueCell.builder().magic(cs.loadUint(8).intValue()).cell(cs.loadRef()).build();
+    return VmStackValueCell.builder().magic(cs.loadUintAsInt(8)).cell(cs.loadRef()).build();
   }
 }
@@ -21,7 +21,7 @@ public class VmStackValueSlice implements VmStackValue, Serializable {
 
   public static VmStackValueSlice deserialize(CellSlice cs) {
     return VmStackValueSlice.builder()
-        .magic(cs.loadUint(8).intValue())
+        .magic(cs.loadUintAsInt(8))
         .cell(VmCellSlice.deserialize(cs))
         .build();
   }
@@ -22,7 +22,7 @@ public class VmStackValueTinyInt implements VmStackValue, Serializable {
 
   public static VmStackValueTinyInt deserialize(CellSlice cs) {
     return VmStackValueTinyInt.builder()
-        .magic(cs.loadUint(8).intValue())
+        .magic(cs.loadUintAsInt(8))
         .value(cs.loadInt(64))
         .build();
   }
@@ -25,8 +25,8 @@ public class VmStackValueTuple implements VmStackValue, Serializable {
   }
 
   public static VmStackValueTuple deserialize(CellSlice cs) {
-    int magic = cs.loadUint(8).intValue();
-    int len = cs.loadUint(16).intValue();
+    int magic = cs.loadUintAsInt(8);
+    int len = cs.loadUintAsInt(16);
     return VmStackValueTuple.builder()
         .magic(magic)
         .len(len)
@@ -25,6 +25,6 @@ public class VmcEnvelope implements VmCont, Serializable {
   }
 
   public static VmcEnvelope deserialize(CellSlice cs) {
-    return VmcEnvelope.builder().magic(cs.loadUint(2).intValue()).next(cs.loadRef()).build();
+    return VmcEnvelope.builder().magic(cs.loadUintAsInt(2)).next(cs.loadRef()).build();
   }
 }
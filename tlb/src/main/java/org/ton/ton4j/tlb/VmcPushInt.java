@@ -27,7 +27,7 @@ public class VmcPushInt implements VmCont, Serializable {
 
   public static VmcPushInt deserialize(CellSlice cs) {
     return VmcPushInt.builder()
-        .magic(cs.loadUint(2).intValue())
+        .magic(cs.loadUintAsInt(2))
         .next(VmCont.deserialize(CellSlice.beginParse(cs.loadRef())))
         .build();
   }
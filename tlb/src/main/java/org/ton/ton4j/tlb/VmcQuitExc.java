@@ -20,6 +20,6 @@ public class VmcQuitExc implements VmCont, Serializable {
   }
 
   public static VmcQuitExc deserialize(CellSlice cs) {
-    return VmcQuitExc.builder().magic(cs.loadUint(4).intValue()).build();
+    return VmcQuitExc.builder().magic(cs.loadUintAsInt(4)).build();
   }
 }
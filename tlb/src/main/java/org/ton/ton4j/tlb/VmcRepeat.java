@@ -29,7 +29,7 @@ public class VmcRepeat implements VmCont, Serializable {
 
   public static VmcRepeat deserialize(CellSlice cs) {
     return VmcRepeat.builder()
-        .magic(cs.loadUint(5).intValue())
+        .magic(cs.loadUintAsInt(5))
         .count(cs.loadUint(63))
         .body(VmCont.deserialize(CellSlice.beginParse(cs.loadRef())))
         .after(VmCont.deserialize(CellSlice.beginParse(cs.loadRef())))
@@ -26,7 +26,7 @@ public class VmcStd implements VmCont, Serializable {
 
   public static VmcStd deserialize(CellSlice cs) {
     return VmcStd.builder()
-        .magic(cs.loadUint(2).intValue())
+        .magic(cs.loadUintAsInt(2))
         .cdata(VmControlData.deserialize(cs))
         .code(VmCellSlice.deserialize(cs))
         .build();
@@ -7,7 +7,7 @@ public interface WorkchainDescr {
   Cell toCell();
 
   static WorkchainDescr deserialize(CellSlice cs) {
-    int magic = cs.preloadUint(8).intValue();
+    int magic = cs.preloadUintAsInt(8);
 
     if (magic == 0xa6) {
       return WorkchainDescrV1.deserialize(cs);
@@ -0,0 +1,50 @@
+package org.ton.ton4j.utils;
+
+import java.util.zip.Checksum;
+
+/**
+ * CRC-16/XMODEM (poly 0x1021, init 0, no reflection), as used in user-friendly addresses and
+ * get-method ids. Table driven, one lookup per byte, and can be updated incrementally like {@link
+ * java.util.zip.CRC32C}.
+ */
+public final class Crc16 implements Checksum {
+
+  private static final int POLYNOMIAL = 0x1021;
+  private static final int[] TABLE = new int[256];
+
+  static {
+    for (int i = 0; i < 256; i++) {
+      int crc = i << 8;
+      for (int j = 0; j < 8; j++) {
+        crc = (crc & 0x8000) != 0 ? (crc << 1) ^ POLYNOMIAL : crc << 1;
+      }
+      TABLE[i] = crc & 0xffff;
+    }
+  }
+
+  private int crc;
+
+  @Override
+  public void update(int b) {
+    crc = ((crc << 8) ^ TABLE[((crc >>> 8) ^ b) & 0xff]) & 0xffff;
+  }
+
+  @Override
+  public void update(byte[] b, int off, int len) {
+    int c = crc;
+    for (int i = off, end = off + len; i < end; i++) {
+      c = ((c << 8) ^ TABLE[((c >>> 8) ^ b[i]) & 0xff]) & 0xffff;
+    }
+    crc = c;
+  }
+
+  @Override
+  public long getValue() {
+    return crc;
+  }
+
+  @Override
+  public void reset() {
+    crc = 0;
+  }
+}
@@ -28,6 +28,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.zip.CRC32;
 import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
@@ -93,6 +94,16 @@ public class Utils {
   private static final BigInteger BI_MIO1 = BigInteger.valueOf(MIO1);
   private static final BigDecimal BD_MIO1 = BigDecimal.valueOf(MIO1);
 
+  private static final ThreadLocal<MessageDigest> SHA256_DIGEST =
+      ThreadLocal.withInitial(
+          () -> {
+            try {
+              return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+              throw new RuntimeException(ex);
+            }
+          });
+
   public enum OS {
     WINDOWS,
     WINDOWS_ARM,
@@ -105,9 +116,40 @@ public class Utils {
 
   /** uses POLY 0x1EDC6F41 */
   public static Long getCRC32ChecksumAsLong(byte[] bytes) {
+    return getCRC32ChecksumAsLong(bytes, 0, bytes.length);
+  }
+
+  /** CRC32C of len bytes starting at off, without copying them. */
+  public static long getCRC32ChecksumAsLong(byte[] bytes, int off, int len) {
+    CRC32C crc32c = new CRC32C();
+    crc32c.update(bytes, off, len);
+    return crc32c.getValue();
+  }
+
+  /** CRC32C of the remaining bytes of the buffer, the buffer position is not changed. */
+  public static long getCRC32ChecksumAsLong(ByteBuffer buffer) {
     CRC32C crc32c = new CRC32C();
-    crc32c.update(bytes, 0, bytes.length);
-    return crc32c.getValue() & 0x00000000ffffffffL;
+    crc32c.update(buffer.duplicate());
+    return crc32c.getValue();
+  }
+
+  /**
+   * Returns new CRC32C checksum for incremental updates, e.g. while BoC is streamed. The JDK
+   * implementation is intrinsified with CPU crc32 instructions where available.
+   *
+   * @return Checksum
+   */
+  public static Checksum newCRC32Checksum() {
+    return new CRC32C();
+  }
+
+  /**
+   * Returns new CRC-16/XMODEM checksum for incremental updates.
+   *
+   * @return Checksum
+   */
+  public static Checksum newCRC16Checksum() {
+    return new Crc16();
   }
 
   public static String getCRC32ChecksumAsHex(byte[] bytes) {
@@ -119,15 +161,9 @@ public class Utils {
   }
 
   public static byte[] getCRC32ChecksumAsBytesReversed(byte[] bytes) {
-    byte[] b = long4BytesToBytes(getCRC32ChecksumAsLong(bytes));
-
-    byte[] reversed = new byte[4];
-    reversed[0] = b[3];
-    reversed[1] = b[2];
-    reversed[2] = b[1];
-    reversed[3] = b[0];
-
-    return reversed;
+    long crc = getCRC32ChecksumAsLong(bytes, 0, bytes.length);
+    // little-endian, as stored in BoC
+    return new byte[] {(byte) crc, (byte) (crc >>> 8), (byte) (crc >>> 16), (byte) (crc >>> 24)};
   }
 
   /**
@@ -227,20 +263,9 @@ public class Utils {
 
   // CRC-16/XMODEM
   public static int getCRC16ChecksumAsInt(byte[] bytes) {
-    int crc = 0x0000;
-    int polynomial = 0x1021;
-
-    for (byte b : bytes) {
-      for (int i = 0; i < 8; i++) {
-        boolean bit = ((b >> (7 - i) & 1) == 1);
-        boolean c15 = ((crc >> 15 & 1) == 1);
-        crc <<= 1;
-        if (c15 ^ bit) crc ^= polynomial;
-      }
-    }
-
-    crc &= 0xffff;
-    return crc;
+    Crc16 crc16 = new Crc16();
+    crc16.update(bytes, 0, bytes.length);
+    return (int) crc16.getValue();
   }
 
   public static int calculateMethodId(String methodName) {
@@ -298,12 +323,20 @@ public class Utils {
   }
 
   public static byte[] sha256AsArray(byte[] bytes) {
-    try {
-      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
-      return digest.digest(bytes);
-    } catch (NoSuchAlgorithmException ex) {
-      throw new RuntimeException(ex);
-    }
+    return getSha256Digest().digest(bytes);
+  }
+
+  /**
+   * Returns SHA-256 digest owned by the calling thread, reset and ready for updates. The same
+   * instance is returned on every call from the thread, so finish it with digest() before calling
+   * code that may hash as well.
+   *
+   * @return MessageDigest
+   */
+  public static MessageDigest getSha256Digest() {
+    MessageDigest digest = SHA256_DIGEST.get();
+    digest.reset();
+    return digest;
   }
 
   public static byte[] sha1AsArray(byte[] bytes) {
@@ -6,7 +6,9 @@ import static org.ton.ton4j.utils.Utils.*;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 import java.util.Locale;
+import java.util.zip.Checksum;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.DecoderException;
 import org.bouncycastle.util.BigIntegers;
@@ -88,6 +90,26 @@ public class TestUtils {
     assertThat(crc32).isEqualTo(2285480319L);
   }
 
+  @Test
+  public void testIncrementalChecksums() {
+    byte[] data = "This is a string".getBytes();
+
+    Checksum crc32c = Utils.newCRC32Checksum();
+    crc32c.update(data, 0, 5);
+    crc32c.update(ByteBuffer.wrap(data, 5, data.length - 5));
+    assertThat(crc32c.getValue()).isEqualTo(getCRC32ChecksumAsLong(data));
+    assertThat(getCRC32ChecksumAsLong(ByteBuffer.wrap(data))).isEqualTo(crc32c.getValue());
+
+    Checksum crc16 = Utils.newCRC16Checksum();
+    for (byte b : data) {
+      crc16.update(b);
+    }
+    assertThat((int) crc16.getValue()).isEqualTo(getCRC16ChecksumAsInt(data));
+    crc16.reset();
+    crc16.update("123456789".getBytes(), 0, 9);
+    assertThat(crc16.getValue()).isEqualTo(0x31c3L);
+  }
+
   @Test
   public void testCrc32AsUnsignedBytes() {
     byte[] crc32 = Utils.getCRC32ChecksumAsBytes("ABC".getBytes());